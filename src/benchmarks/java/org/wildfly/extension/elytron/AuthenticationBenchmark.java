@@ -0,0 +1,112 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.extension.elytron;
+
+import static org.wildfly.extension.elytron.Capabilities.SECURITY_REALM_RUNTIME_CAPABILITY;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wildfly.security.auth.permission.LoginPermission;
+import org.wildfly.security.auth.server.SecurityDomain;
+import org.wildfly.security.auth.server.SecurityIdentity;
+import org.wildfly.security.auth.server.SecurityRealm;
+import org.wildfly.security.auth.server.ServerAuthenticationContext;
+import org.wildfly.security.evidence.PasswordGuessEvidence;
+import org.wildfly.security.permission.PermissionVerifier;
+
+/**
+ * Benchmark of {@link ServerAuthenticationContext} flows against each type of realm defined in {@code realms-test.xml}.
+ * <p>
+ * Each realm is placed in its own {@link SecurityDomain} so the results reflect the cost of the realm rather than the
+ * mappers of a particular domain, see {@link MapperBenchmark} for the mappers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthenticationBenchmark {
+
+    private static final String USER = "firstUser";
+    private static final String PASSWORD = "clearPassword";
+
+    @Param({ "HashedPropertyRealm", "ClearPropertyRealm", "FilesystemRealm" })
+    public String realm;
+
+    private BenchmarkSubsystem subsystem;
+    private SecurityDomain domain;
+
+    @Setup
+    public void setup() throws Exception {
+        subsystem = BenchmarkSubsystem.boot("realms-test.xml");
+        SecurityRealm securityRealm = subsystem.getService(SECURITY_REALM_RUNTIME_CAPABILITY, realm, SecurityRealm.class);
+
+        SecurityDomain.Builder builder = SecurityDomain.builder();
+        builder.addRealm(realm, securityRealm).build();
+        builder.setDefaultRealmName(realm);
+        builder.setPermissionMapper((permissionMappable, roles) -> PermissionVerifier.from(new LoginPermission()));
+        domain = builder.build();
+
+        // Fail fast rather than measuring a failing flow.
+        authenticate();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        subsystem.close();
+    }
+
+    /**
+     * Look up the identity without verifying any evidence, as performed before a mechanism requests credentials.
+     */
+    @Benchmark
+    public boolean exists() throws Exception {
+        ServerAuthenticationContext context = domain.createNewAuthenticationContext();
+        context.setAuthenticationName(USER);
+        return context.exists();
+    }
+
+    /**
+     * A complete password authentication, verifying the password and authorizing the resulting identity.
+     */
+    @Benchmark
+    public SecurityIdentity authenticate() throws Exception {
+        ServerAuthenticationContext context = domain.createNewAuthenticationContext();
+        context.setAuthenticationName(USER);
+        if (context.verifyEvidence(new PasswordGuessEvidence(PASSWORD.toCharArray())) == false || context.authorize() == false) {
+            throw new IllegalStateException("Authentication of " + USER + " failed against " + realm);
+        }
+        context.succeed();
+        return context.getAuthorizedIdentity();
+    }
+
+}
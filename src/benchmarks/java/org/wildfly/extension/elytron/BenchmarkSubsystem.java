@@ -0,0 +1,78 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.extension.elytron;
+
+import java.security.Provider;
+import java.security.Security;
+
+import org.jboss.as.controller.capability.RuntimeCapability;
+import org.jboss.as.subsystem.test.AbstractSubsystemTest;
+import org.jboss.as.subsystem.test.KernelServices;
+import org.wildfly.security.WildFlyElytronProvider;
+
+/**
+ * The subsystem booted from one of the test configurations for use by a benchmark.
+ * <p>
+ * The subsystem is booted in the same way as by the test cases so the benchmarks exercise the services exactly as
+ * configured by the subsystem, the {@link WildFlyElytronProvider} is registered for the lifetime of the benchmark JVM.
+ */
+class BenchmarkSubsystem extends AbstractSubsystemTest {
+
+    private static final Provider PROVIDER = new WildFlyElytronProvider();
+
+    private final KernelServices services;
+
+    private BenchmarkSubsystem(String subsystemXml) throws Exception {
+        super(ElytronExtension.SUBSYSTEM_NAME, new ElytronExtension());
+        initializeParser();
+        services = createKernelServicesBuilder(new TestEnvironment()).setSubsystemXmlResource(subsystemXml).build();
+        if (services.isSuccessfulBoot() == false) {
+            Throwable bootError = services.getBootError();
+            cleanup();
+            throw new IllegalStateException(bootError);
+        }
+    }
+
+    /**
+     * Boot the subsystem from a test configuration.
+     *
+     * @param subsystemXml the name of the configuration within the test resources.
+     * @return the booted subsystem, which must be closed once the benchmark completes.
+     * @throws Exception if the subsystem fails to boot.
+     */
+    static BenchmarkSubsystem boot(String subsystemXml) throws Exception {
+        registerProvider();
+        return new BenchmarkSubsystem(subsystemXml);
+    }
+
+    static synchronized void registerProvider() {
+        if (Security.getProvider(PROVIDER.getName()) == null) {
+            Security.insertProviderAt(PROVIDER, 1);
+        }
+    }
+
+    <T> T getService(RuntimeCapability<Void> capability, String name, Class<T> type) {
+        return type.cast(services.getContainer().getRequiredService(capability.getCapabilityServiceName(name)).getValue());
+    }
+
+    void close() throws Exception {
+        cleanup();
+    }
+
+}
@@ -0,0 +1,149 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.extension.elytron;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wildfly.security.auth.principal.NamePrincipal;
+import org.wildfly.security.auth.realm.FileSystemSecurityRealm;
+import org.wildfly.security.auth.server.ModifiableRealmIdentity;
+import org.wildfly.security.auth.server.ModifiableSecurityRealm;
+import org.wildfly.security.auth.server.RealmIdentity;
+import org.wildfly.security.authz.MapAttributes;
+import org.wildfly.security.credential.PasswordCredential;
+import org.wildfly.security.evidence.PasswordGuessEvidence;
+import org.wildfly.security.password.PasswordFactory;
+import org.wildfly.security.password.interfaces.ClearPassword;
+import org.wildfly.security.password.spec.ClearPasswordSpec;
+
+/**
+ * Benchmark of identity lookups and modifications against a filesystem realm, comparing the existing layout with the
+ * identity cache and the write-behind journal which can be configured for the filesystem-realm resource.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FileSystemRealmBenchmark {
+
+    private static final String PASSWORD = "password";
+
+    @Param({ "plain", "cached", "journaled", "cached-journaled" })
+    public String layout;
+
+    @Param({ "1000" })
+    public int identities;
+
+    private Path directory;
+    private JournalingModifiableSecurityRealm journalingRealm;
+    private ModifiableSecurityRealm realm;
+
+    @Setup
+    public void setup() throws Exception {
+        BenchmarkSubsystem.registerProvider();
+        directory = Files.createTempDirectory("filesystem-realm-benchmark");
+        Path rootPath = directory.resolve("realm");
+        FileSystemSecurityRealm fileSystemRealm = new FileSystemSecurityRealm(rootPath, 2);
+
+        PasswordCredential credential = new PasswordCredential(PasswordFactory.getInstance(ClearPassword.ALGORITHM_CLEAR)
+                .generatePassword(new ClearPasswordSpec(PASSWORD.toCharArray())));
+        for (int i = 0; i < identities; i++) {
+            ModifiableRealmIdentity identity = fileSystemRealm.getRealmIdentityForUpdate(new NamePrincipal("user" + i));
+            identity.create();
+            identity.setCredentials(Collections.singleton(credential));
+            identity.setAttributes(attributes(i));
+            identity.dispose();
+        }
+
+        realm = fileSystemRealm;
+        if (layout.endsWith("journaled")) {
+            journalingRealm = JournalingModifiableSecurityRealm.open(realm, directory.resolve("realm.journal"), 1000);
+            realm = journalingRealm;
+        }
+        if (layout.startsWith("cached")) {
+            realm = new CachingModifiableSecurityRealm(realm, identities, -1, 0);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (journalingRealm != null) {
+            journalingRealm.close();
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    /**
+     * Look up a random identity and verify its password.
+     */
+    @Benchmark
+    public boolean lookup() throws Exception {
+        RealmIdentity identity = realm.getRealmIdentity(new NamePrincipal("user" + ThreadLocalRandom.current().nextInt(identities)));
+        try {
+            return identity.verifyEvidence(new PasswordGuessEvidence(PASSWORD.toCharArray()));
+        } finally {
+            identity.dispose();
+        }
+    }
+
+    /**
+     * Replace the attributes of a random identity, as performed by the add-attribute operation.
+     */
+    @Benchmark
+    public void write() throws Exception {
+        int i = ThreadLocalRandom.current().nextInt(identities);
+        ModifiableRealmIdentity identity = realm.getRealmIdentityForUpdate(new NamePrincipal("user" + i));
+        try {
+            identity.setAttributes(attributes(ThreadLocalRandom.current().nextInt()));
+        } finally {
+            identity.dispose();
+        }
+    }
+
+    private static MapAttributes attributes(int value) {
+        MapAttributes attributes = new MapAttributes();
+        attributes.addLast("Roles", "User");
+        attributes.addLast("Value", Integer.toString(value));
+        return attributes;
+    }
+
+}
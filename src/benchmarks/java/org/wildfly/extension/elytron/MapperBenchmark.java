@@ -0,0 +1,100 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.extension.elytron;
+
+import static org.wildfly.extension.elytron.Capabilities.SECURITY_DOMAIN_RUNTIME_CAPABILITY;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wildfly.security.auth.server.SecurityDomain;
+import org.wildfly.security.auth.server.SecurityIdentity;
+import org.wildfly.security.auth.server.ServerAuthenticationContext;
+
+/**
+ * Benchmark of the mapper chain of the {@code MyDomain} security domain defined in {@code domain-test.xml}.
+ * <p>
+ * Authenticating against the domain passes the name through the pre and post realm regex name rewriters and the regex
+ * realm mapper, then decodes the roles of the identity and passes them through the aggregate of the prefix and suffix
+ * role mappers before the custom permission mapper is called.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    private BenchmarkSubsystem subsystem;
+    private SecurityDomain domain;
+
+    @Setup
+    public void setup() throws Exception {
+        subsystem = BenchmarkSubsystem.boot("domain-test.xml");
+        domain = subsystem.getService(SECURITY_DOMAIN_RUNTIME_CAPABILITY, "MyDomain", SecurityDomain.class);
+        if (authorize("firstUser").getRoles().contains("prefixAdminsuffix") == false) {
+            throw new IllegalStateException("Roles not mapped");
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        subsystem.close();
+    }
+
+    /**
+     * Authorize an identity of the default realm, the realm mapper finds no realm in the name.
+     */
+    @Benchmark
+    public SecurityIdentity defaultRealm() throws Exception {
+        return authorize("firstUser");
+    }
+
+    /**
+     * Authorize an identity of a realm selected by the realm mapper, the name is rewritten by all three name rewriters.
+     */
+    @Benchmark
+    public SecurityIdentity mappedRealm() throws Exception {
+        return authorize("xser1@PropRealm");
+    }
+
+    private SecurityIdentity authorize(String name) throws Exception {
+        ServerAuthenticationContext context = domain.createNewAuthenticationContext();
+        context.setAuthenticationName(name);
+        if (context.authorize() == false) {
+            throw new IllegalStateException("Authorization of " + name + " failed");
+        }
+        context.succeed();
+        // Force the mapped roles to be evaluated.
+        context.getAuthorizedIdentity().getRoles().contains("prefixAdminsuffix");
+        return context.getAuthorizedIdentity();
+    }
+
+}
@@ -0,0 +1,111 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.extension.elytron;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wildfly.security.auth.principal.NamePrincipal;
+import org.wildfly.security.auth.server.NameRewriter;
+import org.wildfly.security.auth.server.RealmMapper;
+import org.wildfly.security.auth.util.RegexNameRewriter;
+import org.wildfly.security.auth.util.RegexNameValidatingRewriter;
+import org.wildfly.security.auth.util.SimpleRegexRealmMapper;
+
+/**
+ * Benchmark of the regex realm mapper and name rewriters, comparing the {@link OptimizedRegex} implementations used by the
+ * subsystem with the Elytron implementations.
+ * <p>
+ * The names are cycled through a number of distinct names, half of which match the patterns.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegexBenchmark {
+
+    private static final Pattern REALM_PATTERN = Pattern.compile(".*@(.*)");
+    private static final Pattern REWRITE_PATTERN = Pattern.compile("(.*)@.*");
+    private static final Pattern VALIDATE_PATTERN = Pattern.compile("^user-[0-9]+@");
+
+    @Param({ "elytron", "optimized" })
+    public String implementation;
+
+    @Param({ "64", "65536" })
+    public int distinctNames;
+
+    private RealmMapper realmMapper;
+    private NameRewriter nameRewriter;
+    private NameRewriter validatingRewriter;
+    private NamePrincipal[] principals;
+    private int next;
+
+    @Setup
+    public void setup() {
+        if ("optimized".equals(implementation)) {
+            realmMapper = OptimizedRegex.realmMapper(REALM_PATTERN, null, null);
+            nameRewriter = OptimizedRegex.nameRewriter(REWRITE_PATTERN, "$1", false);
+            validatingRewriter = OptimizedRegex.nameValidatingRewriter(VALIDATE_PATTERN, true);
+        } else {
+            realmMapper = new SimpleRegexRealmMapper(REALM_PATTERN);
+            nameRewriter = new RegexNameRewriter(REWRITE_PATTERN, "$1", false);
+            validatingRewriter = new RegexNameValidatingRewriter(VALIDATE_PATTERN, true);
+        }
+
+        principals = new NamePrincipal[distinctNames];
+        for (int i = 0; i < distinctNames; i++) {
+            principals[i] = new NamePrincipal(i % 2 == 0 ? "user-" + i + "@Realm" + i % 8 : "admin" + i);
+        }
+    }
+
+    private NamePrincipal nextPrincipal() {
+        NamePrincipal principal = principals[next];
+        next = (next + 1) % principals.length;
+        return principal;
+    }
+
+    @Benchmark
+    public String realmMapping() {
+        return realmMapper.getRealmMapping(nextPrincipal(), null);
+    }
+
+    @Benchmark
+    public String rewriteName() {
+        return nameRewriter.rewriteName(nextPrincipal().getName());
+    }
+
+    @Benchmark
+    public String validateName() {
+        return validatingRewriter.rewriteName(nextPrincipal().getName());
+    }
+
+}
@@ -0,0 +1,119 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.extension.elytron;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.wildfly.security.authz.RoleMapper;
+import org.wildfly.security.authz.Roles;
+
+/**
+ * Benchmark of a tree of logical role mappers nested ten levels deep, comparing the {@link OptimizedRoleMapper} plan used
+ * by the subsystem with composing the mappers using {@link RoleMapper#and(RoleMapper)} and the related methods.
+ * <p>
+ * The roles mapped are cycled through a number of distinct sets, with few distinct sets every evaluation of the plan is
+ * served from its cache whilst with many most are not.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RoleMapperBenchmark {
+
+    private static final int LEVELS = 10;
+
+    @Param({ "composed", "optimized" })
+    public String implementation;
+
+    @Param({ "16", "4096" })
+    public int distinctRoleSets;
+
+    private RoleMapper roleMapper;
+    private Roles[] inputs;
+    private int next;
+
+    @Setup
+    public void setup() {
+        roleMapper = "optimized".equals(implementation)
+                ? tree(OptimizedRoleMapper::and, OptimizedRoleMapper::or, OptimizedRoleMapper::minus, OptimizedRoleMapper::xor,
+                        OptimizedRoleMapper::addPrefix, OptimizedRoleMapper::addSuffix, OptimizedRoleMapper::constant)
+                : tree(RoleMapper::and, RoleMapper::or, RoleMapper::minus, RoleMapper::xor,
+                        p -> r -> r.addPrefix(p), s -> r -> r.addSuffix(s), c -> r -> Roles.fromSet(c));
+
+        inputs = new Roles[distinctRoleSets];
+        for (int i = 0; i < distinctRoleSets; i++) {
+            inputs[i] = Roles.fromSet(new HashSet<>(Arrays.asList("Employee", "Role" + i, "Role" + (i + 1) % 7, "Group" + i % 3)));
+        }
+    }
+
+    @Benchmark
+    public void mapRoles(Blackhole blackhole) {
+        Roles input = inputs[next];
+        next = (next + 1) % inputs.length;
+        // Iterate the result as a lazily composed Roles does all of its work when read.
+        roleMapper.mapRoles(input).forEach(blackhole::consume);
+    }
+
+    private static RoleMapper tree(BinaryOperator<RoleMapper> and, BinaryOperator<RoleMapper> or, BinaryOperator<RoleMapper> minus,
+            BinaryOperator<RoleMapper> xor, Function<String, RoleMapper> prefix, Function<String, RoleMapper> suffix,
+            Function<Set<String>, RoleMapper> constant) {
+        RoleMapper current = RoleMapper.IDENTITY_ROLE_MAPPER;
+        for (int level = 0; level < LEVELS; level++) {
+            switch (level % 5) {
+                case 0:
+                    current = or.apply(current, prefix.apply("Level" + level + "-"));
+                    break;
+                case 1:
+                    current = or.apply(current, suffix.apply("-Level" + level));
+                    break;
+                case 2:
+                    current = minus.apply(current, constant.apply(new HashSet<>(Arrays.asList("Group0", "Level0-Group0"))));
+                    break;
+                case 3:
+                    current = xor.apply(current, or.apply(constant.apply(new HashSet<>(Arrays.asList("Constant", "Employee"))),
+                            RoleMapper.IDENTITY_ROLE_MAPPER));
+                    break;
+                default:
+                    current = or.apply(and.apply(current, or.apply(RoleMapper.IDENTITY_ROLE_MAPPER,
+                            constant.apply(new HashSet<>(Arrays.asList("Constant"))))), suffix.apply("-Level" + level));
+            }
+        }
+        return current;
+    }
+
+}
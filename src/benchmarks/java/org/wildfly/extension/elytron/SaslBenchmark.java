@@ -0,0 +1,151 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.extension.elytron;
+
+import static org.wildfly.extension.elytron.Capabilities.SASL_AUTHENTICATION_FACTORY_RUNTIME_CAPABILITY;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import javax.security.auth.callback.Callback;
+import javax.security.auth.callback.CallbackHandler;
+import javax.security.auth.callback.NameCallback;
+import javax.security.auth.callback.PasswordCallback;
+import javax.security.auth.callback.UnsupportedCallbackException;
+import javax.security.sasl.RealmCallback;
+import javax.security.sasl.Sasl;
+import javax.security.sasl.SaslClient;
+import javax.security.sasl.SaslServer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wildfly.security.auth.callback.ChannelBindingCallback;
+import org.wildfly.security.auth.callback.CredentialCallback;
+import org.wildfly.security.auth.server.SaslAuthenticationFactory;
+import org.wildfly.security.credential.PasswordCredential;
+import org.wildfly.security.password.PasswordFactory;
+import org.wildfly.security.password.interfaces.ClearPassword;
+import org.wildfly.security.password.spec.ClearPasswordSpec;
+
+/**
+ * Benchmark of complete SASL authentications using the {@code MySaslAuth} sasl-authentication-factory defined in
+ * {@code sasl-test.xml}.
+ * <p>
+ * Each authentication checks the mechanism is offered by the factory, creates the server and client for it and exchanges
+ * challenges and responses until both sides are complete.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SaslBenchmark {
+
+    private static final String USER = "firstUser";
+    private static final String PASSWORD = "clearPassword";
+    private static final String PROTOCOL = "myProtocol";
+    private static final String SERVER_NAME = "TestingServer";
+
+    @Param({ "PLAIN", "DIGEST-SHA", "SCRAM-SHA-1" })
+    public String mechanism;
+
+    private BenchmarkSubsystem subsystem;
+    private SaslAuthenticationFactory authenticationFactory;
+    private CallbackHandler clientCallbackHandler;
+
+    @Setup
+    public void setup() throws Exception {
+        subsystem = BenchmarkSubsystem.boot("sasl-test.xml");
+        authenticationFactory = subsystem.getService(SASL_AUTHENTICATION_FACTORY_RUNTIME_CAPABILITY, "MySaslAuth", SaslAuthenticationFactory.class);
+        clientCallbackHandler = clientCallbackHandler(mechanism.replaceFirst("-.*", "").toLowerCase(Locale.ENGLISH));
+        authenticate();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        subsystem.close();
+    }
+
+    @Benchmark
+    public String authenticate() throws Exception {
+        if (authenticationFactory.getMechanismNames().contains(mechanism) == false) {
+            throw new IllegalStateException(mechanism + " not offered");
+        }
+
+        SaslServer server = authenticationFactory.createMechanism(mechanism);
+        SaslClient client = Sasl.createSaslClient(new String[] { mechanism }, USER, PROTOCOL, SERVER_NAME,
+                Collections.<String, Object>emptyMap(), clientCallbackHandler);
+        try {
+            byte[] message = client.hasInitialResponse() ? client.evaluateChallenge(new byte[0]) : new byte[0];
+            while (server.isComplete() == false || client.isComplete() == false) {
+                if (server.isComplete() == false) {
+                    message = server.evaluateResponse(message);
+                }
+                if (client.isComplete() == false) {
+                    message = client.evaluateChallenge(message);
+                }
+            }
+            return server.getAuthorizationID();
+        } finally {
+            client.dispose();
+            server.dispose();
+        }
+    }
+
+    /**
+     * Create the client callback handler, the mechanism realm names configured in {@code sasl-test.xml} are the name of the
+     * mechanism family followed by {@code Realm}.
+     */
+    private static CallbackHandler clientCallbackHandler(String family) throws Exception {
+        final String realm = Character.toUpperCase(family.charAt(0)) + family.substring(1) + "Realm";
+        final PasswordCredential credential = new PasswordCredential(PasswordFactory.getInstance(ClearPassword.ALGORITHM_CLEAR)
+                .generatePassword(new ClearPasswordSpec(PASSWORD.toCharArray())));
+        return callbacks -> {
+            for (Callback callback : callbacks) {
+                if (callback instanceof NameCallback) {
+                    ((NameCallback) callback).setName(USER);
+                } else if (callback instanceof RealmCallback) {
+                    ((RealmCallback) callback).setText(realm);
+                } else if (callback instanceof PasswordCallback) {
+                    ((PasswordCallback) callback).setPassword(PASSWORD.toCharArray());
+                } else if (callback instanceof CredentialCallback && ClearPassword.ALGORITHM_CLEAR.equals(((CredentialCallback) callback).getAlgorithm())) {
+                    ((CredentialCallback) callback).setCredential(credential);
+                } else if (callback instanceof ChannelBindingCallback) {
+                    ((ChannelBindingCallback) callback).setBindingType("type");
+                    ((ChannelBindingCallback) callback).setBindingData(new byte[] { 0x12, 0x34 });
+                } else {
+                    throw new UnsupportedCallbackException(callback);
+                }
+            }
+        };
+    }
+
+}
@@ -0,0 +1,137 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.extension.elytron;
+
+import static org.wildfly.extension.elytron.Capabilities.SSL_CONTEXT_RUNTIME_CAPABILITY;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult.HandshakeStatus;
+import javax.net.ssl.SSLSession;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of TLS handshakes between the server and client SSL contexts defined in {@code tls-test.xml}.
+ * <p>
+ * The handshake is performed in memory between two {@link SSLEngine} instances so the results are not affected by the
+ * network. Where resumption is enabled the client engine is created for a peer so the session is resumed after the first
+ * handshake, otherwise every handshake is a full handshake.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TlsBenchmark {
+
+    private static final int MAX_HANDSHAKE_STEPS = 100;
+
+    @Param({ "NoAuth", "Auth" })
+    public String clientAuthentication;
+
+    @Param({ "false", "true" })
+    public boolean resumption;
+
+    private CredentialStoreUtility credentialStore;
+    private BenchmarkSubsystem subsystem;
+    private SSLContext serverContext;
+    private SSLContext clientContext;
+
+    @Setup
+    public void setup() throws Exception {
+        BenchmarkSubsystem.registerProvider();
+        // The credential store referenced by tls-test.xml, created as by TlsTestCase.
+        credentialStore = new CredentialStoreUtility("target/tlstest.keystore", "super_secret");
+        credentialStore.addEntry("the-key-alias", "Elytron");
+        credentialStore.addEntry("master-password-alias", "Elytron");
+
+        subsystem = BenchmarkSubsystem.boot("tls-test.xml");
+        serverContext = subsystem.getService(SSL_CONTEXT_RUNTIME_CAPABILITY, "ServerSslContext" + clientAuthentication, SSLContext.class);
+        clientContext = subsystem.getService(SSL_CONTEXT_RUNTIME_CAPABILITY, "ClientSslContext" + clientAuthentication, SSLContext.class);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        subsystem.close();
+        credentialStore.cleanUp();
+    }
+
+    @Benchmark
+    public SSLSession handshake() throws Exception {
+        SSLEngine serverEngine = serverContext.createSSLEngine();
+        SSLEngine clientEngine = resumption ? clientContext.createSSLEngine("localhost", 443) : clientContext.createSSLEngine();
+
+        int packetBufferSize = Math.max(serverEngine.getSession().getPacketBufferSize(), clientEngine.getSession().getPacketBufferSize());
+        int applicationBufferSize = Math.max(serverEngine.getSession().getApplicationBufferSize(), clientEngine.getSession().getApplicationBufferSize());
+        ByteBuffer clientToServer = ByteBuffer.allocate(packetBufferSize * 4);
+        ByteBuffer serverToClient = ByteBuffer.allocate(packetBufferSize * 4);
+        ByteBuffer application = ByteBuffer.allocate(applicationBufferSize);
+
+        clientEngine.beginHandshake();
+        serverEngine.beginHandshake();
+        for (int i = 0; clientEngine.getHandshakeStatus() != HandshakeStatus.NOT_HANDSHAKING
+                || serverEngine.getHandshakeStatus() != HandshakeStatus.NOT_HANDSHAKING; i++) {
+            if (i == MAX_HANDSHAKE_STEPS) {
+                throw new IllegalStateException("Handshake did not complete");
+            }
+            handshakeStep(clientEngine, serverToClient, clientToServer, application);
+            handshakeStep(serverEngine, clientToServer, serverToClient, application);
+        }
+        return clientEngine.getSession();
+    }
+
+    private static void handshakeStep(SSLEngine engine, ByteBuffer in, ByteBuffer out, ByteBuffer application) throws Exception {
+        switch (engine.getHandshakeStatus()) {
+            case NEED_TASK:
+                Runnable task;
+                while ((task = engine.getDelegatedTask()) != null) {
+                    task.run();
+                }
+                break;
+            case NEED_WRAP:
+                engine.wrap(ByteBuffer.allocate(0), out);
+                break;
+            case NEED_UNWRAP:
+                in.flip();
+                engine.unwrap(in, application);
+                in.compact();
+                application.clear();
+                break;
+            default:
+                break;
+        }
+    }
+
+}
@@ -20,6 +20,8 @@ package org.wildfly.extension.elytron;
 import static org.wildfly.extension.elytron.Capabilities.SECURITY_REALM_CAPABILITY;
 import static org.wildfly.extension.elytron.Capabilities.SECURITY_REALM_RUNTIME_CAPABILITY;
 import static org.wildfly.extension.elytron.ElytronDefinition.commonDependencies;
+import static org.wildfly.extension.elytron.StartupDefinitions.getInitialMode;
+import static org.wildfly.extension.elytron.StartupDefinitions.startTimer;
 
 import org.jboss.as.controller.AbstractAddStepHandler;
 import org.jboss.as.controller.AttributeDefinition;
@@ -41,7 +43,6 @@ import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
 import org.jboss.msc.inject.Injector;
 import org.jboss.msc.service.ServiceBuilder;
-import org.jboss.msc.service.ServiceController.Mode;
 import org.jboss.msc.service.ServiceName;
 import org.jboss.msc.service.ServiceTarget;
 import org.jboss.msc.value.InjectedValue;
@@ -118,7 +119,8 @@ class AggregateRealmDefinition extends SimpleResourceDefinition {
             addRealmDependency(context, serviceBuilder, authorizationRealm, authorizationRealmValue);
 
             commonDependencies(serviceBuilder)
-                .setInitialMode(Mode.ACTIVE)
+                .setInitialMode(getInitialMode(context))
+                .addListener(startTimer(context))
                 .install();
         }
 
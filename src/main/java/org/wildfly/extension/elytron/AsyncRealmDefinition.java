@@ -0,0 +1,254 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.extension.elytron;
+
+import static org.wildfly.extension.elytron.Capabilities.SECURITY_REALM_CAPABILITY;
+import static org.wildfly.extension.elytron.Capabilities.SECURITY_REALM_RUNTIME_CAPABILITY;
+import static org.wildfly.extension.elytron.ElytronDefinition.commonDependencies;
+import static org.wildfly.extension.elytron.ElytronExtension.getRequiredService;
+import static org.wildfly.extension.elytron.StartupDefinitions.getInitialMode;
+import static org.wildfly.extension.elytron.StartupDefinitions.startTimer;
+
+import org.jboss.as.controller.AbstractAddStepHandler;
+import org.jboss.as.controller.AbstractRuntimeOnlyHandler;
+import org.jboss.as.controller.AttributeDefinition;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.OperationStepHandler;
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.PathElement;
+import org.jboss.as.controller.ResourceDefinition;
+import org.jboss.as.controller.RestartParentWriteAttributeHandler;
+import org.jboss.as.controller.SimpleAttributeDefinition;
+import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
+import org.jboss.as.controller.SimpleResourceDefinition;
+import org.jboss.as.controller.capability.RuntimeCapability;
+import org.jboss.as.controller.operations.validation.IntRangeValidator;
+import org.jboss.as.controller.operations.validation.LongRangeValidator;
+import org.jboss.as.controller.registry.AttributeAccess;
+import org.jboss.as.controller.registry.ManagementResourceRegistration;
+import org.jboss.as.controller.registry.OperationEntry;
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
+import org.jboss.msc.service.ServiceBuilder;
+import org.jboss.msc.service.ServiceController;
+import org.jboss.msc.service.ServiceController.State;
+import org.jboss.msc.service.ServiceName;
+import org.jboss.msc.service.ServiceTarget;
+import org.jboss.msc.service.StartException;
+import org.jboss.msc.value.InjectedValue;
+import org.wildfly.security.auth.server.SecurityRealm;
+
+/**
+ * A {@link ResourceDefinition} for a {@link SecurityRealm} which makes the calls to another realm on a bounded pool of
+ * threads, see {@link AsyncSecurityRealm}.
+ */
+class AsyncRealmDefinition extends SimpleResourceDefinition {
+
+    static final ServiceUtil<SecurityRealm> REALM_SERVICE_UTIL = ServiceUtil.newInstance(SECURITY_REALM_RUNTIME_CAPABILITY, ElytronDescriptionConstants.ASYNC_REALM, SecurityRealm.class);
+
+    static final SimpleAttributeDefinition REALM = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.REALM, ModelType.STRING, false)
+        .setMinSize(1)
+        .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
+        .setCapabilityReference(SECURITY_REALM_CAPABILITY, SECURITY_REALM_CAPABILITY, true)
+        .build();
+
+    static final SimpleAttributeDefinition MAX_CONCURRENCY = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.MAX_CONCURRENCY, ModelType.INT, true)
+        .setDefaultValue(new ModelNode(16))
+        .setValidator(new IntRangeValidator(1, true, true))
+        .setAllowExpression(true)
+        .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
+        .build();
+
+    static final SimpleAttributeDefinition QUEUE_LENGTH = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.QUEUE_LENGTH, ModelType.INT, true)
+        .setDefaultValue(new ModelNode(64))
+        .setValidator(new IntRangeValidator(0, true, true))
+        .setAllowExpression(true)
+        .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
+        .build();
+
+    static final SimpleAttributeDefinition CALL_TIMEOUT = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.CALL_TIMEOUT, ModelType.LONG, true)
+        .setDefaultValue(new ModelNode(30000L))
+        .setValidator(new LongRangeValidator(1L, true, true))
+        .setAllowExpression(true)
+        .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
+        .build();
+
+    static final AttributeDefinition[] ATTRIBUTES = new AttributeDefinition[] { REALM, MAX_CONCURRENCY, QUEUE_LENGTH, CALL_TIMEOUT };
+
+    // Runtime Attributes
+
+    static final SimpleAttributeDefinition ACTIVE_CALLS = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.ACTIVE_CALLS, ModelType.INT)
+        .setStorageRuntime()
+        .build();
+
+    static final SimpleAttributeDefinition QUEUED_CALLS = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.QUEUED_CALLS, ModelType.INT)
+        .setStorageRuntime()
+        .build();
+
+    static final SimpleAttributeDefinition REJECTED_CALLS = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.REJECTED_CALLS, ModelType.LONG)
+        .setStorageRuntime()
+        .build();
+
+    static final SimpleAttributeDefinition TIMED_OUT_CALLS = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.TIMED_OUT_CALLS, ModelType.LONG)
+        .setStorageRuntime()
+        .build();
+
+    private static final AbstractAddStepHandler ADD = new RealmAddHandler();
+    private static final OperationStepHandler REMOVE = new TrivialCapabilityServiceRemoveHandler(ADD, SECURITY_REALM_RUNTIME_CAPABILITY);
+
+    AsyncRealmDefinition() {
+        super(new Parameters(PathElement.pathElement(ElytronDescriptionConstants.ASYNC_REALM), ElytronExtension.getResourceDescriptionResolver(ElytronDescriptionConstants.ASYNC_REALM))
+            .setAddHandler(ADD)
+            .setRemoveHandler(REMOVE)
+            .setAddRestartLevel(OperationEntry.Flag.RESTART_RESOURCE_SERVICES)
+            .setRemoveRestartLevel(OperationEntry.Flag.RESTART_RESOURCE_SERVICES)
+            .setCapabilities(SECURITY_REALM_RUNTIME_CAPABILITY));
+    }
+
+    @Override
+    public void registerAttributes(ManagementResourceRegistration resourceRegistration) {
+        WriteAttributeHandler write = new WriteAttributeHandler(ElytronDescriptionConstants.ASYNC_REALM);
+        for (AttributeDefinition current : ATTRIBUTES) {
+            resourceRegistration.registerReadWriteAttribute(current, null, write);
+        }
+
+        resourceRegistration.registerReadOnlyAttribute(ACTIVE_CALLS, new AsyncRealmRuntimeHandler() {
+
+            @Override
+            void performRuntime(OperationContext context, AsyncSecurityRealm securityRealm) {
+                context.getResult().set(securityRealm.getActiveCalls());
+            }
+        });
+
+        resourceRegistration.registerReadOnlyAttribute(QUEUED_CALLS, new AsyncRealmRuntimeHandler() {
+
+            @Override
+            void performRuntime(OperationContext context, AsyncSecurityRealm securityRealm) {
+                context.getResult().set(securityRealm.getQueuedCalls());
+            }
+        });
+
+        resourceRegistration.registerReadOnlyAttribute(REJECTED_CALLS, new AsyncRealmRuntimeHandler() {
+
+            @Override
+            void performRuntime(OperationContext context, AsyncSecurityRealm securityRealm) {
+                context.getResult().set(securityRealm.getRejectedCalls());
+            }
+        });
+
+        resourceRegistration.registerReadOnlyAttribute(TIMED_OUT_CALLS, new AsyncRealmRuntimeHandler() {
+
+            @Override
+            void performRuntime(OperationContext context, AsyncSecurityRealm securityRealm) {
+                context.getResult().set(securityRealm.getTimedOutCalls());
+            }
+        });
+    }
+
+    private static ServiceName getRealmServiceName(String realmName) {
+        return SECURITY_REALM_RUNTIME_CAPABILITY.fromBaseCapability(realmName).getCapabilityServiceName(SecurityRealm.class);
+    }
+
+    private static class RealmAddHandler extends BaseAddHandler {
+
+        private RealmAddHandler() {
+            super(SECURITY_REALM_RUNTIME_CAPABILITY, ATTRIBUTES);
+        }
+
+        @Override
+        protected void performRuntime(OperationContext context, ModelNode operation, ModelNode model)
+                throws OperationFailedException {
+            ServiceTarget serviceTarget = context.getServiceTarget();
+            final String name = context.getCurrentAddressValue();
+            ServiceName realmName = getRealmServiceName(name);
+
+            String realm = REALM.resolveModelAttribute(context, model).asString();
+            final int maxConcurrency = MAX_CONCURRENCY.resolveModelAttribute(context, model).asInt();
+            final int queueLength = QUEUE_LENGTH.resolveModelAttribute(context, model).asInt();
+            final long callTimeout = CALL_TIMEOUT.resolveModelAttribute(context, model).asLong();
+
+            final InjectedValue<SecurityRealm> realmValue = new InjectedValue<SecurityRealm>();
+
+            TrivialService<SecurityRealm> asyncRealmService = new TrivialService<SecurityRealm>(new TrivialService.ValueSupplier<SecurityRealm>() {
+
+                private volatile AsyncSecurityRealm securityRealm;
+
+                @Override
+                public SecurityRealm get() throws StartException {
+                    securityRealm = new AsyncSecurityRealm(name, realmValue.getValue(), maxConcurrency, queueLength, callTimeout);
+                    return securityRealm;
+                }
+
+                @Override
+                public void dispose() {
+                    securityRealm.close();
+                    securityRealm = null;
+                }
+            });
+
+            ServiceBuilder<SecurityRealm> serviceBuilder = serviceTarget.addService(realmName, asyncRealmService);
+
+            String runtimeCapability = RuntimeCapability.buildDynamicCapabilityName(SECURITY_REALM_CAPABILITY, realm);
+            ServiceName realmServiceName = context.getCapabilityServiceName(runtimeCapability, SecurityRealm.class);
+            REALM_SERVICE_UTIL.addInjection(serviceBuilder, realmValue, realmServiceName);
+
+            commonDependencies(serviceBuilder)
+                .setInitialMode(getInitialMode(context))
+                .addListener(startTimer(context))
+                .install();
+        }
+
+    }
+
+    private static class WriteAttributeHandler extends RestartParentWriteAttributeHandler {
+
+        WriteAttributeHandler(final String key) {
+            super(key, ATTRIBUTES);
+        }
+
+        @Override
+        protected ServiceName getParentServiceName(PathAddress pathAddress) {
+            return getRealmServiceName(pathAddress.getLastElement().getValue());
+        }
+    }
+
+    /**
+     * A runtime handler for an async realm, if the realm is not currently available the result is left undefined.
+     */
+    abstract static class AsyncRealmRuntimeHandler extends AbstractRuntimeOnlyHandler {
+
+        @Override
+        protected void executeRuntimeStep(OperationContext context, ModelNode operation) throws OperationFailedException {
+            ServiceController<SecurityRealm> serviceController = getRequiredService(context.getServiceRegistry(false),
+                    getRealmServiceName(context.getCurrentAddressValue()), SecurityRealm.class);
+            if (serviceController.getState() != State.UP) {
+                return;
+            }
+
+            SecurityRealm securityRealm = serviceController.getValue();
+            if (securityRealm instanceof AsyncSecurityRealm) {
+                performRuntime(context, (AsyncSecurityRealm) securityRealm);
+            }
+        }
+
+        abstract void performRuntime(OperationContext context, AsyncSecurityRealm securityRealm) throws OperationFailedException;
+
+    }
+}
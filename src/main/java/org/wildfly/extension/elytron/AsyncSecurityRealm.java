@@ -0,0 +1,313 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.extension.elytron;
+
+import static org.wildfly.extension.elytron._private.ElytronSubsystemMessages.ROOT_LOGGER;
+
+import java.security.Principal;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import org.wildfly.security.auth.SupportLevel;
+import org.wildfly.security.auth.server.RealmIdentity;
+import org.wildfly.security.auth.server.RealmUnavailableException;
+import org.wildfly.security.auth.server.SecurityRealm;
+import org.wildfly.security.auth.server.event.RealmEvent;
+import org.wildfly.security.authz.AuthorizationIdentity;
+import org.wildfly.security.credential.Credential;
+import org.wildfly.security.evidence.Evidence;
+
+/**
+ * A {@link SecurityRealm} wrapping another {@link SecurityRealm} so the potentially blocking calls to the wrapped realm
+ * and its identities are made on a dedicated bounded pool of threads rather than on the thread of the caller.
+ * <p>
+ * The pool acts as a bulkhead, at most the configured number of calls execute concurrently and at most the configured
+ * number wait for a thread. Once both limits are reached further calls are rejected immediately with a
+ * {@link RealmUnavailableException} and a caller waits at most the configured timeout for its call to complete, so a slow
+ * or unresponsive backend can not occupy an unbounded number of the threads of the callers.
+ */
+class AsyncSecurityRealm implements SecurityRealm {
+
+    private static final long KEEP_ALIVE = 60L;
+
+    private final String realmName;
+    private final SecurityRealm delegate;
+    private final ThreadPoolExecutor executor;
+    private final long timeout;
+
+    private final LongAdder rejectedCalls = new LongAdder();
+    private final LongAdder timedOutCalls = new LongAdder();
+
+    /**
+     * Construct a new instance.
+     *
+     * @param realmName the name of the realm, used in the names of the threads and in the reported failures.
+     * @param delegate the realm to wrap.
+     * @param maxConcurrency the maximum number of calls to execute concurrently.
+     * @param queueLength the maximum number of calls to wait for a thread, or 0 if calls should never wait.
+     * @param timeout the time in milliseconds a caller waits for a call to complete.
+     */
+    AsyncSecurityRealm(String realmName, SecurityRealm delegate, int maxConcurrency, int queueLength, long timeout) {
+        this.realmName = realmName;
+        this.delegate = delegate;
+        this.timeout = timeout;
+
+        final AtomicInteger count = new AtomicInteger();
+        BlockingQueue<Runnable> queue = queueLength > 0 ? new ArrayBlockingQueue<>(queueLength) : new SynchronousQueue<>();
+        executor = new ThreadPoolExecutor(maxConcurrency, maxConcurrency, KEEP_ALIVE, TimeUnit.SECONDS, queue, r -> {
+            Thread thread = new Thread(r, "Elytron async realm " + realmName + " " + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    private <T> T call(RealmCall<T> call) throws RealmUnavailableException {
+        return call(call, null);
+    }
+
+    /**
+     * Make a call on the pool and wait for its result.
+     *
+     * @param call the call to make.
+     * @param discard applied to a result produced after the caller has stopped waiting, or {@code null} if such a result
+     *        can simply be dropped.
+     * @return the result of the call.
+     */
+    private <T> T call(RealmCall<T> call, Consumer<? super T> discard) throws RealmUnavailableException {
+        final Invocation<T> invocation = new Invocation<>(call, discard);
+        final Future<T> future;
+        try {
+            future = executor.submit(invocation);
+        } catch (RejectedExecutionException e) {
+            rejectedCalls.increment();
+            throw ROOT_LOGGER.asyncRealmSaturated(realmName);
+        }
+
+        try {
+            return future.get(timeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            invocation.abandon();
+            future.cancel(true);
+            timedOutCalls.increment();
+            throw ROOT_LOGGER.asyncRealmTimeout(realmName, timeout);
+        } catch (InterruptedException e) {
+            invocation.abandon();
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RealmUnavailableException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RealmUnavailableException) {
+                throw (RealmUnavailableException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new RealmUnavailableException(cause);
+        }
+    }
+
+    private RealmIdentity wrap(RealmIdentity identity) {
+        return identity == RealmIdentity.NON_EXISTENT ? identity : new AsyncRealmIdentity(identity);
+    }
+
+    @Override
+    public RealmIdentity getRealmIdentity(Principal principal) throws RealmUnavailableException {
+        return wrap(call(() -> delegate.getRealmIdentity(principal), RealmIdentity::dispose));
+    }
+
+    @Override
+    public RealmIdentity getRealmIdentity(Evidence evidence) throws RealmUnavailableException {
+        return wrap(call(() -> delegate.getRealmIdentity(evidence), RealmIdentity::dispose));
+    }
+
+    @Override
+    public SupportLevel getCredentialAcquireSupport(Class<? extends Credential> credentialType, String algorithmName) throws RealmUnavailableException {
+        return call(() -> delegate.getCredentialAcquireSupport(credentialType, algorithmName));
+    }
+
+    @Override
+    public SupportLevel getEvidenceVerifySupport(Class<? extends Evidence> evidenceType, String algorithmName) throws RealmUnavailableException {
+        return call(() -> delegate.getEvidenceVerifySupport(evidenceType, algorithmName));
+    }
+
+    @Override
+    public void handleRealmEvent(RealmEvent event) {
+        delegate.handleRealmEvent(event);
+    }
+
+    /**
+     * Stop the threads of the realm, called once the realm is no longer in use.
+     */
+    void close() {
+        executor.shutdownNow();
+    }
+
+    int getActiveCalls() {
+        return executor.getActiveCount();
+    }
+
+    int getQueuedCalls() {
+        return executor.getQueue().size();
+    }
+
+    long getRejectedCalls() {
+        return rejectedCalls.sum();
+    }
+
+    long getTimedOutCalls() {
+        return timedOutCalls.sum();
+    }
+
+    /**
+     * A call to the wrapped realm or one of its identities.
+     */
+    @FunctionalInterface
+    private interface RealmCall<T> extends Callable<T> {
+
+        @Override
+        T call() throws RealmUnavailableException;
+
+    }
+
+    /**
+     * A call submitted to the pool, a result completing after the caller has abandoned the call is passed to the discard
+     * action as the caller will never receive it, e.g. so that a {@link RealmIdentity} obtained late is disposed.
+     */
+    private static final class Invocation<T> implements Callable<T> {
+
+        private final RealmCall<T> call;
+        private final Consumer<? super T> discard;
+
+        private boolean abandoned;
+        private boolean completed;
+        private T result;
+
+        Invocation(RealmCall<T> call, Consumer<? super T> discard) {
+            this.call = call;
+            this.discard = discard;
+        }
+
+        @Override
+        public T call() throws RealmUnavailableException {
+            T result = call.call();
+            synchronized (this) {
+                if (abandoned == false) {
+                    this.completed = true;
+                    this.result = result;
+                    return result;
+                }
+            }
+            discard(result);
+            return result;
+        }
+
+        /**
+         * Abandon the call, if it has already completed its result is discarded immediately.
+         */
+        void abandon() {
+            final T result;
+            synchronized (this) {
+                abandoned = true;
+                if (completed == false) {
+                    return;
+                }
+                result = this.result;
+                this.result = null;
+            }
+            discard(result);
+        }
+
+        private void discard(T result) {
+            if (discard != null && result != null) {
+                discard.accept(result);
+            }
+        }
+
+    }
+
+    private final class AsyncRealmIdentity implements RealmIdentity {
+
+        private final RealmIdentity delegate;
+
+        AsyncRealmIdentity(RealmIdentity delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Principal getRealmIdentityPrincipal() {
+            return delegate.getRealmIdentityPrincipal();
+        }
+
+        @Override
+        public SupportLevel getCredentialAcquireSupport(Class<? extends Credential> credentialType, String algorithmName) throws RealmUnavailableException {
+            return call(() -> delegate.getCredentialAcquireSupport(credentialType, algorithmName));
+        }
+
+        @Override
+        public <C extends Credential> C getCredential(Class<C> credentialType) throws RealmUnavailableException {
+            return call(() -> delegate.getCredential(credentialType));
+        }
+
+        @Override
+        public <C extends Credential> C getCredential(Class<C> credentialType, String algorithmName) throws RealmUnavailableException {
+            return call(() -> delegate.getCredential(credentialType, algorithmName));
+        }
+
+        @Override
+        public SupportLevel getEvidenceVerifySupport(Class<? extends Evidence> evidenceType, String algorithmName) throws RealmUnavailableException {
+            return call(() -> delegate.getEvidenceVerifySupport(evidenceType, algorithmName));
+        }
+
+        @Override
+        public boolean verifyEvidence(Evidence evidence) throws RealmUnavailableException {
+            return call(() -> delegate.verifyEvidence(evidence));
+        }
+
+        @Override
+        public boolean exists() throws RealmUnavailableException {
+            return call(delegate::exists);
+        }
+
+        @Override
+        public AuthorizationIdentity getAuthorizationIdentity() throws RealmUnavailableException {
+            return call(delegate::getAuthorizationIdentity);
+        }
+
+        @Override
+        public void dispose() {
+            delegate.dispose();
+        }
+
+    }
+
+}
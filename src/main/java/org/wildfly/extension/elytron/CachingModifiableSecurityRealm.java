@@ -0,0 +1,167 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.extension.elytron;
+
+import java.security.Principal;
+import java.util.Collection;
+import java.util.Iterator;
+
+import org.wildfly.security.auth.SupportLevel;
+import org.wildfly.security.auth.server.ModifiableRealmIdentity;
+import org.wildfly.security.auth.server.ModifiableSecurityRealm;
+import org.wildfly.security.auth.server.RealmUnavailableException;
+import org.wildfly.security.authz.Attributes;
+import org.wildfly.security.authz.AuthorizationIdentity;
+import org.wildfly.security.credential.Credential;
+import org.wildfly.security.evidence.Evidence;
+
+/**
+ * A {@link CachingSecurityRealm} for a {@link ModifiableSecurityRealm}, modifications made through the realm are written
+ * straight through to the wrapped realm and the affected cache entries invalidated so subsequent lookups see the change.
+ */
+class CachingModifiableSecurityRealm extends CachingSecurityRealm implements ModifiableSecurityRealm {
+
+    private final ModifiableSecurityRealm delegate;
+
+    CachingModifiableSecurityRealm(ModifiableSecurityRealm delegate, int maxEntries, long maxAge, long negativeCacheAge) {
+        super(delegate, maxEntries, maxAge, negativeCacheAge);
+        this.delegate = delegate;
+    }
+
+    @Override
+    public ModifiableRealmIdentity getRealmIdentityForUpdate(Principal principal) throws RealmUnavailableException {
+        return new InvalidatingRealmIdentity(delegate.getRealmIdentityForUpdate(principal), () -> invalidate(principal));
+    }
+
+    @Override
+    public Iterator<ModifiableRealmIdentity> getRealmIdentityIterator() throws RealmUnavailableException {
+        final Iterator<ModifiableRealmIdentity> iterator = delegate.getRealmIdentityIterator();
+        return new Iterator<ModifiableRealmIdentity>() {
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public ModifiableRealmIdentity next() {
+                // The principal of an iterated identity is not known so any modification clears the whole cache.
+                return new InvalidatingRealmIdentity(iterator.next(), CachingModifiableSecurityRealm.this::clear);
+            }
+
+        };
+    }
+
+    /**
+     * A {@link ModifiableRealmIdentity} which runs an invalidation action after each modification.
+     */
+    private static final class InvalidatingRealmIdentity implements ModifiableRealmIdentity {
+
+        private final ModifiableRealmIdentity delegate;
+        private final Runnable invalidation;
+
+        InvalidatingRealmIdentity(ModifiableRealmIdentity delegate, Runnable invalidation) {
+            this.delegate = delegate;
+            this.invalidation = invalidation;
+        }
+
+        @Override
+        public Principal getRealmIdentityPrincipal() {
+            return delegate.getRealmIdentityPrincipal();
+        }
+
+        @Override
+        public void delete() throws RealmUnavailableException {
+            try {
+                delegate.delete();
+            } finally {
+                invalidation.run();
+            }
+        }
+
+        @Override
+        public void create() throws RealmUnavailableException {
+            try {
+                delegate.create();
+            } finally {
+                invalidation.run();
+            }
+        }
+
+        @Override
+        public void setCredentials(Collection<? extends Credential> credentials) throws RealmUnavailableException {
+            try {
+                delegate.setCredentials(credentials);
+            } finally {
+                invalidation.run();
+            }
+        }
+
+        @Override
+        public void setAttributes(Attributes attributes) throws RealmUnavailableException {
+            try {
+                delegate.setAttributes(attributes);
+            } finally {
+                invalidation.run();
+            }
+        }
+
+        @Override
+        public SupportLevel getCredentialAcquireSupport(Class<? extends Credential> credentialType, String algorithmName) throws RealmUnavailableException {
+            return delegate.getCredentialAcquireSupport(credentialType, algorithmName);
+        }
+
+        @Override
+        public <C extends Credential> C getCredential(Class<C> credentialType) throws RealmUnavailableException {
+            return delegate.getCredential(credentialType);
+        }
+
+        @Override
+        public <C extends Credential> C getCredential(Class<C> credentialType, String algorithmName) throws RealmUnavailableException {
+            return delegate.getCredential(credentialType, algorithmName);
+        }
+
+        @Override
+        public SupportLevel getEvidenceVerifySupport(Class<? extends Evidence> evidenceType, String algorithmName) throws RealmUnavailableException {
+            return delegate.getEvidenceVerifySupport(evidenceType, algorithmName);
+        }
+
+        @Override
+        public boolean verifyEvidence(Evidence evidence) throws RealmUnavailableException {
+            return delegate.verifyEvidence(evidence);
+        }
+
+        @Override
+        public boolean exists() throws RealmUnavailableException {
+            return delegate.exists();
+        }
+
+        @Override
+        public AuthorizationIdentity getAuthorizationIdentity() throws RealmUnavailableException {
+            return delegate.getAuthorizationIdentity();
+        }
+
+        @Override
+        public void dispose() {
+            delegate.dispose();
+        }
+
+    }
+
+}
@@ -0,0 +1,395 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.extension.elytron;
+
+import static org.wildfly.common.Assert.checkNotNullParam;
+
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.wildfly.security.auth.SupportLevel;
+import org.wildfly.security.auth.server.RealmIdentity;
+import org.wildfly.security.auth.server.RealmUnavailableException;
+import org.wildfly.security.auth.server.SecurityRealm;
+import org.wildfly.security.auth.server.event.RealmAuthenticationEvent;
+import org.wildfly.security.auth.server.event.RealmEvent;
+import org.wildfly.security.auth.server.event.RealmFailedAuthenticationEvent;
+import org.wildfly.security.authz.AuthorizationIdentity;
+import org.wildfly.security.credential.Credential;
+import org.wildfly.security.credential.PasswordCredential;
+import org.wildfly.security.evidence.Evidence;
+import org.wildfly.security.evidence.PasswordGuessEvidence;
+import org.wildfly.security.password.Password;
+import org.wildfly.security.password.PasswordFactory;
+
+/**
+ * A {@link SecurityRealm} wrapper that caches the identities loaded from the wrapped realm.
+ * <p>
+ * Entries are held in a map bounded by size and evicted on a least recently used basis, in addition each entry can be
+ * given a maximum age after which it is discarded. Identities that do not exist in the wrapped realm can optionally be
+ * cached using their own maximum age so repeated attempts for unknown principals do not reach the backend either.
+ * <p>
+ * Once loaded the credentials, authorization identity and support levels of a cached identity are memoized, password
+ * guesses are verified against the cached {@link PasswordCredential} where one is available.
+ * <p>
+ * A cached identity is shared by every caller obtaining it whilst it is cached, the wrapped identity is only disposed of
+ * once the entry has left the cache and every caller holding it has disposed of it.
+ */
+class CachingSecurityRealm implements SecurityRealm, RealmCacheDefinitions.RealmCache {
+
+    private final SecurityRealm delegate;
+    private final int maxEntries;
+    private final long maxAge;
+    private final long negativeCacheAge;
+
+    private final LinkedHashMap<Principal, CachedIdentity> cache;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Construct a new instance.
+     *
+     * @param delegate the {@link SecurityRealm} to cache identities for.
+     * @param maxEntries the maximum number of identities to hold in the cache.
+     * @param maxAge the maximum age in milliseconds of an entry, a negative value means entries do not expire.
+     * @param negativeCacheAge the maximum age in milliseconds of an entry for a non-existent identity, {@code 0} disables
+     *        caching of non-existent identities.
+     */
+    CachingSecurityRealm(SecurityRealm delegate, int maxEntries, long maxAge, long negativeCacheAge) {
+        this.delegate = checkNotNullParam("delegate", delegate);
+        this.maxEntries = maxEntries;
+        this.maxAge = maxAge;
+        this.negativeCacheAge = negativeCacheAge;
+        this.cache = new LinkedHashMap<Principal, CachedIdentity>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Principal, CachedIdentity> eldest) {
+                if (size() > CachingSecurityRealm.this.maxEntries) {
+                    evictions.increment();
+                    eldest.getValue().evict();
+                    return true;
+                }
+                return false;
+            }
+
+        };
+    }
+
+    @Override
+    public RealmIdentity getRealmIdentity(Principal principal) throws RealmUnavailableException {
+        final long now = System.currentTimeMillis();
+        synchronized (cache) {
+            CachedIdentity cached = cache.get(principal);
+            if (cached != null) {
+                if (cached.isExpired(now) == false) {
+                    hits.increment();
+                    return cached.acquire();
+                }
+                cache.remove(principal);
+                evictions.increment();
+                cached.evict();
+            }
+        }
+
+        misses.increment();
+        RealmIdentity realmIdentity = delegate.getRealmIdentity(principal);
+        final boolean exists = realmIdentity.exists();
+        if (exists == false && negativeCacheAge == 0) {
+            return realmIdentity;
+        }
+
+        final long age = exists ? maxAge : negativeCacheAge;
+        CachedIdentity cached = new CachedIdentity(principal, realmIdentity, exists, age < 0 ? Long.MAX_VALUE : now + age);
+        synchronized (cache) {
+            CachedIdentity previous = cache.put(principal, cached);
+            if (previous != null) {
+                previous.evict();
+            }
+            return cached.acquire();
+        }
+    }
+
+    @Override
+    public RealmIdentity getRealmIdentity(Evidence evidence) throws RealmUnavailableException {
+        return delegate.getRealmIdentity(evidence);
+    }
+
+    @Override
+    public SupportLevel getCredentialAcquireSupport(Class<? extends Credential> credentialType, String algorithmName) throws RealmUnavailableException {
+        return delegate.getCredentialAcquireSupport(credentialType, algorithmName);
+    }
+
+    @Override
+    public SupportLevel getEvidenceVerifySupport(Class<? extends Evidence> evidenceType, String algorithmName) throws RealmUnavailableException {
+        return delegate.getEvidenceVerifySupport(evidenceType, algorithmName);
+    }
+
+    @Override
+    public void handleRealmEvent(RealmEvent event) {
+        if (event instanceof RealmFailedAuthenticationEvent) {
+            // The backing store may have changed since the identity was cached, discard it so the next attempt reloads.
+            RealmIdentity realmIdentity = ((RealmAuthenticationEvent) event).getRealmIdentity();
+            if (realmIdentity instanceof CachedIdentity) {
+                CachedIdentity cached = (CachedIdentity) realmIdentity;
+                boolean removed;
+                synchronized (cache) {
+                    removed = cache.remove(cached.principal, cached);
+                }
+                if (removed) {
+                    cached.evict();
+                }
+            }
+        }
+        delegate.handleRealmEvent(event);
+    }
+
+    /**
+     * Remove any cached entry for the given {@link Principal}.
+     *
+     * @param principal the {@link Principal} to remove the entry for.
+     */
+    void invalidate(Principal principal) {
+        CachedIdentity removed;
+        synchronized (cache) {
+            removed = cache.remove(principal);
+        }
+        if (removed != null) {
+            removed.evict();
+        }
+    }
+
+    @Override
+    public void clear() {
+        List<CachedIdentity> removed;
+        synchronized (cache) {
+            removed = new ArrayList<>(cache.values());
+            cache.clear();
+        }
+        removed.forEach(CachedIdentity::evict);
+    }
+
+    @Override
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    @Override
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * A cached {@link RealmIdentity}, the result of each call against the wrapped identity is remembered for the lifetime
+     * of the cache entry.
+     */
+    private static final class CachedIdentity implements RealmIdentity {
+
+        private static final Object NULL = new Object();
+
+        private final Principal principal;
+        private final RealmIdentity delegate;
+        private final boolean exists;
+        private final long expiry;
+
+        private final Map<CacheKey, SupportLevel> credentialAcquireSupport = new ConcurrentHashMap<>();
+        private final Map<CacheKey, SupportLevel> evidenceVerifySupport = new ConcurrentHashMap<>();
+        private final Map<CacheKey, Object> credentials = new ConcurrentHashMap<>();
+        private volatile AuthorizationIdentity authorizationIdentity;
+
+        // Guarded by this.
+        private int holders;
+        private boolean evicted;
+        private boolean disposed;
+
+        CachedIdentity(Principal principal, RealmIdentity delegate, boolean exists, long expiry) {
+            this.principal = principal;
+            this.delegate = delegate;
+            this.exists = exists;
+            this.expiry = expiry;
+        }
+
+        boolean isExpired(long now) {
+            return now >= expiry;
+        }
+
+        /**
+         * Record a further caller holding this identity.
+         */
+        synchronized CachedIdentity acquire() {
+            holders++;
+            return this;
+        }
+
+        /**
+         * Record this identity has left the cache, the wrapped identity is disposed of once no caller holds it.
+         */
+        void evict() {
+            synchronized (this) {
+                evicted = true;
+                if (holders > 0 || disposed) {
+                    return;
+                }
+                disposed = true;
+            }
+            delegate.dispose();
+        }
+
+        @Override
+        public SupportLevel getCredentialAcquireSupport(Class<? extends Credential> credentialType, String algorithmName) throws RealmUnavailableException {
+            CacheKey key = new CacheKey(credentialType, algorithmName);
+            SupportLevel supportLevel = credentialAcquireSupport.get(key);
+            if (supportLevel == null) {
+                supportLevel = delegate.getCredentialAcquireSupport(credentialType, algorithmName);
+                credentialAcquireSupport.put(key, supportLevel);
+            }
+            return supportLevel;
+        }
+
+        @Override
+        public <C extends Credential> C getCredential(Class<C> credentialType) throws RealmUnavailableException {
+            return getCredential(credentialType, null);
+        }
+
+        @Override
+        public <C extends Credential> C getCredential(Class<C> credentialType, String algorithmName) throws RealmUnavailableException {
+            CacheKey key = new CacheKey(credentialType, algorithmName);
+            Object credential = credentials.get(key);
+            if (credential == null) {
+                credential = algorithmName == null ? delegate.getCredential(credentialType) : delegate.getCredential(credentialType, algorithmName);
+                credentials.put(key, credential == null ? NULL : credential);
+            }
+            return credential == NULL ? null : credentialType.cast(credential);
+        }
+
+        @Override
+        public SupportLevel getEvidenceVerifySupport(Class<? extends Evidence> evidenceType, String algorithmName) throws RealmUnavailableException {
+            CacheKey key = new CacheKey(evidenceType, algorithmName);
+            SupportLevel supportLevel = evidenceVerifySupport.get(key);
+            if (supportLevel == null) {
+                supportLevel = delegate.getEvidenceVerifySupport(evidenceType, algorithmName);
+                evidenceVerifySupport.put(key, supportLevel);
+            }
+            return supportLevel;
+        }
+
+        @Override
+        public boolean verifyEvidence(Evidence evidence) throws RealmUnavailableException {
+            if (exists == false) {
+                return false;
+            }
+            if (evidence instanceof PasswordGuessEvidence) {
+                PasswordCredential credential = getCredential(PasswordCredential.class);
+                if (credential != null) {
+                    Password password = credential.getPassword();
+                    try {
+                        PasswordFactory passwordFactory = PasswordFactory.getInstance(password.getAlgorithm());
+                        return passwordFactory.verify(passwordFactory.translate(password), ((PasswordGuessEvidence) evidence).getGuess());
+                    } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+                        // Fall through and let the wrapped identity verify the evidence itself.
+                    }
+                }
+            }
+
+            return delegate.verifyEvidence(evidence);
+        }
+
+        @Override
+        public boolean exists() throws RealmUnavailableException {
+            return exists;
+        }
+
+        @Override
+        public AuthorizationIdentity getAuthorizationIdentity() throws RealmUnavailableException {
+            AuthorizationIdentity authorizationIdentity = this.authorizationIdentity;
+            if (authorizationIdentity == null) {
+                authorizationIdentity = delegate.getAuthorizationIdentity();
+                this.authorizationIdentity = authorizationIdentity;
+            }
+            return authorizationIdentity;
+        }
+
+        @Override
+        public void dispose() {
+            synchronized (this) {
+                if (holders > 0) {
+                    holders--;
+                }
+                if (holders > 0 || evicted == false || disposed) {
+                    return;
+                }
+                disposed = true;
+            }
+            delegate.dispose();
+        }
+
+    }
+
+    private static final class CacheKey {
+
+        private final Class<?> type;
+        private final String algorithmName;
+        private final int hashCode;
+
+        CacheKey(Class<?> type, String algorithmName) {
+            this.type = type;
+            this.algorithmName = algorithmName;
+            this.hashCode = Objects.hash(type, algorithmName);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj instanceof CacheKey == false) {
+                return false;
+            }
+            CacheKey other = (CacheKey) obj;
+            return type == other.type && Objects.equals(algorithmName, other.algorithmName);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+    }
+
+}
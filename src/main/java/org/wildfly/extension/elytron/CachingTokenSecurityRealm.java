@@ -0,0 +1,296 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.extension.elytron;
+
+import static org.wildfly.common.Assert.checkNotNullParam;
+import static org.wildfly.extension.elytron._private.ElytronSubsystemMessages.ROOT_LOGGER;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.Principal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.wildfly.security.auth.SupportLevel;
+import org.wildfly.security.auth.server.RealmIdentity;
+import org.wildfly.security.auth.server.RealmUnavailableException;
+import org.wildfly.security.auth.server.SecurityRealm;
+import org.wildfly.security.auth.server.event.RealmEvent;
+import org.wildfly.security.credential.Credential;
+import org.wildfly.security.evidence.BearerTokenEvidence;
+import org.wildfly.security.evidence.Evidence;
+
+/**
+ * A {@link SecurityRealm} wrapper caching the identities a token realm resolves from bearer tokens.
+ * <p>
+ * Entries are keyed by a SHA-256 digest of the token so the tokens themselves are not retained, the cached
+ * {@link RealmIdentity} holds the claims already validated and the principal already resolved from them so a repeated
+ * token is neither decoded, verified nor parsed again. An entry is never retained beyond the expiry of its token given by
+ * the {@code exp} claim. Tokens which fail validation are only cached if a negative cache age is configured.
+ * <p>
+ * Concurrent requests for a token which is not cached are coalesced, the first request validates the token and the
+ * remaining requests wait for and share its result so a burst of requests bearing a new token only results in a single
+ * validation, for introspection a single call to the introspection endpoint. A waiting request gives up once the maximum
+ * wait has elapsed so a validation which never completes can not hold every request for the same token indefinitely.
+ */
+class CachingTokenSecurityRealm implements SecurityRealm, RealmCacheDefinitions.RealmCache {
+
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+    private static final String EXPIRY_CLAIM = "exp";
+
+    private final SecurityRealm delegate;
+    private final int maxEntries;
+    private final long maxAge;
+    private final long negativeCacheAge;
+    private final long maxWait;
+
+    private final LinkedHashMap<ByteBuffer, CachedIdentity> cache;
+    private final Map<ByteBuffer, CompletableFuture<RealmIdentity>> pending = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Construct a new instance.
+     *
+     * @param delegate the token {@link SecurityRealm} to cache identities for.
+     * @param maxEntries the maximum number of identities to hold in the cache.
+     * @param maxAge the maximum age in milliseconds of an entry, a negative value means entries are retained until their
+     *        token expires.
+     * @param negativeCacheAge the maximum age in milliseconds of an entry for a rejected token, {@code 0} disables caching
+     *        of rejected tokens.
+     * @param maxWait the maximum time in milliseconds a request waits for the validation of the same token by a concurrent
+     *        request.
+     */
+    CachingTokenSecurityRealm(SecurityRealm delegate, int maxEntries, long maxAge, long negativeCacheAge, long maxWait) {
+        this.delegate = checkNotNullParam("delegate", delegate);
+        this.maxEntries = maxEntries;
+        this.maxAge = maxAge;
+        this.negativeCacheAge = negativeCacheAge;
+        this.maxWait = maxWait;
+        this.cache = new LinkedHashMap<ByteBuffer, CachedIdentity>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ByteBuffer, CachedIdentity> eldest) {
+                if (size() > CachingTokenSecurityRealm.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+
+        };
+    }
+
+    @Override
+    public RealmIdentity getRealmIdentity(Principal principal) throws RealmUnavailableException {
+        return delegate.getRealmIdentity(principal);
+    }
+
+    @Override
+    public RealmIdentity getRealmIdentity(Evidence evidence) throws RealmUnavailableException {
+        if (evidence instanceof BearerTokenEvidence == false) {
+            return delegate.getRealmIdentity(evidence);
+        }
+
+        final ByteBuffer key = digest(((BearerTokenEvidence) evidence).getToken());
+        RealmIdentity cached = getCached(key);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        final CompletableFuture<RealmIdentity> future = new CompletableFuture<>();
+        final CompletableFuture<RealmIdentity> existing = pending.putIfAbsent(key, future);
+        if (existing != null) {
+            hits.increment();
+            return await(existing);
+        }
+
+        try {
+            // The identity may have been cached by a lookup which completed since the cache was checked.
+            RealmIdentity realmIdentity = getCached(key);
+            if (realmIdentity != null) {
+                hits.increment();
+            } else {
+                misses.increment();
+                realmIdentity = delegate.getRealmIdentity(evidence);
+                cache(key, realmIdentity);
+            }
+            future.complete(realmIdentity);
+            return realmIdentity;
+        } catch (RealmUnavailableException | RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            pending.remove(key, future);
+        }
+    }
+
+    private RealmIdentity getCached(ByteBuffer key) {
+        synchronized (cache) {
+            CachedIdentity cached = cache.get(key);
+            if (cached == null) {
+                return null;
+            }
+            if (System.currentTimeMillis() < cached.expiry) {
+                return cached.identity;
+            }
+            cache.remove(key);
+            evictions.increment();
+            return null;
+        }
+    }
+
+    private void cache(ByteBuffer key, RealmIdentity realmIdentity) throws RealmUnavailableException {
+        final long now = System.currentTimeMillis();
+        long expiry;
+        if (realmIdentity.exists()) {
+            expiry = maxAge < 0 ? Long.MAX_VALUE : now + maxAge;
+            Long tokenExpiry = getTokenExpiry(realmIdentity);
+            if (tokenExpiry != null) {
+                expiry = Math.min(expiry, tokenExpiry);
+            }
+        } else if (negativeCacheAge > 0) {
+            expiry = now + negativeCacheAge;
+        } else {
+            return;
+        }
+
+        if (expiry > now) {
+            synchronized (cache) {
+                cache.put(key, new CachedIdentity(realmIdentity, expiry));
+            }
+        }
+    }
+
+    private RealmIdentity await(CompletableFuture<RealmIdentity> future) throws RealmUnavailableException {
+        try {
+            return future.get(maxWait, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw ROOT_LOGGER.tokenValidationTimedOut(maxWait);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RealmUnavailableException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RealmUnavailableException) {
+                throw (RealmUnavailableException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RealmUnavailableException(cause);
+        }
+    }
+
+    private static ByteBuffer digest(String token) throws RealmUnavailableException {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance(DIGEST_ALGORITHM).digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new RealmUnavailableException(e);
+        }
+    }
+
+    /**
+     * Obtain the expiry time of the token an identity was resolved from.
+     *
+     * @return the expiry time in milliseconds, or {@code null} if the token does not contain an expiry claim.
+     */
+    private static Long getTokenExpiry(RealmIdentity realmIdentity) throws RealmUnavailableException {
+        String expiry = realmIdentity.getAuthorizationIdentity().getAttributes().getFirst(EXPIRY_CLAIM);
+        if (expiry == null) {
+            return null;
+        }
+        try {
+            return TimeUnit.SECONDS.toMillis(new BigDecimal(expiry).longValue());
+        } catch (NumberFormatException e) {
+            // An expiry which can not be interpreted is treated as already reached so the identity is not cached.
+            return 0L;
+        }
+    }
+
+    @Override
+    public SupportLevel getCredentialAcquireSupport(Class<? extends Credential> credentialType, String algorithmName) throws RealmUnavailableException {
+        return delegate.getCredentialAcquireSupport(credentialType, algorithmName);
+    }
+
+    @Override
+    public SupportLevel getEvidenceVerifySupport(Class<? extends Evidence> evidenceType, String algorithmName) throws RealmUnavailableException {
+        return delegate.getEvidenceVerifySupport(evidenceType, algorithmName);
+    }
+
+    @Override
+    public void handleRealmEvent(RealmEvent event) {
+        delegate.handleRealmEvent(event);
+    }
+
+    @Override
+    public void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    @Override
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    @Override
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    private static final class CachedIdentity {
+
+        private final RealmIdentity identity;
+        private final long expiry;
+
+        CachedIdentity(RealmIdentity identity, long expiry) {
+            this.identity = identity;
+            this.expiry = expiry;
+        }
+
+    }
+
+}
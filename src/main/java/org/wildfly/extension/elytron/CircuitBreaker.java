@@ -0,0 +1,190 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.extension.elytron;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A circuit breaker tracking the outcome of the calls made to a backend.
+ * <p>
+ * Whilst {@link State#CLOSED} the outcome of the most recent calls is held in a fixed size window, a call is considered
+ * failed if it failed outright or took longer than the slow call duration. Once the window is full and the percentage of
+ * failed calls in it reaches the threshold the breaker opens, as the slow call duration is applied to every call this also
+ * opens the breaker once the corresponding percentile of the latency of the backend exceeds the slow call duration.
+ * <p>
+ * Whilst {@link State#OPEN} no calls are permitted, once the open duration has elapsed the breaker becomes
+ * {@link State#HALF_OPEN} and permits a single probe call at a time. A successful probe closes the breaker and a failed
+ * probe opens it again. Only the outcome of the call holding the current probe {@link Permit} changes the state of a
+ * half-open breaker, a call permitted whilst closed which completes once the breaker is half-open is ignored.
+ */
+class CircuitBreaker {
+
+    enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final boolean[] window;
+    private final int failureRateThreshold;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final Listener listener;
+
+    private State state = State.CLOSED;
+    private int windowIndex;
+    private int windowCount;
+    private int windowFailures;
+    private long openedAt;
+    // The permit of the probe call in progress whilst half-open.
+    private Permit probe;
+
+    private long openTransitions;
+    private long halfOpenTransitions;
+    private long closeTransitions;
+
+    /**
+     * Construct a new instance.
+     *
+     * @param windowSize the number of recent calls the failure rate is calculated over.
+     * @param failureRateThreshold the percentage of failed calls in the window at which the breaker opens.
+     * @param slowCallDuration the duration in milliseconds after which a call is considered failed, or 0 if slow calls should
+     *        not be considered failed.
+     * @param openDuration the time in milliseconds the breaker remains open before a probe call is permitted.
+     * @param listener the listener to notify as the breaker opens and closes.
+     */
+    CircuitBreaker(int windowSize, int failureRateThreshold, long slowCallDuration, long openDuration, Listener listener) {
+        this.window = new boolean[windowSize];
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallNanos = slowCallDuration > 0 ? TimeUnit.MILLISECONDS.toNanos(slowCallDuration) : Long.MAX_VALUE;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openDuration);
+        this.listener = listener;
+    }
+
+    /**
+     * Check if a call to the backend is permitted, if permitted the outcome of the call must be reported using
+     * {@link #record(Permit, boolean, long)}.
+     *
+     * @return the {@link Permit} of the call, or {@code null} if the call is not permitted.
+     */
+    synchronized Permit permit() {
+        switch (state) {
+            case CLOSED:
+                return Permit.CLOSED;
+            case OPEN:
+                if (System.nanoTime() - openedAt < openNanos) {
+                    return null;
+                }
+                state = State.HALF_OPEN;
+                halfOpenTransitions++;
+                return probe = new Permit();
+            default:
+                if (probe != null) {
+                    return null;
+                }
+                return probe = new Permit();
+        }
+    }
+
+    /**
+     * Record the outcome of a permitted call.
+     *
+     * @param permit the {@link Permit} the call was made under.
+     * @param failed {@code true} if the call failed.
+     * @param duration the duration of the call in nanoseconds.
+     */
+    synchronized void record(Permit permit, boolean failed, long duration) {
+        failed |= duration > slowCallNanos;
+        if (state == State.HALF_OPEN) {
+            if (permit != probe) {
+                return;
+            }
+            probe = null;
+            if (failed) {
+                open();
+            } else {
+                state = State.CLOSED;
+                closeTransitions++;
+                listener.closed();
+            }
+        } else if (state == State.CLOSED && permit == Permit.CLOSED) {
+            if (windowCount == window.length) {
+                windowFailures -= window[windowIndex] ? 1 : 0;
+            } else {
+                windowCount++;
+            }
+            window[windowIndex] = failed;
+            windowFailures += failed ? 1 : 0;
+            windowIndex = (windowIndex + 1) % window.length;
+
+            if (windowCount == window.length && windowFailures * 100 >= failureRateThreshold * windowCount) {
+                open();
+            }
+        }
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.nanoTime();
+        openTransitions++;
+        windowIndex = 0;
+        windowCount = 0;
+        windowFailures = 0;
+        listener.opened();
+    }
+
+    synchronized State getState() {
+        return state;
+    }
+
+    synchronized long getOpenTransitions() {
+        return openTransitions;
+    }
+
+    synchronized long getHalfOpenTransitions() {
+        return halfOpenTransitions;
+    }
+
+    synchronized long getCloseTransitions() {
+        return closeTransitions;
+    }
+
+    /**
+     * The permission to make a single call, the outcome of the call is recorded against it.
+     */
+    static final class Permit {
+
+        // Shared by all calls permitted whilst closed, each half-open probe has its own instance.
+        static final Permit CLOSED = new Permit();
+
+        private Permit() {
+        }
+
+    }
+
+    /**
+     * A listener notified as the breaker opens and closes, called whilst holding the lock of the breaker so must not block.
+     */
+    interface Listener {
+
+        void opened();
+
+        void closed();
+
+    }
+
+}
@@ -0,0 +1,277 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.extension.elytron;
+
+import java.security.AllPermission;
+import java.security.Permission;
+import java.security.PermissionCollection;
+import java.security.Permissions;
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.wildfly.security.authz.PermissionMappable;
+import org.wildfly.security.authz.PermissionMapper;
+import org.wildfly.security.authz.Roles;
+import org.wildfly.security.authz.SimplePermissionMapper.MappingMode;
+import org.wildfly.security.permission.PermissionVerifier;
+
+/**
+ * A {@link PermissionMapper} with the same behaviour as a {@link org.wildfly.security.authz.SimplePermissionMapper} but
+ * with the mappings compiled into an index.
+ * <p>
+ * The mappings are indexed by principal name and by role name, so finding the mappings matching an identity is a lookup
+ * of its principal and of each of its roles rather than a test of every mapping. The combined {@link PermissionVerifier}
+ * depends only on which mappings matched, so it is cached against the set of matching mappings in a bounded cache shared
+ * by every identity with the same principal and relevant roles.
+ * <p>
+ * The permissions of each mapping are held in read only {@link PermissionCollection}s by permission class, so actions
+ * granted by separate permissions of the same class are combined in the same way as by {@link Permissions}, with the
+ * permissions of the same name as the checked permission tried on their own first.
+ */
+class CompiledPermissionMapper implements PermissionMapper {
+
+    private static final int MAX_CACHED_VERIFIERS = 1024;
+
+    private final MappingMode mappingMode;
+    private final PermissionVerifier[] verifiers;
+    private final Map<String, int[]> principalIndex;
+    private final Map<String, int[]> roleIndex;
+    private final Map<BitSet, PermissionVerifier> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Construct a new instance.
+     *
+     * @param mappingMode the mode used to combine the permissions of multiple matching mappings.
+     * @param mappings the mappings in the order they are defined.
+     */
+    CompiledPermissionMapper(MappingMode mappingMode, List<Mapping> mappings) {
+        this.mappingMode = mappingMode;
+        this.verifiers = new PermissionVerifier[mappings.size()];
+        Map<String, List<Integer>> principals = new HashMap<>();
+        Map<String, List<Integer>> roles = new HashMap<>();
+        for (int i = 0; i < verifiers.length; i++) {
+            Mapping mapping = mappings.get(i);
+            verifiers[i] = new PermissionIndex(mapping.permissions);
+            for (String principal : mapping.principals) {
+                principals.computeIfAbsent(principal, p -> new ArrayList<>()).add(i);
+            }
+            for (String role : mapping.roles) {
+                roles.computeIfAbsent(role, r -> new ArrayList<>()).add(i);
+            }
+        }
+        this.principalIndex = toIndex(principals);
+        this.roleIndex = toIndex(roles);
+    }
+
+    private static Map<String, int[]> toIndex(Map<String, List<Integer>> source) {
+        Map<String, int[]> index = new HashMap<>(source.size() * 2);
+        source.forEach((k, v) -> index.put(k, v.stream().mapToInt(Integer::intValue).toArray()));
+        return index;
+    }
+
+    @Override
+    public PermissionVerifier mapPermissions(PermissionMappable permissionMappable, Roles roles) {
+        BitSet matched = new BitSet(verifiers.length);
+        Principal principal = permissionMappable.getPrincipal();
+        if (principal != null) {
+            set(matched, principalIndex.get(principal.getName()));
+        }
+        if (roleIndex.isEmpty() == false) {
+            for (String role : roles) {
+                set(matched, roleIndex.get(role));
+            }
+        }
+
+        if (matched.isEmpty()) {
+            return PermissionVerifier.NONE;
+        }
+
+        PermissionVerifier verifier = cache.get(matched);
+        if (verifier == null) {
+            verifier = combine(matched);
+            if (cache.size() >= MAX_CACHED_VERIFIERS) {
+                // Evict an arbitrary entry, the verifiers are cheap to recreate so this only needs to bound the size.
+                Iterator<BitSet> iterator = cache.keySet().iterator();
+                if (iterator.hasNext()) {
+                    cache.remove(iterator.next());
+                }
+            }
+            cache.put(matched, verifier);
+        }
+        return verifier;
+    }
+
+    private static void set(BitSet matched, int[] mappings) {
+        if (mappings != null) {
+            for (int current : mappings) {
+                matched.set(current);
+            }
+        }
+    }
+
+    private PermissionVerifier combine(BitSet matched) {
+        PermissionVerifier result = null;
+        for (int i = matched.nextSetBit(0); i >= 0; i = matched.nextSetBit(i + 1)) {
+            PermissionVerifier current = verifiers[i];
+            if (result == null) {
+                if (mappingMode == MappingMode.FIRST_MATCH) {
+                    return current;
+                }
+                result = current;
+                continue;
+            }
+            switch (mappingMode) {
+                case AND:
+                    result = result.and(current);
+                    break;
+                case OR:
+                    result = result.or(current);
+                    break;
+                case XOR:
+                    result = result.xor(current);
+                    break;
+                case UNLESS:
+                    result = result.unless(current);
+                    break;
+                default:
+                    return result;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * A single mapping from principal and role names to permissions.
+     */
+    static final class Mapping {
+
+        private final Set<String> principals;
+        private final Set<String> roles;
+        private final Collection<Permission> permissions;
+
+        Mapping(Set<String> principals, Set<String> roles, Collection<Permission> permissions) {
+            this.principals = principals;
+            this.roles = roles;
+            this.permissions = permissions;
+        }
+
+    }
+
+    /**
+     * An immutable {@link PermissionVerifier} over a fixed set of permissions, indexed by the class and name of each
+     * permission.
+     * <p>
+     * A check is answered by scanning immutable arrays of the permissions of the same class, first those with the same
+     * name and then all of the class, calling {@link Permission#implies(Permission)} on each. These scans take no locks.
+     * Only a check not implied by any single permission of a class holding more than one permission with actions falls
+     * back to the {@link PermissionCollection} of the class, as only the collection combines the actions of separate
+     * permissions (e.g. "read" and "write" granted separately implying "read,write"). The JDK collections synchronize
+     * internally so that fallback is not lock-free.
+     */
+    private static final class PermissionIndex implements PermissionVerifier {
+
+        private static final Permission[] NO_PERMISSIONS = new Permission[0];
+
+        private final boolean allPermission;
+        private final Map<Class<?>, Permission[]> byClass;
+        private final Map<Class<?>, Map<String, Permission[]>> byName;
+        // Only for the classes with more than one permission with actions.
+        private final Map<Class<?>, PermissionCollection> combined;
+
+        PermissionIndex(Collection<Permission> permissions) {
+            boolean allPermission = false;
+            Map<Class<?>, List<Permission>> byClass = new HashMap<>();
+            Map<Class<?>, Map<String, List<Permission>>> byName = new HashMap<>();
+            for (Permission permission : permissions) {
+                allPermission |= permission instanceof AllPermission;
+                byClass.computeIfAbsent(permission.getClass(), c -> new ArrayList<>()).add(permission);
+                byName.computeIfAbsent(permission.getClass(), c -> new HashMap<>())
+                        .computeIfAbsent(permission.getName(), n -> new ArrayList<>()).add(permission);
+            }
+
+            this.allPermission = allPermission;
+            this.byClass = new HashMap<>(byClass.size() * 2);
+            this.combined = new HashMap<>();
+            byClass.forEach((c, p) -> {
+                this.byClass.put(c, p.toArray(NO_PERMISSIONS));
+                if (p.stream().filter(PermissionIndex::hasActions).count() > 1) {
+                    PermissionCollection permissionCollection = newPermissionCollection(p.get(0));
+                    p.forEach(permissionCollection::add);
+                    permissionCollection.setReadOnly();
+                    this.combined.put(c, permissionCollection);
+                }
+            });
+            this.byName = new HashMap<>(byName.size() * 2);
+            byName.forEach((k, v) -> {
+                Map<String, Permission[]> names = new HashMap<>(v.size() * 2);
+                v.forEach((n, p) -> names.put(n, p.toArray(NO_PERMISSIONS)));
+                this.byName.put(k, names);
+            });
+        }
+
+        private static boolean hasActions(Permission permission) {
+            String actions = permission.getActions();
+            return actions != null && actions.isEmpty() == false;
+        }
+
+        private static PermissionCollection newPermissionCollection(Permission permission) {
+            PermissionCollection permissionCollection = permission.newPermissionCollection();
+            return permissionCollection != null ? permissionCollection : new Permissions();
+        }
+
+        private static boolean anyImplies(Permission[] permissions, Permission permission) {
+            if (permissions != null) {
+                for (Permission current : permissions) {
+                    if (current.implies(permission)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public boolean implies(Permission permission) {
+            if (allPermission) {
+                return true;
+            }
+            Class<?> permissionClass = permission.getClass();
+            Map<String, Permission[]> names = byName.get(permissionClass);
+            if (names == null) {
+                return false;
+            }
+            // Most checks are for a permission granted by name, so check the permissions with the same name first.
+            if (anyImplies(names.get(permission.getName()), permission) || anyImplies(byClass.get(permissionClass), permission)) {
+                return true;
+            }
+            PermissionCollection permissionCollection = combined.get(permissionClass);
+            return permissionCollection != null && permissionCollection.implies(permission);
+        }
+
+    }
+
+}
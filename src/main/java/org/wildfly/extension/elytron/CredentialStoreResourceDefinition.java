@@ -28,6 +28,8 @@ import static org.wildfly.extension.elytron.ProviderLoaderDefinition.PROVIDER_LO
 import static org.wildfly.extension.elytron.ServiceStateDefinition.STATE;
 import static org.wildfly.extension.elytron.ServiceStateDefinition.populateResponse;
 import static org.wildfly.extension.elytron._private.ElytronSubsystemMessages.ROOT_LOGGER;
+import static org.wildfly.extension.elytron.StartupDefinitions.getInitialMode;
+import static org.wildfly.extension.elytron.StartupDefinitions.startTimer;
 
 import java.security.Provider;
 
@@ -60,7 +62,6 @@ import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
 import org.jboss.msc.service.ServiceBuilder;
 import org.jboss.msc.service.ServiceController;
-import org.jboss.msc.service.ServiceController.Mode;
 import org.jboss.msc.service.ServiceController.State;
 import org.jboss.msc.service.ServiceName;
 import org.jboss.msc.service.ServiceTarget;
@@ -194,7 +195,9 @@ final class CredentialStoreResourceDefinition extends SimpleResourceDefinition {
             }
             ServiceName credentialStoreServiceName = CREDENTIAL_STORE_CLIENT_UTIL.serviceName(operation);
             ServiceBuilder<CredentialStoreClient> credentialStoreServiceBuilder = serviceTarget.addService(credentialStoreServiceName, csService)
-                    .setInitialMode(Mode.ACTIVE);
+                    .setInitialMode(getInitialMode(context))
+                    .addListener(startTimer(context))
+                    .addDependency(StartupService.SERVICE_NAME, StartupService.class, csService.getStartupServiceInjector());
 
             if (relativeTo != null) {
                 credentialStoreServiceBuilder.addDependency(PathManagerService.SERVICE_NAME, PathManager.class, csService.getPathManagerInjector());
@@ -253,6 +256,9 @@ final class CredentialStoreResourceDefinition extends SimpleResourceDefinition {
         protected void executeRuntimeStep(OperationContext context, ModelNode operation) throws OperationFailedException {
             ServiceName credentialStoreServiceName = CREDENTIAL_STORE_CLIENT_UTIL.serviceName(operation);
             ServiceController<CredentialStoreClient> credentialStoreServiceController = (ServiceController<CredentialStoreClient>) context.getServiceRegistry(writeAccess).getRequiredService(credentialStoreServiceName);
+            if (serviceMustBeUp) {
+                credentialStoreServiceController = StartupDefinitions.activate(context, credentialStoreServiceController);
+            }
             State serviceState;
             if ((serviceState = credentialStoreServiceController.getState()) != State.UP) {
                 if (serviceMustBeUp) {
@@ -285,7 +291,7 @@ final class CredentialStoreResourceDefinition extends SimpleResourceDefinition {
                 case ElytronDescriptionConstants.RELOAD:
                     try {
                         credentialStoreService.stop(null);
-                        credentialStoreService.start(null);
+                        credentialStoreService.initialize();
                     } catch (StartException e) {
                         throw new OperationFailedException(e);
                     }
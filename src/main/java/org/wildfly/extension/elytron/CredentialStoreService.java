@@ -60,6 +60,7 @@ class CredentialStoreService implements Service<CredentialStoreClient> {
 
     private final InjectedValue<PathManager> pathManager = new InjectedValue<>();
     private final InjectedValue<Provider[]> providers = new InjectedValue<>();
+    private final InjectedValue<StartupService> startupService = new InjectedValue<>();
 
 
 
@@ -96,6 +97,14 @@ class CredentialStoreService implements Service<CredentialStoreClient> {
 
     @Override
     public void start(StartContext startContext) throws StartException {
+        // Loading the store is the expensive part of starting, independent stores are loaded in parallel.
+        startupService.getValue().startAsynchronously(startContext, this::initialize);
+    }
+
+    /**
+     * Load the credential store, called on start of the service and to reload the store in place.
+     */
+    void initialize() throws StartException {
         resolveFileLocation();
         try {
             credentialStore = getCredentialStoreInstance();
@@ -175,6 +184,10 @@ class CredentialStoreService implements Service<CredentialStoreClient> {
         return pathManager;
     }
 
+    Injector<StartupService> getStartupServiceInjector() {
+        return startupService;
+    }
+
     public String getName() {
         return name;
     }
@@ -25,6 +25,8 @@ import static org.wildfly.extension.elytron.ElytronDefinition.commonDependencies
 import static org.wildfly.extension.elytron.ElytronExtension.asStringIfDefined;
 import static org.wildfly.extension.elytron.SecurityActions.doPrivileged;
 import static org.wildfly.extension.elytron._private.ElytronSubsystemMessages.ROOT_LOGGER;
+import static org.wildfly.extension.elytron.StartupDefinitions.getInitialMode;
+import static org.wildfly.extension.elytron.StartupDefinitions.startTimer;
 
 import java.security.PrivilegedActionException;
 import java.security.PrivilegedExceptionAction;
@@ -50,7 +52,6 @@ import org.jboss.as.controller.registry.OperationEntry;
 import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
 import org.jboss.msc.service.ServiceBuilder;
-import org.jboss.msc.service.ServiceController.Mode;
 import org.jboss.msc.service.ServiceName;
 import org.jboss.msc.service.ServiceTarget;
 import org.jboss.msc.service.StartException;
@@ -141,7 +142,8 @@ class CustomComponentDefinition<T> extends SimpleResourceDefinition {
             }
 
             commonDependencies(serviceBuilder)
-                .setInitialMode(Mode.ACTIVE)
+                .setInitialMode(getInitialMode(context))
+                .addListener(startTimer(context))
                 .install();
         }
 
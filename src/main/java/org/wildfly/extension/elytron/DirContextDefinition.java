@@ -22,10 +22,14 @@ import static org.wildfly.extension.elytron.Capabilities.DIR_CONTEXT_CAPABILITY;
 import static org.wildfly.extension.elytron.Capabilities.DIR_CONTEXT_RUNTIME_CAPABILITY;
 import static org.wildfly.extension.elytron.Capabilities.SSL_CONTEXT_CAPABILITY;
 import static org.wildfly.extension.elytron.ElytronExtension.asStringIfDefined;
+import static org.wildfly.extension.elytron.StartupDefinitions.getInitialMode;
+import static org.wildfly.extension.elytron.StartupDefinitions.startTimer;
 import static org.wildfly.security.auth.realm.ldap.DirContextFactory.ReferralMode;
 
 import org.jboss.as.controller.AbstractAddStepHandler;
+import org.jboss.as.controller.AbstractRuntimeOnlyHandler;
 import org.jboss.as.controller.AttributeDefinition;
+import org.jboss.as.controller.ObjectTypeAttributeDefinition;
 import org.jboss.as.controller.OperationContext;
 import org.jboss.as.controller.OperationFailedException;
 import org.jboss.as.controller.OperationStepHandler;
@@ -37,7 +41,10 @@ import org.jboss.as.controller.SimpleAttributeDefinition;
 import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
 import org.jboss.as.controller.SimpleResourceDefinition;
 import org.jboss.as.controller.capability.RuntimeCapability;
+import org.jboss.as.controller.client.helpers.MeasurementUnit;
 import org.jboss.as.controller.operations.validation.EnumValidator;
+import org.jboss.as.controller.operations.validation.IntRangeValidator;
+import org.jboss.as.controller.operations.validation.LongRangeValidator;
 import org.jboss.as.controller.registry.AttributeAccess;
 import org.jboss.as.controller.registry.ManagementResourceRegistration;
 import org.jboss.as.controller.registry.OperationEntry;
@@ -45,7 +52,9 @@ import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
 import org.jboss.msc.service.ServiceBuilder;
 import org.jboss.msc.service.ServiceController;
+import org.jboss.msc.service.ServiceController.State;
 import org.jboss.msc.service.ServiceName;
+import org.jboss.msc.service.StartException;
 import org.jboss.msc.value.InjectedValue;
 import org.wildfly.common.function.ExceptionSupplier;
 import org.wildfly.security.auth.realm.ldap.DirContextFactory;
@@ -54,7 +63,9 @@ import org.wildfly.security.auth.realm.ldap.SimpleDirContextFactoryBuilder;
 import javax.naming.NamingException;
 import javax.naming.directory.DirContext;
 import javax.net.ssl.SSLContext;
+import java.util.Locale;
 import java.util.Properties;
+import java.util.function.Function;
 
 /**
  * A {@link ResourceDefinition} for a {@link javax.naming.directory.DirContext}.
@@ -116,7 +127,80 @@ public class DirContextDefinition extends SimpleResourceDefinition {
             .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
             .build();
 
-    static final SimpleAttributeDefinition[] ATTRIBUTES = new SimpleAttributeDefinition[] {URL, AUTHENTICATION_LEVEL, PRINCIPAL, CREDENTIAL, ENABLE_CONNECTION_POOLING, REFERRAL_MODE, SSL_CONTEXT, CONNECTION_TIMEOUT, READ_TIMEOUT};
+    static final SimpleAttributeDefinition LOAD_BALANCING_POLICY = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.LOAD_BALANCING_POLICY, ModelType.STRING, true)
+            .setAllowedValues(LoadBalancingDirContextSupplier.Policy.ROUND_ROBIN.name(), LoadBalancingDirContextSupplier.Policy.LEAST_OUTSTANDING.name())
+            .setValidator(EnumValidator.create(LoadBalancingDirContextSupplier.Policy.class, true, true))
+            .setAllowExpression(true)
+            .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
+            .build();
+
+    static final SimpleAttributeDefinition RETRY_INTERVAL = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.RETRY_INTERVAL, ModelType.LONG, true)
+            .setDefaultValue(new ModelNode(30000L))
+            .setValidator(new LongRangeValidator(0L, true, true))
+            .setAllowExpression(true)
+            .setRequires(ElytronDescriptionConstants.LOAD_BALANCING_POLICY)
+            .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
+            .build();
+
+    static final SimpleAttributeDefinition MIN_SIZE = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.MIN_SIZE, ModelType.INT, true)
+            .setDefaultValue(new ModelNode(0))
+            .setValidator(new IntRangeValidator(0, true, true))
+            .setAllowExpression(true)
+            .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
+            .build();
+
+    static final SimpleAttributeDefinition MAX_SIZE = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.MAX_SIZE, ModelType.INT, true)
+            .setDefaultValue(new ModelNode(10))
+            .setValidator(new IntRangeValidator(1, true, true))
+            .setAllowExpression(true)
+            .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
+            .build();
+
+    static final SimpleAttributeDefinition IDLE_TIMEOUT = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.IDLE_TIMEOUT, ModelType.LONG, true)
+            .setDefaultValue(new ModelNode(300000L))
+            .setValidator(new LongRangeValidator(-1L, true, true))
+            .setAllowExpression(true)
+            .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
+            .build();
+
+    static final SimpleAttributeDefinition MAX_WAIT = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.MAX_WAIT, ModelType.LONG, true)
+            .setDefaultValue(new ModelNode(30000L))
+            .setValidator(new LongRangeValidator(-1L, true, true))
+            .setAllowExpression(true)
+            .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
+            .build();
+
+    static final SimpleAttributeDefinition VALIDATE_ON_BORROW = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.VALIDATE_ON_BORROW, ModelType.BOOLEAN, true)
+            .setDefaultValue(new ModelNode(true))
+            .setAllowExpression(true)
+            .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
+            .build();
+
+    static final ObjectTypeAttributeDefinition CONNECTION_POOL = new ObjectTypeAttributeDefinition.Builder(ElytronDescriptionConstants.CONNECTION_POOL, MIN_SIZE, MAX_SIZE, IDLE_TIMEOUT, MAX_WAIT, VALIDATE_ON_BORROW)
+            .setAllowNull(true)
+            .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
+            .build();
+
+    static final AttributeDefinition[] ATTRIBUTES = new AttributeDefinition[] {URL, AUTHENTICATION_LEVEL, PRINCIPAL, CREDENTIAL, ENABLE_CONNECTION_POOLING, REFERRAL_MODE, SSL_CONTEXT, CONNECTION_TIMEOUT, READ_TIMEOUT, LOAD_BALANCING_POLICY, RETRY_INTERVAL, CONNECTION_POOL};
+
+    // Runtime Attributes
+
+    static final SimpleAttributeDefinition ACTIVE_CONNECTIONS = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.ACTIVE_CONNECTIONS, ModelType.INT)
+            .setStorageRuntime()
+            .build();
+
+    static final SimpleAttributeDefinition IDLE_CONNECTIONS = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.IDLE_CONNECTIONS, ModelType.INT)
+            .setStorageRuntime()
+            .build();
+
+    static final SimpleAttributeDefinition WAITING_REQUESTS = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.WAITING_REQUESTS, ModelType.INT)
+            .setStorageRuntime()
+            .build();
+
+    static final SimpleAttributeDefinition AVERAGE_BORROW_TIME = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.AVERAGE_BORROW_TIME, ModelType.DOUBLE)
+            .setStorageRuntime()
+            .setMeasurementUnit(MeasurementUnit.MILLISECONDS)
+            .build();
 
     DirContextDefinition() {
         super(new SimpleResourceDefinition.Parameters(PathElement.pathElement(ElytronDescriptionConstants.DIR_CONTEXT), ElytronExtension.getResourceDescriptionResolver(ElytronDescriptionConstants.DIR_CONTEXT))
@@ -133,6 +217,38 @@ public class DirContextDefinition extends SimpleResourceDefinition {
         for (AttributeDefinition current : ATTRIBUTES) {
             resourceRegistration.registerReadWriteAttribute(current, null, handler);
         }
+
+        resourceRegistration.registerReadOnlyAttribute(ACTIVE_CONNECTIONS, new PoolRuntimeHandler() {
+
+            @Override
+            void performRuntime(OperationContext context, DirContextPool pool) {
+                context.getResult().set(pool.getActiveCount());
+            }
+        });
+
+        resourceRegistration.registerReadOnlyAttribute(IDLE_CONNECTIONS, new PoolRuntimeHandler() {
+
+            @Override
+            void performRuntime(OperationContext context, DirContextPool pool) {
+                context.getResult().set(pool.getIdleCount());
+            }
+        });
+
+        resourceRegistration.registerReadOnlyAttribute(WAITING_REQUESTS, new PoolRuntimeHandler() {
+
+            @Override
+            void performRuntime(OperationContext context, DirContextPool pool) {
+                context.getResult().set(pool.getWaitingCount());
+            }
+        });
+
+        resourceRegistration.registerReadOnlyAttribute(AVERAGE_BORROW_TIME, new PoolRuntimeHandler() {
+
+            @Override
+            void performRuntime(OperationContext context, DirContextPool pool) {
+                context.getResult().set(pool.getAverageBorrowTime());
+            }
+        });
     }
 
     private static TrivialService.ValueSupplier<ExceptionSupplier<DirContext, NamingException>> obtainDirContextSupplier(final OperationContext context, final ModelNode model, final InjectedValue<SSLContext> sslContextInjector) throws OperationFailedException {
@@ -148,23 +264,67 @@ public class DirContextDefinition extends SimpleResourceDefinition {
         ModelNode connectionTimeout = CONNECTION_TIMEOUT.resolveModelAttribute(context, model);
         ModelNode readTimeout = READ_TIMEOUT.resolveModelAttribute(context, model);
         ReferralMode referralMode = ReferralMode.valueOf(REFERRAL_MODE.resolveModelAttribute(context, model).asString().toUpperCase());
+        String loadBalancingPolicy = asStringIfDefined(context, LOAD_BALANCING_POLICY, model);
+        long retryInterval = RETRY_INTERVAL.resolveModelAttribute(context, model).asLong();
+        String name = context.getCurrentAddressValue();
 
-        return () -> {
-            SimpleDirContextFactoryBuilder builder = SimpleDirContextFactoryBuilder.builder()
-                    .setProviderUrl(url)
-                    .setSecurityAuthentication(authenticationLevel)
-                    .setSecurityPrincipal(principal)
-                    .setSecurityCredential(credential)
-                    .setConnectionProperties(connectionProperties);
-
+        TrivialService.ValueSupplier<ExceptionSupplier<DirContext, NamingException>> contextSupplier = () -> {
             SSLContext sslContext = sslContextInjector.getOptionalValue();
-            if (sslContext != null) builder.setSocketFactory(sslContext.getSocketFactory());
 
-            if (connectionTimeout.isDefined()) builder.setConnectTimeout(connectionTimeout.asInt());
-            if (readTimeout.isDefined()) builder.setReadTimeout(readTimeout.asInt());
+            Function<String, ExceptionSupplier<DirContext, NamingException>> serverSupplier = providerUrl -> {
+                SimpleDirContextFactoryBuilder builder = SimpleDirContextFactoryBuilder.builder()
+                        .setProviderUrl(providerUrl)
+                        .setSecurityAuthentication(authenticationLevel)
+                        .setSecurityPrincipal(principal)
+                        .setSecurityCredential(credential)
+                        .setConnectionProperties(connectionProperties);
+
+                if (sslContext != null) builder.setSocketFactory(sslContext.getSocketFactory());
+
+                if (connectionTimeout.isDefined()) builder.setConnectTimeout(connectionTimeout.asInt());
+                if (readTimeout.isDefined()) builder.setReadTimeout(readTimeout.asInt());
 
-            DirContextFactory dirContextFactory = builder.build();
-            return () -> dirContextFactory.obtainDirContext(referralMode);
+                DirContextFactory dirContextFactory = builder.build();
+                return () -> dirContextFactory.obtainDirContext(referralMode);
+            };
+
+            if (loadBalancingPolicy == null) {
+                return serverSupplier.apply(url);
+            }
+
+            return new LoadBalancingDirContextSupplier(name, url.trim().split("\\s+"), serverSupplier,
+                    LoadBalancingDirContextSupplier.Policy.valueOf(loadBalancingPolicy.toUpperCase(Locale.ENGLISH)), retryInterval);
+        };
+
+        ModelNode connectionPool = CONNECTION_POOL.resolveModelAttribute(context, model);
+        if (connectionPool.isDefined() == false) {
+            return contextSupplier;
+        }
+
+        int minSize = MIN_SIZE.resolveModelAttribute(context, connectionPool).asInt();
+        int maxSize = MAX_SIZE.resolveModelAttribute(context, connectionPool).asInt();
+        long idleTimeout = IDLE_TIMEOUT.resolveModelAttribute(context, connectionPool).asLong();
+        long maxWait = MAX_WAIT.resolveModelAttribute(context, connectionPool).asLong();
+        boolean validateOnBorrow = VALIDATE_ON_BORROW.resolveModelAttribute(context, connectionPool).asBoolean();
+
+        return new TrivialService.ValueSupplier<ExceptionSupplier<DirContext, NamingException>>() {
+
+            private volatile DirContextPool pool;
+
+            @Override
+            public ExceptionSupplier<DirContext, NamingException> get() throws StartException {
+                pool = new DirContextPool(name, contextSupplier.get(), minSize, maxSize, idleTimeout, maxWait, validateOnBorrow);
+                return pool;
+            }
+
+            @Override
+            public void dispose() {
+                DirContextPool pool = this.pool;
+                if (pool != null) {
+                    pool.close();
+                    this.pool = null;
+                }
+            }
         };
     }
 
@@ -187,7 +347,8 @@ public class DirContextDefinition extends SimpleResourceDefinition {
             }
 
             serviceBuilder
-                    .setInitialMode(ServiceController.Mode.ACTIVE)
+                    .setInitialMode(getInitialMode(context))
+                    .addListener(startTimer(context))
                     .install();
         }
     };
@@ -206,4 +367,29 @@ public class DirContextDefinition extends SimpleResourceDefinition {
             return DIR_CONTEXT_RUNTIME_CAPABILITY.fromBaseCapability(name).getCapabilityServiceName();
         }
     }
+
+    /**
+     * A runtime handler for the connection pool of a dir-context, if no pool is configured or the dir-context is not
+     * currently available the result is left undefined.
+     */
+    private abstract static class PoolRuntimeHandler extends AbstractRuntimeOnlyHandler {
+
+        @Override
+        protected void executeRuntimeStep(OperationContext context, ModelNode operation) throws OperationFailedException {
+            ServiceName serviceName = DIR_CONTEXT_RUNTIME_CAPABILITY.fromBaseCapability(context.getCurrentAddressValue()).getCapabilityServiceName(ExceptionSupplier.class);
+
+            ServiceController<?> serviceContainer = context.getServiceRegistry(false).getRequiredService(serviceName);
+            if (serviceContainer.getState() != State.UP) {
+                return;
+            }
+
+            Object supplier = serviceContainer.getValue();
+            if (supplier instanceof DirContextPool) {
+                performRuntime(context, (DirContextPool) supplier);
+            }
+        }
+
+        abstract void performRuntime(OperationContext context, DirContextPool pool) throws OperationFailedException;
+
+    }
 }
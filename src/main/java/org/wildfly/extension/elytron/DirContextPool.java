@@ -0,0 +1,316 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.extension.elytron;
+
+import static org.wildfly.common.Assert.checkNotNullParam;
+import static org.wildfly.extension.elytron._private.ElytronSubsystemMessages.ROOT_LOGGER;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.naming.CommunicationException;
+import javax.naming.InterruptedNamingException;
+import javax.naming.NamingException;
+import javax.naming.ServiceUnavailableException;
+import javax.naming.directory.DirContext;
+import javax.naming.ldap.LdapContext;
+
+import org.wildfly.common.function.ExceptionSupplier;
+
+/**
+ * A bounded pool of {@link DirContext} instances for a single dir-context resource.
+ * <p>
+ * Contexts are handed out wrapped so that calling {@link DirContext#close()} returns the underlying context to the pool
+ * instead of closing it. A context whose environment or request controls were modified while borrowed, such as one
+ * re-bound as another identity to verify a credential, or which failed with a communication error is closed on return
+ * rather than being made available for reuse, so pooled contexts always carry the configured identity of the
+ * dir-context.
+ * <p>
+ * Idle contexts are evicted once they have been idle for longer than the idle timeout, never reducing the number of idle
+ * contexts below the configured minimum. Where enabled contexts are validated before being handed out by reading the
+ * root DSE.
+ */
+class DirContextPool implements ExceptionSupplier<DirContext, NamingException> {
+
+    private static final Set<String> MODIFYING_METHODS = new HashSet<>(Arrays.asList("addToEnvironment", "removeFromEnvironment", "reconnect", "setRequestControls"));
+    private static final String[] NO_ATTRIBUTES = new String[0];
+
+    private final String name;
+    private final ExceptionSupplier<DirContext, NamingException> contextFactory;
+    private final int minSize;
+    private final int maxSize;
+    private final long idleTimeout;
+    private final long maxWait;
+    private final boolean validateOnBorrow;
+
+    /*
+     * Guarded by this, the most recently returned context is held at the head of the deque so the least recently used
+     * contexts are the first to be evicted.
+     */
+    private final Deque<IdleContext> idle = new ArrayDeque<>();
+    private int active;
+    private int waiting;
+    private boolean closed;
+
+    private final LongAdder borrowCount = new LongAdder();
+    private final LongAdder borrowTime = new LongAdder();
+
+    /**
+     * Construct a new instance.
+     *
+     * @param name the name of the dir-context resource the pool is for.
+     * @param contextFactory the supplier used to establish new contexts.
+     * @param minSize the minimum number of idle contexts retained when evicting idle contexts.
+     * @param maxSize the maximum number of contexts, idle and borrowed, held by the pool.
+     * @param idleTimeout the time in milliseconds after which an idle context is evicted, a negative value disables eviction.
+     * @param maxWait the time in milliseconds to wait for a context once the pool is exhausted, a negative value means
+     *        wait indefinitely.
+     * @param validateOnBorrow should idle contexts be validated before they are handed out.
+     */
+    DirContextPool(String name, ExceptionSupplier<DirContext, NamingException> contextFactory, int minSize, int maxSize, long idleTimeout, long maxWait, boolean validateOnBorrow) {
+        this.name = name;
+        this.contextFactory = checkNotNullParam("contextFactory", contextFactory);
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.idleTimeout = idleTimeout;
+        this.maxWait = maxWait;
+        this.validateOnBorrow = validateOnBorrow;
+    }
+
+    @Override
+    public DirContext get() throws NamingException {
+        final long start = System.nanoTime();
+        try {
+            return borrow();
+        } finally {
+            borrowCount.increment();
+            borrowTime.add(System.nanoTime() - start);
+        }
+    }
+
+    private DirContext borrow() throws NamingException {
+        final long deadline = maxWait < 0 ? Long.MAX_VALUE : System.currentTimeMillis() + maxWait;
+        final List<DirContext> expired = new ArrayList<>();
+        while (true) {
+            DirContext candidate = null;
+            synchronized (this) {
+                if (closed) {
+                    throw ROOT_LOGGER.dirContextPoolClosed(name);
+                }
+                final long now = System.currentTimeMillis();
+                collectExpired(now, expired);
+
+                IdleContext idleContext = idle.pollFirst();
+                if (idleContext != null) {
+                    candidate = idleContext.context;
+                } else if (active >= maxSize) {
+                    final long remaining = deadline - now;
+                    if (remaining <= 0) {
+                        throw ROOT_LOGGER.dirContextPoolExhausted(name, maxWait);
+                    }
+                    waiting++;
+                    try {
+                        wait(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedNamingException(e.getMessage());
+                    } finally {
+                        waiting--;
+                    }
+                    continue;
+                }
+                active++;
+            }
+
+            destroyAll(expired);
+
+            if (candidate == null) {
+                try {
+                    return wrap(contextFactory.get());
+                } catch (NamingException | RuntimeException e) {
+                    release(null, false);
+                    throw e;
+                }
+            }
+
+            if (validateOnBorrow == false || isValid(candidate)) {
+                return wrap(candidate);
+            }
+            release(candidate, false);
+        }
+    }
+
+    private void collectExpired(long now, List<DirContext> expired) {
+        if (idleTimeout < 0) {
+            return;
+        }
+        while (idle.size() > minSize && now - idle.peekLast().since >= idleTimeout) {
+            expired.add(idle.pollLast().context);
+        }
+    }
+
+    private static boolean isValid(DirContext context) {
+        try {
+            context.getAttributes("", NO_ATTRIBUTES);
+            return true;
+        } catch (NamingException | RuntimeException e) {
+            return false;
+        }
+    }
+
+    private DirContext wrap(DirContext context) {
+        Class<?>[] interfaces = context instanceof LdapContext ? new Class<?>[] { LdapContext.class } : new Class<?>[] { DirContext.class };
+        return (DirContext) Proxy.newProxyInstance(DirContextPool.class.getClassLoader(), interfaces, new PooledContextHandler(context));
+    }
+
+    /**
+     * Return a borrowed context to the pool.
+     *
+     * @param context the context being returned, may be {@code null} if no context was established.
+     * @param reusable can the context be made available to subsequent callers.
+     */
+    private void release(DirContext context, boolean reusable) {
+        boolean destroy;
+        synchronized (this) {
+            active--;
+            destroy = context != null && (closed || reusable == false);
+            if (context != null && destroy == false) {
+                idle.addFirst(new IdleContext(context, System.currentTimeMillis()));
+            }
+            notify();
+        }
+        if (destroy) {
+            destroy(context);
+        }
+    }
+
+    private static void destroyAll(List<DirContext> contexts) {
+        contexts.forEach(DirContextPool::destroy);
+        contexts.clear();
+    }
+
+    private static void destroy(DirContext context) {
+        try {
+            context.close();
+        } catch (NamingException | RuntimeException e) {
+            ROOT_LOGGER.tracef(e, "Unable to close pooled DirContext");
+        }
+    }
+
+    /**
+     * Close all idle contexts and prevent any further contexts being borrowed, contexts currently borrowed are closed as
+     * they are returned.
+     */
+    void close() {
+        List<DirContext> toClose = new ArrayList<>();
+        synchronized (this) {
+            closed = true;
+            idle.forEach(i -> toClose.add(i.context));
+            idle.clear();
+            notifyAll();
+        }
+        destroyAll(toClose);
+    }
+
+    synchronized int getActiveCount() {
+        return active;
+    }
+
+    synchronized int getIdleCount() {
+        return idle.size();
+    }
+
+    synchronized int getWaitingCount() {
+        return waiting;
+    }
+
+    /**
+     * Get the average time taken to borrow a context from the pool, including the time taken to establish new contexts.
+     *
+     * @return the average time in milliseconds taken to borrow a context.
+     */
+    double getAverageBorrowTime() {
+        final long count = borrowCount.sum();
+        return count == 0 ? 0 : (double) borrowTime.sum() / count / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private static final class IdleContext {
+
+        private final DirContext context;
+        private final long since;
+
+        IdleContext(DirContext context, long since) {
+            this.context = context;
+            this.since = since;
+        }
+
+    }
+
+    private final class PooledContextHandler implements InvocationHandler {
+
+        private final DirContext context;
+        private boolean reusable = true;
+        private boolean returned = false;
+
+        PooledContextHandler(DirContext context) {
+            this.context = context;
+        }
+
+        @Override
+        public synchronized Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if ("close".equals(method.getName()) && method.getParameterCount() == 0) {
+                if (returned == false) {
+                    returned = true;
+                    release(context, reusable);
+                }
+                return null;
+            }
+            if (returned && method.getDeclaringClass() != Object.class) {
+                // Once returned the context may already be leased to another caller.
+                throw ROOT_LOGGER.dirContextClosed(name);
+            }
+            if (MODIFYING_METHODS.contains(method.getName())) {
+                reusable = false;
+            }
+
+            try {
+                return method.invoke(context, args);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof CommunicationException || cause instanceof ServiceUnavailableException) {
+                    reusable = false;
+                }
+                throw cause;
+            }
+        }
+
+    }
+
+}
@@ -30,10 +30,15 @@ import static org.wildfly.extension.elytron.Capabilities.SECURITY_REALM_CAPABILI
 import static org.wildfly.extension.elytron.Capabilities.SECURITY_REALM_RUNTIME_CAPABILITY;
 import static org.wildfly.extension.elytron.ElytronDefinition.commonDependencies;
 import static org.wildfly.extension.elytron.ElytronExtension.asStringIfDefined;
+import static org.wildfly.extension.elytron.ElytronExtension.getRequiredService;
 import static org.wildfly.extension.elytron._private.ElytronSubsystemMessages.ROOT_LOGGER;
+import static org.wildfly.extension.elytron.StartupDefinitions.getInitialMode;
+import static org.wildfly.extension.elytron.StartupDefinitions.startTimer;
 
 import java.util.List;
+import java.util.function.Function;
 
+import org.jboss.as.controller.AbstractRuntimeOnlyHandler;
 import org.jboss.as.controller.AttributeDefinition;
 import org.jboss.as.controller.ObjectListAttributeDefinition;
 import org.jboss.as.controller.ObjectTypeAttributeDefinition;
@@ -46,6 +51,9 @@ import org.jboss.as.controller.ResourceDefinition;
 import org.jboss.as.controller.RestartParentWriteAttributeHandler;
 import org.jboss.as.controller.SimpleAttributeDefinition;
 import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
+import org.jboss.as.controller.SimpleMapAttributeDefinition;
+import org.jboss.as.controller.SimpleOperationDefinition;
+import org.jboss.as.controller.SimpleOperationDefinitionBuilder;
 import org.jboss.as.controller.SimpleResourceDefinition;
 import org.jboss.as.controller.StringListAttributeDefinition;
 import org.jboss.as.controller.capability.RuntimeCapability;
@@ -58,7 +66,7 @@ import org.jboss.dmr.ModelType;
 import org.jboss.msc.inject.Injector;
 import org.jboss.msc.service.ServiceBuilder;
 import org.jboss.msc.service.ServiceController;
-import org.jboss.msc.service.ServiceController.Mode;
+import org.jboss.msc.service.ServiceController.State;
 import org.jboss.msc.service.ServiceName;
 import org.jboss.msc.service.ServiceTarget;
 import org.wildfly.extension.elytron.DomainService.RealmDependency;
@@ -154,8 +162,61 @@ class DomainDefinition extends SimpleResourceDefinition {
             .setCapabilityReference(SECURITY_DOMAIN_CAPABILITY, SECURITY_DOMAIN_CAPABILITY, true)
             .build();
 
+    static final SimpleAttributeDefinition STATISTICS_ENABLED = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.STATISTICS_ENABLED, ModelType.BOOLEAN, true)
+            .setDefaultValue(new ModelNode(false))
+            .setAllowExpression(true)
+            .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
+            .build();
+
     private static final AttributeDefinition[] ATTRIBUTES =
-            new AttributeDefinition[] { PRE_REALM_NAME_REWRITER, POST_REALM_NAME_REWRITER, PRINCIPAL_DECODER, REALM_MAPPER, ROLE_MAPPER, PERMISSION_MAPPER, DEFAULT_REALM, REALMS, TRUSTED_SECURITY_DOMAINS };
+            new AttributeDefinition[] { PRE_REALM_NAME_REWRITER, POST_REALM_NAME_REWRITER, PRINCIPAL_DECODER, REALM_MAPPER, ROLE_MAPPER, PERMISSION_MAPPER, DEFAULT_REALM, REALMS, TRUSTED_SECURITY_DOMAINS, STATISTICS_ENABLED };
+
+    // Runtime Attributes
+
+    static final SimpleAttributeDefinition SUCCESSFUL_AUTHENTICATIONS = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.SUCCESSFUL_AUTHENTICATIONS, ModelType.LONG)
+            .setStorageRuntime()
+            .build();
+
+    static final SimpleAttributeDefinition FAILED_AUTHENTICATIONS = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.FAILED_AUTHENTICATIONS, ModelType.LONG)
+            .setStorageRuntime()
+            .build();
+
+    static final SimpleAttributeDefinition UNKNOWN_PRINCIPALS = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.UNKNOWN_PRINCIPALS, ModelType.LONG)
+            .setStorageRuntime()
+            .build();
+
+    static final SimpleAttributeDefinition IN_FLIGHT = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.IN_FLIGHT, ModelType.LONG)
+            .setStorageRuntime()
+            .build();
+
+    static final SimpleMapAttributeDefinition ROLE_MAPPING_LATENCY = new SimpleMapAttributeDefinition.Builder(ElytronDescriptionConstants.ROLE_MAPPING_LATENCY, ModelType.LONG, false)
+            .setStorageRuntime()
+            .build();
+
+    static final SimpleMapAttributeDefinition PERMISSION_MAPPING_LATENCY = new SimpleMapAttributeDefinition.Builder(ElytronDescriptionConstants.PERMISSION_MAPPING_LATENCY, ModelType.LONG, false)
+            .setStorageRuntime()
+            .build();
+
+    static final SimpleMapAttributeDefinition NAME_REWRITING_LATENCY = new SimpleMapAttributeDefinition.Builder(ElytronDescriptionConstants.NAME_REWRITING_LATENCY, ModelType.LONG, false)
+            .setStorageRuntime()
+            .build();
+
+    static final SimpleMapAttributeDefinition LOOKUP_LATENCY = new SimpleMapAttributeDefinition.Builder(ElytronDescriptionConstants.LOOKUP_LATENCY, ModelType.LONG, false)
+            .build();
+
+    static final SimpleMapAttributeDefinition VERIFICATION_LATENCY = new SimpleMapAttributeDefinition.Builder(ElytronDescriptionConstants.VERIFICATION_LATENCY, ModelType.LONG, false)
+            .build();
+
+    static final SimpleAttributeDefinition REALM_STATISTICS_NAME = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.REALM, ModelType.STRING)
+            .build();
+
+    static final ObjectTypeAttributeDefinition REALM_STATISTICS_ENTRY = new ObjectTypeAttributeDefinition.Builder(ElytronDescriptionConstants.REALM, REALM_STATISTICS_NAME,
+                SUCCESSFUL_AUTHENTICATIONS, FAILED_AUTHENTICATIONS, UNKNOWN_PRINCIPALS, IN_FLIGHT, LOOKUP_LATENCY, VERIFICATION_LATENCY)
+            .build();
+
+    static final ObjectListAttributeDefinition REALM_STATISTICS = new ObjectListAttributeDefinition.Builder(ElytronDescriptionConstants.REALM_STATISTICS, REALM_STATISTICS_ENTRY)
+            .setStorageRuntime()
+            .build();
 
     private static final DomainAddHandler ADD = new DomainAddHandler();
     private static final OperationStepHandler REMOVE = new TrivialCapabilityServiceRemoveHandler(ADD, SECURITY_DOMAIN_RUNTIME_CAPABILITY);
@@ -175,12 +236,42 @@ class DomainDefinition extends SimpleResourceDefinition {
         for (AttributeDefinition current : ATTRIBUTES) {
             resourceRegistration.registerReadWriteAttribute(current, null, WRITE);
         }
+
+        registerStatistic(resourceRegistration, SUCCESSFUL_AUTHENTICATIONS, s -> new ModelNode(s.getSuccessfulAuthentications()));
+        registerStatistic(resourceRegistration, FAILED_AUTHENTICATIONS, s -> new ModelNode(s.getFailedAuthentications()));
+        registerStatistic(resourceRegistration, UNKNOWN_PRINCIPALS, s -> new ModelNode(s.getUnknownPrincipals()));
+        registerStatistic(resourceRegistration, IN_FLIGHT, s -> new ModelNode(s.getInFlight()));
+        registerStatistic(resourceRegistration, ROLE_MAPPING_LATENCY, DomainStatistics::getRoleMappingLatency);
+        registerStatistic(resourceRegistration, PERMISSION_MAPPING_LATENCY, DomainStatistics::getPermissionMappingLatency);
+        registerStatistic(resourceRegistration, NAME_REWRITING_LATENCY, DomainStatistics::getNameRewritingLatency);
+        registerStatistic(resourceRegistration, REALM_STATISTICS, DomainStatistics::getRealmStatistics);
+    }
+
+    private static void registerStatistic(ManagementResourceRegistration resourceRegistration, AttributeDefinition attribute, Function<DomainStatistics, ModelNode> reader) {
+        resourceRegistration.registerReadOnlyAttribute(attribute, new StatisticsRuntimeHandler() {
+
+            @Override
+            void performRuntime(OperationContext context, DomainStatistics statistics) {
+                context.getResult().set(reader.apply(statistics));
+            }
+        });
     }
 
     @Override
     public void registerOperations(ManagementResourceRegistration resourceRegistration) {
         super.registerOperations(resourceRegistration);
         registerIdentityManagementOperations(resourceRegistration);
+        SimpleOperationDefinition resetStatistics = new SimpleOperationDefinitionBuilder(ElytronDescriptionConstants.RESET_STATISTICS, getResourceDescriptionResolver())
+            .setRuntimeOnly()
+            .build();
+
+        resourceRegistration.registerOperationHandler(resetStatistics, new StatisticsRuntimeHandler() {
+
+            @Override
+            void performRuntime(OperationContext context, DomainStatistics statistics) {
+                statistics.reset();
+            }
+        });
     }
 
     private void registerIdentityManagementOperations(ManagementResourceRegistration resourceRegistration) {
@@ -195,6 +286,7 @@ class DomainDefinition extends SimpleResourceDefinition {
         String defaultRealm = DomainDefinition.DEFAULT_REALM.resolveModelAttribute(context, model).asString();
         List<ModelNode> realms = REALMS.resolveModelAttribute(context, model).asList();
         List<String> trustedSecurityDomains = TRUSTED_SECURITY_DOMAINS.unwrap(context, model);
+        boolean statisticsEnabled = STATISTICS_ENABLED.resolveModelAttribute(context, model).asBoolean();
 
         if (trustedSecurityDomains.contains(simpleName)) {
             throw ROOT_LOGGER.trustedDomainsCannotContainDomainItself(simpleName);
@@ -207,10 +299,11 @@ class DomainDefinition extends SimpleResourceDefinition {
         String realmMapper = asStringIfDefined(context, REALM_MAPPER, model);
         String roleMapper = asStringIfDefined(context, ROLE_MAPPER, model);
 
-        DomainService domain = new DomainService(simpleName, defaultRealm, trustedSecurityDomains);
+        DomainService domain = new DomainService(simpleName, defaultRealm, trustedSecurityDomains, statisticsEnabled);
 
         ServiceBuilder<SecurityDomain> domainBuilder = serviceTarget.addService(domainName, domain)
-                .setInitialMode(Mode.ACTIVE);
+                .setInitialMode(getInitialMode(context))
+                .addListener(startTimer(context));
 
         if (preRealmNameRewriter != null) {
             injectNameRewriter(preRealmNameRewriter, context, domainBuilder, domain.createPreRealmNameRewriterInjector(preRealmNameRewriter));
@@ -358,6 +451,31 @@ class DomainDefinition extends SimpleResourceDefinition {
 
     }
 
+    /**
+     * A runtime handler for a security domain which is only called if statistics are enabled for the domain, if statistics
+     * are not enabled or the domain is not currently available the result is left undefined.
+     */
+    abstract static class StatisticsRuntimeHandler extends AbstractRuntimeOnlyHandler {
+
+        @Override
+        protected void executeRuntimeStep(OperationContext context, ModelNode operation) throws OperationFailedException {
+            ServiceName domainName = SECURITY_DOMAIN_RUNTIME_CAPABILITY.fromBaseCapability(context.getCurrentAddressValue()).getCapabilityServiceName(SecurityDomain.class);
+
+            ServiceController<SecurityDomain> serviceController = getRequiredService(context.getServiceRegistry(false), domainName, SecurityDomain.class);
+            if (serviceController.getState() != State.UP) {
+                return;
+            }
+
+            DomainStatistics statistics = ((DomainService) serviceController.getService()).getStatistics();
+            if (statistics != null) {
+                performRuntime(context, statistics);
+            }
+        }
+
+        abstract void performRuntime(OperationContext context, DomainStatistics statistics) throws OperationFailedException;
+
+    }
+
     private static void validateDefaultRealmInRealms(final OperationContext context, final Resource resource) throws OperationFailedException {
         ModelNode model = resource.getModel();
         String defaultRealm = DomainDefinition.DEFAULT_REALM.resolveModelAttribute(context, model).asString();
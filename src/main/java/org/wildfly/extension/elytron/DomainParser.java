@@ -40,6 +40,7 @@ import static org.wildfly.extension.elytron.ElytronDescriptionConstants.REALM_MA
 import static org.wildfly.extension.elytron.ElytronDescriptionConstants.ROLE_DECODER;
 import static org.wildfly.extension.elytron.ElytronDescriptionConstants.ROLE_MAPPER;
 import static org.wildfly.extension.elytron.ElytronDescriptionConstants.SECURITY_DOMAIN;
+import static org.wildfly.extension.elytron.ElytronDescriptionConstants.STATISTICS_ENABLED;
 import static org.wildfly.extension.elytron.ElytronDescriptionConstants.TRUSTED_SECURITY_DOMAINS;
 import static org.wildfly.extension.elytron.ElytronSubsystemParser.verifyNamespace;
 
@@ -108,6 +109,9 @@ class DomainParser {
                             DomainDefinition.TRUSTED_SECURITY_DOMAINS.parseAndAddParameterElement(trustedSecurityDomain, addDomain, reader);
                         }
                         break;
+                    case STATISTICS_ENABLED:
+                        DomainDefinition.STATISTICS_ENABLED.parseAndSetParameter(value, addDomain, reader);
+                        break;
                     default:
                         throw unexpectedAttribute(reader, i);
                 }
@@ -192,6 +196,7 @@ class DomainParser {
         DomainDefinition.REALM_MAPPER.marshallAsAttribute(domain, writer);
         DomainDefinition.ROLE_MAPPER.marshallAsAttribute(domain, writer);
         DomainDefinition.TRUSTED_SECURITY_DOMAINS.getAttributeMarshaller().marshallAsAttribute(DomainDefinition.TRUSTED_SECURITY_DOMAINS, domain, false, writer);
+        DomainDefinition.STATISTICS_ENABLED.marshallAsAttribute(domain, writer);
 
         List<ModelNode> realms = domain.get(REALMS).asList();
 
@@ -60,10 +60,12 @@ import org.wildfly.security.authz.RoleMapper;
 class DomainService implements Service<SecurityDomain> {
 
     private volatile SecurityDomain securityDomain;
+    private volatile DomainStatistics statistics;
 
     private final String name;
     private final String defaultRealm;
     private final List<String> trustedSecurityDomainsList;
+    private final boolean statisticsEnabled;
     private String preRealmNameRewriter;
     private String postRealmNameRewriter;
     private String roleMapper;
@@ -77,10 +79,11 @@ class DomainService implements Service<SecurityDomain> {
     private final InjectedValue<PermissionMapper> permissionMapperInjector = new InjectedValue<>();
     private final HashSet<SecurityDomain> trustedSecurityDomains = new HashSet<>();
 
-    DomainService(final String name, final String defaultRealm, final List<String> trustedSecurityDomainsList) {
+    DomainService(final String name, final String defaultRealm, final List<String> trustedSecurityDomainsList, final boolean statisticsEnabled) {
         this.name = name;
         this.defaultRealm = defaultRealm;
         this.trustedSecurityDomainsList = trustedSecurityDomainsList;
+        this.statisticsEnabled = statisticsEnabled;
     }
 
     RealmDependency createRealmDependency(final String realmName) throws OperationFailedException {
@@ -155,13 +158,14 @@ class DomainService implements Service<SecurityDomain> {
 
     @Override
     public void start(StartContext context) throws StartException {
+        final DomainStatistics statistics = statisticsEnabled ? new DomainStatistics() : null;
         SecurityDomain.Builder builder = SecurityDomain.builder();
 
         if (preRealmNameRewriter != null) {
-            builder.setPreRealmRewriter(nameRewriters.get(preRealmNameRewriter).getValue());
+            builder.setPreRealmRewriter(instrument(statistics, nameRewriters.get(preRealmNameRewriter).getValue()));
         }
         if (postRealmNameRewriter != null) {
-            builder.setPostRealmRewriter(nameRewriters.get(postRealmNameRewriter).getValue());
+            builder.setPostRealmRewriter(instrument(statistics, nameRewriters.get(postRealmNameRewriter).getValue()));
         }
         PrincipalDecoder principalDecoder = principalDecoderInjector.getOptionalValue();
         if (principalDecoder != null) {
@@ -173,19 +177,20 @@ class DomainService implements Service<SecurityDomain> {
         }
         PermissionMapper permissionMapper = permissionMapperInjector.getOptionalValue();
         if (permissionMapper != null) {
-            builder.setPermissionMapper(permissionMapper);
+            builder.setPermissionMapper(instrument(statistics, permissionMapper));
         }
         if (roleMapper != null) {
-            builder.setRoleMapper(roleMappers.get(roleMapper).getValue());
+            builder.setRoleMapper(instrument(statistics, roleMappers.get(roleMapper).getValue()));
         }
 
         builder.setDefaultRealmName(defaultRealm);
         for (Entry<String, RealmDependency> entry : realms.entrySet()) {
             String realmName = entry.getKey();
             RealmDependency realmDependency = entry.getValue();
-            RealmBuilder realmBuilder = builder.addRealm(realmName, realmDependency.securityRealmInjector.getValue());
+            SecurityRealm securityRealm = realmDependency.securityRealmInjector.getValue();
+            RealmBuilder realmBuilder = builder.addRealm(realmName, statistics != null ? statistics.wrap(realmName, securityRealm) : securityRealm);
             if (realmDependency.nameRewriter != null) {
-                realmBuilder.setNameRewriter(nameRewriters.get(realmDependency.nameRewriter).getValue());
+                realmBuilder.setNameRewriter(instrument(statistics, nameRewriters.get(realmDependency.nameRewriter).getValue()));
             }
             if (realmDependency.roleDecoder != null) {
                 RoleDecoder roleDecoder = roleDecoders.get(realmDependency.roleDecoder).getOptionalValue();
@@ -194,7 +199,7 @@ class DomainService implements Service<SecurityDomain> {
                 }
             }
             if (realmDependency.roleMapper != null) {
-                realmBuilder.setRoleMapper(roleMappers.get(realmDependency.roleMapper).getValue());
+                realmBuilder.setRoleMapper(instrument(statistics, roleMappers.get(realmDependency.roleMapper).getValue()));
             }
             realmBuilder.build();
         }
@@ -202,6 +207,7 @@ class DomainService implements Service<SecurityDomain> {
         builder.setTrustedSecurityDomainPredicate(trustedSecurityDomains::contains);
 
         securityDomain = builder.build();
+        this.statistics = statistics;
 
         // Populate the set of trusted security domains
         final ServiceTarget serviceTarget = context.getChildTarget();
@@ -220,6 +226,7 @@ class DomainService implements Service<SecurityDomain> {
     @Override
     public void stop(StopContext context) {
        securityDomain = null;
+       statistics = null;
     }
 
     @Override
@@ -227,6 +234,27 @@ class DomainService implements Service<SecurityDomain> {
         return securityDomain;
     }
 
+    /**
+     * Get the statistics of the running domain.
+     *
+     * @return the statistics of the running domain or {@code null} if statistics are not enabled or the domain is not running.
+     */
+    DomainStatistics getStatistics() {
+        return statistics;
+    }
+
+    private static NameRewriter instrument(DomainStatistics statistics, NameRewriter nameRewriter) {
+        return statistics != null ? statistics.wrap(nameRewriter) : nameRewriter;
+    }
+
+    private static RoleMapper instrument(DomainStatistics statistics, RoleMapper roleMapper) {
+        return statistics != null ? statistics.wrap(roleMapper) : roleMapper;
+    }
+
+    private static PermissionMapper instrument(DomainStatistics statistics, PermissionMapper permissionMapper) {
+        return statistics != null ? statistics.wrap(permissionMapper) : permissionMapper;
+    }
+
     class RealmDependency {
 
         private InjectedValue<SecurityRealm> securityRealmInjector = new InjectedValue<>();
@@ -0,0 +1,357 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.extension.elytron;
+
+import java.security.Principal;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jboss.dmr.ModelNode;
+import org.wildfly.security.auth.SupportLevel;
+import org.wildfly.security.auth.server.ModifiableRealmIdentity;
+import org.wildfly.security.auth.server.ModifiableSecurityRealm;
+import org.wildfly.security.auth.server.NameRewriter;
+import org.wildfly.security.auth.server.RealmIdentity;
+import org.wildfly.security.auth.server.RealmUnavailableException;
+import org.wildfly.security.auth.server.SecurityRealm;
+import org.wildfly.security.auth.server.event.RealmEvent;
+import org.wildfly.security.authz.AuthorizationIdentity;
+import org.wildfly.security.authz.PermissionMapper;
+import org.wildfly.security.authz.RoleMapper;
+import org.wildfly.security.credential.Credential;
+import org.wildfly.security.evidence.Evidence;
+
+/**
+ * Statistics describing the authentication path of a single security domain.
+ * <p>
+ * The statistics are collected by wrapping the {@link SecurityRealm}, {@link RoleMapper}, {@link PermissionMapper} and
+ * {@link NameRewriter} instances referenced by the domain, each call to a wrapped instance is timed as a stage of the
+ * authentication path. All counters are {@link LongAdder} instances so recording does not contend between concurrent
+ * authentications.
+ */
+class DomainStatistics {
+
+    private final Stage roleMapping = new Stage();
+    private final Stage permissionMapping = new Stage();
+    private final Stage nameRewriting = new Stage();
+    private final Map<String, RealmStatistics> realms = new ConcurrentHashMap<>();
+
+    /**
+     * Wrap a {@link SecurityRealm} of the domain so realm lookups and evidence verifications are recorded against the
+     * realm name, a {@link ModifiableSecurityRealm} remains modifiable.
+     *
+     * @param realmName the name of the realm within the domain.
+     * @param securityRealm the {@link SecurityRealm} to wrap.
+     * @return the wrapped {@link SecurityRealm}.
+     */
+    SecurityRealm wrap(String realmName, SecurityRealm securityRealm) {
+        RealmStatistics statistics = realms.computeIfAbsent(realmName, n -> new RealmStatistics());
+        return securityRealm instanceof ModifiableSecurityRealm
+                ? new StatisticsModifiableSecurityRealm((ModifiableSecurityRealm) securityRealm, statistics)
+                : new StatisticsSecurityRealm(securityRealm, statistics);
+    }
+
+    RoleMapper wrap(RoleMapper roleMapper) {
+        return rolesToMap -> {
+            long start = roleMapping.start();
+            try {
+                return roleMapper.mapRoles(rolesToMap);
+            } finally {
+                roleMapping.end(start);
+            }
+        };
+    }
+
+    PermissionMapper wrap(PermissionMapper permissionMapper) {
+        return (permissionMappable, roles) -> {
+            long start = permissionMapping.start();
+            try {
+                return permissionMapper.mapPermissions(permissionMappable, roles);
+            } finally {
+                permissionMapping.end(start);
+            }
+        };
+    }
+
+    NameRewriter wrap(NameRewriter nameRewriter) {
+        return original -> {
+            long start = nameRewriting.start();
+            try {
+                return nameRewriter.rewriteName(original);
+            } finally {
+                nameRewriting.end(start);
+            }
+        };
+    }
+
+    long getSuccessfulAuthentications() {
+        return realms.values().stream().mapToLong(r -> r.successful.sum()).sum();
+    }
+
+    long getFailedAuthentications() {
+        return realms.values().stream().mapToLong(r -> r.failed.sum()).sum();
+    }
+
+    long getUnknownPrincipals() {
+        return realms.values().stream().mapToLong(r -> r.unknown.sum()).sum();
+    }
+
+    long getInFlight() {
+        long inFlight = roleMapping.inFlight.sum() + permissionMapping.inFlight.sum() + nameRewriting.inFlight.sum();
+        for (RealmStatistics realm : realms.values()) {
+            inFlight += realm.lookup.inFlight.sum() + realm.verification.inFlight.sum();
+        }
+        return inFlight;
+    }
+
+    ModelNode getRoleMappingLatency() {
+        return roleMapping.latency.toModelNode();
+    }
+
+    ModelNode getPermissionMappingLatency() {
+        return permissionMapping.latency.toModelNode();
+    }
+
+    ModelNode getNameRewritingLatency() {
+        return nameRewriting.latency.toModelNode();
+    }
+
+    ModelNode getRealmStatistics() {
+        ModelNode result = new ModelNode();
+        result.setEmptyList();
+        realms.forEach((name, realm) -> {
+            ModelNode current = new ModelNode();
+            current.get(ElytronDescriptionConstants.REALM).set(name);
+            current.get(ElytronDescriptionConstants.SUCCESSFUL_AUTHENTICATIONS).set(realm.successful.sum());
+            current.get(ElytronDescriptionConstants.FAILED_AUTHENTICATIONS).set(realm.failed.sum());
+            current.get(ElytronDescriptionConstants.UNKNOWN_PRINCIPALS).set(realm.unknown.sum());
+            current.get(ElytronDescriptionConstants.IN_FLIGHT).set(realm.lookup.inFlight.sum() + realm.verification.inFlight.sum());
+            current.get(ElytronDescriptionConstants.LOOKUP_LATENCY).set(realm.lookup.latency.toModelNode());
+            current.get(ElytronDescriptionConstants.VERIFICATION_LATENCY).set(realm.verification.latency.toModelNode());
+            result.add(current);
+        });
+        return result;
+    }
+
+    /**
+     * Reset all counters and histograms, the in-flight counts describe calls currently in progress so are not reset.
+     */
+    void reset() {
+        roleMapping.reset();
+        permissionMapping.reset();
+        nameRewriting.reset();
+        for (RealmStatistics realm : realms.values()) {
+            realm.lookup.reset();
+            realm.verification.reset();
+            realm.successful.reset();
+            realm.failed.reset();
+            realm.unknown.reset();
+        }
+    }
+
+    private static final class Stage {
+
+        private final LongAdder inFlight = new LongAdder();
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        long start() {
+            inFlight.increment();
+            return System.nanoTime();
+        }
+
+        void end(long start) {
+            latency.record(System.nanoTime() - start);
+            inFlight.decrement();
+        }
+
+        void reset() {
+            latency.reset();
+        }
+
+    }
+
+    private static final class RealmStatistics {
+
+        private final Stage lookup = new Stage();
+        private final Stage verification = new Stage();
+        private final LongAdder successful = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder unknown = new LongAdder();
+
+    }
+
+    private static class StatisticsSecurityRealm implements SecurityRealm {
+
+        private final SecurityRealm delegate;
+        private final RealmStatistics statistics;
+
+        StatisticsSecurityRealm(SecurityRealm delegate, RealmStatistics statistics) {
+            this.delegate = delegate;
+            this.statistics = statistics;
+        }
+
+        @Override
+        public RealmIdentity getRealmIdentity(Principal principal) throws RealmUnavailableException {
+            long start = statistics.lookup.start();
+            try {
+                return wrap(delegate.getRealmIdentity(principal));
+            } finally {
+                statistics.lookup.end(start);
+            }
+        }
+
+        @Override
+        public RealmIdentity getRealmIdentity(Evidence evidence) throws RealmUnavailableException {
+            long start = statistics.lookup.start();
+            try {
+                return wrap(delegate.getRealmIdentity(evidence));
+            } finally {
+                statistics.lookup.end(start);
+            }
+        }
+
+        /**
+         * {@link RealmIdentity#NON_EXISTENT} is returned as is so it can still be recognised by identity, the lookup is
+         * counted as an unknown principal immediately.
+         */
+        private RealmIdentity wrap(RealmIdentity realmIdentity) {
+            if (realmIdentity == RealmIdentity.NON_EXISTENT) {
+                statistics.unknown.increment();
+                return realmIdentity;
+            }
+            return new StatisticsRealmIdentity(realmIdentity, statistics);
+        }
+
+        @Override
+        public SupportLevel getCredentialAcquireSupport(Class<? extends Credential> credentialType, String algorithmName) throws RealmUnavailableException {
+            return delegate.getCredentialAcquireSupport(credentialType, algorithmName);
+        }
+
+        @Override
+        public SupportLevel getEvidenceVerifySupport(Class<? extends Evidence> evidenceType, String algorithmName) throws RealmUnavailableException {
+            return delegate.getEvidenceVerifySupport(evidenceType, algorithmName);
+        }
+
+        @Override
+        public void handleRealmEvent(RealmEvent event) {
+            delegate.handleRealmEvent(event);
+        }
+
+    }
+
+    /**
+     * As modifications are management operations rather than part of the authentication path identities obtained for
+     * update are not recorded.
+     */
+    private static final class StatisticsModifiableSecurityRealm extends StatisticsSecurityRealm implements ModifiableSecurityRealm {
+
+        private final ModifiableSecurityRealm delegate;
+
+        StatisticsModifiableSecurityRealm(ModifiableSecurityRealm delegate, RealmStatistics statistics) {
+            super(delegate, statistics);
+            this.delegate = delegate;
+        }
+
+        @Override
+        public ModifiableRealmIdentity getRealmIdentityForUpdate(Principal principal) throws RealmUnavailableException {
+            return delegate.getRealmIdentityForUpdate(principal);
+        }
+
+        @Override
+        public Iterator<ModifiableRealmIdentity> getRealmIdentityIterator() throws RealmUnavailableException {
+            return delegate.getRealmIdentityIterator();
+        }
+
+    }
+
+    private static final class StatisticsRealmIdentity implements RealmIdentity {
+
+        private final RealmIdentity delegate;
+        private final RealmStatistics statistics;
+        // Only the first check of an identity is counted as the domain may check more than once.
+        private volatile boolean unknownCounted;
+
+        StatisticsRealmIdentity(RealmIdentity delegate, RealmStatistics statistics) {
+            this.delegate = delegate;
+            this.statistics = statistics;
+        }
+
+        @Override
+        public Principal getRealmIdentityPrincipal() {
+            return delegate.getRealmIdentityPrincipal();
+        }
+
+        @Override
+        public SupportLevel getCredentialAcquireSupport(Class<? extends Credential> credentialType, String algorithmName) throws RealmUnavailableException {
+            return delegate.getCredentialAcquireSupport(credentialType, algorithmName);
+        }
+
+        @Override
+        public <C extends Credential> C getCredential(Class<C> credentialType) throws RealmUnavailableException {
+            return delegate.getCredential(credentialType);
+        }
+
+        @Override
+        public <C extends Credential> C getCredential(Class<C> credentialType, String algorithmName) throws RealmUnavailableException {
+            return delegate.getCredential(credentialType, algorithmName);
+        }
+
+        @Override
+        public SupportLevel getEvidenceVerifySupport(Class<? extends Evidence> evidenceType, String algorithmName) throws RealmUnavailableException {
+            return delegate.getEvidenceVerifySupport(evidenceType, algorithmName);
+        }
+
+        @Override
+        public boolean verifyEvidence(Evidence evidence) throws RealmUnavailableException {
+            long start = statistics.verification.start();
+            boolean verified = false;
+            try {
+                verified = delegate.verifyEvidence(evidence);
+                return verified;
+            } finally {
+                statistics.verification.end(start);
+                (verified ? statistics.successful : statistics.failed).increment();
+            }
+        }
+
+        @Override
+        public boolean exists() throws RealmUnavailableException {
+            boolean exists = delegate.exists();
+            if (exists == false && unknownCounted == false) {
+                unknownCounted = true;
+                statistics.unknown.increment();
+            }
+            return exists;
+        }
+
+        @Override
+        public AuthorizationIdentity getAuthorizationIdentity() throws RealmUnavailableException {
+            return delegate.getAuthorizationIdentity();
+        }
+
+        @Override
+        public void dispose() {
+            delegate.dispose();
+        }
+
+    }
+
+}
@@ -31,9 +31,12 @@ import static org.wildfly.extension.elytron._private.ElytronSubsystemMessages.RO
 
 import org.jboss.as.controller.AbstractBoottimeAddStepHandler;
 import org.jboss.as.controller.AbstractRemoveStepHandler;
+import org.jboss.as.controller.AttributeDefinition;
 import org.jboss.as.controller.OperationContext;
 import org.jboss.as.controller.OperationContext.AttachmentKey;
 import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.OperationStepHandler;
+import org.jboss.as.controller.ReloadRequiredWriteAttributeHandler;
 import org.jboss.as.controller.ResourceDefinition;
 import org.jboss.as.controller.SimpleResourceDefinition;
 import org.jboss.as.controller.registry.ManagementResourceRegistration;
@@ -64,6 +67,9 @@ import org.wildfly.security.authz.RoleMapper;
  */
 class ElytronDefinition extends SimpleResourceDefinition {
 
+    private static final AttributeDefinition[] ATTRIBUTES = new AttributeDefinition[] {
+            PasswordHashingDefinitions.HASHING_THREADS, PasswordHashingDefinitions.DEFAULT_ITERATION_COUNT, StartupDefinitions.ACTIVATION };
+
     public static final ElytronDefinition INSTANCE = new ElytronDefinition();
 
     private static final AttachmentKey<SecurityPropertyService> SECURITY_PROPERTY_SERVICE_KEY = AttachmentKey.create(SecurityPropertyService.class);
@@ -74,6 +80,21 @@ class ElytronDefinition extends SimpleResourceDefinition {
                 new ElytronAdd(),new ElytronRemove());
     }
 
+    @Override
+    public void registerAttributes(ManagementResourceRegistration resourceRegistration) {
+        OperationStepHandler writeHandler = new ReloadRequiredWriteAttributeHandler(ATTRIBUTES);
+        for (AttributeDefinition current : ATTRIBUTES) {
+            resourceRegistration.registerReadWriteAttribute(current, null, writeHandler);
+        }
+        StartupDefinitions.registerAttributes(resourceRegistration);
+    }
+
+    @Override
+    public void registerOperations(ManagementResourceRegistration resourceRegistration) {
+        super.registerOperations(resourceRegistration);
+        PasswordHashingDefinitions.registerOperations(resourceRegistration, getResourceDescriptionResolver());
+    }
+
     @Override
     public void registerChildren(ManagementResourceRegistration resourceRegistration) {
         // Security Properties
@@ -91,6 +112,8 @@ class ElytronDefinition extends SimpleResourceDefinition {
 
         // Security Realms
         resourceRegistration.registerSubModel(new AggregateRealmDefinition());
+        resourceRegistration.registerSubModel(new AsyncRealmDefinition());
+        resourceRegistration.registerSubModel(new FailoverRealmDefinition());
         resourceRegistration.registerSubModel(new CustomComponentDefinition<SecurityRealm>(SecurityRealm.class, ElytronDescriptionConstants.CUSTOM_REALM, SECURITY_REALM_RUNTIME_CAPABILITY));
         resourceRegistration.registerSubModel(SecurityRealmResourceDecorator.wrap(new CustomComponentDefinition<ModifiableSecurityRealm>(
                 ModifiableSecurityRealm.class, ElytronDescriptionConstants.CUSTOM_MODIFIABLE_REALM,
@@ -188,6 +211,19 @@ class ElytronDefinition extends SimpleResourceDefinition {
             .install();
     }
 
+    private static void installPasswordHashingService(PasswordHashingService service, ServiceTarget serviceTarget) {
+        serviceTarget.addService(PasswordHashingService.SERVICE_NAME, service)
+            .addDependency(CoreService.SERVICE_NAME)
+            .setInitialMode(Mode.ACTIVE)
+            .install();
+    }
+
+    private static void installStartupService(StartupService service, ServiceTarget serviceTarget) {
+        serviceTarget.addService(StartupService.SERVICE_NAME, service)
+            .setInitialMode(Mode.ACTIVE)
+            .install();
+    }
+
     private static SecurityPropertyService uninstallSecurityPropertyService(OperationContext context) {
         ServiceRegistry serviceRegistry = context.getServiceRegistry(true);
 
@@ -206,10 +242,12 @@ class ElytronDefinition extends SimpleResourceDefinition {
     private static class ElytronAdd extends AbstractBoottimeAddStepHandler {
 
         private ElytronAdd() {
+            super(ATTRIBUTES);
         }
 
         @Override
         protected void populateModel(ModelNode operation, ModelNode model) throws OperationFailedException {
+            super.populateModel(operation, model);
             ROOT_LOGGER.activatingElytronSubsystem(org.wildfly.security.Version.getVersion(), Version.getVersion());
         }
 
@@ -219,12 +257,16 @@ class ElytronDefinition extends SimpleResourceDefinition {
             ServiceTarget target = context.getServiceTarget();
             installService(SecurityPropertyService.SERVICE_NAME, new SecurityPropertyService(), target);
             installService(CoreService.SERVICE_NAME, new CoreService(), target);
+            installPasswordHashingService(PasswordHashingDefinitions.createService(context, resource.getModel()), target);
+            installStartupService(StartupDefinitions.createService(context, resource.getModel()), target);
         }
 
         @Override
         protected void rollbackRuntime(OperationContext context, ModelNode operation, Resource resource) {
             uninstallSecurityPropertyService(context);
             context.removeService(CoreService.SERVICE_NAME);
+            context.removeService(PasswordHashingService.SERVICE_NAME);
+            context.removeService(StartupService.SERVICE_NAME);
         }
 
     }
@@ -242,6 +284,8 @@ class ElytronDefinition extends SimpleResourceDefinition {
                     context.attach(SECURITY_PROPERTY_SERVICE_KEY, securityPropertyService);
                 }
                 context.removeService(CoreService.SERVICE_NAME);
+                context.removeService(PasswordHashingService.SERVICE_NAME);
+                context.removeService(StartupService.SERVICE_NAME);
             } else {
                 context.reloadRequired();
             }
@@ -256,6 +300,8 @@ class ElytronDefinition extends SimpleResourceDefinition {
                 installService(SecurityPropertyService.SERVICE_NAME, securityPropertyService, target);
             }
             installService(CoreService.SERVICE_NAME, new CoreService(), target);
+            installPasswordHashingService(PasswordHashingDefinitions.createService(context, model), target);
+            installStartupService(StartupDefinitions.createService(context, model), target);
         }
 
     }
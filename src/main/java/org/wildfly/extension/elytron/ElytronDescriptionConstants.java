@@ -26,6 +26,9 @@ package org.wildfly.extension.elytron;
 interface ElytronDescriptionConstants {
 
     String ACTION = "action";
+    String ACTIVATION = "activation";
+    String ACTIVE_CALLS = "active-calls";
+    String ACTIVE_CONNECTIONS = "active-connections";
     String ACTIVE_SESSION_COUNT = "active-session-count";
     String ADD_ATTRIBUTE = "add-attribute";
     String ADD_PREFIX_ROLE_MAPPER = "add-prefix-role-mapper";
@@ -36,6 +39,7 @@ interface ElytronDescriptionConstants {
     String AGGREGATE_REALM = "aggregate-realm";
     String AGGREGATE_ROLE_MAPPER = "aggregate-role-mapper";
     String AGGREGATE_SASL_SERVER_FACTORY = "aggregate-sasl-server-factory";
+    String ALGORITHMS = "algorithms";
     String ALIAS = "alias";
     String ALIAS_ATTRIBUTE = "alias-attribute";
     String ALIAS_FILTER = "alias-filter";
@@ -43,6 +47,7 @@ interface ElytronDescriptionConstants {
     String ALGORITHM_FROM = "algorithm-from";
     String AND = "and";
     String APPLICATION_BUFFER_SIZE = "application-buffer-size";
+    String ASYNC_REALM = "async-realm";
     String AS_RDN = "as-rdn";
     String ATTRIBUTE = "attribute";
     String ATTRIBUTE_MAPPING = "attribute-mapping";
@@ -55,10 +60,20 @@ interface ElytronDescriptionConstants {
     String AUTHENTICATION_REALM = "authentication-realm";
     String AUTHORIZATION_REALM = "authorization-realm";
     String AVAILABLE_MECHANISMS = "available-mechanisms";
+    String AVERAGE_BORROW_TIME = "average-borrow-time";
 
+    String BATCH_QUERIES = "batch-queries";
+    String BATCH_SIZE = "batch-size";
     String BCRYPT = "bcrypt";
     String BCRYPT_MAPPER = "bcrypt-mapper";
+    String BENCHMARK_PASSWORD_HASHING = "benchmark-password-hashing";
 
+    String CACHE = "cache";
+    String CACHE_EVICTIONS = "cache-evictions";
+    String CACHE_HITS = "cache-hits";
+    String CACHE_MISSES = "cache-misses";
+    String CACHE_SIZE = "cache-size";
+    String CALL_TIMEOUT = "call-timeout";
     String CERTIFICATE = "certificate";
     String CERTIFICATE_ATTRIBUTE = "certificate-attribute";
     String CERTIFICATE_CHAIN = "certificate-chain";
@@ -69,21 +84,28 @@ interface ElytronDescriptionConstants {
     String CHAINED_NAME_REWRITER = "chained-name-rewriter";
     String CIPHER_SUITE = "cipher-suite";
     String CIPHER_SUITE_FILTER = "cipher-suite-filter";
+    String CIRCUIT_STATE = "circuit-state";
     String CLASS_LOADING = "class-loading";
     String CLASS_NAME = "class-name";
     String CLASS_NAMES = "class-names";
     String CLEAR = "clear";
+    String CLEAR_CACHE = "clear-cache";
     String CLEAR_PASSWORD_MAPPER = "clear-password-mapper";
     String CLIENT_ID = "client-id";
     String CLIENT_SECRET = "client-secret";
     String CLIENT_SSL_CONTEXT = "client-ssl-context";
     String CLIENT_SSL_CONTEXTS = "client-ssl-contexts";
+    String CLOSE_TRANSITIONS = "close-transitions";
+    String COALESCED = "coalesced";
+    String COMPACTION_INTERVAL = "compaction-interval";
+    String COMPILED = "compiled";
     String CONCATENATING_PRINCIPAL_DECODER = "concatenating-principal-decoder";
     String CONFIGURABLE_HTTP_SERVER_MECHANISM_FACTORY = "configurable-http-server-mechanism-factory";
     String CONFIGURABLE_SASL_SERVER_FACTORY = "configurable-sasl-server-factory";
     String CONFIGURATION = "configuration";
     String CONFIGURATION_FILE = "configuration-file";
     String CONFIGURATION_PROPERTIES = "configuration-properties";
+    String CONNECTION_POOL = "connection-pool";
     String CONNECTION_TIMEOUT = "connection-timeout";
     String CONSTANT = "constant";
     String CONSTANT_NAME_REWRITER = "constant-name-rewriter";
@@ -115,6 +137,7 @@ interface ElytronDescriptionConstants {
 
     String DATA_SOURCE = "data-source";
     String DEBUG = "debug";
+    String DEFAULT_ITERATION_COUNT = "default-iteration-count";
     String DEFAULT_REALM = "default-realm";
     String DELEGATE_REALM_MAPPER = "delegate-realm-mapper";
     String DIGEST = "digest";
@@ -123,12 +146,22 @@ interface ElytronDescriptionConstants {
     String DIR_CONTEXT = "dir-context";
     String DIR_CONTEXTS = "dir-contexts";
     String DIRECT_VERIFICATION = "direct-verification";
+    String DURATION = "duration";
 
+    String EAGER = "eager";
     String ENABLE_CONNECTION_POOLING = "enable-connection-pooling";
     String ENABLING = "enabling";
     String ENCODED = "encoded";
     String ENTRY_TYPE = "entry-type";
+    String EXECUTIONS = "executions";
+    String EXPORT_IDENTITIES = "export-identities";
 
+    String FAILED_AUTHENTICATIONS = "failed-authentications";
+    String FAILED_HANDSHAKES = "failed-handshakes";
+    String FAILOVER_CALLS = "failover-calls";
+    String FAILOVER_REALM = "failover-realm";
+    String FAILURE_RATE_THRESHOLD = "failure-rate-threshold";
+    String FETCH_SIZE = "fetch-size";
     String FILE = "file";
     String FILESYSTEM_REALM = "filesystem-realm";
     String FILTER = "filter";
@@ -145,12 +178,19 @@ interface ElytronDescriptionConstants {
     String FIRST = "first";
     String FORMAT = "format";
     String FROM = "from";
+    String FULL_HANDSHAKES = "full-handshakes";
 
     String GREATER_THAN = "greater-than";
     String GROUPS = "groups";
     String GROUPS_ATTRIBUTE = "groups-attribute";
     String GROUPS_PROPERTIES = "groups-properties";
+    String GROUP_ENTRY_COUNT = "group-entry-count";
 
+    String HALF_OPEN_TRANSITIONS = "half-open-transitions";
+    String HANDSHAKE_LATENCY = "handshake-latency";
+    String HASHES_PER_SECOND = "hashes-per-second";
+    String HASHING_THREADS = "hashing-threads";
+    String HASH_ALGORITHM = "hash-algorithm";
     String HOST_NAME = "host-name";
     String HOST_NAME_VERIFICATION_POLICY = "host-name-verification-policy";
     String HASH_FROM = "hash-from";
@@ -159,14 +199,20 @@ interface ElytronDescriptionConstants {
     String HTTP_SERVER_MECHANISM_FACTORY = "http-server-mechanism-factory";
     String HTTP_SERVER_FACTORIES = "http-server-factories";
 
+    String IDENTITIES = "identities";
+    String IDENTITIES_PER_SECOND = "identities-per-second";
     String IDENTITY = "identity";
     String IDENTITY_MAPPING = "identity-mapping";
     String IDENTITY_REALM = "identity-realm";
+    String IDLE_CONNECTIONS = "idle-connections";
+    String IDLE_TIMEOUT = "idle-timeout";
     String IMPLEMENTATION = "implementation";
+    String IMPORT_IDENTITIES = "import-identities";
     String INDEX = "index";
     String INFO = "info";
     String INTROSPECTION_URL = "introspection-url";
     String INVALIDATE = "invalidate";
+    String IN_FLIGHT = "in-flight";
     String ISSUER = "issuer";
     String ITERATION_COUNT = "iteration-count";
     String ITERATION_COUNT_INDEX = "iteration-count-index";
@@ -174,6 +220,10 @@ interface ElytronDescriptionConstants {
 
     String JDBC_REALM = "jdbc-realm";
     String JOINER = "joiner";
+    String JOURNAL = "journal";
+    String JWKS_MIN_REFRESH_INTERVAL = "jwks-min-refresh-interval";
+    String JWKS_REFRESH_INTERVAL = "jwks-refresh-interval";
+    String JWKS_URL = "jwks-url";
     String JWT = "jwt";
 
     String KERBEROS_SECURITY_FACTORY = "kerberos-security-factory";
@@ -186,6 +236,9 @@ interface ElytronDescriptionConstants {
     String KEY_STORES = "key-stores";
 
     String LAST_ACCESSED_TIME = "last-accessed-time";
+    String LAST_LOAD_DURATION = "last-load-duration";
+    String LAST_REFRESH = "last-refresh";
+    String LATENCY = "latency";
     String LDAP_KEY_STORE = "ldap-key-store";
     String LDAP_MAPPING = "ldap-mapping";
     String LDAP_REALM = "ldap-realm";
@@ -193,6 +246,7 @@ interface ElytronDescriptionConstants {
     String LESS_THAN = "less-than";
     String LEVELS = "levels";
     String LOAD = "load";
+    String LOAD_BALANCING_POLICY = "load-balancing-policy";
     String LOAD_SERVICES = "load-services";
     String LOADED_PROVIDER = "loaded-provider";
     String LOADED_PROVIDERS = "loaded-providers";
@@ -201,6 +255,7 @@ interface ElytronDescriptionConstants {
     String LOGICAL_OPERATION = "logical-operation";
     String LOGICAL_PERMISSION_MAPPER = "logical-permission-mapper";
     String LOGICAL_ROLE_MAPPER = "logical-role-mapper";
+    String LOOKUP_LATENCY = "lookup-latency";
 
     String MAPPED_REGEX_REALM_MAPPER = "mapped-regex-realm-mapper";
     String MAPPERS = "mappers";
@@ -208,6 +263,12 @@ interface ElytronDescriptionConstants {
     String MATCH = "match";
     String MAXIMUM_SEGMENTS = "maximum-segments";
     String MAXIMUM_SESSION_CACHE_SIZE = "maximum-session-cache-size";
+    String MAX_AGE = "max-age";
+    String MAX_CONCURRENCY = "max-concurrency";
+    String MAX_ENTRIES = "max-entries";
+    String MAX_SIZE = "max-size";
+    String MAX_WAIT = "max-wait";
+    String MEAN_TIME = "mean-time";
     String MECHANISM = "mechanism";
     String MECHANISM_CONFIGURATION = "mechanism-configuration";
     String MECHANISM_CONFIGURATIONS = "mechanism-configurations";
@@ -219,6 +280,7 @@ interface ElytronDescriptionConstants {
     String MECHANISM_REALM_CONFIGURATIONS = "mechanism-realm-configurations";
     String MINIMUM_REMAINING_LIFETIME = "minimum-remaining-lifetime";
     String MINUS = "minus";
+    String MIN_SIZE = "min-size";
     String MODIFIABLE_SECURITY_REALM = "modifiable-security-realm";
     String MODIFIED = "modified";
     String MODULE = "module";
@@ -226,7 +288,11 @@ interface ElytronDescriptionConstants {
     String NAME = "name";
     String NAME_REWRITER = "name-rewriter";
     String NAME_REWRITERS = "name-rewriters";
+    String NAME_REWRITING_LATENCY = "name-rewriting-latency";
     String NEED_CLIENT_AUTH = "need-client-auth";
+    String NEGATIVE_CACHE_AGE = "negative-cache-age";
+    String NEGOTIATED_CIPHER_SUITES = "negotiated-cipher-suites";
+    String NEGOTIATED_PROTOCOLS = "negotiated-protocols";
     String NEW_IDENTITY_ATTRIBUTES = "new-identity-attributes";
     String NEW_IDENTITY_PARENT_DN = "new-identity-parent-dn";
     String NEW_ITEM_ATTRIBUTES = "new-item-attributes";
@@ -238,10 +304,16 @@ interface ElytronDescriptionConstants {
 
     String OAUTH2_INTROSPECTION = "oauth2-introspection";
     String OID = "oid";
+    String ON_DEMAND = "on-demand";
+    String OPEN_DURATION = "open-duration";
+    String OPEN_TRANSITIONS = "open-transitions";
     String OTP_CREDENTIAL_MAPPER = "otp-credential-mapper";
     String OR = "or";
 
     String PACKET_BUFFER_SIZE = "packet-buffer-size";
+    String PARALLELISM = "parallelism";
+    String PARALLEL_QUERIES = "parallel-queries";
+    String PASSWORD_HASHING = "password-hashing";
     String PATH = "path";
     String PASSWORD = "password";
     String PASSWORD_INDEX = "password-index";
@@ -256,11 +328,13 @@ interface ElytronDescriptionConstants {
     String PERMISSION_MAPPER = "permission-mapper";
     String PERMISSION_MAPPING = "permission-mapping";
     String PERMISSION_MAPPINGS = "permission-mappings";
+    String PERMISSION_MAPPING_LATENCY = "permission-mapping-latency";
     String PLAIN_TEXT = "plain-text";
     String POST_REALM_NAME_REWRITER = "post-realm-name-rewriter";
     String PRE_REALM_NAME_REWRITER = "pre-realm-name-rewriter";
     String PREDEFINED_FILTER = "predefined-filter";
     String PREFIX = "prefix";
+    String PRIMARY_REALM = "primary-realm";
     String PRINCIPAL = "principal";
     String PRINCIPALS = "principals";
     String PRINCIPAL_CLAIM = "principal-claim";
@@ -283,6 +357,12 @@ interface ElytronDescriptionConstants {
     String PROVIDERS = "providers";
     String PUBLIC_KEY = "public-key";
 
+    String QUERY_STATISTICS = "query-statistics";
+    String QUERY_THREADS = "query-threads";
+    String QUERY_TIMEOUT = "query-timeout";
+    String QUEUE_LENGTH = "queue-length";
+    String QUEUED_CALLS = "queued-calls";
+
     String RDN_IDENTIFIER = "rdn-identifier";
     String READ_IDENTITY = "read-identity";
     String READ_TIMEOUT = "read-timeout";
@@ -292,17 +372,25 @@ interface ElytronDescriptionConstants {
     String REALM_MAPPING = "realm-mapping";
     String REALM_NAME = "realm-name";
     String REALMS = "realms";
+    String REALM_STATISTICS = "realm-statistics";
     String REFERRAL_MODE = "referral-mode";
+    String REFRESH_DURATION = "refresh-duration";
+    String REFRESH_INTERVAL = "refresh-interval";
     String REGEX_NAME_REWRITER = "regex-name-rewriter";
     String REGEX_NAME_VALIDATING_REWRITER = "regex-name-validating-rewriter";
     String REGISTER = "register";
+    String REJECTED_CALLS = "rejected-calls";
     String RELATIVE_TO = "relative-to";
     String REMOVE_ATTRIBUTE = "remove-attribute";
     String REPLACE_ALL = "replace-all";
     String REPLACEMENT = "replacement";
+    String REPLACE_EXISTING = "replace-existing";
     String REQUEST_LIFETIME = "request-lifetime";
     String REQUIRED = "required";
     String REQUIRED_OIDS = "required-oids";
+    String RESET_STATISTICS = "reset-statistics";
+    String RESUMED_HANDSHAKES = "resumed-handshakes";
+    String RETRY_INTERVAL = "retry-interval";
     String REVERSE = "reverse";
     String RIGHT = "right";
     String ROLE_DECODER = "role-decoder";
@@ -324,6 +412,7 @@ interface ElytronDescriptionConstants {
     String SEARCH_PATH = "search-path";
     String SEARCH_RECURSIVE = "search-recursive";
     String SEARCH_TIME_LIMIT = "search-time-limit";
+    String SECONDARY_REALM = "secondary-realm";
     String SECURITY_DOMAIN = "security-domain";
     String SECURITY_DOMAINS = "security-domains";
     String SECURITY_PROPERTIES = "security-properties";
@@ -355,18 +444,26 @@ interface ElytronDescriptionConstants {
     String SIMPLE_REGEX_REALM_MAPPER = "simple-regex-realm-mapper";
     String SIMPLE_ROLE_DECODER = "simple-role-decoder";
     String SIZE = "size";
+    String SKIPPED = "skipped";
+    String SLOW_CALL_DURATION = "slow-call-duration";
     String SQL = "sql";
     String SSL_CONTEXT = "ssl-context";
     String SSL_SESSION = "ssl-session";
+    String STARTUP = "startup";
     String START_SEGMENT = "start-segment";
+    String START_TIMES = "start-times";
     String STATE = "state";
+    String STATISTICS_ENABLED = "statistics-enabled";
     String STORE = "store";
     String SUBJECT = "subject";
     String SUBJECT_DN_FROM = "subject-dn-from";
+    String SUCCESSFUL_AUTHENTICATIONS = "successful-authentications";
     String SUFFIX = "suffix";
     String SYNCHRONIZED = "synchronized";
 
     String TARGET_NAME = "target-name";
+    String THREADS = "threads";
+    String TIMED_OUT_CALLS = "timed-out-calls";
     String TLS = "tls";
     String TO = "to";
     String TOKEN_REALM = "token-realm";
@@ -376,21 +473,29 @@ interface ElytronDescriptionConstants {
     String TYPE = "type";
 
     String RELOAD = "reload";
+    String ROLE_MAPPING_LATENCY = "role-mapping-latency";
+    String UNKNOWN_PRINCIPALS = "unknown-principals";
     String UNLESS = "unless";
     String URI = "uri";
     String URL = "url";
+    String USER_COUNT = "user-count";
     String USE_RECURSIVE_SEARCH = "use-recursive-search";
     String USE_CIPHER_SUITES_ORDER = "use-cipher-suites-order";
     String USERS_PROPERTIES = "users-properties";
     String USER_PASSWORD_MAPPER = "user-password-mapper";
 
     String VALID = "valid";
+    String VALIDATE_ON_BORROW = "validate-on-borrow";
     String VALUE = "value";
     String VERIFIABLE = "verifiable";
+    String VERIFICATION_LATENCY = "verification-latency";
     String VERSION = "version";
     String VERSION_COMPARISON = "version-comparison";
 
+    String WAITING_REQUESTS = "waiting-requests";
     String WANT_CLIENT_AUTH = "want-client-auth";
+    String WATCH = "watch";
+    String WINDOW_SIZE = "window-size";
     String WRITABLE = "writable";
 
     String X500_ATTRIBUTE_PRINCIPAL_DECODER = "x500-attribute-principal-decoder";
@@ -28,15 +28,19 @@ import static org.jboss.as.controller.parsing.ParseUtils.requireNoAttributes;
 import static org.jboss.as.controller.parsing.ParseUtils.requireNoContent;
 import static org.jboss.as.controller.parsing.ParseUtils.unexpectedAttribute;
 import static org.jboss.as.controller.parsing.ParseUtils.unexpectedElement;
+import static org.wildfly.extension.elytron.ElytronDescriptionConstants.ACTIVATION;
 import static org.wildfly.extension.elytron.ElytronDescriptionConstants.CLASS_NAME;
 import static org.wildfly.extension.elytron.ElytronDescriptionConstants.CREDENTIAL_SECURITY_FACTORIES;
 import static org.wildfly.extension.elytron.ElytronDescriptionConstants.CONFIGURATION;
 import static org.wildfly.extension.elytron.ElytronDescriptionConstants.CREDENTIAL_STORES;
+import static org.wildfly.extension.elytron.ElytronDescriptionConstants.DEFAULT_ITERATION_COUNT;
 import static org.wildfly.extension.elytron.ElytronDescriptionConstants.DIR_CONTEXTS;
+import static org.wildfly.extension.elytron.ElytronDescriptionConstants.HASHING_THREADS;
 import static org.wildfly.extension.elytron.ElytronDescriptionConstants.HTTP;
 import static org.wildfly.extension.elytron.ElytronDescriptionConstants.MAPPERS;
 import static org.wildfly.extension.elytron.ElytronDescriptionConstants.MODULE;
 import static org.wildfly.extension.elytron.ElytronDescriptionConstants.NAME;
+import static org.wildfly.extension.elytron.ElytronDescriptionConstants.PASSWORD_HASHING;
 import static org.wildfly.extension.elytron.ElytronDescriptionConstants.PROPERTY;
 import static org.wildfly.extension.elytron.ElytronDescriptionConstants.PROVIDER_LOADER;
 import static org.wildfly.extension.elytron.ElytronDescriptionConstants.PROVIDER_LOADERS;
@@ -46,6 +50,8 @@ import static org.wildfly.extension.elytron.ElytronDescriptionConstants.SECURITY
 import static org.wildfly.extension.elytron.ElytronDescriptionConstants.SECURITY_PROPERTIES;
 import static org.wildfly.extension.elytron.ElytronDescriptionConstants.SECURITY_PROPERTY;
 import static org.wildfly.extension.elytron.ElytronDescriptionConstants.SECURITY_REALMS;
+import static org.wildfly.extension.elytron.ElytronDescriptionConstants.STARTUP;
+import static org.wildfly.extension.elytron.ElytronDescriptionConstants.THREADS;
 import static org.wildfly.extension.elytron.ElytronDescriptionConstants.TLS;
 import static org.wildfly.extension.elytron.ElytronDescriptionConstants.VALUE;
 import static org.wildfly.extension.elytron.ElytronExtension.NAMESPACE;
@@ -102,6 +108,12 @@ class ElytronSubsystemParser implements XMLElementReader<List<ModelNode>>, XMLEl
             }
 
             switch (reader.getLocalName()) {
+                case PASSWORD_HASHING:
+                    readPasswordHashing(subsystemAdd, reader);
+                    break;
+                case STARTUP:
+                    readStartup(subsystemAdd, reader);
+                    break;
                 case SECURITY_PROPERTIES:
                     readSecurityProperties(parentAddress, reader, operations);
                     break;
@@ -142,6 +154,51 @@ class ElytronSubsystemParser implements XMLElementReader<List<ModelNode>>, XMLEl
         }
     }
 
+    private void readPasswordHashing(ModelNode subsystemAdd, XMLExtendedStreamReader reader) throws XMLStreamException {
+        final int count = reader.getAttributeCount();
+        for (int i = 0; i < count; i++) {
+            final String value = reader.getAttributeValue(i);
+            if (!isNoNamespaceAttribute(reader, i)) {
+                throw unexpectedAttribute(reader, i);
+            } else {
+                String attribute = reader.getAttributeLocalName(i);
+                switch (attribute) {
+                    case THREADS:
+                        PasswordHashingDefinitions.HASHING_THREADS.parseAndSetParameter(value, subsystemAdd, reader);
+                        break;
+                    case DEFAULT_ITERATION_COUNT:
+                        PasswordHashingDefinitions.DEFAULT_ITERATION_COUNT.parseAndSetParameter(value, subsystemAdd, reader);
+                        break;
+                    default:
+                        throw unexpectedAttribute(reader, i);
+                }
+            }
+        }
+
+        requireNoContent(reader);
+    }
+
+    private void readStartup(ModelNode subsystemAdd, XMLExtendedStreamReader reader) throws XMLStreamException {
+        final int count = reader.getAttributeCount();
+        for (int i = 0; i < count; i++) {
+            final String value = reader.getAttributeValue(i);
+            if (!isNoNamespaceAttribute(reader, i)) {
+                throw unexpectedAttribute(reader, i);
+            } else {
+                String attribute = reader.getAttributeLocalName(i);
+                switch (attribute) {
+                    case ACTIVATION:
+                        StartupDefinitions.ACTIVATION.parseAndSetParameter(value, subsystemAdd, reader);
+                        break;
+                    default:
+                        throw unexpectedAttribute(reader, i);
+                }
+            }
+        }
+
+        requireNoContent(reader);
+    }
+
     public void readSecurityProperties(ModelNode parentAddress, XMLExtendedStreamReader reader, List<ModelNode> operations) throws XMLStreamException {
         requireNoAttributes(reader);
         while(reader.hasNext() && reader.nextTag() != END_ELEMENT) {
@@ -338,6 +395,17 @@ class ElytronSubsystemParser implements XMLElementReader<List<ModelNode>>, XMLEl
         context.startSubsystemElement(ElytronExtension.NAMESPACE, false);
 
         ModelNode model = context.getModelNode();
+        if (model.hasDefined(HASHING_THREADS) || model.hasDefined(DEFAULT_ITERATION_COUNT)) {
+            writer.writeEmptyElement(PASSWORD_HASHING);
+            PasswordHashingDefinitions.HASHING_THREADS.marshallAsAttribute(model, false, writer);
+            PasswordHashingDefinitions.DEFAULT_ITERATION_COUNT.marshallAsAttribute(model, false, writer);
+        }
+
+        if (model.hasDefined(ACTIVATION)) {
+            writer.writeEmptyElement(STARTUP);
+            StartupDefinitions.ACTIVATION.marshallAsAttribute(model, true, writer);
+        }
+
         if (model.hasDefined(SECURITY_PROPERTY)) {
             writer.writeStartElement(SECURITY_PROPERTIES);
             ModelNode securityProperties = model.require(SECURITY_PROPERTY);
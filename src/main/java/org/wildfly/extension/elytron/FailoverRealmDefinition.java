@@ -0,0 +1,275 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.extension.elytron;
+
+import static org.wildfly.extension.elytron.Capabilities.SECURITY_REALM_CAPABILITY;
+import static org.wildfly.extension.elytron.Capabilities.SECURITY_REALM_RUNTIME_CAPABILITY;
+import static org.wildfly.extension.elytron.ElytronDefinition.commonDependencies;
+import static org.wildfly.extension.elytron.ElytronExtension.getRequiredService;
+import static org.wildfly.extension.elytron.StartupDefinitions.getInitialMode;
+import static org.wildfly.extension.elytron.StartupDefinitions.startTimer;
+
+import org.jboss.as.controller.AbstractAddStepHandler;
+import org.jboss.as.controller.AbstractRuntimeOnlyHandler;
+import org.jboss.as.controller.AttributeDefinition;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.OperationStepHandler;
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.PathElement;
+import org.jboss.as.controller.ResourceDefinition;
+import org.jboss.as.controller.RestartParentWriteAttributeHandler;
+import org.jboss.as.controller.SimpleAttributeDefinition;
+import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
+import org.jboss.as.controller.SimpleResourceDefinition;
+import org.jboss.as.controller.capability.RuntimeCapability;
+import org.jboss.as.controller.operations.validation.IntRangeValidator;
+import org.jboss.as.controller.operations.validation.LongRangeValidator;
+import org.jboss.as.controller.registry.AttributeAccess;
+import org.jboss.as.controller.registry.ManagementResourceRegistration;
+import org.jboss.as.controller.registry.OperationEntry;
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
+import org.jboss.msc.inject.Injector;
+import org.jboss.msc.service.ServiceBuilder;
+import org.jboss.msc.service.ServiceController;
+import org.jboss.msc.service.ServiceController.State;
+import org.jboss.msc.service.ServiceName;
+import org.jboss.msc.service.ServiceTarget;
+import org.jboss.msc.value.InjectedValue;
+import org.wildfly.security.auth.server.SecurityRealm;
+
+/**
+ * A {@link ResourceDefinition} for a {@link SecurityRealm} which fails over from a primary realm to a secondary realm
+ * guarded by a circuit breaker, see {@link FailoverSecurityRealm}.
+ */
+class FailoverRealmDefinition extends SimpleResourceDefinition {
+
+    static final ServiceUtil<SecurityRealm> REALM_SERVICE_UTIL = ServiceUtil.newInstance(SECURITY_REALM_RUNTIME_CAPABILITY, ElytronDescriptionConstants.FAILOVER_REALM, SecurityRealm.class);
+
+    static final SimpleAttributeDefinition PRIMARY_REALM = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.PRIMARY_REALM, ModelType.STRING, false)
+        .setMinSize(1)
+        .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
+        .setCapabilityReference(SECURITY_REALM_CAPABILITY, SECURITY_REALM_CAPABILITY, true)
+        .build();
+
+    static final SimpleAttributeDefinition SECONDARY_REALM = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.SECONDARY_REALM, ModelType.STRING, false)
+        .setMinSize(1)
+        .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
+        .setCapabilityReference(SECURITY_REALM_CAPABILITY, SECURITY_REALM_CAPABILITY, true)
+        .build();
+
+    static final SimpleAttributeDefinition WINDOW_SIZE = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.WINDOW_SIZE, ModelType.INT, true)
+        .setDefaultValue(new ModelNode(20))
+        .setValidator(new IntRangeValidator(1, true, true))
+        .setAllowExpression(true)
+        .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
+        .build();
+
+    static final SimpleAttributeDefinition FAILURE_RATE_THRESHOLD = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.FAILURE_RATE_THRESHOLD, ModelType.INT, true)
+        .setDefaultValue(new ModelNode(50))
+        .setValidator(new IntRangeValidator(1, 100, true, true))
+        .setAllowExpression(true)
+        .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
+        .build();
+
+    static final SimpleAttributeDefinition SLOW_CALL_DURATION = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.SLOW_CALL_DURATION, ModelType.LONG, true)
+        .setDefaultValue(new ModelNode(0L))
+        .setValidator(new LongRangeValidator(0L, true, true))
+        .setAllowExpression(true)
+        .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
+        .build();
+
+    static final SimpleAttributeDefinition OPEN_DURATION = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.OPEN_DURATION, ModelType.LONG, true)
+        .setDefaultValue(new ModelNode(30000L))
+        .setValidator(new LongRangeValidator(1L, true, true))
+        .setAllowExpression(true)
+        .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
+        .build();
+
+    static final AttributeDefinition[] ATTRIBUTES = new AttributeDefinition[] { PRIMARY_REALM, SECONDARY_REALM, WINDOW_SIZE, FAILURE_RATE_THRESHOLD,
+            SLOW_CALL_DURATION, OPEN_DURATION };
+
+    // Runtime Attributes
+
+    static final SimpleAttributeDefinition CIRCUIT_STATE = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.CIRCUIT_STATE, ModelType.STRING)
+        .setStorageRuntime()
+        .build();
+
+    static final SimpleAttributeDefinition OPEN_TRANSITIONS = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.OPEN_TRANSITIONS, ModelType.LONG)
+        .setStorageRuntime()
+        .build();
+
+    static final SimpleAttributeDefinition HALF_OPEN_TRANSITIONS = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.HALF_OPEN_TRANSITIONS, ModelType.LONG)
+        .setStorageRuntime()
+        .build();
+
+    static final SimpleAttributeDefinition CLOSE_TRANSITIONS = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.CLOSE_TRANSITIONS, ModelType.LONG)
+        .setStorageRuntime()
+        .build();
+
+    static final SimpleAttributeDefinition FAILOVER_CALLS = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.FAILOVER_CALLS, ModelType.LONG)
+        .setStorageRuntime()
+        .build();
+
+    private static final AbstractAddStepHandler ADD = new RealmAddHandler();
+    private static final OperationStepHandler REMOVE = new TrivialCapabilityServiceRemoveHandler(ADD, SECURITY_REALM_RUNTIME_CAPABILITY);
+
+    FailoverRealmDefinition() {
+        super(new Parameters(PathElement.pathElement(ElytronDescriptionConstants.FAILOVER_REALM), ElytronExtension.getResourceDescriptionResolver(ElytronDescriptionConstants.FAILOVER_REALM))
+            .setAddHandler(ADD)
+            .setRemoveHandler(REMOVE)
+            .setAddRestartLevel(OperationEntry.Flag.RESTART_RESOURCE_SERVICES)
+            .setRemoveRestartLevel(OperationEntry.Flag.RESTART_RESOURCE_SERVICES)
+            .setCapabilities(SECURITY_REALM_RUNTIME_CAPABILITY));
+    }
+
+    @Override
+    public void registerAttributes(ManagementResourceRegistration resourceRegistration) {
+        WriteAttributeHandler write = new WriteAttributeHandler(ElytronDescriptionConstants.FAILOVER_REALM);
+        for (AttributeDefinition current : ATTRIBUTES) {
+            resourceRegistration.registerReadWriteAttribute(current, null, write);
+        }
+
+        resourceRegistration.registerReadOnlyAttribute(CIRCUIT_STATE, new FailoverRuntimeHandler() {
+
+            @Override
+            void performRuntime(OperationContext context, FailoverSecurityRealm securityRealm) {
+                context.getResult().set(securityRealm.getCircuitBreaker().getState().name());
+            }
+        });
+
+        resourceRegistration.registerReadOnlyAttribute(OPEN_TRANSITIONS, new FailoverRuntimeHandler() {
+
+            @Override
+            void performRuntime(OperationContext context, FailoverSecurityRealm securityRealm) {
+                context.getResult().set(securityRealm.getCircuitBreaker().getOpenTransitions());
+            }
+        });
+
+        resourceRegistration.registerReadOnlyAttribute(HALF_OPEN_TRANSITIONS, new FailoverRuntimeHandler() {
+
+            @Override
+            void performRuntime(OperationContext context, FailoverSecurityRealm securityRealm) {
+                context.getResult().set(securityRealm.getCircuitBreaker().getHalfOpenTransitions());
+            }
+        });
+
+        resourceRegistration.registerReadOnlyAttribute(CLOSE_TRANSITIONS, new FailoverRuntimeHandler() {
+
+            @Override
+            void performRuntime(OperationContext context, FailoverSecurityRealm securityRealm) {
+                context.getResult().set(securityRealm.getCircuitBreaker().getCloseTransitions());
+            }
+        });
+
+        resourceRegistration.registerReadOnlyAttribute(FAILOVER_CALLS, new FailoverRuntimeHandler() {
+
+            @Override
+            void performRuntime(OperationContext context, FailoverSecurityRealm securityRealm) {
+                context.getResult().set(securityRealm.getFailoverCalls());
+            }
+        });
+    }
+
+    private static ServiceName getRealmServiceName(String realmName) {
+        return SECURITY_REALM_RUNTIME_CAPABILITY.fromBaseCapability(realmName).getCapabilityServiceName(SecurityRealm.class);
+    }
+
+    private static class RealmAddHandler extends BaseAddHandler {
+
+        private RealmAddHandler() {
+            super(SECURITY_REALM_RUNTIME_CAPABILITY, ATTRIBUTES);
+        }
+
+        @Override
+        protected void performRuntime(OperationContext context, ModelNode operation, ModelNode model)
+                throws OperationFailedException {
+            ServiceTarget serviceTarget = context.getServiceTarget();
+            final String name = context.getCurrentAddressValue();
+            ServiceName realmName = getRealmServiceName(name);
+
+            String primaryRealm = PRIMARY_REALM.resolveModelAttribute(context, model).asString();
+            String secondaryRealm = SECONDARY_REALM.resolveModelAttribute(context, model).asString();
+            final int windowSize = WINDOW_SIZE.resolveModelAttribute(context, model).asInt();
+            final int failureRateThreshold = FAILURE_RATE_THRESHOLD.resolveModelAttribute(context, model).asInt();
+            final long slowCallDuration = SLOW_CALL_DURATION.resolveModelAttribute(context, model).asLong();
+            final long openDuration = OPEN_DURATION.resolveModelAttribute(context, model).asLong();
+
+            final InjectedValue<SecurityRealm> primaryRealmValue = new InjectedValue<SecurityRealm>();
+            final InjectedValue<SecurityRealm> secondaryRealmValue = new InjectedValue<SecurityRealm>();
+
+            TrivialService<SecurityRealm> failoverRealmService = new TrivialService<SecurityRealm>(() -> new FailoverSecurityRealm(name,
+                    primaryRealmValue.getValue(), secondaryRealmValue.getValue(), windowSize, failureRateThreshold, slowCallDuration, openDuration));
+
+            ServiceBuilder<SecurityRealm> serviceBuilder = serviceTarget.addService(realmName, failoverRealmService);
+
+            addRealmDependency(context, serviceBuilder, primaryRealm, primaryRealmValue);
+            addRealmDependency(context, serviceBuilder, secondaryRealm, secondaryRealmValue);
+
+            commonDependencies(serviceBuilder)
+                .setInitialMode(getInitialMode(context))
+                .addListener(startTimer(context))
+                .install();
+        }
+
+        private void addRealmDependency(OperationContext context, ServiceBuilder<SecurityRealm> serviceBuilder, String realmName, Injector<SecurityRealm> securityRealmInjector) {
+            String runtimeCapability = RuntimeCapability.buildDynamicCapabilityName(SECURITY_REALM_CAPABILITY, realmName);
+            ServiceName realmServiceName = context.getCapabilityServiceName(runtimeCapability, SecurityRealm.class);
+
+            REALM_SERVICE_UTIL.addInjection(serviceBuilder, securityRealmInjector, realmServiceName);
+        }
+
+    }
+
+    private static class WriteAttributeHandler extends RestartParentWriteAttributeHandler {
+
+        WriteAttributeHandler(final String key) {
+            super(key, ATTRIBUTES);
+        }
+
+        @Override
+        protected ServiceName getParentServiceName(PathAddress pathAddress) {
+            return getRealmServiceName(pathAddress.getLastElement().getValue());
+        }
+    }
+
+    /**
+     * A runtime handler for a failover realm, if the realm is not currently available the result is left undefined.
+     */
+    abstract static class FailoverRuntimeHandler extends AbstractRuntimeOnlyHandler {
+
+        @Override
+        protected void executeRuntimeStep(OperationContext context, ModelNode operation) throws OperationFailedException {
+            ServiceController<SecurityRealm> serviceController = getRequiredService(context.getServiceRegistry(false),
+                    getRealmServiceName(context.getCurrentAddressValue()), SecurityRealm.class);
+            if (serviceController.getState() != State.UP) {
+                return;
+            }
+
+            SecurityRealm securityRealm = serviceController.getValue();
+            if (securityRealm instanceof FailoverSecurityRealm) {
+                performRuntime(context, (FailoverSecurityRealm) securityRealm);
+            }
+        }
+
+        abstract void performRuntime(OperationContext context, FailoverSecurityRealm securityRealm) throws OperationFailedException;
+
+    }
+}
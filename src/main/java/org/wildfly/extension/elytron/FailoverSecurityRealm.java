@@ -0,0 +1,216 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.extension.elytron;
+
+import static org.wildfly.extension.elytron._private.ElytronSubsystemMessages.ROOT_LOGGER;
+
+import java.security.Principal;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.wildfly.security.auth.SupportLevel;
+import org.wildfly.security.auth.server.RealmIdentity;
+import org.wildfly.security.auth.server.RealmUnavailableException;
+import org.wildfly.security.auth.server.SecurityRealm;
+import org.wildfly.security.auth.server.event.RealmEvent;
+import org.wildfly.security.authz.AuthorizationIdentity;
+import org.wildfly.security.credential.Credential;
+import org.wildfly.security.evidence.Evidence;
+
+/**
+ * A {@link SecurityRealm} making calls to a primary realm and failing over to a secondary realm whilst the primary realm is
+ * unavailable.
+ * <p>
+ * A call to the primary realm failing with a {@link RealmUnavailableException} is repeated against the secondary realm.
+ * The outcome and duration of each call to the primary realm is recorded by a {@link CircuitBreaker}, whilst the breaker
+ * is open calls are made directly to the secondary realm so callers do not wait for a failing primary realm to time out.
+ * <p>
+ * The identities of the primary realm are wrapped in the same way, the corresponding identity of the secondary realm is
+ * only obtained once a call to the identity fails over.
+ */
+class FailoverSecurityRealm implements SecurityRealm {
+
+    private final SecurityRealm primary;
+    private final SecurityRealm secondary;
+    private final CircuitBreaker circuitBreaker;
+
+    private final LongAdder failoverCalls = new LongAdder();
+
+    FailoverSecurityRealm(String realmName, SecurityRealm primary, SecurityRealm secondary, int windowSize, int failureRateThreshold,
+            long slowCallDuration, long openDuration) {
+        this.primary = primary;
+        this.secondary = secondary;
+        this.circuitBreaker = new CircuitBreaker(windowSize, failureRateThreshold, slowCallDuration, openDuration, new CircuitBreaker.Listener() {
+
+            @Override
+            public void opened() {
+                ROOT_LOGGER.circuitBreakerOpened(realmName);
+            }
+
+            @Override
+            public void closed() {
+                ROOT_LOGGER.circuitBreakerClosed(realmName);
+            }
+        });
+    }
+
+    private <T> T call(RealmCall<T> primaryCall, RealmCall<T> secondaryCall) throws RealmUnavailableException {
+        final CircuitBreaker.Permit permit = circuitBreaker.permit();
+        if (permit != null) {
+            // Any exception or error is recorded as a failure, only an unavailable realm is failed over.
+            boolean failed = true;
+            long start = System.nanoTime();
+            try {
+                T result = primaryCall.call();
+                failed = false;
+                return result;
+            } catch (RealmUnavailableException e) {
+                ROOT_LOGGER.tracef(e, "Call to primary realm failed, failing over to the secondary realm");
+            } finally {
+                circuitBreaker.record(permit, failed, System.nanoTime() - start);
+            }
+        }
+
+        failoverCalls.increment();
+        return secondaryCall.call();
+    }
+
+    @Override
+    public RealmIdentity getRealmIdentity(Principal principal) throws RealmUnavailableException {
+        return call(() -> wrap(primary.getRealmIdentity(principal), () -> secondary.getRealmIdentity(principal)),
+                () -> secondary.getRealmIdentity(principal));
+    }
+
+    @Override
+    public RealmIdentity getRealmIdentity(Evidence evidence) throws RealmUnavailableException {
+        return call(() -> wrap(primary.getRealmIdentity(evidence), () -> secondary.getRealmIdentity(evidence)),
+                () -> secondary.getRealmIdentity(evidence));
+    }
+
+    private RealmIdentity wrap(RealmIdentity identity, RealmCall<RealmIdentity> secondaryIdentity) {
+        return identity == RealmIdentity.NON_EXISTENT ? identity : new FailoverRealmIdentity(identity, secondaryIdentity);
+    }
+
+    @Override
+    public SupportLevel getCredentialAcquireSupport(Class<? extends Credential> credentialType, String algorithmName) throws RealmUnavailableException {
+        return call(() -> primary.getCredentialAcquireSupport(credentialType, algorithmName),
+                () -> secondary.getCredentialAcquireSupport(credentialType, algorithmName));
+    }
+
+    @Override
+    public SupportLevel getEvidenceVerifySupport(Class<? extends Evidence> evidenceType, String algorithmName) throws RealmUnavailableException {
+        return call(() -> primary.getEvidenceVerifySupport(evidenceType, algorithmName),
+                () -> secondary.getEvidenceVerifySupport(evidenceType, algorithmName));
+    }
+
+    @Override
+    public void handleRealmEvent(RealmEvent event) {
+        primary.handleRealmEvent(event);
+    }
+
+    CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    long getFailoverCalls() {
+        return failoverCalls.sum();
+    }
+
+    @FunctionalInterface
+    private interface RealmCall<T> {
+
+        T call() throws RealmUnavailableException;
+
+    }
+
+    private final class FailoverRealmIdentity implements RealmIdentity {
+
+        private final RealmIdentity primaryIdentity;
+        private final RealmCall<RealmIdentity> secondaryIdentitySupplier;
+
+        private RealmIdentity secondaryIdentity;
+
+        FailoverRealmIdentity(RealmIdentity primaryIdentity, RealmCall<RealmIdentity> secondaryIdentitySupplier) {
+            this.primaryIdentity = primaryIdentity;
+            this.secondaryIdentitySupplier = secondaryIdentitySupplier;
+        }
+
+        private synchronized RealmIdentity secondary() throws RealmUnavailableException {
+            if (secondaryIdentity == null) {
+                secondaryIdentity = secondaryIdentitySupplier.call();
+            }
+            return secondaryIdentity;
+        }
+
+        @Override
+        public Principal getRealmIdentityPrincipal() {
+            return primaryIdentity.getRealmIdentityPrincipal();
+        }
+
+        @Override
+        public SupportLevel getCredentialAcquireSupport(Class<? extends Credential> credentialType, String algorithmName) throws RealmUnavailableException {
+            return call(() -> primaryIdentity.getCredentialAcquireSupport(credentialType, algorithmName),
+                    () -> secondary().getCredentialAcquireSupport(credentialType, algorithmName));
+        }
+
+        @Override
+        public <C extends Credential> C getCredential(Class<C> credentialType) throws RealmUnavailableException {
+            return call(() -> primaryIdentity.getCredential(credentialType), () -> secondary().getCredential(credentialType));
+        }
+
+        @Override
+        public <C extends Credential> C getCredential(Class<C> credentialType, String algorithmName) throws RealmUnavailableException {
+            return call(() -> primaryIdentity.getCredential(credentialType, algorithmName),
+                    () -> secondary().getCredential(credentialType, algorithmName));
+        }
+
+        @Override
+        public SupportLevel getEvidenceVerifySupport(Class<? extends Evidence> evidenceType, String algorithmName) throws RealmUnavailableException {
+            return call(() -> primaryIdentity.getEvidenceVerifySupport(evidenceType, algorithmName),
+                    () -> secondary().getEvidenceVerifySupport(evidenceType, algorithmName));
+        }
+
+        @Override
+        public boolean verifyEvidence(Evidence evidence) throws RealmUnavailableException {
+            return call(() -> primaryIdentity.verifyEvidence(evidence), () -> secondary().verifyEvidence(evidence));
+        }
+
+        @Override
+        public boolean exists() throws RealmUnavailableException {
+            return call(primaryIdentity::exists, () -> secondary().exists());
+        }
+
+        @Override
+        public AuthorizationIdentity getAuthorizationIdentity() throws RealmUnavailableException {
+            return call(primaryIdentity::getAuthorizationIdentity, () -> secondary().getAuthorizationIdentity());
+        }
+
+        @Override
+        public void dispose() {
+            primaryIdentity.dispose();
+            synchronized (this) {
+                if (secondaryIdentity != null) {
+                    secondaryIdentity.dispose();
+                    secondaryIdentity = null;
+                }
+            }
+        }
+
+    }
+
+}
@@ -25,12 +25,17 @@ import static org.wildfly.extension.elytron.Capabilities.SECURITY_REALM_RUNTIME_
 import static org.wildfly.extension.elytron.ElytronExtension.asStringIfDefined;
 import static org.wildfly.extension.elytron.FileAttributeDefinitions.pathName;
 import static org.wildfly.extension.elytron.FileAttributeDefinitions.pathResolver;
+import static org.wildfly.extension.elytron.StartupDefinitions.getInitialMode;
+import static org.wildfly.extension.elytron.StartupDefinitions.startTimer;
 
+import java.io.IOException;
 import java.nio.file.Path;
 import java.security.KeyStore;
+import java.util.function.UnaryOperator;
 
 import org.jboss.as.controller.AbstractAddStepHandler;
 import org.jboss.as.controller.AttributeDefinition;
+import org.jboss.as.controller.ObjectTypeAttributeDefinition;
 import org.jboss.as.controller.OperationContext;
 import org.jboss.as.controller.OperationFailedException;
 import org.jboss.as.controller.OperationStepHandler;
@@ -42,6 +47,8 @@ import org.jboss.as.controller.SimpleAttributeDefinition;
 import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
 import org.jboss.as.controller.SimpleResourceDefinition;
 import org.jboss.as.controller.capability.RuntimeCapability;
+import org.jboss.as.controller.operations.validation.LongRangeValidator;
+import org.jboss.as.controller.registry.AttributeAccess;
 import org.jboss.as.controller.registry.ManagementResourceRegistration;
 import org.jboss.as.controller.registry.OperationEntry;
 import org.jboss.as.controller.services.path.PathManager;
@@ -55,7 +62,9 @@ import org.jboss.msc.service.StartException;
 import org.jboss.msc.value.InjectedValue;
 import org.wildfly.extension.elytron.FileAttributeDefinitions.PathResolver;
 import org.wildfly.security.auth.realm.FileSystemSecurityRealm;
+import org.wildfly.security.auth.server.ModifiableSecurityRealm;
 import org.wildfly.security.auth.server.NameRewriter;
+import org.wildfly.security.auth.server.RealmUnavailableException;
 import org.wildfly.security.auth.server.SecurityRealm;
 
 
@@ -88,8 +97,20 @@ class FileSystemRealmDefinition extends SimpleResourceDefinition {
                     .setAllowNull(true)
                     .build();
 
+    static final SimpleAttributeDefinition COMPACTION_INTERVAL = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.COMPACTION_INTERVAL, ModelType.LONG, true)
+            .setDefaultValue(new ModelNode(5000L))
+            .setValidator(new LongRangeValidator(1L, true, true))
+            .setAllowExpression(true)
+            .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
+            .build();
+
+    static final ObjectTypeAttributeDefinition JOURNAL = new ObjectTypeAttributeDefinition.Builder(ElytronDescriptionConstants.JOURNAL, COMPACTION_INTERVAL)
+            .setAllowNull(true)
+            .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
+            .build();
+
     static final AttributeDefinition[] ATTRIBUTES =
-            new AttributeDefinition[]{PATH, RELATIVE_TO, LEVELS, NAME_REWRITER};
+            new AttributeDefinition[]{PATH, RELATIVE_TO, LEVELS, NAME_REWRITER, RealmCacheDefinitions.CACHE, JOURNAL};
 
     private static final AbstractAddStepHandler ADD = new RealmAddHandler();
     private static final OperationStepHandler REMOVE = new TrivialCapabilityServiceRemoveHandler(ADD, MODIFIABLE_SECURITY_REALM_RUNTIME_CAPABILITY, SECURITY_REALM_RUNTIME_CAPABILITY);
@@ -110,6 +131,15 @@ class FileSystemRealmDefinition extends SimpleResourceDefinition {
         for (AttributeDefinition attr : ATTRIBUTES) {
             resourceRegistration.registerReadWriteAttribute(attr, null, handler);
         }
+
+        RealmCacheDefinitions.registerRuntimeAttributes(resourceRegistration);
+    }
+
+    @Override
+    public void registerOperations(ManagementResourceRegistration resourceRegistration) {
+        super.registerOperations(resourceRegistration);
+
+        RealmCacheDefinitions.registerOperations(resourceRegistration, getResourceDescriptionResolver());
     }
 
     private static class RealmAddHandler extends BaseAddHandler {
@@ -134,6 +164,10 @@ class FileSystemRealmDefinition extends SimpleResourceDefinition {
             final String path = PATH.resolveModelAttribute(context, model).asString();
             final String relativeTo = asStringIfDefined(context, RELATIVE_TO, model);
 
+            final UnaryOperator<SecurityRealm> cacheWrapper = RealmCacheDefinitions.getCacheWrapper(context, model);
+            ModelNode journal = JOURNAL.resolveModelAttribute(context, model);
+            final long compactionInterval = journal.isDefined() ? COMPACTION_INTERVAL.resolveModelAttribute(context, journal).asLong() : -1;
+
             final InjectedValue<PathManager> pathManagerInjector = new InjectedValue<>();
             final InjectedValue<NameRewriter> nameRewriterInjector = new InjectedValue<>();
 
@@ -141,6 +175,7 @@ class FileSystemRealmDefinition extends SimpleResourceDefinition {
                     new TrivialService.ValueSupplier<SecurityRealm>() {
 
                         private PathResolver pathResolver;
+                        private JournalingModifiableSecurityRealm journalingRealm;
 
                         @Override
                         public SecurityRealm get() throws StartException {
@@ -149,13 +184,29 @@ class FileSystemRealmDefinition extends SimpleResourceDefinition {
 
                             NameRewriter nameRewriter = nameRewriterInjector.getOptionalValue();
 
-                            return nameRewriter != null ?
+                            ModifiableSecurityRealm realm = nameRewriter != null ?
                                     new FileSystemSecurityRealm(rootPath, nameRewriter, levels) :
                                     new FileSystemSecurityRealm(rootPath, levels);
+
+                            if (compactionInterval > 0) {
+                                Path journalPath = rootPath.resolveSibling(rootPath.getFileName() + ".journal");
+                                try {
+                                    journalingRealm = JournalingModifiableSecurityRealm.open(realm, journalPath, compactionInterval);
+                                } catch (IOException | RealmUnavailableException e) {
+                                    throw new StartException(e);
+                                }
+                                realm = journalingRealm;
+                            }
+
+                            return cacheWrapper.apply(realm);
                         }
 
                         @Override
                         public void dispose() {
+                            if (journalingRealm != null) {
+                                journalingRealm.close();
+                                journalingRealm = null;
+                            }
                             if (pathResolver != null) {
                                 pathResolver.clear();
                                 pathResolver = null;
@@ -165,7 +216,9 @@ class FileSystemRealmDefinition extends SimpleResourceDefinition {
                     });
 
             ServiceBuilder<SecurityRealm> serviceBuilder = serviceTarget.addService(mainServiceName, fileSystemRealmService)
-                    .addAliases(aliasServiceName);
+                    .addAliases(aliasServiceName)
+                    .setInitialMode(getInitialMode(context))
+                    .addListener(startTimer(context));
 
             if (relativeTo != null) {
                 serviceBuilder.addDependency(PathManagerService.SERVICE_NAME, PathManager.class, pathManagerInjector);
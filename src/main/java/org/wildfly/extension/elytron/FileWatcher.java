@@ -0,0 +1,133 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.extension.elytron;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+import static org.wildfly.extension.elytron._private.ElytronSubsystemMessages.ROOT_LOGGER;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches a single file for changes and notifies a listener once the file has stopped changing.
+ * <p>
+ * As a {@link WatchService} can only watch directories the parent directory of the file is watched and events for other
+ * files are ignored. Writing a file commonly results in a burst of events, the listener is only notified once no further
+ * events have been received for the file for the configured quiet period so a file is not read whilst still being
+ * written. The listener is called on the thread of the watcher and so should not block for extended periods.
+ */
+class FileWatcher {
+
+    private final File file;
+    private final WatchService watchService;
+    private final Thread thread;
+
+    private FileWatcher(File file, WatchService watchService, long quietPeriod, Runnable listener) {
+        this.file = file;
+        this.watchService = watchService;
+        this.thread = new Thread(() -> run(quietPeriod, listener), "File watcher for " + file.getName());
+        thread.setDaemon(true);
+    }
+
+    /**
+     * Start watching a file for changes.
+     *
+     * @param file the file to watch.
+     * @param quietPeriod the time in milliseconds after the last change was detected before the listener is notified.
+     * @param listener the listener to notify of changes.
+     * @return the {@link FileWatcher} which must be closed once changes are no longer of interest.
+     * @throws IOException if the parent directory of the file can not be watched.
+     */
+    static FileWatcher watch(File file, long quietPeriod, Runnable listener) throws IOException {
+        final File absolute = file.getAbsoluteFile();
+        final Path directory = absolute.getParentFile().toPath();
+        final WatchService watchService = directory.getFileSystem().newWatchService();
+        try {
+            directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY);
+        } catch (IOException | RuntimeException e) {
+            watchService.close();
+            throw e;
+        }
+
+        FileWatcher watcher = new FileWatcher(absolute, watchService, quietPeriod, listener);
+        watcher.thread.start();
+        return watcher;
+    }
+
+    private void run(long quietPeriod, Runnable listener) {
+        final Path fileName = file.toPath().getFileName();
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = isChanged(key, fileName);
+                if (key.reset() == false) {
+                    ROOT_LOGGER.unableToWatchFile(file.getPath(), null);
+                    return;
+                }
+                if (changed == false) {
+                    continue;
+                }
+
+                // Wait for the file to stop changing before notifying the listener.
+                while ((key = watchService.poll(quietPeriod, TimeUnit.MILLISECONDS)) != null) {
+                    key.pollEvents();
+                    key.reset();
+                }
+
+                ROOT_LOGGER.tracef("Change detected to file '%s'", file);
+                try {
+                    listener.run();
+                } catch (RuntimeException e) {
+                    ROOT_LOGGER.tracef(e, "Listener failed handling change to file '%s'", file);
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            ROOT_LOGGER.tracef("Stopped watching file '%s'", file);
+        }
+    }
+
+    private static boolean isChanged(WatchKey key, Path fileName) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            changed |= event.kind() == OVERFLOW || fileName.equals(event.context());
+        }
+        return changed;
+    }
+
+    /**
+     * Stop watching the file, the listener will not be notified of any further changes.
+     */
+    void close() {
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            ROOT_LOGGER.tracef(e, "Unable to close WatchService for file '%s'", file);
+        }
+        thread.interrupt();
+    }
+
+}
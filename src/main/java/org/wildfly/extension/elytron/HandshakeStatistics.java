@@ -0,0 +1,127 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.extension.elytron;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.net.ssl.SSLSession;
+
+import org.jboss.dmr.ModelNode;
+
+/**
+ * Counters describing the TLS handshakes performed using a single {@link javax.net.ssl.SSLContext}.
+ * <p>
+ * All counters are {@link LongAdder} instances so recording a handshake does not contend between connections, the
+ * counters are only summed when read.
+ */
+class HandshakeStatistics {
+
+    private static final String ALERT_PREFIX = "fatal alert: ";
+
+    private final LongAdder fullHandshakes = new LongAdder();
+    private final LongAdder resumedHandshakes = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final Map<String, LongAdder> failures = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> protocols = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> cipherSuites = new ConcurrentHashMap<>();
+
+    /**
+     * Record a successfully completed handshake.
+     *
+     * @param session the session established or resumed by the handshake.
+     * @param startTime the wall clock time in milliseconds the handshake started, a session created before this time was
+     *        resumed.
+     * @param duration the duration of the handshake in nanoseconds, or a negative value if not known.
+     */
+    void handshakeCompleted(SSLSession session, long startTime, long duration) {
+        if (session.getCreationTime() < startTime) {
+            resumedHandshakes.increment();
+        } else {
+            fullHandshakes.increment();
+        }
+        if (duration >= 0) {
+            latency.record(duration);
+        }
+        increment(protocols, session.getProtocol());
+        increment(cipherSuites, session.getCipherSuite());
+    }
+
+    /**
+     * Record a failed handshake, the failure is counted against the alert received from the peer where available or
+     * otherwise against the type of the underlying cause.
+     *
+     * @param failure the failure reported.
+     */
+    void handshakeFailed(Throwable failure) {
+        increment(failures, alertOf(failure));
+    }
+
+    private static String alertOf(Throwable failure) {
+        Throwable cause = failure;
+        for (Throwable current = failure; current != null; current = current.getCause()) {
+            String message = current.getMessage();
+            int index = message != null ? message.indexOf(ALERT_PREFIX) : -1;
+            if (index >= 0) {
+                return message.substring(index + ALERT_PREFIX.length()).trim();
+            }
+            cause = current;
+        }
+        return cause.getClass().getSimpleName();
+    }
+
+    private static void increment(Map<String, LongAdder> counters, String key) {
+        if (key != null) {
+            counters.computeIfAbsent(key, k -> new LongAdder()).increment();
+        }
+    }
+
+    long getFullHandshakes() {
+        return fullHandshakes.sum();
+    }
+
+    long getResumedHandshakes() {
+        return resumedHandshakes.sum();
+    }
+
+    ModelNode getLatency() {
+        return latency.toModelNode();
+    }
+
+    ModelNode getFailures() {
+        return toModel(failures);
+    }
+
+    ModelNode getProtocols() {
+        return toModel(protocols);
+    }
+
+    ModelNode getCipherSuites() {
+        return toModel(cipherSuites);
+    }
+
+    private static ModelNode toModel(Map<String, LongAdder> counters) {
+        ModelNode result = new ModelNode();
+        result.setEmptyObject();
+        counters.forEach((k, v) -> result.get(k).set(v.sum()));
+        return result;
+    }
+
+}
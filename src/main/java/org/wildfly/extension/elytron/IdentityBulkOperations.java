@@ -0,0 +1,481 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.extension.elytron;
+
+import static org.wildfly.extension.elytron.Capabilities.MODIFIABLE_SECURITY_REALM_RUNTIME_CAPABILITY;
+import static org.wildfly.extension.elytron.ElytronExtension.asStringIfDefined;
+import static org.wildfly.extension.elytron.ElytronExtension.getRequiredService;
+import static org.wildfly.extension.elytron._private.ElytronSubsystemMessages.ROOT_LOGGER;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.GeneralSecurityException;
+import java.security.Principal;
+import java.security.Provider;
+import java.security.Security;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.controller.AbstractRuntimeOnlyHandler;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.SimpleAttributeDefinition;
+import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
+import org.jboss.as.controller.SimpleOperationDefinition;
+import org.jboss.as.controller.SimpleOperationDefinitionBuilder;
+import org.jboss.as.controller.access.management.SensitiveTargetAccessConstraintDefinition;
+import org.jboss.as.controller.descriptions.ResourceDescriptionResolver;
+import org.jboss.as.controller.operations.validation.IntRangeValidator;
+import org.jboss.as.controller.registry.ManagementResourceRegistration;
+import org.jboss.as.controller.services.path.PathManager;
+import org.jboss.as.controller.services.path.PathManagerService;
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
+import org.jboss.msc.service.ServiceName;
+import org.wildfly.security.auth.principal.NamePrincipal;
+import org.wildfly.security.auth.server.ModifiableRealmIdentity;
+import org.wildfly.security.auth.server.ModifiableSecurityRealm;
+import org.wildfly.security.auth.server.RealmIdentity;
+import org.wildfly.security.auth.server.RealmUnavailableException;
+import org.wildfly.security.authz.Attributes;
+import org.wildfly.security.authz.MapAttributes;
+import org.wildfly.security.credential.Credential;
+import org.wildfly.security.credential.KeyPairCredential;
+import org.wildfly.security.credential.PasswordCredential;
+import org.wildfly.security.credential.PublicKeyCredential;
+import org.wildfly.security.credential.SecretKeyCredential;
+import org.wildfly.security.credential.X509CertificateChainPrivateCredential;
+import org.wildfly.security.credential.X509CertificateChainPublicCredential;
+import org.wildfly.security.password.PasswordFactory;
+import org.wildfly.security.password.interfaces.BCryptPassword;
+import org.wildfly.security.password.spec.PasswordSpec;
+
+/**
+ * Operations to import and export the identities of a {@link ModifiableSecurityRealm} in bulk.
+ * <p>
+ * Identities are read and written one per line as compact JSON objects holding the {@code name}, the {@code attributes}
+ * and the encoded {@code credentials} of the identity as defined by {@link IdentityJson}. On import a {@code password}
+ * may be given in clear text instead of the encoded credentials, it is hashed using the requested algorithm.
+ * <p>
+ * An import is processed in batches. Each record of a batch is parsed, checked against the realm and has its password
+ * hashed in parallel, nothing is written unless every record of the batch is valid. The batch is then written to the realm,
+ * if a write fails the identities of the batch already written are restored to their previous state before the operation
+ * fails, earlier batches remain imported.
+ * <p>
+ * Only password credentials can be held in the file or captured to restore a replaced identity, an identity holding any
+ * other type of credential is skipped by an export and fails the batch of an import replacing it.
+ */
+class IdentityBulkOperations {
+
+    static final SimpleAttributeDefinition PATH = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.PATH, ModelType.STRING, false)
+        .setAllowExpression(true)
+        .setMinSize(1)
+        .build();
+
+    static final SimpleAttributeDefinition RELATIVE_TO = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.RELATIVE_TO, ModelType.STRING, true)
+        .setMinSize(1)
+        .build();
+
+    static final SimpleAttributeDefinition HASH_ALGORITHM = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.HASH_ALGORITHM, ModelType.STRING, true)
+        .setAllowExpression(true)
+        .setDefaultValue(new ModelNode(BCryptPassword.ALGORITHM_BCRYPT))
+        .setMinSize(1)
+        .build();
+
+    static final SimpleAttributeDefinition BATCH_SIZE = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.BATCH_SIZE, ModelType.INT, true)
+        .setAllowExpression(true)
+        .setDefaultValue(new ModelNode(1000))
+        .setValidator(new IntRangeValidator(1, true, true))
+        .build();
+
+    static final SimpleAttributeDefinition PARALLELISM = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.PARALLELISM, ModelType.INT, true)
+        .setAllowExpression(true)
+        .setValidator(new IntRangeValidator(1, true, true))
+        .build();
+
+    static final SimpleAttributeDefinition REPLACE_EXISTING = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.REPLACE_EXISTING, ModelType.BOOLEAN, true)
+        .setAllowExpression(true)
+        .setDefaultValue(new ModelNode(false))
+        .build();
+
+    private static final String PASSWORD_FACTORY_TYPE = "PasswordFactory";
+
+    private static final List<Class<? extends Credential>> UNSUPPORTED_CREDENTIAL_TYPES = Collections.unmodifiableList(Arrays.asList(
+            X509CertificateChainPublicCredential.class, X509CertificateChainPrivateCredential.class, PublicKeyCredential.class,
+            KeyPairCredential.class, SecretKeyCredential.class));
+
+    private IdentityBulkOperations() {
+    }
+
+    static void register(ManagementResourceRegistration resourceRegistration) {
+        ResourceDescriptionResolver resolver = ElytronExtension.getResourceDescriptionResolver(ElytronDescriptionConstants.MODIFIABLE_SECURITY_REALM);
+
+        SimpleOperationDefinition importIdentities = new SimpleOperationDefinitionBuilder(ElytronDescriptionConstants.IMPORT_IDENTITIES, resolver)
+            .setParameters(PATH, RELATIVE_TO, HASH_ALGORITHM, BATCH_SIZE, PARALLELISM, REPLACE_EXISTING)
+            .setRuntimeOnly()
+            .build();
+        resourceRegistration.registerOperationHandler(importIdentities, new ImportHandler());
+
+        SimpleOperationDefinition exportIdentities = new SimpleOperationDefinitionBuilder(ElytronDescriptionConstants.EXPORT_IDENTITIES, resolver)
+            .setParameters(PATH, RELATIVE_TO)
+            .addAccessConstraint(SensitiveTargetAccessConstraintDefinition.CREDENTIAL)
+            .setRuntimeOnly()
+            .build();
+        resourceRegistration.registerOperationHandler(exportIdentities, new ExportHandler());
+    }
+
+    private static ModifiableSecurityRealm getModifiableSecurityRealm(OperationContext context) {
+        ServiceName realmName = MODIFIABLE_SECURITY_REALM_RUNTIME_CAPABILITY.fromBaseCapability(context.getCurrentAddressValue()).getCapabilityServiceName();
+        return getRequiredService(context.getServiceRegistry(false), realmName, ModifiableSecurityRealm.class).getValue();
+    }
+
+    private static Path resolvePath(OperationContext context, ModelNode operation) throws OperationFailedException {
+        String path = PATH.resolveModelAttribute(context, operation).asString();
+        String relativeTo = asStringIfDefined(context, RELATIVE_TO, operation);
+        if (relativeTo == null) {
+            return Paths.get(path);
+        }
+
+        PathManager pathManager = getRequiredService(context.getServiceRegistry(false), PathManagerService.SERVICE_NAME, PathManager.class).getValue();
+        return Paths.get(pathManager.resolveRelativePathEntry(path, relativeTo));
+    }
+
+    private static void setResult(OperationContext context, long count, long startTime) {
+        long duration = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+        ModelNode result = context.getResult();
+        result.get(ElytronDescriptionConstants.IDENTITIES).set(count);
+        result.get(ElytronDescriptionConstants.DURATION).set(duration);
+        result.get(ElytronDescriptionConstants.IDENTITIES_PER_SECOND).set(perSecond(count, duration));
+    }
+
+    private static long perSecond(long count, long durationMillis) {
+        return durationMillis > 0 ? count * 1000 / durationMillis : count;
+    }
+
+    /**
+     * Obtain every password credential of an identity, one per password algorithm of the registered providers.
+     *
+     * @return the credentials of the identity, or {@code null} if the identity holds a type of credential other than a
+     *         password.
+     */
+    private static List<Credential> getCredentials(RealmIdentity identity) throws RealmUnavailableException {
+        for (Class<? extends Credential> credentialType : UNSUPPORTED_CREDENTIAL_TYPES) {
+            if (identity.getCredentialAcquireSupport(credentialType, null).isDefinitelySupported()) {
+                return null;
+            }
+        }
+
+        Map<String, Credential> credentials = new LinkedHashMap<>();
+        for (String algorithm : getPasswordAlgorithms()) {
+            if (identity.getCredentialAcquireSupport(PasswordCredential.class, algorithm).mayBeSupported()) {
+                PasswordCredential credential = identity.getCredential(PasswordCredential.class, algorithm);
+                if (credential != null) {
+                    credentials.putIfAbsent(credential.getPassword().getAlgorithm(), credential);
+                }
+            }
+        }
+        PasswordCredential credential = identity.getCredential(PasswordCredential.class);
+        if (credential != null) {
+            credentials.putIfAbsent(credential.getPassword().getAlgorithm(), credential);
+        }
+        return new ArrayList<>(credentials.values());
+    }
+
+    private static Set<String> getPasswordAlgorithms() {
+        Set<String> algorithms = new LinkedHashSet<>();
+        for (Provider provider : Security.getProviders()) {
+            for (Provider.Service service : provider.getServices()) {
+                if (PASSWORD_FACTORY_TYPE.equals(service.getType())) {
+                    algorithms.add(service.getAlgorithm());
+                }
+            }
+        }
+        return algorithms;
+    }
+
+    private static class ImportHandler extends AbstractRuntimeOnlyHandler {
+
+        @Override
+        protected void executeRuntimeStep(OperationContext context, ModelNode operation) throws OperationFailedException {
+            final ModifiableSecurityRealm realm = getModifiableSecurityRealm(context);
+            final String realmName = context.getCurrentAddressValue();
+            final Path path = resolvePath(context, operation);
+            final String hashAlgorithm = HASH_ALGORITHM.resolveModelAttribute(context, operation).asString();
+            final int batchSize = BATCH_SIZE.resolveModelAttribute(context, operation).asInt();
+            final ModelNode parallelismNode = PARALLELISM.resolveModelAttribute(context, operation);
+            final boolean replaceExisting = REPLACE_EXISTING.resolveModelAttribute(context, operation).asBoolean();
+
+            try {
+                PasswordFactory.getInstance(hashAlgorithm);
+            } catch (GeneralSecurityException e) {
+                throw ROOT_LOGGER.couldNotCreatePassword(e);
+            }
+
+            // Without an explicit parallelism the passwords are hashed on the shared pool of the subsystem.
+            final PasswordHashingService hashingService = PasswordHashingDefinitions.getPasswordHashingService(context);
+            final ExecutorService executor = parallelismNode.isDefined() ? Executors.newFixedThreadPool(parallelismNode.asInt(), r -> {
+                Thread thread = new Thread(r, "Identity import for " + realmName);
+                thread.setDaemon(true);
+                return thread;
+            }) : hashingService.getExecutor();
+
+            final long startTime = System.nanoTime();
+            long imported = 0;
+            int lineNumber = 0;
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                List<ImportRecord> batch = new ArrayList<>(batchSize);
+                String line;
+                do {
+                    line = reader.readLine();
+                    if (line != null) {
+                        lineNumber++;
+                        if (line.trim().isEmpty() == false) {
+                            batch.add(new ImportRecord(lineNumber, line));
+                        }
+                    }
+                    if (batch.size() == batchSize || (line == null && batch.isEmpty() == false)) {
+                        importBatch(realm, batch, hashingService, hashAlgorithm, replaceExisting, executor, imported);
+                        imported += batch.size();
+                        batch.clear();
+                        ROOT_LOGGER.identitiesImported(imported, realmName, perSecond(imported, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime)));
+                    }
+                } while (line != null);
+            } catch (IOException e) {
+                throw ROOT_LOGGER.couldNotImportIdentities(lineNumber, imported, e);
+            } finally {
+                if (executor != hashingService.getExecutor()) {
+                    executor.shutdownNow();
+                }
+            }
+
+            setResult(context, imported, startTime);
+        }
+
+        private static void importBatch(ModifiableSecurityRealm realm, List<ImportRecord> batch, PasswordHashingService hashingService, String hashAlgorithm, boolean replaceExisting,
+                ExecutorService executor, long imported) throws OperationFailedException {
+            List<Future<Void>> prepared = new ArrayList<>(batch.size());
+            for (ImportRecord record : batch) {
+                prepared.add(executor.submit(() -> {
+                    record.prepare(realm, hashingService, hashAlgorithm, replaceExisting);
+                    return null;
+                }));
+            }
+
+            Set<String> names = new HashSet<>();
+            try {
+                for (int i = 0; i < batch.size(); i++) {
+                    ImportRecord record = batch.get(i);
+                    try {
+                        prepared.get(i).get();
+                    } catch (ExecutionException e) {
+                        throw ROOT_LOGGER.invalidIdentityRecord(record.lineNumber, e.getCause());
+                    }
+                    if (names.add(record.name) == false) {
+                        throw ROOT_LOGGER.invalidIdentityRecord(record.lineNumber, ROOT_LOGGER.identityAlreadyExists(record.name));
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw ROOT_LOGGER.couldNotImportIdentities(batch.get(0).lineNumber, imported, e);
+            } finally {
+                prepared.forEach(f -> f.cancel(true));
+            }
+
+            List<ImportRecord> written = new ArrayList<>(batch.size());
+            try {
+                for (ImportRecord record : batch) {
+                    written.add(record);
+                    record.write(realm);
+                }
+            } catch (RealmUnavailableException e) {
+                for (int i = written.size() - 1; i >= 0; i--) {
+                    try {
+                        written.get(i).restore(realm);
+                    } catch (RealmUnavailableException | RuntimeException restoreFailure) {
+                        e.addSuppressed(restoreFailure);
+                    }
+                }
+                throw ROOT_LOGGER.couldNotImportIdentities(batch.get(0).lineNumber, imported, e);
+            }
+        }
+
+    }
+
+    /**
+     * A single identity to import, along with the previous state of the identity if it is being replaced.
+     */
+    private static final class ImportRecord {
+
+        private final int lineNumber;
+        private String line;
+
+        private String name;
+        private Attributes attributes;
+        private List<Credential> credentials;
+
+        private boolean existed;
+        private Attributes previousAttributes;
+        private List<Credential> previousCredentials;
+
+        ImportRecord(int lineNumber, String line) {
+            this.lineNumber = lineNumber;
+            this.line = line;
+        }
+
+        /**
+         * Parse the record, hash its password and capture the current state of the identity, called in parallel for the
+         * records of a batch.
+         */
+        void prepare(ModifiableSecurityRealm realm, PasswordHashingService hashingService, String hashAlgorithm, boolean replaceExisting) throws GeneralSecurityException, OperationFailedException {
+            ModelNode record = ModelNode.fromJSONString(line);
+            line = null;
+
+            name = record.require(ElytronDescriptionConstants.NAME).asString();
+            attributes = IdentityJson.decodeAttributes(record.get(ElytronDescriptionConstants.ATTRIBUTES));
+            if (record.hasDefined(ElytronDescriptionConstants.PASSWORD)) {
+                char[] password = record.get(ElytronDescriptionConstants.PASSWORD).asString().toCharArray();
+                PasswordSpec passwordSpec = hashingService.createPasswordSpec(hashAlgorithm, password, -1);
+                credentials = Collections.singletonList(new PasswordCredential(PasswordFactory.getInstance(hashAlgorithm).generatePassword(passwordSpec)));
+            } else {
+                credentials = IdentityJson.decodeCredentials(record.get(ElytronDescriptionConstants.CREDENTIALS));
+            }
+
+            ModifiableRealmIdentity identity = realm.getRealmIdentityForUpdate(new NamePrincipal(name));
+            try {
+                existed = identity.exists();
+                if (existed) {
+                    if (replaceExisting == false) {
+                        throw ROOT_LOGGER.identityAlreadyExists(name);
+                    }
+                    previousAttributes = new MapAttributes(identity.getAuthorizationIdentity().getAttributes());
+                    previousCredentials = getCredentials(identity);
+                    if (previousCredentials == null) {
+                        throw ROOT_LOGGER.identityCredentialsNotRestorable(name);
+                    }
+                }
+            } finally {
+                identity.dispose();
+            }
+        }
+
+        void write(ModifiableSecurityRealm realm) throws RealmUnavailableException {
+            ModifiableRealmIdentity identity = realm.getRealmIdentityForUpdate(new NamePrincipal(name));
+            try {
+                if (existed == false) {
+                    identity.create();
+                }
+                identity.setAttributes(attributes);
+                identity.setCredentials(credentials);
+            } finally {
+                identity.dispose();
+            }
+        }
+
+        void restore(ModifiableSecurityRealm realm) throws RealmUnavailableException {
+            ModifiableRealmIdentity identity = realm.getRealmIdentityForUpdate(new NamePrincipal(name));
+            try {
+                if (existed == false) {
+                    if (identity.exists()) {
+                        identity.delete();
+                    }
+                } else {
+                    identity.setAttributes(previousAttributes);
+                    identity.setCredentials(previousCredentials);
+                }
+            } finally {
+                identity.dispose();
+            }
+        }
+
+    }
+
+    private static class ExportHandler extends AbstractRuntimeOnlyHandler {
+
+        @Override
+        protected void executeRuntimeStep(OperationContext context, ModelNode operation) throws OperationFailedException {
+            final ModifiableSecurityRealm realm = getModifiableSecurityRealm(context);
+            final Path path = resolvePath(context, operation);
+
+            final long startTime = System.nanoTime();
+            long exported = 0;
+            long skipped = 0;
+            try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+                Iterator<ModifiableRealmIdentity> iterator = realm.getRealmIdentityIterator();
+                while (iterator.hasNext()) {
+                    ModifiableRealmIdentity identity = iterator.next();
+                    try {
+                        Principal principal = identity.getRealmIdentityPrincipal();
+                        if (principal == null) {
+                            // The realm does not expose the name of the identity so it can not be imported again.
+                            skipped++;
+                            continue;
+                        }
+
+                        List<Credential> credentials = getCredentials(identity);
+                        ModelNode encodedCredentials = credentials != null ? IdentityJson.encodeCredentials(credentials) : null;
+                        if (encodedCredentials == null) {
+                            // Exporting the identity without some of its credentials would lose them on import.
+                            ROOT_LOGGER.identityNotExported(principal.getName());
+                            skipped++;
+                            continue;
+                        }
+
+                        ModelNode record = new ModelNode();
+                        record.get(ElytronDescriptionConstants.NAME).set(principal.getName());
+                        record.get(ElytronDescriptionConstants.ATTRIBUTES).set(IdentityJson.encodeAttributes(identity.getAuthorizationIdentity().getAttributes()));
+                        if (credentials.isEmpty() == false) {
+                            record.get(ElytronDescriptionConstants.CREDENTIALS).set(encodedCredentials);
+                        }
+
+                        writer.write(record.toJSONString(true));
+                        writer.newLine();
+                        exported++;
+                    } finally {
+                        identity.dispose();
+                    }
+                }
+            } catch (IOException | RealmUnavailableException e) {
+                throw ROOT_LOGGER.couldNotExportIdentities(exported, e);
+            }
+
+            setResult(context, exported, startTime);
+            context.getResult().get(ElytronDescriptionConstants.SKIPPED).set(skipped);
+        }
+
+    }
+
+}
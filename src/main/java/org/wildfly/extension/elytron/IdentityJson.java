@@ -0,0 +1,111 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.extension.elytron;
+
+import java.security.GeneralSecurityException;
+import java.security.spec.InvalidKeySpecException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.Property;
+import org.wildfly.security.authz.Attributes;
+import org.wildfly.security.authz.MapAttributes;
+import org.wildfly.security.credential.Credential;
+import org.wildfly.security.credential.PasswordCredential;
+import org.wildfly.security.password.Password;
+import org.wildfly.security.password.PasswordFactory;
+import org.wildfly.security.password.spec.BasicPasswordSpecEncoding;
+import org.wildfly.security.password.spec.PasswordSpec;
+
+/**
+ * Conversion of the attributes and credentials of an identity to and from a {@link ModelNode}, as written one identity
+ * per line in compact JSON by the identity journal and the bulk identity operations.
+ * <p>
+ * Attributes are an object with a list of values per attribute, credentials are a list of objects holding the algorithm
+ * and the Base64 form of the {@link BasicPasswordSpecEncoding} of each password.
+ */
+final class IdentityJson {
+
+    private IdentityJson() {
+    }
+
+    static ModelNode encodeAttributes(Attributes attributes) {
+        ModelNode encoded = new ModelNode().setEmptyObject();
+        for (Attributes.Entry entry : attributes.entries()) {
+            ModelNode values = encoded.get(entry.getKey()).setEmptyList();
+            entry.forEach(values::add);
+        }
+        return encoded;
+    }
+
+    static Attributes decodeAttributes(ModelNode encoded) {
+        MapAttributes attributes = new MapAttributes();
+        if (encoded.isDefined()) {
+            for (Property property : encoded.asPropertyList()) {
+                for (ModelNode value : property.getValue().asList()) {
+                    attributes.addLast(property.getName(), value.asString());
+                }
+            }
+        }
+        return attributes;
+    }
+
+    /**
+     * Encode credentials.
+     *
+     * @param credentials the credentials to encode.
+     * @return the encoded credentials, or {@code null} if any of the credentials is not a password with a known encoding.
+     */
+    static ModelNode encodeCredentials(Collection<? extends Credential> credentials) {
+        ModelNode encoded = new ModelNode().setEmptyList();
+        for (Credential credential : credentials) {
+            if (credential instanceof PasswordCredential == false) {
+                return null;
+            }
+            Password password = ((PasswordCredential) credential).getPassword();
+            byte[] bytes = BasicPasswordSpecEncoding.encode(password);
+            if (bytes == null) {
+                return null;
+            }
+            ModelNode current = encoded.add();
+            current.get(ElytronDescriptionConstants.ALGORITHM).set(password.getAlgorithm());
+            current.get(ElytronDescriptionConstants.PASSWORD).set(Base64.getEncoder().encodeToString(bytes));
+        }
+        return encoded;
+    }
+
+    static List<Credential> decodeCredentials(ModelNode encoded) throws GeneralSecurityException {
+        List<Credential> credentials = new ArrayList<>();
+        if (encoded.isDefined()) {
+            for (ModelNode current : encoded.asList()) {
+                String algorithm = current.get(ElytronDescriptionConstants.ALGORITHM).asString();
+                PasswordSpec passwordSpec = BasicPasswordSpecEncoding.decode(Base64.getDecoder().decode(current.get(ElytronDescriptionConstants.PASSWORD).asString()));
+                if (passwordSpec == null) {
+                    throw new InvalidKeySpecException(algorithm);
+                }
+                credentials.add(new PasswordCredential(PasswordFactory.getInstance(algorithm).generatePassword(passwordSpec)));
+            }
+        }
+        return credentials;
+    }
+
+}
@@ -24,11 +24,11 @@ import static org.wildfly.extension.elytron.Capabilities.SECURITY_DOMAIN_RUNTIME
 import static org.wildfly.extension.elytron.ElytronExtension.getRequiredService;
 import static org.wildfly.extension.elytron._private.ElytronSubsystemMessages.ROOT_LOGGER;
 
-import java.security.NoSuchAlgorithmException;
-import java.security.spec.InvalidKeySpecException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import org.jboss.as.controller.AttributeDefinition;
 import org.jboss.as.controller.ObjectTypeAttributeDefinition;
@@ -72,7 +72,6 @@ import org.wildfly.security.authz.MapAttributes;
 import org.wildfly.security.credential.PasswordCredential;
 import org.wildfly.security.evidence.PasswordGuessEvidence;
 import org.wildfly.security.password.Password;
-import org.wildfly.security.password.PasswordFactory;
 import org.wildfly.security.password.interfaces.BCryptPassword;
 import org.wildfly.security.password.interfaces.ClearPassword;
 import org.wildfly.security.password.interfaces.DigestPassword;
@@ -418,11 +417,11 @@ class IdentityResourceDefinition extends SimpleResourceDefinition {
                     .setAllowExpression(false)
                     .build();
 
-            static final SimpleAttributeDefinition ITERATION_COUNT = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.ITERATION_COUNT, ModelType.INT, false)
+            static final SimpleAttributeDefinition ITERATION_COUNT = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.ITERATION_COUNT, ModelType.INT, true)
                     .setAllowExpression(false)
                     .build();
 
-            static final SimpleAttributeDefinition SALT = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.SALT, ModelType.BYTES, false)
+            static final SimpleAttributeDefinition SALT = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.SALT, ModelType.BYTES, true)
                     .setAllowExpression(false)
                     .build();
 
@@ -499,7 +498,7 @@ class IdentityResourceDefinition extends SimpleResourceDefinition {
                     .setAllowExpression(false)
                     .build();
 
-            static final SimpleAttributeDefinition SALT = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.SALT, ModelType.BYTES, false)
+            static final SimpleAttributeDefinition SALT = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.SALT, ModelType.BYTES, true)
                     .setAllowExpression(false)
                     .build();
 
@@ -544,25 +543,40 @@ class IdentityResourceDefinition extends SimpleResourceDefinition {
                     Digest.OBJECT_DEFINITION), new PasswordSetHandler());
         }
 
+        /*
+         * The password is hashed on the PasswordHashingService and the identity updated by a further runtime step, as that
+         * step is queued behind the runtime steps already registered the passwords of all set-password operations within
+         * a composite operation are hashed in parallel before the first is awaited.
+         */
         @Override
         public void execute(OperationContext context, ModelNode operation) throws OperationFailedException {
             context.addStep(operation, (parentContext, parentOperation) -> {
-                ModifiableRealmIdentity realmIdentity = getRealmIdentity(context);
                 List<ModelNode> modelNodes = parentOperation.asList();
                 Property passwordProperty = modelNodes.get(2).asProperty();
                 PathAddress currentAddress = parentContext.getCurrentAddress();
                 String principalName = currentAddress.getLastElement().getValue();
 
-                try {
-                    realmIdentity.setCredentials(Collections.singleton( new PasswordCredential(createPassword(parentContext, principalName, passwordProperty))));
-                } catch (NoSuchAlgorithmException | InvalidKeySpecException | RealmUnavailableException e) {
-                    throw ROOT_LOGGER.couldNotCreatePassword(e);
-                }
+                Future<Password> password = createPassword(parentContext, principalName, passwordProperty);
+                parentContext.addStep((hashedContext, hashedOperation) -> {
+                    ModifiableRealmIdentity realmIdentity = getRealmIdentity(hashedContext);
+                    try {
+                        realmIdentity.setCredentials(Collections.singleton(new PasswordCredential(password.get())));
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw ROOT_LOGGER.couldNotCreatePassword(e);
+                    } catch (ExecutionException e) {
+                        throw ROOT_LOGGER.couldNotCreatePassword(e.getCause() instanceof Exception ? (Exception) e.getCause() : e);
+                    } catch (RealmUnavailableException e) {
+                        throw ROOT_LOGGER.couldNotCreatePassword(e);
+                    }
+                    hashedContext.completeStep(NOOP_RESULT_HANDLER);
+                }, OperationContext.Stage.RUNTIME);
                 parentContext.completeStep(NOOP_RESULT_HANDLER);
             }, OperationContext.Stage.RUNTIME);
         }
 
-        private Password createPassword(final OperationContext parentContext, final String principalName, Property passwordProperty) throws OperationFailedException, NoSuchAlgorithmException, InvalidKeySpecException {
+        private Future<Password> createPassword(final OperationContext parentContext, final String principalName, Property passwordProperty) throws OperationFailedException {
+            PasswordHashingService hashingService = PasswordHashingDefinitions.getPasswordHashingService(parentContext);
             String passwordType = passwordProperty.getName();
             ModelNode passwordNode = passwordProperty.getValue();
             String password = Bcrypt.PASSWORD.resolveModelAttribute(parentContext, passwordNode).asString();
@@ -570,8 +584,10 @@ class IdentityResourceDefinition extends SimpleResourceDefinition {
             final String algorithm;
 
             if (passwordType.equals(ElytronDescriptionConstants.BCRYPT)) {
-                byte[] salt = Bcrypt.SALT.resolveModelAttribute(parentContext, passwordNode).asBytes();
-                int iterationCount = Bcrypt.ITERATION_COUNT.resolveModelAttribute(parentContext, passwordNode).asInt();
+                ModelNode saltNode = Bcrypt.SALT.resolveModelAttribute(parentContext, passwordNode);
+                ModelNode iterationCountNode = Bcrypt.ITERATION_COUNT.resolveModelAttribute(parentContext, passwordNode);
+                byte[] salt = saltNode.isDefined() ? saltNode.asBytes() : PasswordHashingService.generateSalt();
+                int iterationCount = iterationCountNode.isDefined() ? iterationCountNode.asInt() : hashingService.getDefaultIterationCount();
                 passwordSpec = new EncryptablePasswordSpec(password.toCharArray(), new IteratedSaltedPasswordAlgorithmSpec(iterationCount, salt));
                 algorithm = Bcrypt.ALGORITHM.resolveModelAttribute(parentContext, passwordNode).asString();
             } else if (passwordType.equals(ElytronDescriptionConstants.CLEAR)) {
@@ -581,7 +597,8 @@ class IdentityResourceDefinition extends SimpleResourceDefinition {
                 passwordSpec = new EncryptablePasswordSpec(password.toCharArray(), null);
                 algorithm = SimpleDigest.ALGORITHM.resolveModelAttribute(parentContext, passwordNode).asString();
             } else if (passwordType.equals(ElytronDescriptionConstants.SALTED_SIMPLE_DIGEST)) {
-                byte[] salt = SaltedSimpleDigest.SALT.resolveModelAttribute(parentContext, passwordNode).asBytes();
+                ModelNode saltNode = SaltedSimpleDigest.SALT.resolveModelAttribute(parentContext, passwordNode);
+                byte[] salt = saltNode.isDefined() ? saltNode.asBytes() : PasswordHashingService.generateSalt();
                 SaltedPasswordAlgorithmSpec spac = new SaltedPasswordAlgorithmSpec(salt);
                 passwordSpec = new EncryptablePasswordSpec(password.toCharArray(), spac);
                 algorithm = SaltedSimpleDigest.ALGORITHM.resolveModelAttribute(parentContext, passwordNode).asString();
@@ -594,7 +611,7 @@ class IdentityResourceDefinition extends SimpleResourceDefinition {
                 throw ROOT_LOGGER.unexpectedPasswordType(passwordType);
             }
 
-            return PasswordFactory.getInstance(algorithm).generatePassword(passwordSpec);
+            return hashingService.hash(algorithm, passwordSpec);
         }
     }
 
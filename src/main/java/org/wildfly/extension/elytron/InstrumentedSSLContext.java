@@ -0,0 +1,447 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.extension.elytron;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.security.KeyManagementException;
+import java.security.SecureRandom;
+import java.util.List;
+import java.util.function.BiFunction;
+
+import javax.net.ssl.KeyManager;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLContextSpi;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLEngineResult.HandshakeStatus;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLServerSocketFactory;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+import javax.net.ssl.TrustManager;
+
+/**
+ * An {@link SSLContext} wrapping another {@link SSLContext} to record {@link HandshakeStatistics} for the connections it
+ * creates.
+ * <p>
+ * Handshakes performed by an {@link SSLEngine} are fully instrumented, this covers the transports of the application
+ * server. For client {@link SSLSocket} instances completed handshakes are recorded but not their duration or failures
+ * as these are not reported by the socket, server sockets are not instrumented.
+ */
+class InstrumentedSSLContext extends SSLContext {
+
+    private final HandshakeStatistics statistics;
+
+    private InstrumentedSSLContext(InstrumentedSSLContextSpi contextSpi, SSLContext delegate) {
+        super(contextSpi, delegate.getProvider(), delegate.getProtocol());
+        this.statistics = contextSpi.statistics;
+    }
+
+    static InstrumentedSSLContext instrument(SSLContext delegate) {
+        return new InstrumentedSSLContext(new InstrumentedSSLContextSpi(delegate, new HandshakeStatistics()), delegate);
+    }
+
+    HandshakeStatistics getStatistics() {
+        return statistics;
+    }
+
+    private static final class InstrumentedSSLContextSpi extends SSLContextSpi {
+
+        private final SSLContext delegate;
+        private final HandshakeStatistics statistics;
+
+        InstrumentedSSLContextSpi(SSLContext delegate, HandshakeStatistics statistics) {
+            this.delegate = delegate;
+            this.statistics = statistics;
+        }
+
+        @Override
+        protected void engineInit(KeyManager[] keyManagers, TrustManager[] trustManagers, SecureRandom secureRandom) throws KeyManagementException {
+            delegate.init(keyManagers, trustManagers, secureRandom);
+        }
+
+        @Override
+        protected SSLSocketFactory engineGetSocketFactory() {
+            return new InstrumentedSocketFactory(delegate.getSocketFactory(), statistics);
+        }
+
+        @Override
+        protected SSLServerSocketFactory engineGetServerSocketFactory() {
+            return delegate.getServerSocketFactory();
+        }
+
+        @Override
+        protected SSLEngine engineCreateSSLEngine() {
+            return new InstrumentedSSLEngine(delegate.createSSLEngine(), statistics);
+        }
+
+        @Override
+        protected SSLEngine engineCreateSSLEngine(String host, int port) {
+            return new InstrumentedSSLEngine(delegate.createSSLEngine(host, port), statistics);
+        }
+
+        @Override
+        protected SSLSessionContext engineGetServerSessionContext() {
+            return delegate.getServerSessionContext();
+        }
+
+        @Override
+        protected SSLSessionContext engineGetClientSessionContext() {
+            return delegate.getClientSessionContext();
+        }
+
+        @Override
+        protected SSLParameters engineGetDefaultSSLParameters() {
+            return delegate.getDefaultSSLParameters();
+        }
+
+        @Override
+        protected SSLParameters engineGetSupportedSSLParameters() {
+            return delegate.getSupportedSSLParameters();
+        }
+
+    }
+
+    /**
+     * An {@link SSLEngine} recording the outcome of each handshake, including renegotiations.
+     * <p>
+     * A handshake is considered started by {@link #beginHandshake()} or by the first call to wrap or unwrap whilst the
+     * engine is handshaking, it completes once either returns {@link HandshakeStatus#FINISHED}.
+     */
+    private static final class InstrumentedSSLEngine extends SSLEngine {
+
+        private static final Method GET_APPLICATION_PROTOCOL = findMethod("getApplicationProtocol");
+        private static final Method GET_HANDSHAKE_APPLICATION_PROTOCOL = findMethod("getHandshakeApplicationProtocol");
+        private static final Method SET_HANDSHAKE_APPLICATION_PROTOCOL_SELECTOR = findMethod("setHandshakeApplicationProtocolSelector", BiFunction.class);
+        private static final Method GET_HANDSHAKE_APPLICATION_PROTOCOL_SELECTOR = findMethod("getHandshakeApplicationProtocolSelector");
+
+        private final SSLEngine delegate;
+        private final HandshakeStatistics statistics;
+
+        // The times the current handshake started, a start time of 0 means no handshake is in progress.
+        private long startTime;
+        private long startNanos;
+        private boolean initialHandshakeComplete;
+
+        InstrumentedSSLEngine(SSLEngine delegate, HandshakeStatistics statistics) {
+            super(delegate.getPeerHost(), delegate.getPeerPort());
+            this.delegate = delegate;
+            this.statistics = statistics;
+        }
+
+        private void handshakeStarting() {
+            if (startTime == 0 && (initialHandshakeComplete == false || delegate.getHandshakeStatus() != HandshakeStatus.NOT_HANDSHAKING)) {
+                startTime = System.currentTimeMillis();
+                startNanos = System.nanoTime();
+            }
+        }
+
+        private SSLEngineResult handshakeProgressed(SSLEngineResult result) {
+            if (result.getHandshakeStatus() == HandshakeStatus.FINISHED && startTime != 0) {
+                statistics.handshakeCompleted(delegate.getSession(), startTime, System.nanoTime() - startNanos);
+                startTime = 0;
+                initialHandshakeComplete = true;
+            }
+            return result;
+        }
+
+        private SSLException handshakeFailed(SSLException e) {
+            if (startTime != 0) {
+                statistics.handshakeFailed(e);
+                startTime = 0;
+            }
+            return e;
+        }
+
+        @Override
+        public SSLEngineResult wrap(ByteBuffer[] srcs, int offset, int length, ByteBuffer dst) throws SSLException {
+            handshakeStarting();
+            try {
+                return handshakeProgressed(delegate.wrap(srcs, offset, length, dst));
+            } catch (SSLException e) {
+                throw handshakeFailed(e);
+            }
+        }
+
+        @Override
+        public SSLEngineResult unwrap(ByteBuffer src, ByteBuffer[] dsts, int offset, int length) throws SSLException {
+            handshakeStarting();
+            try {
+                return handshakeProgressed(delegate.unwrap(src, dsts, offset, length));
+            } catch (SSLException e) {
+                throw handshakeFailed(e);
+            }
+        }
+
+        @Override
+        public void beginHandshake() throws SSLException {
+            delegate.beginHandshake();
+            handshakeStarting();
+        }
+
+        @Override
+        public Runnable getDelegatedTask() {
+            return delegate.getDelegatedTask();
+        }
+
+        @Override
+        public void closeInbound() throws SSLException {
+            delegate.closeInbound();
+        }
+
+        @Override
+        public boolean isInboundDone() {
+            return delegate.isInboundDone();
+        }
+
+        @Override
+        public void closeOutbound() {
+            delegate.closeOutbound();
+        }
+
+        @Override
+        public boolean isOutboundDone() {
+            return delegate.isOutboundDone();
+        }
+
+        @Override
+        public String[] getSupportedCipherSuites() {
+            return delegate.getSupportedCipherSuites();
+        }
+
+        @Override
+        public String[] getEnabledCipherSuites() {
+            return delegate.getEnabledCipherSuites();
+        }
+
+        @Override
+        public void setEnabledCipherSuites(String[] suites) {
+            delegate.setEnabledCipherSuites(suites);
+        }
+
+        @Override
+        public String[] getSupportedProtocols() {
+            return delegate.getSupportedProtocols();
+        }
+
+        @Override
+        public String[] getEnabledProtocols() {
+            return delegate.getEnabledProtocols();
+        }
+
+        @Override
+        public void setEnabledProtocols(String[] protocols) {
+            delegate.setEnabledProtocols(protocols);
+        }
+
+        @Override
+        public SSLSession getSession() {
+            return delegate.getSession();
+        }
+
+        @Override
+        public SSLSession getHandshakeSession() {
+            return delegate.getHandshakeSession();
+        }
+
+        @Override
+        public HandshakeStatus getHandshakeStatus() {
+            return delegate.getHandshakeStatus();
+        }
+
+        @Override
+        public void setUseClientMode(boolean mode) {
+            delegate.setUseClientMode(mode);
+        }
+
+        @Override
+        public boolean getUseClientMode() {
+            return delegate.getUseClientMode();
+        }
+
+        @Override
+        public void setNeedClientAuth(boolean need) {
+            delegate.setNeedClientAuth(need);
+        }
+
+        @Override
+        public boolean getNeedClientAuth() {
+            return delegate.getNeedClientAuth();
+        }
+
+        @Override
+        public void setWantClientAuth(boolean want) {
+            delegate.setWantClientAuth(want);
+        }
+
+        @Override
+        public boolean getWantClientAuth() {
+            return delegate.getWantClientAuth();
+        }
+
+        @Override
+        public void setEnableSessionCreation(boolean flag) {
+            delegate.setEnableSessionCreation(flag);
+        }
+
+        @Override
+        public boolean getEnableSessionCreation() {
+            return delegate.getEnableSessionCreation();
+        }
+
+        @Override
+        public SSLParameters getSSLParameters() {
+            return delegate.getSSLParameters();
+        }
+
+        @Override
+        public void setSSLParameters(SSLParameters params) {
+            delegate.setSSLParameters(params);
+        }
+
+        /*
+         * The application protocol (ALPN) methods of SSLEngine were only added in JDK 8u252, they are declared here
+         * without @Override and forwarded reflectively so this class still links on earlier JDK 8 releases, where
+         * they simply report that no application protocol was negotiated.
+         */
+
+        public String getApplicationProtocol() {
+            return (String) invokeIfPresent(GET_APPLICATION_PROTOCOL, delegate);
+        }
+
+        public String getHandshakeApplicationProtocol() {
+            return (String) invokeIfPresent(GET_HANDSHAKE_APPLICATION_PROTOCOL, delegate);
+        }
+
+        public void setHandshakeApplicationProtocolSelector(BiFunction<SSLEngine, List<String>, String> selector) {
+            invokeIfPresent(SET_HANDSHAKE_APPLICATION_PROTOCOL_SELECTOR, delegate, selector);
+        }
+
+        @SuppressWarnings("unchecked")
+        public BiFunction<SSLEngine, List<String>, String> getHandshakeApplicationProtocolSelector() {
+            return (BiFunction<SSLEngine, List<String>, String>) invokeIfPresent(GET_HANDSHAKE_APPLICATION_PROTOCOL_SELECTOR, delegate);
+        }
+
+    }
+
+    private static Method findMethod(String name, Class<?>... parameterTypes) {
+        try {
+            return SSLEngine.class.getMethod(name, parameterTypes);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static Object invokeIfPresent(Method method, Object target, Object... args) {
+        if (method == null) {
+            return null;
+        }
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * An {@link SSLSocketFactory} registering a listener on each socket created to record its completed handshakes.
+     */
+    private static final class InstrumentedSocketFactory extends SSLSocketFactory {
+
+        private final SSLSocketFactory delegate;
+        private final HandshakeStatistics statistics;
+
+        InstrumentedSocketFactory(SSLSocketFactory delegate, HandshakeStatistics statistics) {
+            this.delegate = delegate;
+            this.statistics = statistics;
+        }
+
+        private Socket instrument(Socket socket) {
+            if (socket instanceof SSLSocket) {
+                final long created = System.currentTimeMillis();
+                ((SSLSocket) socket).addHandshakeCompletedListener(e -> statistics.handshakeCompleted(e.getSession(), created, -1));
+            }
+            return socket;
+        }
+
+        @Override
+        public String[] getDefaultCipherSuites() {
+            return delegate.getDefaultCipherSuites();
+        }
+
+        @Override
+        public String[] getSupportedCipherSuites() {
+            return delegate.getSupportedCipherSuites();
+        }
+
+        @Override
+        public Socket createSocket() throws IOException {
+            return instrument(delegate.createSocket());
+        }
+
+        @Override
+        public Socket createSocket(Socket socket, String host, int port, boolean autoClose) throws IOException {
+            return instrument(delegate.createSocket(socket, host, port, autoClose));
+        }
+
+        @Override
+        public Socket createSocket(Socket socket, InputStream consumed, boolean autoClose) throws IOException {
+            return instrument(delegate.createSocket(socket, consumed, autoClose));
+        }
+
+        @Override
+        public Socket createSocket(String host, int port) throws IOException {
+            return instrument(delegate.createSocket(host, port));
+        }
+
+        @Override
+        public Socket createSocket(String host, int port, InetAddress localHost, int localPort) throws IOException {
+            return instrument(delegate.createSocket(host, port, localHost, localPort));
+        }
+
+        @Override
+        public Socket createSocket(InetAddress host, int port) throws IOException {
+            return instrument(delegate.createSocket(host, port));
+        }
+
+        @Override
+        public Socket createSocket(InetAddress address, int port, InetAddress localAddress, int localPort) throws IOException {
+            return instrument(delegate.createSocket(address, port, localAddress, localPort));
+        }
+
+    }
+
+}
@@ -0,0 +1,181 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.extension.elytron;
+
+import static org.wildfly.common.Assert.checkNotNullParam;
+import static org.wildfly.extension.elytron._private.ElytronSubsystemMessages.ROOT_LOGGER;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocketFactory;
+
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
+import org.jboss.dmr.Property;
+import org.wildfly.security.auth.realm.token.TokenValidator;
+import org.wildfly.security.auth.server.RealmUnavailableException;
+import org.wildfly.security.authz.Attributes;
+import org.wildfly.security.authz.MapAttributes;
+import org.wildfly.security.evidence.BearerTokenEvidence;
+
+/**
+ * A {@link TokenValidator} validating tokens using an OAuth2 token introspection endpoint as defined by RFC 7662.
+ * <p>
+ * Each introspection request reuses a persistent connection to the endpoint where one is available. The JDK only returns a
+ * connection to its keep-alive cache once the response has been completely read and the connection has not been
+ * disconnected, and only reuses an HTTPS connection for the same {@link SSLSocketFactory} instance, so the factory is
+ * obtained from the {@link SSLContext} once and every response body is drained. The number of idle connections retained
+ * per endpoint is controlled by the {@code http.maxConnections} system property.
+ */
+class IntrospectionTokenValidator implements TokenValidator {
+
+    private static final String ACTIVE = "active";
+
+    private final URL introspectionUrl;
+    private final String authorization;
+    private final SSLSocketFactory socketFactory;
+    private final HostnameVerifier hostnameVerifier;
+    private final int connectionTimeout;
+    private final int readTimeout;
+
+    /**
+     * Construct a new instance.
+     *
+     * @param introspectionUrl the URL of the introspection endpoint.
+     * @param clientId the client id used to authenticate to the endpoint.
+     * @param clientSecret the client secret used to authenticate to the endpoint.
+     * @param sslContext the {@link SSLContext} to use for HTTPS connections, or {@code null} to use the default.
+     * @param hostnameVerifier the {@link HostnameVerifier} to use for HTTPS connections, or {@code null} to use the default.
+     * @param connectionTimeout the timeout in milliseconds to establish a connection to the endpoint.
+     * @param readTimeout the timeout in milliseconds to wait for data from the endpoint once connected.
+     */
+    IntrospectionTokenValidator(URL introspectionUrl, String clientId, String clientSecret, SSLContext sslContext, HostnameVerifier hostnameVerifier,
+            int connectionTimeout, int readTimeout) {
+        this.introspectionUrl = checkNotNullParam("introspectionUrl", introspectionUrl);
+        this.authorization = "Basic " + Base64.getEncoder().encodeToString((checkNotNullParam("clientId", clientId) + ":"
+                + checkNotNullParam("clientSecret", clientSecret)).getBytes(StandardCharsets.UTF_8));
+        this.socketFactory = sslContext != null ? sslContext.getSocketFactory() : null;
+        this.hostnameVerifier = hostnameVerifier;
+        this.connectionTimeout = connectionTimeout;
+        this.readTimeout = readTimeout;
+    }
+
+    @Override
+    public Attributes validate(BearerTokenEvidence evidence) throws RealmUnavailableException {
+        checkNotNullParam("evidence", evidence);
+        ModelNode response = introspect(evidence.getToken());
+        if (response.getType() != ModelType.OBJECT) {
+            // The response was valid JSON but not an object, e.g. an array or a bare value.
+            ROOT_LOGGER.invalidIntrospectionResponse(introspectionUrl.toString(), null);
+            return null;
+        }
+        try {
+            if (response.hasDefined(ACTIVE) == false || response.get(ACTIVE).asBoolean() == false) {
+                ROOT_LOGGER.tracef("Token reported as inactive by introspection endpoint '%s'", introspectionUrl);
+                return null;
+            }
+
+            MapAttributes attributes = new MapAttributes();
+            for (Property claim : response.asPropertyList()) {
+                ModelNode value = claim.getValue();
+                if (value.getType() == ModelType.LIST) {
+                    for (ModelNode current : value.asList()) {
+                        attributes.addLast(claim.getName(), asString(current));
+                    }
+                } else if (value.isDefined()) {
+                    attributes.addLast(claim.getName(), asString(value));
+                }
+            }
+            return attributes;
+        } catch (IllegalArgumentException e) {
+            ROOT_LOGGER.invalidIntrospectionResponse(introspectionUrl.toString(), e);
+            return null;
+        }
+    }
+
+    private static String asString(ModelNode value) {
+        return value.getType() == ModelType.OBJECT ? value.toJSONString(true) : value.asString();
+    }
+
+    private ModelNode introspect(String token) throws RealmUnavailableException {
+        try {
+            byte[] request = ("token=" + URLEncoder.encode(token, StandardCharsets.UTF_8.name())).getBytes(StandardCharsets.UTF_8);
+
+            HttpURLConnection connection = (HttpURLConnection) introspectionUrl.openConnection();
+            if (connection instanceof HttpsURLConnection) {
+                if (socketFactory != null) {
+                    ((HttpsURLConnection) connection).setSSLSocketFactory(socketFactory);
+                }
+                if (hostnameVerifier != null) {
+                    ((HttpsURLConnection) connection).setHostnameVerifier(hostnameVerifier);
+                }
+            }
+            connection.setConnectTimeout(connectionTimeout);
+            connection.setReadTimeout(readTimeout);
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            connection.setUseCaches(false);
+            connection.setFixedLengthStreamingMode(request.length);
+            connection.setRequestProperty("Authorization", authorization);
+            connection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
+            connection.setRequestProperty("Accept", "application/json");
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(request);
+            }
+
+            int status = connection.getResponseCode();
+            if (status != HttpURLConnection.HTTP_OK) {
+                // Drain the error body so the connection can still be reused.
+                readFully(connection.getErrorStream());
+                throw ROOT_LOGGER.unableToIntrospectToken(introspectionUrl.toString(), status);
+            }
+
+            return ModelNode.fromJSONString(readFully(connection.getInputStream()));
+        } catch (IOException | IllegalArgumentException e) {
+            throw ROOT_LOGGER.unableToIntrospectToken(introspectionUrl.toString(), e);
+        }
+    }
+
+    private static String readFully(InputStream stream) throws IOException {
+        if (stream == null) {
+            return "";
+        }
+        try (InputStream in = stream) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+}
@@ -0,0 +1,755 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.wildfly.extension.elytron;
+
+import static org.wildfly.extension.elytron._private.ElytronSubsystemMessages.ROOT_LOGGER;
+
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.security.Principal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetFactory;
+import javax.sql.rowset.RowSetProvider;
+
+import org.jboss.dmr.ModelNode;
+import org.wildfly.security.auth.SupportLevel;
+import org.wildfly.security.auth.principal.NamePrincipal;
+import org.wildfly.security.auth.server.RealmIdentity;
+import org.wildfly.security.auth.server.RealmUnavailableException;
+import org.wildfly.security.auth.server.SecurityRealm;
+import org.wildfly.security.auth.server.event.RealmEvent;
+import org.wildfly.security.authz.AuthorizationIdentity;
+import org.wildfly.security.credential.Credential;
+import org.wildfly.security.evidence.Evidence;
+
+/**
+ * Controls how the principal queries of a {@code jdbc-realm} are executed.
+ * <p>
+ * The JDBC realm executes each principal query by obtaining a connection from the {@link DataSource} of the query,
+ * preparing the SQL and closing both again, a single authentication commonly executes the same query several times as each
+ * credential and evidence type is checked. The {@link DataSource} of each query is wrapped by
+ * {@link #register(String, DataSource)} so every query is timed and configured with the fetch size and query timeout.
+ * <p>
+ * With batching enabled each call to a {@link RealmIdentity} of the realm forms a batch: the queries against the same
+ * {@link DataSource} share a single connection and its prepared statements, and a query already executed for the identity
+ * with the same parameters is answered from its earlier result without a further round trip. With parallel execution
+ * enabled, once the identity is loaded every query taking just the name of the identity is started together: the
+ * queries against each {@link DataSource} run in turn on the connection of the batch for that {@link DataSource}, on one
+ * of a bounded number of threads, so queries against different data sources are executed concurrently.
+ */
+class JdbcQueryExecutor {
+
+    private static final long KEEP_ALIVE = 60L;
+
+    private static volatile RowSetFactory rowSetFactory;
+
+    private final boolean batching;
+    private final boolean parallel;
+    private final int fetchSize;
+    private final int queryTimeout;
+    private final int threads;
+
+    private final ThreadLocal<Batch> currentBatch = new ThreadLocal<>();
+    private final Map<DataSource, QueryDataSource> dataSources = new ConcurrentHashMap<>();
+    private final Map<String, QueryStatistics> statistics = new ConcurrentHashMap<>();
+
+    private volatile ThreadPoolExecutor executor;
+
+    /**
+     * Construct a new instance.
+     *
+     * @param batching {@code true} if the queries of each call to an identity should be batched.
+     * @param parallel {@code true} if the queries of an identity should be started together once the identity is loaded,
+     *        implies batching.
+     * @param fetchSize the fetch size of each query, or 0 to use the default of the driver.
+     * @param queryTimeout the timeout in seconds of each query, or 0 for no timeout.
+     * @param threads the maximum number of threads executing queries in parallel.
+     */
+    JdbcQueryExecutor(boolean batching, boolean parallel, int fetchSize, int queryTimeout, int threads) {
+        this.batching = batching || parallel;
+        this.parallel = parallel;
+        this.fetchSize = fetchSize;
+        this.queryTimeout = queryTimeout;
+        this.threads = threads;
+    }
+
+    /**
+     * Register a principal query and wrap its {@link DataSource}, queries against the same {@link DataSource} share the
+     * same wrapper.
+     *
+     * @param sql the SQL of the principal query.
+     * @param dataSource the {@link DataSource} the query is executed against.
+     * @return the {@link DataSource} to pass to the realm for the query.
+     */
+    DataSource register(String sql, DataSource dataSource) {
+        QueryDataSource queryDataSource = dataSources.computeIfAbsent(dataSource, QueryDataSource::new);
+        queryDataSource.queries.add(sql);
+        return queryDataSource;
+    }
+
+    /**
+     * Wrap the realm built from the registered queries so calls to its identities are batched, if batching is not
+     * enabled the realm is returned unchanged.
+     *
+     * @param securityRealm the realm to wrap.
+     * @return the wrapped realm.
+     */
+    SecurityRealm wrap(SecurityRealm securityRealm) {
+        if (batching == false) {
+            return securityRealm;
+        }
+        if (parallel) {
+            // Without a free thread the queries are left to be executed on the calling thread as they are made.
+            final AtomicInteger count = new AtomicInteger();
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE, TimeUnit.SECONDS, new SynchronousQueue<>(), r -> {
+                Thread thread = new Thread(r, "JDBC realm query " + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.AbortPolicy());
+            executor.allowCoreThreadTimeOut(true);
+            this.executor = executor;
+        }
+        return new BatchingSecurityRealm(securityRealm);
+    }
+
+    /**
+     * Stop executing queries in parallel, called once the realm is no longer in use.
+     */
+    void close() {
+        ThreadPoolExecutor executor = this.executor;
+        this.executor = null;
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    ModelNode getQueryStatistics() {
+        ModelNode result = new ModelNode();
+        result.setEmptyList();
+        statistics.forEach((sql, s) -> {
+            ModelNode query = new ModelNode();
+            query.get(ElytronDescriptionConstants.SQL).set(sql);
+            query.get(ElytronDescriptionConstants.EXECUTIONS).set(s.executions.sum());
+            query.get(ElytronDescriptionConstants.COALESCED).set(s.coalesced.sum());
+            query.get(ElytronDescriptionConstants.LATENCY).set(s.latency.toModelNode());
+            result.add(query);
+        });
+        return result;
+    }
+
+    void resetQueryStatistics() {
+        statistics.values().forEach(QueryStatistics::reset);
+    }
+
+    private QueryStatistics statisticsFor(String sql) {
+        return statistics.computeIfAbsent(sql, s -> new QueryStatistics());
+    }
+
+    private PreparedStatement configure(PreparedStatement statement) throws SQLException {
+        try {
+            if (fetchSize > 0) {
+                statement.setFetchSize(fetchSize);
+            }
+            if (queryTimeout > 0) {
+                statement.setQueryTimeout(queryTimeout);
+            }
+            return statement;
+        } catch (SQLException | RuntimeException e) {
+            statement.close();
+            throw e;
+        }
+    }
+
+    private CachedRowSet execute(String sql, PreparedStatement statement) throws SQLException {
+        long start = System.nanoTime();
+        try (ResultSet resultSet = statement.executeQuery()) {
+            RowSetFactory factory = rowSetFactory;
+            if (factory == null) {
+                rowSetFactory = factory = RowSetProvider.newFactory();
+            }
+            CachedRowSet result = factory.createCachedRowSet();
+            result.populate(resultSet);
+            return result;
+        } finally {
+            statisticsFor(sql).executed(System.nanoTime() - start);
+        }
+    }
+
+    private static String key(String sql, Map<Integer, Object> parameters) {
+        return sql + '\u0000' + parameters;
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Wrap a {@link Connection} so the statements it prepares are timed.
+     */
+    private Connection instrument(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(JdbcQueryExecutor.class.getClassLoader(), new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+            if ("prepareStatement".equals(method.getName()) && args.length == 1) {
+                return prepare((String) args[0], connection);
+            }
+            return invoke(connection, method, args);
+        });
+    }
+
+    private PreparedStatement prepare(String sql, Connection connection) throws SQLException {
+        final PreparedStatement statement = configure(connection.prepareStatement(sql));
+        return (PreparedStatement) Proxy.newProxyInstance(JdbcQueryExecutor.class.getClassLoader(), new Class<?>[] { PreparedStatement.class }, (proxy, method, args) -> {
+            if ("executeQuery".equals(method.getName()) && (args == null || args.length == 0)) {
+                long start = System.nanoTime();
+                try {
+                    return statement.executeQuery();
+                } finally {
+                    statisticsFor(sql).executed(System.nanoTime() - start);
+                }
+            }
+            return invoke(statement, method, args);
+        });
+    }
+
+    /**
+     * Create a {@link Connection} for use within a batch. The connection of the batch for the {@link DataSource} is only
+     * obtained once it is actually needed and closing the connection is deferred until the batch completes.
+     */
+    private Connection batchConnection(Batch batch, QueryDataSource dataSource) {
+        return (Connection) Proxy.newProxyInstance(JdbcQueryExecutor.class.getClassLoader(), new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+            if ("prepareStatement".equals(method.getName()) && args.length == 1) {
+                return batchStatement(batch, dataSource, (String) args[0]);
+            } else if ("close".equals(method.getName())) {
+                return null;
+            }
+            return invoke(batch.connection(dataSource), method, args);
+        });
+    }
+
+    /**
+     * Create a {@link PreparedStatement} for use within a batch. The parameters are recorded so a query already executed
+     * with the same parameters is answered from the earlier result, otherwise the prepared statement of the batch is
+     * obtained, the parameters applied and the query executed.
+     */
+    private PreparedStatement batchStatement(Batch batch, QueryDataSource dataSource, String sql) {
+        final Map<Integer, Object> parameters = new TreeMap<>();
+        final Map<Integer, Object[]> setters = new TreeMap<>();
+        return (PreparedStatement) Proxy.newProxyInstance(JdbcQueryExecutor.class.getClassLoader(), new Class<?>[] { PreparedStatement.class }, (proxy, method, args) -> {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length > 1 && args[0] instanceof Integer) {
+                parameters.put((Integer) args[0], args[1]);
+                setters.put((Integer) args[0], new Object[] { method, args });
+                return null;
+            } else if ("clearParameters".equals(name)) {
+                parameters.clear();
+                setters.clear();
+                return null;
+            } else if ("close".equals(name)) {
+                return null;
+            }
+
+            if ("executeQuery".equals(name) && (args == null || args.length == 0)) {
+                CachedRowSet result = batch.result(sql, parameters);
+                if (result != null) {
+                    statisticsFor(sql).coalesced.increment();
+                    return result.createCopy();
+                }
+
+                PreparedStatement statement = batch.statement(dataSource, sql);
+                for (Object[] setter : setters.values()) {
+                    invoke(statement, (Method) setter[0], (Object[]) setter[1]);
+                }
+                result = execute(sql, statement);
+                batch.results.put(key(sql, parameters), CompletableFuture.completedFuture(result));
+                return result.createCopy();
+            }
+            return invoke(batch.statement(dataSource, sql), method, args);
+        });
+    }
+
+    /**
+     * Start executing the registered queries taking just the name of the identity as their parameter, skipping any query
+     * the batch already holds a result for. The queries against each {@link DataSource} are executed in turn on the
+     * connection of the batch for the {@link DataSource}, which the batch does not use again until they complete.
+     */
+    private void prefetch(Batch batch, ThreadPoolExecutor executor, String name) throws SQLException {
+        Map<Integer, Object> parameters = new TreeMap<>();
+        parameters.put(1, name);
+        for (QueryDataSource dataSource : dataSources.values()) {
+            Map<String, CompletableFuture<CachedRowSet>> pending = new LinkedHashMap<>();
+            for (String sql : dataSource.queries) {
+                String key = key(sql, parameters);
+                if (parameterCount(sql) == 1 && batch.results.containsKey(key) == false) {
+                    CompletableFuture<CachedRowSet> result = new CompletableFuture<>();
+                    pending.put(sql, result);
+                    batch.results.put(key, result);
+                }
+            }
+            if (pending.isEmpty()) {
+                continue;
+            }
+
+            final Connection connection = batch.connection(dataSource);
+            try {
+                batch.prefetching.put(dataSource, CompletableFuture.runAsync(() -> {
+                    try {
+                        for (Map.Entry<String, CompletableFuture<CachedRowSet>> current : pending.entrySet()) {
+                            if (current.getValue().isDone() == false) {
+                                try (PreparedStatement statement = configure(connection.prepareStatement(current.getKey()))) {
+                                    statement.setString(1, name);
+                                    batch.executing.add(statement);
+                                    try {
+                                        current.getValue().complete(execute(current.getKey(), statement));
+                                    } finally {
+                                        batch.executing.remove(statement);
+                                    }
+                                }
+                            }
+                        }
+                    } catch (SQLException | RuntimeException e) {
+                        pending.values().forEach(f -> f.completeExceptionally(e));
+                    }
+                }, executor));
+            } catch (RejectedExecutionException e) {
+                pending.values().forEach(f -> f.completeExceptionally(e));
+            }
+        }
+    }
+
+    /**
+     * Count the parameter markers of the SQL of a query, ignoring any within quoted literals or identifiers.
+     */
+    private static int parameterCount(String sql) {
+        int count = 0;
+        char quote = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '\'' || c == '"') {
+                quote = c;
+            } else if (c == '?') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static final class QueryStatistics {
+
+        private final LongAdder executions = new LongAdder();
+        private final LongAdder coalesced = new LongAdder();
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        void executed(long duration) {
+            executions.increment();
+            latency.record(duration);
+        }
+
+        void reset() {
+            executions.reset();
+            coalesced.reset();
+            latency.reset();
+        }
+
+    }
+
+    /**
+     * The state shared by the calls to a single {@link RealmIdentity}, the connections and statements are held for the
+     * duration of a call whilst the results are held until the identity is disposed of.
+     */
+    private final class Batch {
+
+        private final String name;
+        private final Map<String, Future<CachedRowSet>> results = new ConcurrentHashMap<>();
+        private final Map<QueryDataSource, Connection> connections = new HashMap<>();
+        private final Map<Connection, Map<String, PreparedStatement>> statements = new HashMap<>();
+        private final Map<QueryDataSource, Future<Void>> prefetching = new HashMap<>();
+        private final Set<Statement> executing = ConcurrentHashMap.newKeySet();
+        private boolean prefetched;
+        private int depth;
+
+        /**
+         * @param name the name of the identity if its queries may be executed in parallel, otherwise {@code null}.
+         */
+        Batch(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Make a call which loads the identity, with parallel execution enabled the queries of the identity are started
+         * the first time the identity is loaded.
+         */
+        <T> T load(RealmCall<T> call) throws RealmUnavailableException {
+            return call(() -> {
+                ThreadPoolExecutor executor = JdbcQueryExecutor.this.executor;
+                if (prefetched == false && name != null && executor != null) {
+                    prefetched = true;
+                    try {
+                        prefetch(this, executor, name);
+                    } catch (SQLException e) {
+                        throw new RealmUnavailableException(e);
+                    }
+                }
+                return call.call();
+            });
+        }
+
+        <T> T call(RealmCall<T> call) throws RealmUnavailableException {
+            synchronized (this) {
+                Batch previous = currentBatch.get();
+                currentBatch.set(this);
+                depth++;
+                try {
+                    return call.call();
+                } finally {
+                    if (--depth == 0) {
+                        release();
+                    }
+                    if (previous != null) {
+                        currentBatch.set(previous);
+                    } else {
+                        currentBatch.remove();
+                    }
+                }
+            }
+        }
+
+        Connection connection(QueryDataSource dataSource) throws SQLException {
+            // The connection is not shared with queries still being executed in parallel.
+            Future<Void> pending = prefetching.remove(dataSource);
+            if (pending != null) {
+                await(pending);
+            }
+            Connection connection = connections.get(dataSource);
+            if (connection == null) {
+                connection = dataSource.delegate.getConnection();
+                connections.put(dataSource, connection);
+            }
+            return connection;
+        }
+
+        PreparedStatement statement(QueryDataSource dataSource, String sql) throws SQLException {
+            Connection connection = connection(dataSource);
+            Map<String, PreparedStatement> prepared = statements.computeIfAbsent(connection, c -> new HashMap<>());
+            PreparedStatement statement = prepared.get(sql);
+            if (statement == null) {
+                statement = configure(connection.prepareStatement(sql));
+                prepared.put(sql, statement);
+            } else {
+                statement.clearParameters();
+            }
+            return statement;
+        }
+
+        /**
+         * Get the result of a query already executed for the identity with the same parameters, waiting for a query being
+         * executed in parallel to complete.
+         *
+         * @return the earlier result, or {@code null} if the query has not been executed with the same parameters.
+         */
+        CachedRowSet result(String sql, Map<Integer, Object> parameters) throws SQLException {
+            String key = key(sql, parameters);
+            Future<CachedRowSet> previous = results.get(key);
+            if (previous != null) {
+                try {
+                    return previous.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLException(e);
+                } catch (ExecutionException | CancellationException e) {
+                    // A failed or cancelled parallel execution is retried on the calling thread.
+                    ROOT_LOGGER.tracef(e, "Parallel execution of query '%s' failed", sql);
+                    results.remove(key, previous);
+                }
+            }
+            return null;
+        }
+
+        private void await(Future<Void> pending) throws SQLException {
+            try {
+                pending.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException(e);
+            } catch (ExecutionException e) {
+                throw new SQLException(e.getCause());
+            }
+        }
+
+        /**
+         * Cancel the queries still waiting to be executed in parallel and the statements currently executing.
+         */
+        private void cancel() {
+            results.values().forEach(f -> f.cancel(false));
+            for (Statement statement : executing) {
+                try {
+                    statement.cancel();
+                } catch (SQLException e) {
+                    ROOT_LOGGER.tracef(e, "Unable to cancel statement");
+                }
+            }
+        }
+
+        private void release() {
+            if (prefetching.isEmpty() == false) {
+                // The call completed without using every query executed in parallel, the connections can only be closed
+                // once those executions stop.
+                cancel();
+                for (Future<Void> pending : prefetching.values()) {
+                    try {
+                        await(pending);
+                    } catch (SQLException e) {
+                        ROOT_LOGGER.tracef(e, "Parallel execution of queries failed");
+                    }
+                }
+                prefetching.clear();
+            }
+            for (Map<String, PreparedStatement> prepared : statements.values()) {
+                for (PreparedStatement statement : prepared.values()) {
+                    try {
+                        statement.close();
+                    } catch (SQLException e) {
+                        ROOT_LOGGER.tracef(e, "Unable to close statement");
+                    }
+                }
+            }
+            statements.clear();
+            for (Connection connection : connections.values()) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    ROOT_LOGGER.tracef(e, "Unable to close connection");
+                }
+            }
+            connections.clear();
+        }
+
+        void dispose() {
+            cancel();
+            results.clear();
+        }
+
+    }
+
+    @FunctionalInterface
+    private interface RealmCall<T> {
+
+        T call() throws RealmUnavailableException;
+
+    }
+
+    /**
+     * A {@link DataSource} handing out instrumented connections, within a batch the connection of the batch is returned.
+     */
+    private final class QueryDataSource implements DataSource {
+
+        private final DataSource delegate;
+        private final Set<String> queries = new CopyOnWriteArraySet<>();
+
+        QueryDataSource(DataSource delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Batch batch = currentBatch.get();
+            return batch != null ? batchConnection(batch, this) : instrument(delegate.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return instrument(delegate.getConnection(username, password));
+        }
+
+        @Override
+        public PrintWriter getLogWriter() throws SQLException {
+            return delegate.getLogWriter();
+        }
+
+        @Override
+        public void setLogWriter(PrintWriter out) throws SQLException {
+            delegate.setLogWriter(out);
+        }
+
+        @Override
+        public void setLoginTimeout(int seconds) throws SQLException {
+            delegate.setLoginTimeout(seconds);
+        }
+
+        @Override
+        public int getLoginTimeout() throws SQLException {
+            return delegate.getLoginTimeout();
+        }
+
+        @Override
+        public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+            return delegate.getParentLogger();
+        }
+
+        @Override
+        public <T> T unwrap(Class<T> iface) throws SQLException {
+            return delegate.unwrap(iface);
+        }
+
+        @Override
+        public boolean isWrapperFor(Class<?> iface) throws SQLException {
+            return delegate.isWrapperFor(iface);
+        }
+
+    }
+
+    private final class BatchingSecurityRealm implements SecurityRealm {
+
+        private final SecurityRealm delegate;
+
+        BatchingSecurityRealm(SecurityRealm delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public RealmIdentity getRealmIdentity(Principal principal) throws RealmUnavailableException {
+            RealmIdentity identity = delegate.getRealmIdentity(principal);
+            if (identity == RealmIdentity.NON_EXISTENT) {
+                return identity;
+            }
+
+            Batch batch = new Batch(parallel && principal instanceof NamePrincipal ? principal.getName() : null);
+            return new BatchingRealmIdentity(identity, batch);
+        }
+
+        @Override
+        public RealmIdentity getRealmIdentity(Evidence evidence) throws RealmUnavailableException {
+            RealmIdentity identity = delegate.getRealmIdentity(evidence);
+            return identity == RealmIdentity.NON_EXISTENT ? identity : new BatchingRealmIdentity(identity, new Batch(null));
+        }
+
+        @Override
+        public SupportLevel getCredentialAcquireSupport(Class<? extends Credential> credentialType, String algorithmName) throws RealmUnavailableException {
+            return delegate.getCredentialAcquireSupport(credentialType, algorithmName);
+        }
+
+        @Override
+        public SupportLevel getEvidenceVerifySupport(Class<? extends Evidence> evidenceType, String algorithmName) throws RealmUnavailableException {
+            return delegate.getEvidenceVerifySupport(evidenceType, algorithmName);
+        }
+
+        @Override
+        public void handleRealmEvent(RealmEvent event) {
+            delegate.handleRealmEvent(event);
+        }
+
+    }
+
+    private static final class BatchingRealmIdentity implements RealmIdentity {
+
+        private final RealmIdentity delegate;
+        private final Batch batch;
+
+        BatchingRealmIdentity(RealmIdentity delegate, Batch batch) {
+            this.delegate = delegate;
+            this.batch = batch;
+        }
+
+        @Override
+        public Principal getRealmIdentityPrincipal() {
+            return delegate.getRealmIdentityPrincipal();
+        }
+
+        @Override
+        public SupportLevel getCredentialAcquireSupport(Class<? extends Credential> credentialType, String algorithmName) throws RealmUnavailableException {
+            return batch.call(() -> delegate.getCredentialAcquireSupport(credentialType, algorithmName));
+        }
+
+        @Override
+        public <C extends Credential> C getCredential(Class<C> credentialType) throws RealmUnavailableException {
+            return batch.call(() -> delegate.getCredential(credentialType));
+        }
+
+        @Override
+        public <C extends Credential> C getCredential(Class<C> credentialType, String algorithmName) throws RealmUnavailableException {
+            return batch.call(() -> delegate.getCredential(credentialType, algorithmName));
+        }
+
+        @Override
+        public SupportLevel getEvidenceVerifySupport(Class<? extends Evidence> evidenceType, String algorithmName) throws RealmUnavailableException {
+            return batch.call(() -> delegate.getEvidenceVerifySupport(evidenceType, algorithmName));
+        }
+
+        @Override
+        public boolean verifyEvidence(Evidence evidence) throws RealmUnavailableException {
+            return batch.call(() -> delegate.verifyEvidence(evidence));
+        }
+
+        @Override
+        public boolean exists() throws RealmUnavailableException {
+            return batch.load(delegate::exists);
+        }
+
+        @Override
+        public AuthorizationIdentity getAuthorizationIdentity() throws RealmUnavailableException {
+            return batch.load(delegate::getAuthorizationIdentity);
+        }
+
+        @Override
+        public void dispose() {
+            try {
+                delegate.dispose();
+            } finally {
+                batch.dispose();
+            }
+        }
+
+    }
+
+}
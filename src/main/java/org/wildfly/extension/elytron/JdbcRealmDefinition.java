@@ -26,6 +26,9 @@ import static org.wildfly.extension.elytron.ElytronDescriptionConstants.SALTED_S
 import static org.wildfly.extension.elytron.ElytronDescriptionConstants.SCRAM_MAPPER;
 import static org.wildfly.extension.elytron.ElytronDescriptionConstants.SIMPLE_DIGEST_MAPPER;
 import static org.wildfly.extension.elytron.ElytronExtension.asStringIfDefined;
+import static org.wildfly.extension.elytron.ElytronExtension.getRequiredService;
+import static org.wildfly.extension.elytron.StartupDefinitions.getInitialMode;
+import static org.wildfly.extension.elytron.StartupDefinitions.startTimer;
 
 import java.security.InvalidKeyException;
 import java.util.ArrayList;
@@ -33,10 +36,12 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.UnaryOperator;
 
 import javax.sql.DataSource;
 
 import org.jboss.as.controller.AbstractAddStepHandler;
+import org.jboss.as.controller.AbstractRuntimeOnlyHandler;
 import org.jboss.as.controller.AttributeDefinition;
 import org.jboss.as.controller.ObjectListAttributeDefinition;
 import org.jboss.as.controller.ObjectTypeAttributeDefinition;
@@ -49,6 +54,9 @@ import org.jboss.as.controller.ResourceDefinition;
 import org.jboss.as.controller.RestartParentWriteAttributeHandler;
 import org.jboss.as.controller.SimpleAttributeDefinition;
 import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
+import org.jboss.as.controller.SimpleMapAttributeDefinition;
+import org.jboss.as.controller.SimpleOperationDefinition;
+import org.jboss.as.controller.SimpleOperationDefinitionBuilder;
 import org.jboss.as.controller.SimpleResourceDefinition;
 import org.jboss.as.controller.capability.RuntimeCapability;
 import org.jboss.as.controller.logging.ControllerLogger;
@@ -64,8 +72,10 @@ import org.jboss.msc.inject.InjectionException;
 import org.jboss.msc.inject.Injector;
 import org.jboss.msc.service.ServiceBuilder;
 import org.jboss.msc.service.ServiceController;
+import org.jboss.msc.service.ServiceController.State;
 import org.jboss.msc.service.ServiceName;
 import org.jboss.msc.service.ServiceTarget;
+import org.jboss.msc.service.StopContext;
 import org.wildfly.security.auth.realm.jdbc.JdbcSecurityRealm;
 import org.wildfly.security.auth.realm.jdbc.JdbcSecurityRealmBuilder;
 import org.wildfly.security.auth.realm.jdbc.KeyMapper;
@@ -496,7 +506,61 @@ class JdbcRealmDefinition extends SimpleResourceDefinition {
         }
     }
 
-    static final AttributeDefinition[] ATTRIBUTES = new AttributeDefinition[] {PrincipalQueryAttributes.PRINCIPAL_QUERIES};
+    static final SimpleAttributeDefinition BATCH_QUERIES = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.BATCH_QUERIES, ModelType.BOOLEAN, true)
+            .setDefaultValue(new ModelNode(false))
+            .setAllowExpression(true)
+            .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
+            .build();
+
+    static final SimpleAttributeDefinition PARALLEL_QUERIES = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.PARALLEL_QUERIES, ModelType.BOOLEAN, true)
+            .setDefaultValue(new ModelNode(false))
+            .setAllowExpression(true)
+            .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
+            .build();
+
+    static final SimpleAttributeDefinition FETCH_SIZE = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.FETCH_SIZE, ModelType.INT, true)
+            .setValidator(new IntRangeValidator(1, true, true))
+            .setAllowExpression(true)
+            .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
+            .build();
+
+    static final SimpleAttributeDefinition QUERY_TIMEOUT = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.QUERY_TIMEOUT, ModelType.INT, true)
+            .setValidator(new IntRangeValidator(1, true, true))
+            .setAllowExpression(true)
+            .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
+            .build();
+
+    static final SimpleAttributeDefinition QUERY_THREADS = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.QUERY_THREADS, ModelType.INT, true)
+            .setDefaultValue(new ModelNode(4))
+            .setValidator(new IntRangeValidator(1, true, true))
+            .setAllowExpression(true)
+            .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
+            .build();
+
+    static final AttributeDefinition[] ATTRIBUTES = new AttributeDefinition[] {PrincipalQueryAttributes.PRINCIPAL_QUERIES, RealmCacheDefinitions.CACHE,
+            BATCH_QUERIES, PARALLEL_QUERIES, FETCH_SIZE, QUERY_TIMEOUT, QUERY_THREADS};
+
+    // Runtime Attributes
+
+    static final SimpleAttributeDefinition QUERY_STATISTICS_SQL = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.SQL, ModelType.STRING)
+            .build();
+
+    static final SimpleAttributeDefinition EXECUTIONS = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.EXECUTIONS, ModelType.LONG)
+            .build();
+
+    static final SimpleAttributeDefinition COALESCED = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.COALESCED, ModelType.LONG)
+            .build();
+
+    static final SimpleMapAttributeDefinition LATENCY = new SimpleMapAttributeDefinition.Builder(ElytronDescriptionConstants.LATENCY, ModelType.LONG, false)
+            .build();
+
+    static final ObjectTypeAttributeDefinition QUERY_STATISTICS_ENTRY = new ObjectTypeAttributeDefinition.Builder(ElytronDescriptionConstants.PRINCIPAL_QUERY,
+                QUERY_STATISTICS_SQL, EXECUTIONS, COALESCED, LATENCY)
+            .build();
+
+    static final ObjectListAttributeDefinition QUERY_STATISTICS = new ObjectListAttributeDefinition.Builder(ElytronDescriptionConstants.QUERY_STATISTICS, QUERY_STATISTICS_ENTRY)
+            .setStorageRuntime()
+            .build();
 
     private static final AbstractAddStepHandler ADD = new RealmAddHandler();
     private static final OperationStepHandler REMOVE = new TrivialCapabilityServiceRemoveHandler(ADD, SECURITY_REALM_RUNTIME_CAPABILITY);
@@ -516,6 +580,37 @@ class JdbcRealmDefinition extends SimpleResourceDefinition {
         for (AttributeDefinition current : ATTRIBUTES) {
             resourceRegistration.registerReadWriteAttribute(current, null, WRITE);
         }
+
+        RealmCacheDefinitions.registerRuntimeAttributes(resourceRegistration);
+        resourceRegistration.registerReadOnlyAttribute(QUERY_STATISTICS, new QueryRuntimeHandler() {
+
+            @Override
+            void performRuntime(OperationContext context, JdbcQueryExecutor queryExecutor) {
+                context.getResult().set(queryExecutor.getQueryStatistics());
+            }
+        });
+    }
+
+    @Override
+    public void registerOperations(ManagementResourceRegistration resourceRegistration) {
+        super.registerOperations(resourceRegistration);
+
+        RealmCacheDefinitions.registerOperations(resourceRegistration, getResourceDescriptionResolver());
+        SimpleOperationDefinition resetStatistics = new SimpleOperationDefinitionBuilder(ElytronDescriptionConstants.RESET_STATISTICS, getResourceDescriptionResolver())
+            .setRuntimeOnly()
+            .build();
+
+        resourceRegistration.registerOperationHandler(resetStatistics, new QueryRuntimeHandler() {
+
+            @Override
+            void performRuntime(OperationContext context, JdbcQueryExecutor queryExecutor) {
+                queryExecutor.resetQueryStatistics();
+            }
+        });
+    }
+
+    private static ServiceName getRealmServiceName(String realmName) {
+        return SECURITY_REALM_RUNTIME_CAPABILITY.fromBaseCapability(realmName).getCapabilityServiceName(SecurityRealm.class);
     }
 
     private static class RealmAddHandler extends BaseAddHandler {
@@ -532,8 +627,15 @@ class JdbcRealmDefinition extends SimpleResourceDefinition {
             ServiceName realmName = runtimeCapability.getCapabilityServiceName(SecurityRealm.class);
             ModelNode principalQueries = PrincipalQueryAttributes.PRINCIPAL_QUERIES.resolveModelAttribute(context, operation);
             final JdbcSecurityRealmBuilder builder = JdbcSecurityRealm.builder();
-
-            TrivialService<SecurityRealm> service = new TrivialService<SecurityRealm>(builder::build);
+            final UnaryOperator<SecurityRealm> cacheWrapper = RealmCacheDefinitions.getCacheWrapper(context, model);
+            ModelNode fetchSize = FETCH_SIZE.resolveModelAttribute(context, model);
+            ModelNode queryTimeout = QUERY_TIMEOUT.resolveModelAttribute(context, model);
+            final JdbcQueryExecutor queryExecutor = new JdbcQueryExecutor(BATCH_QUERIES.resolveModelAttribute(context, model).asBoolean(),
+                    PARALLEL_QUERIES.resolveModelAttribute(context, model).asBoolean(),
+                    fetchSize.isDefined() ? fetchSize.asInt() : 0, queryTimeout.isDefined() ? queryTimeout.asInt() : 0,
+                    QUERY_THREADS.resolveModelAttribute(context, model).asInt());
+
+            JdbcRealmService service = new JdbcRealmService(queryExecutor, () -> cacheWrapper.apply(queryExecutor.wrap(builder.build())));
             ServiceBuilder<SecurityRealm> serviceBuilder = serviceTarget.addService(realmName, service);
 
             for (ModelNode query : principalQueries.asList()) {
@@ -550,7 +652,7 @@ class JdbcRealmDefinition extends SimpleResourceDefinition {
 
                     @Override
                     public void inject(DataSource value) throws InjectionException {
-                        queryBuilder.from(value);
+                        queryBuilder.from(queryExecutor.register(authenticationQuerySql, value));
                     }
 
                     @Override
@@ -561,7 +663,8 @@ class JdbcRealmDefinition extends SimpleResourceDefinition {
             }
 
             commonDependencies(serviceBuilder)
-                    .setInitialMode(ServiceController.Mode.ACTIVE)
+                    .setInitialMode(getInitialMode(context))
+                    .addListener(startTimer(context))
                     .install();
         }
 
@@ -612,7 +715,48 @@ class JdbcRealmDefinition extends SimpleResourceDefinition {
 
         @Override
         protected ServiceName getParentServiceName(PathAddress pathAddress) {
-            return SECURITY_REALM_RUNTIME_CAPABILITY.fromBaseCapability(pathAddress.getLastElement().getValue()).getCapabilityServiceName(SecurityRealm.class);
+            return getRealmServiceName(pathAddress.getLastElement().getValue());
+        }
+    }
+
+    /**
+     * The {@link TrivialService} of the realm, retaining the {@link JdbcQueryExecutor} used by the realm so its statistics
+     * can be read.
+     */
+    private static final class JdbcRealmService extends TrivialService<SecurityRealm> {
+
+        private final JdbcQueryExecutor queryExecutor;
+
+        JdbcRealmService(JdbcQueryExecutor queryExecutor, ValueSupplier<SecurityRealm> valueSupplier) {
+            super(valueSupplier);
+            this.queryExecutor = queryExecutor;
+        }
+
+        @Override
+        public void stop(StopContext context) {
+            super.stop(context);
+            queryExecutor.close();
         }
+
+    }
+
+    /**
+     * A runtime handler for a JDBC realm, if the realm is not currently available the result is left undefined.
+     */
+    abstract static class QueryRuntimeHandler extends AbstractRuntimeOnlyHandler {
+
+        @Override
+        protected void executeRuntimeStep(OperationContext context, ModelNode operation) throws OperationFailedException {
+            ServiceController<SecurityRealm> serviceController = getRequiredService(context.getServiceRegistry(false),
+                    getRealmServiceName(context.getCurrentAddressValue()), SecurityRealm.class);
+            if (serviceController.getState() != State.UP) {
+                return;
+            }
+
+            performRuntime(context, ((JdbcRealmService) serviceController.getService()).queryExecutor);
+        }
+
+        abstract void performRuntime(OperationContext context, JdbcQueryExecutor queryExecutor) throws OperationFailedException;
+
     }
 }
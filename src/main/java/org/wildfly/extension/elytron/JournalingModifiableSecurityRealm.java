@@ -0,0 +1,595 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.extension.elytron;
+
+import static org.wildfly.extension.elytron._private.ElytronSubsystemMessages.ROOT_LOGGER;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.Principal;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.jboss.dmr.ModelNode;
+import org.wildfly.security.auth.SupportLevel;
+import org.wildfly.security.auth.principal.NamePrincipal;
+import org.wildfly.security.auth.server.ModifiableRealmIdentity;
+import org.wildfly.security.auth.server.ModifiableSecurityRealm;
+import org.wildfly.security.auth.server.RealmIdentity;
+import org.wildfly.security.auth.server.RealmUnavailableException;
+import org.wildfly.security.auth.server.event.RealmEvent;
+import org.wildfly.security.authz.Attributes;
+import org.wildfly.security.authz.AuthorizationIdentity;
+import org.wildfly.security.credential.Credential;
+import org.wildfly.security.evidence.Evidence;
+
+/**
+ * A {@link ModifiableSecurityRealm} deferring the modifications made to the identities of another realm, such as a
+ * {@link org.wildfly.security.auth.realm.FileSystemSecurityRealm}, where each modification is an expensive rewrite.
+ * <p>
+ * Each modification is appended to a journal file and forced to disk before it returns, then held in memory as pending
+ * against its identity. Successive modifications of one identity are merged so a background compaction applies each
+ * modified identity to the wrapped realm once regardless of how many times it was modified, after which the journal is
+ * truncated. Any journal remaining when the realm is opened, for example following a crash, is replayed into the wrapped
+ * realm before use.
+ * <p>
+ * Existence and attributes of an identity with pending modifications are served from memory, any other access to such
+ * an identity first applies its pending modifications to the wrapped realm. Credentials which can not be encoded in the
+ * journal are written straight through to the wrapped realm, preceded by a record marking the earlier records of the
+ * identity as applied so a replay can not overwrite them.
+ * <p>
+ * Modifications and the application of pending modifications are serialized per identity, obtaining an identity without
+ * pending modifications takes no lock, only truncation of the journal excludes all other access to the journal.
+ */
+class JournalingModifiableSecurityRealm implements ModifiableSecurityRealm {
+
+    private static final String OPERATION = "op";
+    private static final String NAME = "name";
+    private static final String CREATE = "create";
+    private static final String DELETE = "delete";
+    private static final String ATTRIBUTES = "attributes";
+    private static final String CREDENTIALS = "credentials";
+    private static final String APPLIED = "applied";
+    private static final int IDENTITY_LOCKS = 64;
+
+    private final ModifiableSecurityRealm delegate;
+    private final Path journalPath;
+    private final FileChannel journal;
+    private final ScheduledExecutorService executor;
+
+    // Each entry is guarded by the identity lock of its name.
+    private final Map<String, PendingIdentity> pending = new ConcurrentHashMap<>();
+    private final Object[] identityLocks = new Object[IDENTITY_LOCKS];
+    // The read lock is held to append to the journal or apply its records, the write lock to truncate it.
+    private final ReadWriteLock journalLock = new ReentrantReadWriteLock();
+
+    private JournalingModifiableSecurityRealm(ModifiableSecurityRealm delegate, Path journalPath, FileChannel journal) {
+        this.delegate = delegate;
+        this.journalPath = journalPath;
+        this.journal = journal;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "Journal compaction for " + journalPath.getFileName());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < identityLocks.length; i++) {
+            identityLocks[i] = new Object();
+        }
+    }
+
+    /**
+     * Open the journal for a realm, replaying any modifications remaining in the journal and starting the background
+     * compaction.
+     *
+     * @param delegate the realm the modifications are applied to.
+     * @param journalPath the path of the journal file.
+     * @param compactionInterval the time in milliseconds between compactions of the journal.
+     * @return the {@link JournalingModifiableSecurityRealm} which must be closed once no longer required.
+     * @throws IOException if the journal can not be read or opened.
+     * @throws RealmUnavailableException if the remaining modifications can not be applied to the realm.
+     */
+    static JournalingModifiableSecurityRealm open(ModifiableSecurityRealm delegate, Path journalPath, long compactionInterval) throws IOException, RealmUnavailableException {
+        if (Files.exists(journalPath)) {
+            replay(delegate, journalPath);
+        }
+
+        FileChannel journal = FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            journal.truncate(0);
+            journal.force(true);
+        } catch (IOException e) {
+            journal.close();
+            throw e;
+        }
+
+        JournalingModifiableSecurityRealm realm = new JournalingModifiableSecurityRealm(delegate, journalPath, journal);
+        realm.executor.scheduleWithFixedDelay(realm::compactQuietly, compactionInterval, compactionInterval, TimeUnit.MILLISECONDS);
+        return realm;
+    }
+
+    private static void replay(ModifiableSecurityRealm delegate, Path journalPath) throws IOException, RealmUnavailableException {
+        Map<String, PendingIdentity> replayed = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(journalPath, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                final ModelNode record;
+                try {
+                    record = ModelNode.fromJSONString(line);
+                } catch (IllegalArgumentException e) {
+                    // The final record may be incomplete if the process stopped whilst it was being written.
+                    ROOT_LOGGER.tracef(e, "Ignoring incomplete record in journal '%s'", journalPath);
+                    break;
+                }
+                String name = record.get(NAME).asString();
+                if (APPLIED.equals(record.get(OPERATION).asString())) {
+                    // The earlier records of the identity were applied before the identity was modified directly.
+                    replayed.remove(name);
+                } else {
+                    replayed.computeIfAbsent(name, n -> new PendingIdentity(true)).apply(record);
+                }
+            }
+        }
+
+        ROOT_LOGGER.tracef("Replaying modifications of %d identities from journal '%s'", replayed.size(), journalPath);
+        for (Map.Entry<String, PendingIdentity> entry : replayed.entrySet()) {
+            entry.getValue().applyTo(delegate, entry.getKey());
+        }
+    }
+
+    @Override
+    public RealmIdentity getRealmIdentity(Principal principal) throws RealmUnavailableException {
+        flush(principal.getName());
+        return delegate.getRealmIdentity(principal);
+    }
+
+    @Override
+    public RealmIdentity getRealmIdentity(Evidence evidence) throws RealmUnavailableException {
+        // The identity the evidence resolves to is not known up front so all pending modifications are applied first.
+        for (String name : pending.keySet()) {
+            flush(name);
+        }
+        return delegate.getRealmIdentity(evidence);
+    }
+
+    @Override
+    public SupportLevel getCredentialAcquireSupport(Class<? extends Credential> credentialType, String algorithmName) throws RealmUnavailableException {
+        return delegate.getCredentialAcquireSupport(credentialType, algorithmName);
+    }
+
+    @Override
+    public SupportLevel getEvidenceVerifySupport(Class<? extends Evidence> evidenceType, String algorithmName) throws RealmUnavailableException {
+        return delegate.getEvidenceVerifySupport(evidenceType, algorithmName);
+    }
+
+    @Override
+    public void handleRealmEvent(RealmEvent event) {
+        delegate.handleRealmEvent(event);
+    }
+
+    @Override
+    public ModifiableRealmIdentity getRealmIdentityForUpdate(Principal principal) throws RealmUnavailableException {
+        return new JournalRealmIdentity(principal);
+    }
+
+    @Override
+    public Iterator<ModifiableRealmIdentity> getRealmIdentityIterator() throws RealmUnavailableException {
+        // Iterated identities are modified directly so all pending modifications must be applied first.
+        compact();
+        return delegate.getRealmIdentityIterator();
+    }
+
+    private Object getIdentityLock(String name) {
+        return identityLocks[(name.hashCode() & Integer.MAX_VALUE) % identityLocks.length];
+    }
+
+    /**
+     * Apply the pending modifications of a single identity to the wrapped realm. The records of the identity remain in the
+     * journal until the next compaction, replaying them again is harmless as each records the resulting state.
+     */
+    private void flush(String name) throws RealmUnavailableException {
+        if (pending.containsKey(name) == false) {
+            return;
+        }
+        journalLock.readLock().lock();
+        try {
+            synchronized (getIdentityLock(name)) {
+                flushLocked(name);
+            }
+        } finally {
+            journalLock.readLock().unlock();
+        }
+    }
+
+    // Called with the identity lock of the name held.
+    private void flushLocked(String name) throws RealmUnavailableException {
+        PendingIdentity pendingIdentity = pending.get(name);
+        if (pendingIdentity != null) {
+            pendingIdentity.applyTo(delegate, name);
+            pending.remove(name);
+        }
+    }
+
+    /**
+     * Apply all pending modifications to the wrapped realm and truncate the journal.
+     * <p>
+     * Identities are applied one at a time under their own lock, only identities modified whilst the others were being
+     * applied are applied with the journal locked for truncation.
+     */
+    void compact() throws RealmUnavailableException {
+        if (pending.isEmpty() == false) {
+            ROOT_LOGGER.tracef("Compacting modifications of %d identities from journal '%s'", pending.size(), journalPath);
+            for (String name : pending.keySet()) {
+                flush(name);
+            }
+        }
+
+        journalLock.writeLock().lock();
+        try {
+            if (journal.size() == 0) {
+                return;
+            }
+            Iterator<Map.Entry<String, PendingIdentity>> iterator = pending.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, PendingIdentity> entry = iterator.next();
+                entry.getValue().applyTo(delegate, entry.getKey());
+                iterator.remove();
+            }
+            journal.truncate(0);
+            journal.force(true);
+        } catch (IOException e) {
+            throw new RealmUnavailableException(e);
+        } finally {
+            journalLock.writeLock().unlock();
+        }
+    }
+
+    private void compactQuietly() {
+        try {
+            compact();
+        } catch (RealmUnavailableException | RuntimeException e) {
+            ROOT_LOGGER.unableToCompactJournal(journalPath.toString(), e);
+        }
+    }
+
+    int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Stop the background compaction and apply all pending modifications.
+     */
+    void close() {
+        executor.shutdownNow();
+        compactQuietly();
+        try {
+            journal.close();
+        } catch (IOException e) {
+            ROOT_LOGGER.tracef(e, "Unable to close journal '%s'", journalPath);
+        }
+    }
+
+    /**
+     * Record a modification of an identity, the existence of the identity is checked under the same lock so it can not
+     * be created or deleted concurrently between the check and the record.
+     *
+     * @param name the name of the identity.
+     * @param record the modification to record.
+     * @param mustExist {@code true} if the identity must exist, {@code false} if it must not exist.
+     */
+    private void record(String name, ModelNode record, boolean mustExist) throws RealmUnavailableException {
+        journalLock.readLock().lock();
+        try {
+            synchronized (getIdentityLock(name)) {
+                PendingIdentity pendingIdentity = pending.get(name);
+                boolean exists = pendingIdentity != null ? pendingIdentity.exists : existsInDelegate(name);
+                checkExists(name, exists, mustExist);
+                append(name, record);
+
+                if (pendingIdentity == null) {
+                    pendingIdentity = new PendingIdentity(exists);
+                    pending.put(name, pendingIdentity);
+                }
+                pendingIdentity.apply(record);
+            }
+        } finally {
+            journalLock.readLock().unlock();
+        }
+    }
+
+    private static void checkExists(String name, boolean exists, boolean mustExist) throws RealmUnavailableException {
+        if (exists != mustExist) {
+            throw mustExist ? ROOT_LOGGER.journaledIdentityNotFound(name) : ROOT_LOGGER.journaledIdentityAlreadyExists(name);
+        }
+    }
+
+    // Called with the journal read lock held.
+    private void append(String name, ModelNode record) throws RealmUnavailableException {
+        record.get(NAME).set(name);
+        byte[] bytes = (record.toJSONString(true) + '\n').getBytes(StandardCharsets.UTF_8);
+        synchronized (journal) {
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(bytes);
+                long position = journal.size();
+                while (buffer.hasRemaining()) {
+                    position += journal.write(buffer, position);
+                }
+                journal.force(false);
+            } catch (IOException e) {
+                throw new RealmUnavailableException(e);
+            }
+        }
+    }
+
+    private boolean existsInDelegate(String name) throws RealmUnavailableException {
+        RealmIdentity identity = delegate.getRealmIdentity(new NamePrincipal(name));
+        try {
+            return identity.exists();
+        } finally {
+            identity.dispose();
+        }
+    }
+
+    /**
+     * The state of an identity resulting from its pending modifications, held in the encoded form of the journal. {@code null}
+     * attributes or credentials are those of the identity in the wrapped realm.
+     */
+    private static final class PendingIdentity {
+
+        private boolean exists;
+        private boolean recreate;
+        private ModelNode attributes;
+        private ModelNode credentials;
+
+        PendingIdentity(boolean exists) {
+            this.exists = exists;
+        }
+
+        void apply(ModelNode record) {
+            switch (record.get(OPERATION).asString()) {
+                case CREATE:
+                    // Any previous state of the identity is discarded, as it would be by a delete followed by a create.
+                    exists = true;
+                    recreate = true;
+                    attributes = new ModelNode().setEmptyObject();
+                    credentials = null;
+                    break;
+                case DELETE:
+                    exists = false;
+                    recreate = true;
+                    attributes = null;
+                    credentials = null;
+                    break;
+                case ATTRIBUTES:
+                    attributes = record.get(ATTRIBUTES);
+                    break;
+                case CREDENTIALS:
+                    credentials = record.get(CREDENTIALS);
+                    break;
+                default:
+                    ROOT_LOGGER.tracef("Ignoring unknown journal record '%s'", record);
+            }
+        }
+
+        void applyTo(ModifiableSecurityRealm realm, String name) throws RealmUnavailableException {
+            ModifiableRealmIdentity identity = realm.getRealmIdentityForUpdate(new NamePrincipal(name));
+            try {
+                if (recreate && identity.exists()) {
+                    identity.delete();
+                }
+                if (exists == false) {
+                    return;
+                }
+                if (identity.exists() == false) {
+                    identity.create();
+                }
+                if (attributes != null) {
+                    identity.setAttributes(IdentityJson.decodeAttributes(attributes));
+                }
+                if (credentials != null) {
+                    try {
+                        identity.setCredentials(IdentityJson.decodeCredentials(credentials));
+                    } catch (RealmUnavailableException e) {
+                        throw e;
+                    } catch (GeneralSecurityException e) {
+                        throw new RealmUnavailableException(e);
+                    }
+                } else if (recreate) {
+                    identity.setCredentials(Collections.emptyList());
+                }
+            } finally {
+                identity.dispose();
+            }
+        }
+
+    }
+
+    /**
+     * A {@link ModifiableRealmIdentity} recording modifications in the journal.
+     */
+    private final class JournalRealmIdentity implements ModifiableRealmIdentity {
+
+        private final Principal principal;
+        private final String name;
+
+        JournalRealmIdentity(Principal principal) {
+            this.principal = principal;
+            this.name = principal.getName();
+        }
+
+        private RealmIdentity flushed() throws RealmUnavailableException {
+            flush(name);
+            return delegate.getRealmIdentity(principal);
+        }
+
+        @Override
+        public Principal getRealmIdentityPrincipal() {
+            return principal;
+        }
+
+        @Override
+        public void create() throws RealmUnavailableException {
+            ModelNode record = new ModelNode();
+            record.get(OPERATION).set(CREATE);
+            record(name, record, false);
+        }
+
+        @Override
+        public void delete() throws RealmUnavailableException {
+            ModelNode record = new ModelNode();
+            record.get(OPERATION).set(DELETE);
+            record(name, record, true);
+        }
+
+        @Override
+        public void setAttributes(Attributes attributes) throws RealmUnavailableException {
+            ModelNode record = new ModelNode();
+            record.get(OPERATION).set(ATTRIBUTES);
+            record.get(ATTRIBUTES).set(IdentityJson.encodeAttributes(attributes));
+            record(name, record, true);
+        }
+
+        @Override
+        public void setCredentials(Collection<? extends Credential> credentials) throws RealmUnavailableException {
+            ModelNode encoded = IdentityJson.encodeCredentials(credentials);
+            if (encoded == null) {
+                journalLock.readLock().lock();
+                try {
+                    synchronized (getIdentityLock(name)) {
+                        PendingIdentity pendingIdentity = pending.get(name);
+                        checkExists(name, pendingIdentity != null ? pendingIdentity.exists : existsInDelegate(name), true);
+                        flushLocked(name);
+                        ModelNode applied = new ModelNode();
+                        applied.get(OPERATION).set(APPLIED);
+                        append(name, applied);
+                        ModifiableRealmIdentity identity = delegate.getRealmIdentityForUpdate(principal);
+                        try {
+                            identity.setCredentials(credentials);
+                        } finally {
+                            identity.dispose();
+                        }
+                    }
+                } finally {
+                    journalLock.readLock().unlock();
+                }
+                return;
+            }
+            ModelNode record = new ModelNode();
+            record.get(OPERATION).set(CREDENTIALS);
+            record.get(CREDENTIALS).set(encoded);
+            record(name, record, true);
+        }
+
+        @Override
+        public boolean exists() throws RealmUnavailableException {
+            synchronized (getIdentityLock(name)) {
+                PendingIdentity pendingIdentity = pending.get(name);
+                if (pendingIdentity != null) {
+                    return pendingIdentity.exists;
+                }
+            }
+            return existsInDelegate(name);
+        }
+
+        @Override
+        public AuthorizationIdentity getAuthorizationIdentity() throws RealmUnavailableException {
+            synchronized (getIdentityLock(name)) {
+                PendingIdentity pendingIdentity = pending.get(name);
+                if (pendingIdentity != null && pendingIdentity.exists == false) {
+                    return AuthorizationIdentity.basicIdentity(Attributes.EMPTY);
+                } else if (pendingIdentity != null && pendingIdentity.attributes != null) {
+                    return AuthorizationIdentity.basicIdentity(IdentityJson.decodeAttributes(pendingIdentity.attributes));
+                }
+            }
+            RealmIdentity identity = delegate.getRealmIdentity(principal);
+            try {
+                return identity.getAuthorizationIdentity();
+            } finally {
+                identity.dispose();
+            }
+        }
+
+        @Override
+        public SupportLevel getCredentialAcquireSupport(Class<? extends Credential> credentialType, String algorithmName) throws RealmUnavailableException {
+            RealmIdentity identity = flushed();
+            try {
+                return identity.getCredentialAcquireSupport(credentialType, algorithmName);
+            } finally {
+                identity.dispose();
+            }
+        }
+
+        @Override
+        public <C extends Credential> C getCredential(Class<C> credentialType) throws RealmUnavailableException {
+            RealmIdentity identity = flushed();
+            try {
+                return identity.getCredential(credentialType);
+            } finally {
+                identity.dispose();
+            }
+        }
+
+        @Override
+        public <C extends Credential> C getCredential(Class<C> credentialType, String algorithmName) throws RealmUnavailableException {
+            RealmIdentity identity = flushed();
+            try {
+                return identity.getCredential(credentialType, algorithmName);
+            } finally {
+                identity.dispose();
+            }
+        }
+
+        @Override
+        public SupportLevel getEvidenceVerifySupport(Class<? extends Evidence> evidenceType, String algorithmName) throws RealmUnavailableException {
+            RealmIdentity identity = flushed();
+            try {
+                return identity.getEvidenceVerifySupport(evidenceType, algorithmName);
+            } finally {
+                identity.dispose();
+            }
+        }
+
+        @Override
+        public boolean verifyEvidence(Evidence evidence) throws RealmUnavailableException {
+            RealmIdentity identity = flushed();
+            try {
+                return identity.verifyEvidence(evidence);
+            } finally {
+                identity.dispose();
+            }
+        }
+
+    }
+
+}
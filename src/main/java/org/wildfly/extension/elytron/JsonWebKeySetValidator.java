@@ -0,0 +1,307 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.extension.elytron;
+
+import static org.wildfly.common.Assert.checkNotNullParam;
+import static org.wildfly.extension.elytron._private.ElytronSubsystemMessages.ROOT_LOGGER;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.RSAPublicKeySpec;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocketFactory;
+
+import org.jboss.dmr.ModelNode;
+import org.wildfly.security.auth.realm.token.TokenValidator;
+import org.wildfly.security.auth.realm.token.validator.JwtValidator;
+import org.wildfly.security.auth.server.RealmUnavailableException;
+import org.wildfly.security.authz.Attributes;
+import org.wildfly.security.evidence.BearerTokenEvidence;
+
+/**
+ * A {@link TokenValidator} validating JWTs against the keys of a JSON Web Key Set (RFC 7517) loaded from a URL, which may
+ * be a {@code file:} URL.
+ * <p>
+ * The keys are held in an in-memory index by key id, each with its own {@link JwtValidator}, and the index is replaced as
+ * a whole by a background refresh on a fixed schedule. Keys without a key id are held separately and a token without a
+ * key id is tried against each of them in turn. A token signed with a key id which is not in the index is rejected
+ * immediately and an early refresh is requested, early refreshes are limited to one per minimum refresh interval so a
+ * stream of tokens with an unknown key id can not be used to flood the provider of the key set. The key set is always
+ * loaded by the background thread and each load is bounded by the connection and read timeouts, only validations
+ * arriving before the initial load has completed wait for it.
+ * <p>
+ * Only RSA signing keys are indexed as these are the keys supported by {@link JwtValidator}.
+ */
+class JsonWebKeySetValidator implements TokenValidator {
+
+    private static final String KEY_TYPE_RSA = "RSA";
+    private static final String USE_SIGNATURE = "sig";
+
+    private final URL url;
+    private final String[] issuer;
+    private final String[] audience;
+    private final long minRefreshInterval;
+    private final SSLSocketFactory socketFactory;
+    private final int connectionTimeout;
+    private final int readTimeout;
+    private final ScheduledExecutorService executor;
+    private final AtomicLong lastRefresh = new AtomicLong();
+
+    private volatile Future<?> initialLoad;
+    // Null until the key set has been loaded for the first time.
+    private volatile KeySet keySet;
+
+    private JsonWebKeySetValidator(URL url, String[] issuer, String[] audience, long minRefreshInterval, SSLContext sslContext,
+            int connectionTimeout, int readTimeout) {
+        this.url = url;
+        this.issuer = issuer;
+        this.audience = audience;
+        this.minRefreshInterval = minRefreshInterval;
+        this.socketFactory = sslContext != null ? sslContext.getSocketFactory() : null;
+        this.connectionTimeout = connectionTimeout;
+        this.readTimeout = readTimeout;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "JSON Web Key Set refresh for " + url);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Start loading the key set and refreshing it in the background, this method does not wait for the key set to be
+     * loaded.
+     * <p>
+     * Validations arriving before the initial load has completed wait for it for at most the sum of the connection and
+     * read timeouts. If the key set can not be loaded within that time a warning is logged and tokens are rejected until
+     * a later refresh succeeds.
+     *
+     * @param url the URL of the JSON Web Key Set.
+     * @param issuer the issuers accepted, or {@code null} to accept any issuer.
+     * @param audience the audiences accepted, or {@code null} to accept any audience.
+     * @param refreshInterval the time in milliseconds between scheduled refreshes of the key set.
+     * @param minRefreshInterval the minimum time in milliseconds between refreshes requested by tokens with an unknown key
+     *        id.
+     * @param sslContext the {@link SSLContext} to use for HTTPS connections, or {@code null} to use the default.
+     * @param connectionTimeout the timeout in milliseconds to establish a connection to load the key set.
+     * @param readTimeout the timeout in milliseconds to wait for data once connected.
+     * @return the {@link JsonWebKeySetValidator} which must be closed once no longer required.
+     */
+    static JsonWebKeySetValidator start(URL url, String[] issuer, String[] audience, long refreshInterval, long minRefreshInterval,
+            SSLContext sslContext, int connectionTimeout, int readTimeout) {
+        JsonWebKeySetValidator validator = new JsonWebKeySetValidator(checkNotNullParam("url", url), issuer, audience, minRefreshInterval,
+                sslContext, connectionTimeout, readTimeout);
+        validator.initialLoad = validator.executor.submit(validator::refresh);
+        validator.executor.scheduleWithFixedDelay(validator::refresh, refreshInterval, refreshInterval, TimeUnit.MILLISECONDS);
+        return validator;
+    }
+
+    @Override
+    public Attributes validate(BearerTokenEvidence evidence) throws RealmUnavailableException {
+        checkNotNullParam("evidence", evidence);
+        final KeySet keySet = getKeySet();
+        if (keySet == null) {
+            return null;
+        }
+        final String keyId;
+        try {
+            keyId = getKeyId(evidence.getToken());
+        } catch (RuntimeException e) {
+            ROOT_LOGGER.tracef(e, "Unable to decode the header of the token");
+            return null;
+        }
+
+        if (keyId == null) {
+            List<TokenValidator> candidates = keySet.withoutKeyId.isEmpty() && keySet.byKeyId.size() == 1
+                    ? new ArrayList<>(keySet.byKeyId.values()) : keySet.withoutKeyId;
+            if (candidates.isEmpty()) {
+                ROOT_LOGGER.tracef("No key without a key id in the JSON Web Key Set from '%s'", url);
+                requestRefresh();
+                return null;
+            }
+            for (TokenValidator validator : candidates) {
+                Attributes attributes = validator.validate(evidence);
+                if (attributes != null) {
+                    return attributes;
+                }
+            }
+            return null;
+        }
+
+        TokenValidator validator = keySet.byKeyId.get(keyId);
+        if (validator == null) {
+            ROOT_LOGGER.tracef("No key with id '%s' in the JSON Web Key Set from '%s'", keyId, url);
+            requestRefresh();
+            return null;
+        }
+        return validator.validate(evidence);
+    }
+
+    /**
+     * Get the current key set, waiting for the initial load if it has not yet completed.
+     *
+     * @return the current key set or {@code null} if it has not been loaded.
+     */
+    private KeySet getKeySet() {
+        KeySet keySet = this.keySet;
+        if (keySet == null) {
+            final long maxWait = (long) connectionTimeout + readTimeout;
+            try {
+                initialLoad.get(maxWait, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                ROOT_LOGGER.jsonWebKeySetNotLoaded(url.toString(), maxWait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                // Not reachable, refresh() logs any failure itself.
+                ROOT_LOGGER.unableToLoadJsonWebKeySet(url.toString(), e.getCause());
+            }
+            keySet = this.keySet;
+        }
+        return keySet;
+    }
+
+    private static String getKeyId(String token) {
+        int index = token.indexOf('.');
+        if (index < 0) {
+            throw new IllegalArgumentException("token");
+        }
+        ModelNode header = ModelNode.fromJSONString(new String(Base64.getUrlDecoder().decode(token.substring(0, index)), StandardCharsets.UTF_8));
+        return header.hasDefined("kid") ? header.get("kid").asString() : null;
+    }
+
+    private void requestRefresh() {
+        final long now = System.currentTimeMillis();
+        final long last = lastRefresh.get();
+        if (now - last >= minRefreshInterval && lastRefresh.compareAndSet(last, now)) {
+            executor.execute(this::refresh);
+        }
+    }
+
+    private void refresh() {
+        lastRefresh.set(System.currentTimeMillis());
+        try {
+            KeySet keySet = load();
+            this.keySet = keySet;
+            ROOT_LOGGER.tracef("Loaded %d keys from the JSON Web Key Set at '%s'", keySet.byKeyId.size() + keySet.withoutKeyId.size(), url);
+        } catch (IOException | GeneralSecurityException | RuntimeException e) {
+            ROOT_LOGGER.unableToLoadJsonWebKeySet(url.toString(), e);
+        }
+    }
+
+    private KeySet load() throws IOException, GeneralSecurityException {
+        final ModelNode keySet;
+        URLConnection connection = url.openConnection();
+        if (socketFactory != null && connection instanceof HttpsURLConnection) {
+            ((HttpsURLConnection) connection).setSSLSocketFactory(socketFactory);
+        }
+        connection.setConnectTimeout(connectionTimeout);
+        connection.setReadTimeout(readTimeout);
+        connection.setUseCaches(false);
+        try (InputStream in = connection.getInputStream()) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            keySet = ModelNode.fromJSONString(new String(out.toByteArray(), StandardCharsets.UTF_8));
+        }
+
+        Map<String, TokenValidator> byKeyId = new HashMap<>();
+        List<TokenValidator> withoutKeyId = new ArrayList<>();
+        if (keySet.hasDefined("keys")) {
+            KeyFactory keyFactory = KeyFactory.getInstance(KEY_TYPE_RSA);
+            for (ModelNode key : keySet.get("keys").asList()) {
+                if (key.hasDefined("kty") == false || KEY_TYPE_RSA.equals(key.get("kty").asString()) == false
+                        || key.hasDefined("use") && USE_SIGNATURE.equals(key.get("use").asString()) == false) {
+                    continue;
+                }
+                PublicKey publicKey = keyFactory.generatePublic(new RSAPublicKeySpec(decode(key, "n"), decode(key, "e")));
+                if (key.hasDefined("kid")) {
+                    byKeyId.put(key.get("kid").asString(), createValidator(publicKey));
+                } else {
+                    withoutKeyId.add(createValidator(publicKey));
+                }
+            }
+        }
+        return new KeySet(byKeyId, withoutKeyId);
+    }
+
+    private static BigInteger decode(ModelNode key, String parameter) {
+        return new BigInteger(1, Base64.getUrlDecoder().decode(key.require(parameter).asString()));
+    }
+
+    private TokenValidator createValidator(PublicKey publicKey) {
+        JwtValidator.Builder builder = JwtValidator.builder();
+        if (issuer != null) {
+            builder.issuer(issuer);
+        }
+        if (audience != null) {
+            builder.audience(audience);
+        }
+
+        String pem = "-----BEGIN PUBLIC KEY-----\n"
+                + Base64.getMimeEncoder(64, new byte[] { '\n' }).encodeToString(publicKey.getEncoded())
+                + "\n-----END PUBLIC KEY-----\n";
+        return builder.publicKey(pem.getBytes(StandardCharsets.UTF_8)).build();
+    }
+
+    /**
+     * Stop refreshing the key set.
+     */
+    void close() {
+        executor.shutdownNow();
+    }
+
+    private static final class KeySet {
+
+        private final Map<String, TokenValidator> byKeyId;
+        private final List<TokenValidator> withoutKeyId;
+
+        KeySet(Map<String, TokenValidator> byKeyId, List<TokenValidator> withoutKeyId) {
+            this.byKeyId = Collections.unmodifiableMap(byKeyId);
+            this.withoutKeyId = Collections.unmodifiableList(withoutKeyId);
+        }
+
+    }
+
+}
@@ -214,6 +214,9 @@ class KeyStoreAliasDefinition extends SimpleResourceDefinition {
             ServiceName serviceName = keyStoreServiceUtil.serviceName(operation);
 
             ServiceController<KeyStore> serviceContainer = getRequiredService(context.getServiceRegistry(writeAccess), serviceName, KeyStore.class);
+            if (serviceMustBeUp) {
+                serviceContainer = StartupDefinitions.activate(context, serviceContainer);
+            }
             ServiceController.State serviceState;
             if ((serviceState = serviceContainer.getState()) != ServiceController.State.UP) {
                 if (serviceMustBeUp) {
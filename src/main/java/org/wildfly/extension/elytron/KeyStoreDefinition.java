@@ -38,6 +38,8 @@ import static org.wildfly.extension.elytron.ProviderLoaderDefinition.PROVIDER_LO
 import static org.wildfly.extension.elytron.ServiceStateDefinition.STATE;
 import static org.wildfly.extension.elytron.ServiceStateDefinition.populateResponse;
 import static org.wildfly.extension.elytron._private.ElytronSubsystemMessages.ROOT_LOGGER;
+import static org.wildfly.extension.elytron.StartupDefinitions.getInitialMode;
+import static org.wildfly.extension.elytron.StartupDefinitions.startTimer;
 
 import java.security.KeyStore;
 import java.security.KeyStoreException;
@@ -75,7 +77,6 @@ import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
 import org.jboss.msc.service.ServiceBuilder;
 import org.jboss.msc.service.ServiceController;
-import org.jboss.msc.service.ServiceController.Mode;
 import org.jboss.msc.service.ServiceController.State;
 import org.jboss.msc.service.ServiceName;
 import org.jboss.msc.service.ServiceTarget;
@@ -124,6 +125,14 @@ final class KeyStoreDefinition extends SimpleResourceDefinition {
         .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
         .build();
 
+    static final SimpleAttributeDefinition WATCH = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.WATCH, ModelType.BOOLEAN, true)
+        .setDefaultValue(new ModelNode(false))
+        .setAllowExpression(true)
+        .setAttributeGroup(ElytronDescriptionConstants.FILE)
+        .setRequires(ElytronDescriptionConstants.PATH)
+        .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
+        .build();
+
     static final SimpleAttributeDefinition ALIAS_FILTER = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.ALIAS_FILTER, ModelType.STRING, true)
         .setAllowExpression(true)
         .setMinSize(1)
@@ -156,7 +165,7 @@ final class KeyStoreDefinition extends SimpleResourceDefinition {
     static final SimpleOperationDefinition STORE = new SimpleOperationDefinitionBuilder(ElytronDescriptionConstants.STORE, RESOURCE_RESOLVER)
         .build();
 
-    private static final AttributeDefinition[] CONFIG_ATTRIBUTES = new AttributeDefinition[] { TYPE, PROVIDER, PROVIDER_LOADER, CREDENTIAL_REFERENCE, PATH, RELATIVE_TO, REQUIRED, ALIAS_FILTER };
+    private static final AttributeDefinition[] CONFIG_ATTRIBUTES = new AttributeDefinition[] { TYPE, PROVIDER, PROVIDER_LOADER, CREDENTIAL_REFERENCE, PATH, RELATIVE_TO, REQUIRED, WATCH, ALIAS_FILTER };
 
     private static final KeyStoreAddHandler ADD = new KeyStoreAddHandler();
     private static final OperationStepHandler REMOVE = new TrivialCapabilityServiceRemoveHandler(ADD, KEY_STORE_RUNTIME_CAPABILITY);
@@ -259,6 +268,7 @@ final class KeyStoreDefinition extends SimpleResourceDefinition {
             String path = asStringIfDefined(context, PATH, model);
             String relativeTo = null;
             boolean required;
+            boolean watch;
             String aliasFilter = asStringIfDefined(context, ALIAS_FILTER, model);
 
             String credentialStoreName = credentialReferencePartAsStringIfDefined(context, CREDENTIAL_REFERENCE, model, CredentialReference.STORE);
@@ -277,8 +287,9 @@ final class KeyStoreDefinition extends SimpleResourceDefinition {
             if (path != null) {
                 relativeTo = asStringIfDefined(context, RELATIVE_TO, model);
                 required = REQUIRED.resolveModelAttribute(context, model).asBoolean();
+                watch = WATCH.resolveModelAttribute(context, model).asBoolean();
 
-                keyStoreService = KeyStoreService.createFileBasedKeyStoreService(provider, type, relativeTo, path, required, aliasFilter, credentialReference);
+                keyStoreService = KeyStoreService.createFileBasedKeyStoreService(provider, type, relativeTo, path, required, watch, aliasFilter, credentialReference);
             } else {
                 keyStoreService = KeyStoreService.createFileLessKeyStoreService(provider, type, aliasFilter, credentialReference);
             }
@@ -287,7 +298,9 @@ final class KeyStoreDefinition extends SimpleResourceDefinition {
             RuntimeCapability<Void> runtimeCapability = KEY_STORE_RUNTIME_CAPABILITY.fromBaseCapability(context.getCurrentAddressValue());
             ServiceName serviceName = runtimeCapability.getCapabilityServiceName(KeyStore.class);
             ServiceBuilder<KeyStore> serviceBuilder = serviceTarget.addService(serviceName, keyStoreService)
-                    .setInitialMode(Mode.ACTIVE);
+                    .setInitialMode(getInitialMode(context))
+                    .addListener(startTimer(context))
+                    .addDependency(StartupService.SERVICE_NAME, StartupService.class, keyStoreService.getStartupServiceInjector());
 
             if (relativeTo != null) {
                 serviceBuilder.addDependency(PathManagerService.SERVICE_NAME, PathManager.class, keyStoreService.getPathManagerInjector());
@@ -360,6 +373,9 @@ final class KeyStoreDefinition extends SimpleResourceDefinition {
             ServiceName keyStoreName = KEY_STORE_UTIL.serviceName(operation);
 
             ServiceController<KeyStore> serviceContainer = getRequiredService(context.getServiceRegistry(writeAccess), keyStoreName, KeyStore.class);
+            if (serviceMustBeUp) {
+                serviceContainer = StartupDefinitions.activate(context, serviceContainer);
+            }
             State serviceState;
             if ((serviceState = serviceContainer.getState()) != State.UP) {
                 if (serviceMustBeUp) {
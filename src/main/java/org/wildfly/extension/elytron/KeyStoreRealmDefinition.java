@@ -23,6 +23,8 @@ import static org.wildfly.extension.elytron.Capabilities.SECURITY_REALM_CAPABILI
 import static org.wildfly.extension.elytron.Capabilities.SECURITY_REALM_RUNTIME_CAPABILITY;
 import static org.wildfly.extension.elytron.ElytronDefinition.commonDependencies;
 import static org.wildfly.extension.elytron.KeyStoreDefinition.KEY_STORE_UTIL;
+import static org.wildfly.extension.elytron.StartupDefinitions.getInitialMode;
+import static org.wildfly.extension.elytron.StartupDefinitions.startTimer;
 
 import java.security.KeyStore;
 
@@ -44,7 +46,6 @@ import org.jboss.as.controller.registry.OperationEntry;
 import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
 import org.jboss.msc.service.ServiceBuilder;
-import org.jboss.msc.service.ServiceController.Mode;
 import org.jboss.msc.service.ServiceName;
 import org.jboss.msc.service.ServiceTarget;
 import org.jboss.msc.value.InjectedValue;
@@ -106,7 +107,8 @@ class KeyStoreRealmDefinition extends SimpleResourceDefinition {
             ServiceName keyStoreServiceName = context.getCapabilityServiceName(keyStoreCapabilityName, KeyStore.class);
             KEY_STORE_UTIL.addInjection(serviceBuilder, keyStore, keyStoreServiceName);
             commonDependencies(serviceBuilder)
-                .setInitialMode(Mode.ACTIVE)
+                .setInitialMode(getInitialMode(context))
+                .addListener(startTimer(context))
                 .install();
         }
 
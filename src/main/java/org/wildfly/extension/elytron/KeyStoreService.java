@@ -22,14 +22,18 @@ import static org.wildfly.extension.elytron.FileAttributeDefinitions.pathResolve
 import static org.wildfly.extension.elytron.ProviderUtil.identifyProvider;
 import static org.wildfly.extension.elytron._private.ElytronSubsystemMessages.ROOT_LOGGER;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
 import java.security.GeneralSecurityException;
 import java.security.KeyStore;
 import java.security.KeyStoreException;
+import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.Provider;
 import java.security.Security;
@@ -38,7 +42,10 @@ import java.security.cert.CertificateException;
 import java.security.cert.CertificateExpiredException;
 import java.security.cert.CertificateNotYetValidException;
 import java.security.cert.X509Certificate;
+import java.util.Arrays;
 import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.jboss.as.controller.OperationFailedException;
 import org.jboss.as.controller.security.CredentialReference;
@@ -65,17 +72,24 @@ import org.wildfly.security.keystore.UnmodifiableKeyStore;
  */
 class KeyStoreService implements ModifiableKeyStoreService {
 
+    /**
+     * The time in milliseconds a watched file must stop changing for before it is reloaded.
+     */
+    private static final long WATCH_QUIET_PERIOD = 500;
+
     private final String provider;
     private final String type;
     private final String path;
     private final String relativeTo;
     private final boolean required;
+    private final boolean watch;
     private final String aliasFilter;
     private final CredentialReference credentialReference;
 
     private final InjectedValue<PathManager> pathManager = new InjectedValue<>();
     private final InjectedValue<Provider[]> providers = new InjectedValue<>();
     private final InjectedValue<CredentialStoreClient> injectedCredentialStoreClient = new InjectedValue<>();
+    private final InjectedValue<StartupService> startupService = new InjectedValue<>();
 
     private PathResolver pathResolver;
     private File resolvedPath;
@@ -85,22 +99,29 @@ class KeyStoreService implements ModifiableKeyStoreService {
     private volatile ModifyTrackingKeyStore trackingKeyStore = null;
     private volatile KeyStore unmodifiableKeyStore = null;
 
-    private KeyStoreService(String provider, String type, String relativeTo, String path, boolean required, String aliasFilter, CredentialReference credentialReference) {
+    private final List<Runnable> changeListeners = new CopyOnWriteArrayList<>();
+
+    private volatile FileWatcher fileWatcher;
+    // The checksum of the content of the file last loaded or saved, only maintained whilst watching the file.
+    private byte[] checksum;
+
+    private KeyStoreService(String provider, String type, String relativeTo, String path, boolean required, boolean watch, String aliasFilter, CredentialReference credentialReference) {
         this.provider = provider;
         this.type = type;
         this.relativeTo = relativeTo;
         this.path = path;
         this.required = required;
+        this.watch = watch;
         this.aliasFilter = aliasFilter;
         this.credentialReference = credentialReference;
     }
 
     static KeyStoreService createFileLessKeyStoreService(String provider, String type, String aliasFilter, CredentialReference credentialReference) {
-        return new KeyStoreService(provider, type, null, null, false, aliasFilter, credentialReference);
+        return new KeyStoreService(provider, type, null, null, false, false, aliasFilter, credentialReference);
     }
 
-    static KeyStoreService createFileBasedKeyStoreService(String provider, String type, String relativeTo, String path, boolean required, String aliasFilter, CredentialReference credentialReference) {
-        return new KeyStoreService(provider, type, relativeTo, path, required, aliasFilter, credentialReference);
+    static KeyStoreService createFileBasedKeyStoreService(String provider, String type, String relativeTo, String path, boolean required, boolean watch, String aliasFilter, CredentialReference credentialReference) {
+        return new KeyStoreService(provider, type, relativeTo, path, required, watch, aliasFilter, credentialReference);
     }
 
     /*
@@ -109,6 +130,11 @@ class KeyStoreService implements ModifiableKeyStoreService {
 
     @Override
     public void start(StartContext startContext) throws StartException {
+        // Reading and parsing the file is the expensive part of starting, independent stores are loaded in parallel.
+        startupService.getValue().startAsynchronously(startContext, this::loadKeyStore);
+    }
+
+    private void loadKeyStore() throws StartException {
         try {
             Provider provider = resolveProvider();
             AtomicLoadKeyStore keyStore = AtomicLoadKeyStore.newInstance(type, provider);
@@ -136,22 +162,28 @@ class KeyStoreService implements ModifiableKeyStoreService {
                     resolvedPath = null;
                 }
             }
-            try (InputStream is = resolvedPath != null ? new FileInputStream(resolvedPath) : null) {
+            byte[] content = resolvedPath != null ? Files.readAllBytes(resolvedPath.toPath()) : null;
+            try (InputStream is = content != null ? new ByteArrayInputStream(content) : null) {
                 char[] password = resolvePassword();
 
                 ROOT_LOGGER.tracef(
-                        "starting:  type = %s  provider = %s  path = %s  resolvedPath = %s  password = %b  aliasFilter = %s",
-                        type, provider, path, resolvedPath, password != null, aliasFilter
+                        "starting:  type = %s  provider = %s  path = %s  resolvedPath = %s  password = %b  aliasFilter = %s  watch = %b",
+                        type, provider, path, resolvedPath, password != null, aliasFilter, watch
                 );
 
                 keyStore.load(is, password);
                 checkCertificatesValidity(keyStore);
             }
+            checksum = checksum(content);
 
             this.keyStore = keyStore;
             KeyStore intermediate = aliasFilter != null ? FilteringKeyStore.filteringKeyStore(keyStore, AliasFilter.fromString(aliasFilter)) :  keyStore;
             this.trackingKeyStore = ModifyTrackingKeyStore.modifyTrackingKeyStore(intermediate);
             this.unmodifiableKeyStore = UnmodifiableKeyStore.unmodifiableKeyStore(intermediate);
+
+            if (watch && resolvedPath != null) {
+                fileWatcher = FileWatcher.watch(resolvedPath, WATCH_QUIET_PERIOD, this::reloadChanged);
+            }
         } catch (GeneralSecurityException | IOException e) {
             throw ROOT_LOGGER.unableToStartService(e);
         }
@@ -174,6 +206,62 @@ class KeyStoreService implements ModifiableKeyStoreService {
         }
     }
 
+    /**
+     * Called by the {@link FileWatcher} once the watched file has changed, the new content is only loaded if it differs
+     * from the content last loaded or saved and the {@link KeyStore} holds no modifications which have not been stored.
+     */
+    private synchronized void reloadChanged() {
+        final AtomicLoadKeyStore keyStore = this.keyStore;
+        final ModifyTrackingKeyStore trackingKeyStore = this.trackingKeyStore;
+        if (keyStore == null) {
+            return;
+        }
+
+        try {
+            byte[] content = Files.readAllBytes(resolvedPath.toPath());
+            byte[] checksum = checksum(content);
+            if (Arrays.equals(checksum, this.checksum)) {
+                ROOT_LOGGER.tracef("content of KeyStore file [%s] is unchanged, skipping reload", resolvedPath);
+                return;
+            }
+            if (trackingKeyStore.isModified()) {
+                // Reloading would discard the modifications, they remain until stored or an explicit load.
+                ROOT_LOGGER.keyStoreNotReloaded(resolvedPath.getPath());
+                return;
+            }
+
+            AtomicLoadKeyStore.LoadKey loadKey = keyStore.revertibleLoad(new ByteArrayInputStream(content), resolvePassword());
+            try {
+                checkCertificatesValidity(keyStore);
+            } catch (KeyStoreException e) {
+                keyStore.revert(loadKey);
+                throw e;
+            }
+            this.checksum = checksum;
+            synched = System.currentTimeMillis();
+            trackingKeyStore.setModified(false);
+            ROOT_LOGGER.keyStoreReloaded(resolvedPath.getPath());
+        } catch (GeneralSecurityException | IOException e) {
+            ROOT_LOGGER.unableToReloadKeyStore(resolvedPath.getPath(), e);
+            return;
+        }
+        contentChanged();
+    }
+
+    private void contentChanged() {
+        for (Runnable current : changeListeners) {
+            try {
+                current.run();
+            } catch (RuntimeException e) {
+                ROOT_LOGGER.tracef(e, "KeyStore change listener [%s] failed", current);
+            }
+        }
+    }
+
+    private byte[] checksum(byte[] content) throws NoSuchAlgorithmException {
+        return watch && content != null ? MessageDigest.getInstance("SHA-256").digest(content) : null;
+    }
+
     private void checkCertificatesValidity(KeyStore keyStore) throws KeyStoreException {
         if (ROOT_LOGGER.isEnabled(Logger.Level.WARN)) {
             Enumeration<String> aliases = keyStore.aliases();
@@ -197,6 +285,10 @@ class KeyStoreService implements ModifiableKeyStoreService {
                 "stopping:  keyStore = %s  unmodifiableKeyStore = %s  trackingKeyStore = %s  pathResolver = %s",
                 keyStore, unmodifiableKeyStore, trackingKeyStore, pathResolver
         );
+        if (fileWatcher != null) {
+            fileWatcher.close();
+            fileWatcher = null;
+        }
         keyStore = null;
         unmodifiableKeyStore = null;
         trackingKeyStore = null;
@@ -227,42 +319,71 @@ class KeyStoreService implements ModifiableKeyStoreService {
         return injectedCredentialStoreClient;
     }
 
+    Injector<StartupService> getStartupServiceInjector() {
+        return startupService;
+    }
+
     /*
      * OperationStepHandler Access Methods
      */
 
+    /**
+     * Add a listener to be notified each time the content of the {@link KeyStore} is replaced by loading it from the file,
+     * either by the load operation, the reversion of the load operation or the automatic reload of a watched file.
+     *
+     * @param listener the listener to notify.
+     */
+    void addChangeListener(Runnable listener) {
+        changeListeners.add(listener);
+    }
+
+    void removeChangeListener(Runnable listener) {
+        changeListeners.remove(listener);
+    }
+
     long timeSynched() {
         return synched;
     }
 
-    LoadKey load() throws OperationFailedException {
+    synchronized LoadKey load() throws OperationFailedException {
         try {
             ROOT_LOGGER.tracef("reloading KeyStore from file [%s]", resolvedPath);
+            byte[] originalChecksum = checksum;
             AtomicLoadKeyStore.LoadKey loadKey = load(keyStore);
+            if (watch && resolvedPath != null) {
+                checksum = checksum(Files.readAllBytes(resolvedPath.toPath()));
+            }
             long originalSynced = synched;
             synched = System.currentTimeMillis();
             boolean originalModified = trackingKeyStore.isModified();
             trackingKeyStore.setModified(false);
-            return new LoadKey(loadKey, originalSynced, originalModified);
+            contentChanged();
+            return new LoadKey(loadKey, originalSynced, originalModified, originalChecksum);
         } catch (GeneralSecurityException | IOException e) {
             throw ROOT_LOGGER.unableToCompleteOperation(e, e.getLocalizedMessage());
         }
     }
 
-    void revertLoad(final LoadKey loadKey) {
+    synchronized void revertLoad(final LoadKey loadKey) {
         ROOT_LOGGER.trace("reverting load of KeyStore");
         keyStore.revert(loadKey.loadKey);
         synched = loadKey.modifiedTime;
         trackingKeyStore.setModified(loadKey.modified);
+        checksum = loadKey.checksum;
+        contentChanged();
     }
 
-    void save() throws OperationFailedException {
+    synchronized void save() throws OperationFailedException {
         if (resolvedPath == null) {
             throw ROOT_LOGGER.cantSaveWithoutFile();
         }
         ROOT_LOGGER.tracef("saving KeyStore to the file [%s]", resolvedPath);
         try (FileOutputStream fos = new FileOutputStream(resolvedPath)) {
-            keyStore.store(fos, resolvePassword());
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            keyStore.store(content, resolvePassword());
+            // Record the checksum before writing so the watcher recognises the change as our own.
+            checksum = checksum(content.toByteArray());
+            content.writeTo(fos);
             synched = System.currentTimeMillis();
             trackingKeyStore.setModified(false);
         } catch (IOException | KeyStoreException | NoSuchAlgorithmException | CertificateException e) {
@@ -283,11 +404,13 @@ class KeyStoreService implements ModifiableKeyStoreService {
         private final AtomicLoadKeyStore.LoadKey loadKey;
         private final long modifiedTime;
         private final boolean modified;
+        private final byte[] checksum;
 
-        LoadKey(AtomicLoadKeyStore.LoadKey loadKey, long modifiedTime, boolean modified) {
+        LoadKey(AtomicLoadKeyStore.LoadKey loadKey, long modifiedTime, boolean modified, byte[] checksum) {
             this.loadKey = loadKey;
             this.modifiedTime = modifiedTime;
             this.modified = modified;
+            this.checksum = checksum;
         }
     }
 
@@ -0,0 +1,84 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.extension.elytron;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jboss.dmr.ModelNode;
+
+/**
+ * A histogram of durations using fixed buckets, each bucket is a {@link LongAdder} so concurrent recording does not
+ * contend.
+ */
+class LatencyHistogram {
+
+    /**
+     * The upper bounds in milliseconds of the buckets, a final bucket holds all longer durations.
+     */
+    private static final long[] BOUNDS = { 1, 5, 10, 25, 50, 100, 250, 500, 1000, 2500 };
+    private static final String UNBOUNDED = "inf";
+
+    private final LongAdder[] buckets = new LongAdder[BOUNDS.length + 1];
+
+    LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Record a single duration.
+     *
+     * @param duration the duration in nanoseconds.
+     */
+    void record(long duration) {
+        buckets[bucket(TimeUnit.NANOSECONDS.toMillis(duration))].increment();
+    }
+
+    private static int bucket(long millis) {
+        for (int i = 0; i < BOUNDS.length; i++) {
+            if (millis <= BOUNDS[i]) {
+                return i;
+            }
+        }
+        return BOUNDS.length;
+    }
+
+    void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+    }
+
+    /**
+     * Convert the histogram to a {@link ModelNode} keyed by the upper bound of each bucket in milliseconds.
+     *
+     * @return the histogram as a {@link ModelNode}.
+     */
+    ModelNode toModelNode() {
+        ModelNode result = new ModelNode();
+        for (int i = 0; i < BOUNDS.length; i++) {
+            result.get(Long.toString(BOUNDS[i])).set(buckets[i].sum());
+        }
+        result.get(UNBOUNDED).set(buckets[BOUNDS.length].sum());
+        return result;
+    }
+
+}
@@ -34,7 +34,9 @@ import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
 import org.jboss.as.controller.SimpleResourceDefinition;
 import org.jboss.as.controller.StringListAttributeDefinition;
 import org.jboss.as.controller.capability.RuntimeCapability;
+import org.jboss.as.controller.client.helpers.MeasurementUnit;
 import org.jboss.as.controller.descriptions.StandardResourceDescriptionResolver;
+import org.jboss.as.controller.operations.validation.LongRangeValidator;
 import org.jboss.as.controller.registry.AttributeAccess;
 import org.jboss.as.controller.registry.ManagementResourceRegistration;
 import org.jboss.as.controller.registry.OperationEntry;
@@ -43,7 +45,6 @@ import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
 import org.jboss.msc.service.ServiceBuilder;
 import org.jboss.msc.service.ServiceController;
-import org.jboss.msc.service.ServiceController.Mode;
 import org.jboss.msc.service.ServiceName;
 import org.jboss.msc.service.ServiceTarget;
 import org.wildfly.common.function.ExceptionSupplier;
@@ -56,15 +57,20 @@ import javax.naming.directory.BasicAttributes;
 import javax.naming.ldap.LdapName;
 import java.security.KeyStore;
 import java.security.KeyStoreException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
 
 import static org.wildfly.extension.elytron.Capabilities.DIR_CONTEXT_CAPABILITY;
 import static org.wildfly.extension.elytron.Capabilities.KEY_STORE_CAPABILITY;
 import static org.wildfly.extension.elytron.Capabilities.KEY_STORE_RUNTIME_CAPABILITY;
 import static org.wildfly.extension.elytron.ElytronDefinition.commonDependencies;
+import static org.wildfly.extension.elytron.ElytronExtension.ISO_8601_FORMAT;
 import static org.wildfly.extension.elytron.ElytronExtension.asStringIfDefined;
 import static org.wildfly.extension.elytron.ElytronExtension.getRequiredService;
 import static org.wildfly.extension.elytron.ServiceStateDefinition.STATE;
 import static org.wildfly.extension.elytron.ServiceStateDefinition.populateResponse;
+import static org.wildfly.extension.elytron.StartupDefinitions.getInitialMode;
+import static org.wildfly.extension.elytron.StartupDefinitions.startTimer;
 import static org.wildfly.extension.elytron._private.ElytronSubsystemMessages.ROOT_LOGGER;
 
 /**
@@ -187,12 +193,28 @@ final class LdapKeyStoreDefinition extends SimpleResourceDefinition {
             .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
             .build();
 
+    static final SimpleAttributeDefinition REFRESH_INTERVAL = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.REFRESH_INTERVAL, ModelType.LONG, true)
+            .setValidator(new LongRangeValidator(1L, true, true))
+            .setMeasurementUnit(MeasurementUnit.MILLISECONDS)
+            .setAllowExpression(true)
+            .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
+            .build();
+
     static final StandardResourceDescriptionResolver RESOURCE_RESOLVER = ElytronExtension.getResourceDescriptionResolver(ElytronDescriptionConstants.LDAP_KEY_STORE);
 
     static final SimpleAttributeDefinition SIZE = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.SIZE, ModelType.INT)
             .setStorageRuntime()
             .build();
 
+    static final SimpleAttributeDefinition LAST_REFRESH = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.LAST_REFRESH, ModelType.STRING)
+            .setStorageRuntime()
+            .build();
+
+    static final SimpleAttributeDefinition REFRESH_DURATION = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.REFRESH_DURATION, ModelType.LONG)
+            .setStorageRuntime()
+            .setMeasurementUnit(MeasurementUnit.MILLISECONDS)
+            .build();
+
     private static final AttributeDefinition[] CONFIG_ATTRIBUTES = new AttributeDefinition[] {
             DIR_CONTEXT,
             SEARCH_PATH, SEARCH_RECURSIVE, SEARCH_TIME_LIMIT, FILTER_ALIAS, FILTER_CERTIFICATE, FILTER_ITERATE,
@@ -200,7 +222,8 @@ final class LdapKeyStoreDefinition extends SimpleResourceDefinition {
             ALIAS_ATTRIBUTE,
             CERTIFICATE_ATTRIBUTE, CERTIFICATE_TYPE,
             CERTIFICATE_CHAIN_ATTRIBUTE, CERTIFICATE_CHAIN_ENCODING,
-            KEY_ATTRIBUTE, KEY_TYPE
+            KEY_ATTRIBUTE, KEY_TYPE,
+            REFRESH_INTERVAL
     };
 
     private static final KeyStoreAddHandler ADD = new KeyStoreAddHandler();
@@ -243,6 +266,26 @@ final class LdapKeyStoreDefinition extends SimpleResourceDefinition {
             }
         });
 
+        resourceRegistration.registerReadOnlyAttribute(LAST_REFRESH, new LdapKeyStoreRuntimeOnlyHandler(false) {
+            @Override
+            protected void performRuntime(ModelNode result, ModelNode operation, LdapKeyStoreService keyStoreService) throws OperationFailedException {
+                long lastRefresh = keyStoreService.getLastRefresh();
+                if (lastRefresh > 0) {
+                    SimpleDateFormat sdf = new SimpleDateFormat(ISO_8601_FORMAT);
+                    result.set(sdf.format(new Date(lastRefresh)));
+                }
+            }
+        });
+
+        resourceRegistration.registerReadOnlyAttribute(REFRESH_DURATION, new LdapKeyStoreRuntimeOnlyHandler(false) {
+            @Override
+            protected void performRuntime(ModelNode result, ModelNode operation, LdapKeyStoreService keyStoreService) throws OperationFailedException {
+                if (keyStoreService.getLastRefresh() > 0) {
+                    result.set(keyStoreService.getRefreshDuration());
+                }
+            }
+        });
+
     }
 
     @Override
@@ -280,6 +323,8 @@ final class LdapKeyStoreDefinition extends SimpleResourceDefinition {
             String certificateChainEncoding = asStringIfDefined(context, CERTIFICATE_CHAIN_ENCODING, model);
             String keyAttribute = asStringIfDefined(context, KEY_ATTRIBUTE, model);
             String keyType = asStringIfDefined(context, KEY_TYPE, model);
+            ModelNode refreshIntervalNode = REFRESH_INTERVAL.resolveModelAttribute(context, model);
+            long refreshInterval = refreshIntervalNode.isDefined() ? refreshIntervalNode.asLong() : 0;
             LdapName createPathLdapName = null;
             String createRdn = null;
             Attributes createAttributes = null;
@@ -320,12 +365,14 @@ final class LdapKeyStoreDefinition extends SimpleResourceDefinition {
             LdapKeyStoreService keyStoreService = new LdapKeyStoreService(searchPath, filterAlias, filterCertificate,
                     filterIterate, createPathLdapName, createRdn, createAttributes, aliasAttribute,
                     certificateAttribute, certificateType, certificateChainAttribute, certificateChainEncoding,
-                    keyAttribute, keyType);
+                    keyAttribute, keyType, refreshInterval);
 
             ServiceTarget serviceTarget = context.getServiceTarget();
             RuntimeCapability<Void> runtimeCapability = KEY_STORE_RUNTIME_CAPABILITY.fromBaseCapability(context.getCurrentAddressValue());
             ServiceName serviceName = runtimeCapability.getCapabilityServiceName(KeyStore.class);
-            ServiceBuilder<KeyStore> serviceBuilder = serviceTarget.addService(serviceName, keyStoreService).setInitialMode(Mode.ACTIVE);
+            ServiceBuilder<KeyStore> serviceBuilder = serviceTarget.addService(serviceName, keyStoreService)
+                    .setInitialMode(getInitialMode(context))
+                    .addListener(startTimer(context));
 
             String dirContextCapability = RuntimeCapability.buildDynamicCapabilityName(DIR_CONTEXT_CAPABILITY, dirContextName);
             ServiceName dirContextServiceName = context.getCapabilityServiceName(dirContextCapability, ExceptionSupplier.class);
@@ -398,6 +445,9 @@ final class LdapKeyStoreDefinition extends SimpleResourceDefinition {
             ServiceName ldapKeyStoreName = LDAP_KEY_STORE_UTIL.serviceName(operation);
 
             ServiceController<KeyStore> serviceContainer = getRequiredService(context.getServiceRegistry(writeAccess), ldapKeyStoreName, KeyStore.class);
+            if (serviceMustBeUp) {
+                serviceContainer = StartupDefinitions.activate(context, serviceContainer);
+            }
             ServiceController.State serviceState;
             if ((serviceState = serviceContainer.getState()) != ServiceController.State.UP) {
                 if (serviceMustBeUp) {
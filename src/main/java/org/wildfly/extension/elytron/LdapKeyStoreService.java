@@ -33,6 +33,10 @@ import javax.naming.ldap.LdapName;
 import java.io.IOException;
 import java.security.GeneralSecurityException;
 import java.security.KeyStore;
+import java.security.KeyStoreException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import static org.wildfly.extension.elytron._private.ElytronSubsystemMessages.ROOT_LOGGER;
 
@@ -61,15 +65,21 @@ class LdapKeyStoreService implements ModifiableKeyStoreService {
     private final String certificateChainEncoding;
     private final String keyAttribute;
     private final String keyType;
+    private final long refreshInterval;
 
     private volatile KeyStore modifiableKeyStore = null;
     private volatile KeyStore unmodifiableKeyStore = null;
 
+    private volatile SnapshotKeyStoreSpi snapshot = null;
+    private volatile ScheduledExecutorService refreshExecutor = null;
+    private volatile long lastRefresh;
+    private volatile long refreshDuration;
+
     LdapKeyStoreService(String searchPath, String filterAlias, String filterCertificate,
                         String filterIterate, LdapName createPath, String createRdn, Attributes createAttributes,
                         String aliasAttribute, String certificateAttribute, String certificateType,
                         String certificateChainAttribute, String certificateChainEncoding,
-                        String keyAttribute, String keyType) {
+                        String keyAttribute, String keyType, long refreshInterval) {
         this.searchPath = searchPath;
         this.filterAlias = filterAlias;
         this.filterCertificate = filterCertificate;
@@ -84,6 +94,7 @@ class LdapKeyStoreService implements ModifiableKeyStoreService {
         this.certificateChainEncoding = certificateChainEncoding;
         this.keyAttribute = keyAttribute;
         this.keyType = keyType;
+        this.refreshInterval = refreshInterval;
     }
 
     Injector<ExceptionSupplier> getDirContextSupplierInjector() {
@@ -118,7 +129,25 @@ class LdapKeyStoreService implements ModifiableKeyStoreService {
             KeyStore keyStore = builder.build();
             keyStore.load(null); // initialize
             this.modifiableKeyStore = keyStore;
-            this.unmodifiableKeyStore = UnmodifiableKeyStore.unmodifiableKeyStore(keyStore);
+
+            if (refreshInterval > 0) {
+                SnapshotKeyStoreSpi snapshot = new SnapshotKeyStoreSpi(keyStore);
+                KeyStore snapshotKeyStore = new KeyStore(snapshot, keyStore.getProvider(), keyStore.getType()) {};
+                snapshotKeyStore.load(null); // initialize
+                this.snapshot = snapshot;
+                refresh();
+
+                ScheduledExecutorService refreshExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+                    Thread thread = new Thread(r, "ldap-key-store refresh " + searchPath);
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                refreshExecutor.scheduleWithFixedDelay(this::refresh, refreshInterval, refreshInterval, TimeUnit.MILLISECONDS);
+                this.refreshExecutor = refreshExecutor;
+                this.unmodifiableKeyStore = UnmodifiableKeyStore.unmodifiableKeyStore(snapshotKeyStore);
+            } else {
+                this.unmodifiableKeyStore = UnmodifiableKeyStore.unmodifiableKeyStore(keyStore);
+            }
         } catch (GeneralSecurityException | IOException e) {
             throw ROOT_LOGGER.unableToStartService(e);
         }
@@ -126,10 +155,55 @@ class LdapKeyStoreService implements ModifiableKeyStoreService {
 
     @Override
     public void stop(StopContext stopContext) {
+        ScheduledExecutorService refreshExecutor = this.refreshExecutor;
+        if (refreshExecutor != null) {
+            refreshExecutor.shutdownNow();
+            this.refreshExecutor = null;
+        }
+        this.snapshot = null;
         this.modifiableKeyStore = null;
         this.unmodifiableKeyStore = null;
     }
 
+    /**
+     * Replace the snapshot of the KeyStore with the current content of LDAP, if this fails the previous snapshot remains in
+     * use until the next attempt.
+     */
+    private void refresh() {
+        SnapshotKeyStoreSpi snapshot = this.snapshot;
+        if (snapshot == null) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            snapshot.refresh();
+            long end = System.currentTimeMillis();
+            refreshDuration = end - start;
+            lastRefresh = end;
+        } catch (KeyStoreException | RuntimeException e) {
+            ROOT_LOGGER.unableToRefreshLdapKeyStore(searchPath, e);
+        }
+    }
+
+    /**
+     * Get the time the snapshot was last refreshed.
+     *
+     * @return the time the snapshot was last refreshed, or {@code 0} if the snapshot has not been refreshed or the KeyStore
+     *         is not held as a snapshot.
+     */
+    long getLastRefresh() {
+        return lastRefresh;
+    }
+
+    /**
+     * Get the time taken by the last successful refresh of the snapshot.
+     *
+     * @return the time in milliseconds taken by the last successful refresh of the snapshot.
+     */
+    long getRefreshDuration() {
+        return refreshDuration;
+    }
+
     @Override
     public KeyStore getValue() throws IllegalStateException, IllegalArgumentException {
         return unmodifiableKeyStore;
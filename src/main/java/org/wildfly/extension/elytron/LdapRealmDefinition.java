@@ -40,7 +40,6 @@ import org.jboss.as.controller.registry.OperationEntry;
 import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
 import org.jboss.msc.service.ServiceBuilder;
-import org.jboss.msc.service.ServiceController;
 import org.jboss.msc.service.ServiceName;
 import org.jboss.msc.service.ServiceTarget;
 import org.jboss.msc.value.InjectedValue;
@@ -60,6 +59,7 @@ import javax.naming.ldap.LdapName;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.function.UnaryOperator;
 
 import static org.wildfly.extension.elytron.Capabilities.DIR_CONTEXT_CAPABILITY;
 import static org.wildfly.extension.elytron.Capabilities.MODIFIABLE_SECURITY_REALM_RUNTIME_CAPABILITY;
@@ -67,6 +67,8 @@ import static org.wildfly.extension.elytron.Capabilities.SECURITY_REALM_CAPABILI
 import static org.wildfly.extension.elytron.Capabilities.SECURITY_REALM_RUNTIME_CAPABILITY;
 import static org.wildfly.extension.elytron.ElytronDefinition.commonDependencies;
 import static org.wildfly.extension.elytron.ElytronExtension.asStringIfDefined;
+import static org.wildfly.extension.elytron.StartupDefinitions.getInitialMode;
+import static org.wildfly.extension.elytron.StartupDefinitions.startTimer;
 
 /**
  * A {@link ResourceDefinition} for a {@link SecurityRealm} backed by LDAP.
@@ -360,7 +362,7 @@ class LdapRealmDefinition extends SimpleResourceDefinition {
         .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
         .build();
 
-    static final AttributeDefinition[] ATTRIBUTES = new AttributeDefinition[] {IdentityMappingObjectDefinition.OBJECT_DEFINITION, DIR_CONTEXT, DIRECT_VERIFICATION};
+    static final AttributeDefinition[] ATTRIBUTES = new AttributeDefinition[] {IdentityMappingObjectDefinition.OBJECT_DEFINITION, DIR_CONTEXT, DIRECT_VERIFICATION, RealmCacheDefinitions.CACHE};
 
     private static final AbstractAddStepHandler ADD = new RealmAddHandler();
     private static final OperationStepHandler REMOVE = new TrivialCapabilityServiceRemoveHandler(ADD, MODIFIABLE_SECURITY_REALM_RUNTIME_CAPABILITY, SECURITY_REALM_RUNTIME_CAPABILITY);
@@ -380,6 +382,15 @@ class LdapRealmDefinition extends SimpleResourceDefinition {
         for (AttributeDefinition current : ATTRIBUTES) {
             resourceRegistration.registerReadWriteAttribute(current, null, WRITE);
         }
+
+        RealmCacheDefinitions.registerRuntimeAttributes(resourceRegistration);
+    }
+
+    @Override
+    public void registerOperations(ManagementResourceRegistration resourceRegistration) {
+        super.registerOperations(resourceRegistration);
+
+        RealmCacheDefinitions.registerOperations(resourceRegistration, getResourceDescriptionResolver());
     }
 
     private static class RealmAddHandler extends BaseAddHandler {
@@ -403,7 +414,9 @@ class LdapRealmDefinition extends SimpleResourceDefinition {
                 builder.addDirectEvidenceVerification();
             }
 
-            TrivialService<SecurityRealm> ldapRealmService = new TrivialService<>(builder::build);
+            final UnaryOperator<SecurityRealm> cacheWrapper = RealmCacheDefinitions.getCacheWrapper(context, model);
+
+            TrivialService<SecurityRealm> ldapRealmService = new TrivialService<>(() -> cacheWrapper.apply(builder.build()));
             ServiceBuilder<SecurityRealm> serviceBuilder = serviceTarget.addService(mainServiceName, ldapRealmService)
                     .addAliases(aliasServiceName);
 
@@ -412,7 +425,7 @@ class LdapRealmDefinition extends SimpleResourceDefinition {
             configureIdentityMapping(context, model, builder);
             configureDirContext(context, model, builder, serviceBuilder);
 
-            serviceBuilder.setInitialMode(ServiceController.Mode.ACTIVE).install();
+            serviceBuilder.setInitialMode(getInitialMode(context)).addListener(startTimer(context)).install();
         }
 
         private void configureDirContext(OperationContext context, ModelNode model, LdapSecurityRealmBuilder realmBuilder, ServiceBuilder<SecurityRealm> serviceBuilder) throws OperationFailedException {
@@ -0,0 +1,213 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.extension.elytron;
+
+import static org.wildfly.extension.elytron._private.ElytronSubsystemMessages.ROOT_LOGGER;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import javax.naming.CommunicationException;
+import javax.naming.NamingException;
+import javax.naming.ServiceUnavailableException;
+import javax.naming.directory.DirContext;
+import javax.naming.ldap.LdapContext;
+
+import org.wildfly.common.function.ExceptionSupplier;
+
+/**
+ * A supplier of {@link DirContext} instances spreading connections across a set of equivalent LDAP servers.
+ * <p>
+ * Servers are selected according to the configured {@link Policy}. A server that fails with a communication error,
+ * either whilst connecting or whilst in use, is skipped for the configured retry interval after which it is tried again.
+ * When obtaining a context fails for this reason the next server is tried immediately. Servers currently being skipped
+ * are only tried once all other servers have also failed.
+ */
+class LoadBalancingDirContextSupplier implements ExceptionSupplier<DirContext, NamingException> {
+
+    /**
+     * The policy used to select the server for a new context.
+     */
+    enum Policy {
+
+        /**
+         * Servers are used in turn.
+         */
+        ROUND_ROBIN,
+
+        /**
+         * The server with the fewest contexts currently open is used.
+         */
+        LEAST_OUTSTANDING
+
+    }
+
+    private final String name;
+    private final Server[] servers;
+    private final Policy policy;
+    private final long retryInterval;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * Construct a new instance.
+     *
+     * @param name the name of the dir-context resource.
+     * @param urls the URLs of the servers to connect to.
+     * @param serverSupplier a function returning the supplier of contexts for a single URL.
+     * @param policy the policy used to select a server.
+     * @param retryInterval the time in milliseconds a failed server is skipped for.
+     */
+    LoadBalancingDirContextSupplier(String name, String[] urls, Function<String, ExceptionSupplier<DirContext, NamingException>> serverSupplier, Policy policy, long retryInterval) {
+        this.name = name;
+        this.servers = new Server[urls.length];
+        for (int i = 0; i < urls.length; i++) {
+            servers[i] = new Server(urls[i], serverSupplier.apply(urls[i]));
+        }
+        this.policy = policy;
+        this.retryInterval = retryInterval;
+    }
+
+    @Override
+    public DirContext get() throws NamingException {
+        final Server[] candidates = select();
+        final long now = System.currentTimeMillis();
+
+        NamingException failure = null;
+        // First try the servers believed to be available, only as a last resort try the servers currently being skipped.
+        for (boolean available : new boolean[] { true, false }) {
+            for (Server server : candidates) {
+                if (server.isAvailable(now) != available) {
+                    continue;
+                }
+                try {
+                    return server.obtainDirContext();
+                } catch (CommunicationException | ServiceUnavailableException e) {
+                    server.failed(e);
+                    if (failure == null) {
+                        failure = e;
+                    } else {
+                        failure.addSuppressed(e);
+                    }
+                }
+            }
+        }
+
+        throw failure;
+    }
+
+    private Server[] select() {
+        final Server[] candidates = new Server[servers.length];
+        switch (policy) {
+            case LEAST_OUTSTANDING:
+                System.arraycopy(servers, 0, candidates, 0, servers.length);
+                Arrays.sort(candidates, Comparator.comparingInt(s -> s.outstanding.get()));
+                break;
+            case ROUND_ROBIN:
+            default:
+                final int start = Math.floorMod(next.getAndIncrement(), servers.length);
+                for (int i = 0; i < servers.length; i++) {
+                    candidates[i] = servers[(start + i) % servers.length];
+                }
+        }
+        return candidates;
+    }
+
+    private final class Server {
+
+        private final String url;
+        private final ExceptionSupplier<DirContext, NamingException> contextSupplier;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private volatile long skipUntil;
+
+        Server(String url, ExceptionSupplier<DirContext, NamingException> contextSupplier) {
+            this.url = url;
+            this.contextSupplier = contextSupplier;
+        }
+
+        boolean isAvailable(long now) {
+            return now >= skipUntil;
+        }
+
+        void failed(NamingException cause) {
+            final boolean wasAvailable = isAvailable(System.currentTimeMillis());
+            skipUntil = System.currentTimeMillis() + retryInterval;
+            if (wasAvailable) {
+                ROOT_LOGGER.ldapServerUnavailable(url, name, retryInterval, cause);
+            }
+        }
+
+        DirContext obtainDirContext() throws NamingException {
+            outstanding.incrementAndGet();
+            final DirContext context;
+            try {
+                context = contextSupplier.get();
+            } catch (NamingException | RuntimeException e) {
+                outstanding.decrementAndGet();
+                throw e;
+            }
+            skipUntil = 0;
+
+            Class<?>[] interfaces = context instanceof LdapContext ? new Class<?>[] { LdapContext.class } : new Class<?>[] { DirContext.class };
+            return (DirContext) Proxy.newProxyInstance(LoadBalancingDirContextSupplier.class.getClassLoader(), interfaces, new TrackingHandler(this, context));
+        }
+
+    }
+
+    /**
+     * Tracks the number of contexts open against a server and the communication failures of those contexts.
+     */
+    private static final class TrackingHandler implements InvocationHandler {
+
+        private final Server server;
+        private final DirContext context;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        TrackingHandler(Server server, DirContext context) {
+            this.server = server;
+            this.context = context;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if ("close".equals(method.getName()) && method.getParameterCount() == 0 && closed.compareAndSet(false, true)) {
+                server.outstanding.decrementAndGet();
+            }
+
+            try {
+                return method.invoke(context, args);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof CommunicationException || cause instanceof ServiceUnavailableException) {
+                    server.failed((NamingException) cause);
+                }
+                throw cause;
+            }
+        }
+
+    }
+
+}
@@ -39,6 +39,7 @@ import static org.wildfly.extension.elytron.ElytronDescriptionConstants.AGGREGAT
 import static org.wildfly.extension.elytron.ElytronDescriptionConstants.ATTRIBUTE;
 import static org.wildfly.extension.elytron.ElytronDescriptionConstants.CHAINED_NAME_REWRITER;
 import static org.wildfly.extension.elytron.ElytronDescriptionConstants.CLASS_NAME;
+import static org.wildfly.extension.elytron.ElytronDescriptionConstants.COMPILED;
 import static org.wildfly.extension.elytron.ElytronDescriptionConstants.CONCATENATING_PRINCIPAL_DECODER;
 import static org.wildfly.extension.elytron.ElytronDescriptionConstants.CONSTANT;
 import static org.wildfly.extension.elytron.ElytronDescriptionConstants.CONSTANT_NAME_REWRITER;
@@ -519,6 +520,9 @@ class MapperParser {
                     case MAPPING_MODE:
                         PermissionMapperDefinitions.MAPPING_MODE.parseAndSetParameter(value, addPermissionMapper, reader);
                         break;
+                    case COMPILED:
+                        PermissionMapperDefinitions.COMPILED.parseAndSetParameter(value, addPermissionMapper, reader);
+                        break;
                     default:
                         throw unexpectedAttribute(reader, i);
                 }
@@ -1480,6 +1484,7 @@ class MapperParser {
                 writer.writeStartElement(SIMPLE_PERMISSION_MAPPER);
                 writer.writeAttribute(NAME, name);
                 PermissionMapperDefinitions.MAPPING_MODE.marshallAsAttribute(permissionMapper, false, writer);
+                PermissionMapperDefinitions.COMPILED.marshallAsAttribute(permissionMapper, false, writer);
                 if (permissionMapper.hasDefined(PERMISSION_MAPPINGS)) {
                     for (ModelNode permissionMapping : permissionMapper.get(PERMISSION_MAPPINGS).asList()) {
                         writer.writeStartElement(PERMISSION_MAPPING);
@@ -20,6 +20,8 @@ package org.wildfly.extension.elytron;
 import static org.wildfly.extension.elytron.Capabilities.NAME_REWRITER_RUNTIME_CAPABILITY;
 import static org.wildfly.extension.elytron.ElytronDefinition.commonDependencies;
 import static org.wildfly.extension.elytron.RegexAttributeDefinitions.PATTERN;
+import static org.wildfly.extension.elytron.StartupDefinitions.getInitialMode;
+import static org.wildfly.extension.elytron.StartupDefinitions.startTimer;
 
 import java.util.regex.Pattern;
 
@@ -43,13 +45,10 @@ import org.jboss.as.controller.registry.ManagementResourceRegistration;
 import org.jboss.as.controller.registry.OperationEntry;
 import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
-import org.jboss.msc.service.ServiceController.Mode;
 import org.jboss.msc.service.ServiceName;
 import org.jboss.msc.service.ServiceTarget;
 import org.wildfly.extension.elytron.TrivialService.ValueSupplier;
 import org.wildfly.security.auth.server.NameRewriter;
-import org.wildfly.security.auth.util.RegexNameRewriter;
-import org.wildfly.security.auth.util.RegexNameValidatingRewriter;
 
 /**
  * General container class for {@link NameRewriter}
@@ -123,7 +122,7 @@ class NameRewriterDefinitions {
                 final String  replacement = REPLACEMENT.resolveModelAttribute(context, model).asString();
                 final boolean replaceAll  = REPLACE_ALL.resolveModelAttribute(context, model).asBoolean();
 
-                return () -> new RegexNameRewriter(pattern, replacement, replaceAll);
+                return () -> OptimizedRegex.nameRewriter(pattern, replacement, replaceAll);
             }
         };
 
@@ -160,7 +159,7 @@ class NameRewriterDefinitions {
                 final Pattern pattern = Pattern.compile(PATTERN.resolveModelAttribute(context, model).asString());
                 final boolean match = MATCH.resolveModelAttribute(context, model).asBoolean();
 
-                return () -> new RegexNameValidatingRewriter(pattern, match);
+                return () -> OptimizedRegex.nameValidatingRewriter(pattern, match);
             }
 
         };
@@ -235,7 +234,8 @@ class NameRewriterDefinitions {
             TrivialService<NameRewriter> nameRewriterService = new TrivialService<NameRewriter>(getNameRewriterSupplier(context, operation, model));
 
             commonDependencies(serviceTarget.addService(realmName, nameRewriterService))
-                .setInitialMode(Mode.ACTIVE)
+                .setInitialMode(getInitialMode(context))
+                .addListener(startTimer(context))
                 .install();
         }
 
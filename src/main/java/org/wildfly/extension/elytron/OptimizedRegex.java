@@ -0,0 +1,428 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.extension.elytron;
+
+import java.security.Principal;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.wildfly.security.auth.principal.NamePrincipal;
+import org.wildfly.security.auth.server.NameRewriter;
+import org.wildfly.security.auth.server.RealmMapper;
+import org.wildfly.security.auth.util.MappedRegexRealmMapper;
+import org.wildfly.security.auth.util.RegexNameRewriter;
+import org.wildfly.security.auth.util.RegexNameValidatingRewriter;
+import org.wildfly.security.auth.util.SimpleRegexRealmMapper;
+import org.wildfly.security.evidence.Evidence;
+
+/**
+ * A compiled {@link Pattern} with the checks needed to apply it to principal names cheaply.
+ * <p>
+ * Literals any match of the pattern must start with, end with or contain are derived from the source of the pattern so
+ * names which can not match are rejected without running the pattern, where the pattern uses a construct which is not
+ * understood no literals are derived and every name is passed to the pattern. Names which may match are matched using a
+ * {@link Matcher} reused by the calling thread.
+ * <p>
+ * The realm mappers and name rewriters created by this class additionally cache their result for the most recently seen
+ * names and delegate to the equivalent Elytron implementation for anything they do not handle themselves.
+ */
+final class OptimizedRegex {
+
+    private static final int MAX_CACHED_RESULTS = 1024;
+    private static final String[] NO_LITERALS = new String[3];
+    private static final String SAFE_ESCAPES = "dDsSwWbBhHvVRXAGZz";
+
+    private final Pattern pattern;
+    private final String prefix;
+    private final String suffix;
+    private final String contained;
+    private final ThreadLocal<Matcher> matchers;
+
+    private OptimizedRegex(Pattern pattern) {
+        this.pattern = pattern;
+        String[] literals = literalsOf(pattern);
+        this.prefix = literals[0];
+        this.suffix = literals[1];
+        this.contained = literals[2];
+        this.matchers = ThreadLocal.withInitial(() -> pattern.matcher(""));
+    }
+
+    static OptimizedRegex compile(Pattern pattern) {
+        return new OptimizedRegex(pattern);
+    }
+
+    /**
+     * Check if the pattern could possibly be found in the input.
+     *
+     * @param input the input to check.
+     * @return {@code false} if the pattern can not be found in the input, {@code true} if it may be found.
+     */
+    boolean mayFind(String input) {
+        if (prefix != null && input.startsWith(prefix) == false) {
+            return false;
+        }
+        // '$' also matches before a final line terminator so only names without one can be rejected by the suffix.
+        if (suffix != null && endsWithLineTerminator(input) == false && input.endsWith(suffix) == false) {
+            return false;
+        }
+        return contained == null || input.contains(contained);
+    }
+
+    /**
+     * Get a {@link Matcher} for the input, the {@link Matcher} is reused by the calling thread so must not be used once the
+     * calling thread next calls this method.
+     *
+     * @param input the input to match.
+     * @return a {@link Matcher} for the input.
+     */
+    Matcher matcher(String input) {
+        return matchers.get().reset(input);
+    }
+
+    private static boolean endsWithLineTerminator(String input) {
+        if (input.isEmpty()) {
+            return false;
+        }
+        char last = input.charAt(input.length() - 1);
+        return last == '\n' || last == '\r' || last == '\u0085' || last == '\u2028' || last == '\u2029';
+    }
+
+    /**
+     * Derive the literal prefix, literal suffix and the longest literal any match of the pattern must contain.
+     * <p>
+     * Only literals outside of groups which are not made optional by a quantifier are considered, patterns using flags,
+     * top level alternation or less common constructs do not have any literals derived.
+     *
+     * @param pattern the pattern to analyse.
+     * @return the prefix, suffix and contained literal, each of which may be {@code null}.
+     */
+    private static String[] literalsOf(Pattern pattern) {
+        if (pattern.flags() != 0) {
+            return NO_LITERALS;
+        }
+
+        final String regex = pattern.pattern();
+        final int length = regex.length();
+        final StringBuilder run = new StringBuilder();
+        String prefix = null;
+        String longest = null;
+        boolean runAtStart = regex.startsWith("^");
+        boolean lastWasLiteral = false;
+        boolean anchoredEnd = false;
+        int depth = 0;
+        int i = runAtStart ? 1 : 0;
+        while (i < length) {
+            char c = regex.charAt(i);
+            boolean literal = false;
+            switch (c) {
+                case '\\':
+                    if (i + 1 == length) {
+                        return NO_LITERALS;
+                    }
+                    c = regex.charAt(i + 1);
+                    if (Character.isLetterOrDigit(c)) {
+                        if (SAFE_ESCAPES.indexOf(c) < 0) {
+                            return NO_LITERALS;
+                        }
+                    } else {
+                        literal = depth == 0;
+                    }
+                    i += 2;
+                    break;
+                case '[':
+                    i = skipCharacterClass(regex, i);
+                    if (i < 0) {
+                        return NO_LITERALS;
+                    }
+                    break;
+                case '(':
+                    if (regex.startsWith("(?", i)) {
+                        if (regex.startsWith("(?:", i) == false) {
+                            return NO_LITERALS;
+                        }
+                        i += 2;
+                    }
+                    depth++;
+                    i++;
+                    break;
+                case ')':
+                    if (--depth < 0) {
+                        return NO_LITERALS;
+                    }
+                    i++;
+                    break;
+                case '|':
+                    if (depth == 0) {
+                        return NO_LITERALS;
+                    }
+                    i++;
+                    break;
+                case '?':
+                case '*':
+                case '+':
+                case '{':
+                    // The preceding token is optional or repeated so can not be part of a literal.
+                    if (lastWasLiteral) {
+                        int end = run.length() - 1;
+                        if (end > 0 && Character.isLowSurrogate(run.charAt(end)) && Character.isHighSurrogate(run.charAt(end - 1))) {
+                            end--;
+                        }
+                        run.setLength(end);
+                    }
+                    if (c == '{') {
+                        i = regex.indexOf('}', i);
+                        if (i < 0) {
+                            return NO_LITERALS;
+                        }
+                    }
+                    i++;
+                    if (i < length && (regex.charAt(i) == '?' || regex.charAt(i) == '+')) {
+                        i++;
+                    }
+                    break;
+                case '$':
+                    anchoredEnd = i == length - 1 && depth == 0;
+                    i++;
+                    break;
+                case '.':
+                case '^':
+                    i++;
+                    break;
+                default:
+                    literal = depth == 0;
+                    i++;
+            }
+
+            if (literal) {
+                run.append(c);
+            } else if (anchoredEnd == false && (run.length() > 0 || runAtStart)) {
+                // The run of literals has ended.
+                if (runAtStart && run.length() > 0) {
+                    prefix = run.toString();
+                }
+                longest = longer(longest, run);
+                run.setLength(0);
+                runAtStart = false;
+            }
+            lastWasLiteral = literal;
+        }
+
+        if (depth != 0) {
+            return NO_LITERALS;
+        }
+
+        String suffix = null;
+        if (run.length() > 0) {
+            if (runAtStart) {
+                prefix = run.toString();
+            }
+            if (anchoredEnd) {
+                suffix = run.toString();
+            }
+            longest = longer(longest, run);
+        }
+
+        return new String[] { prefix, suffix, longest };
+    }
+
+    private static int skipCharacterClass(String regex, int start) {
+        int i = start + 1;
+        if (i < regex.length() && regex.charAt(i) == '^') {
+            i++;
+        }
+        if (i < regex.length() && regex.charAt(i) == ']') {
+            i++;
+        }
+        while (i < regex.length()) {
+            char c = regex.charAt(i);
+            if (c == ']') {
+                return i + 1;
+            } else if (c == '[' || regex.startsWith("\\Q", i)) {
+                // Nested classes and quoting are not analysed.
+                return -1;
+            }
+            i += c == '\\' ? 2 : 1;
+        }
+        return -1;
+    }
+
+    private static String longer(String current, StringBuilder candidate) {
+        return candidate.length() > 0 && (current == null || candidate.length() > current.length()) ? candidate.toString() : current;
+    }
+
+    /**
+     * Create a {@link RealmMapper} equivalent to {@link SimpleRegexRealmMapper} or, where a map of realm names is provided,
+     * {@link MappedRegexRealmMapper}.
+     *
+     * @param pattern the pattern with a capture group identifying the realm name.
+     * @param delegate the {@link RealmMapper} to delegate to if the pattern is not found, or {@code null}.
+     * @param realmNameMap the map of captured names to realm names, or {@code null} to use the captured name.
+     * @return the {@link RealmMapper}.
+     */
+    static RealmMapper realmMapper(Pattern pattern, RealmMapper delegate, Map<String, String> realmNameMap) {
+        final RealmMapper fallback;
+        if (realmNameMap == null) {
+            fallback = delegate == null ? new SimpleRegexRealmMapper(pattern) : new SimpleRegexRealmMapper(pattern, delegate);
+        } else {
+            fallback = delegate == null ? new MappedRegexRealmMapper(pattern, realmNameMap) : new MappedRegexRealmMapper(pattern, delegate, realmNameMap);
+        }
+        return new RegexRealmMapper(compile(pattern), fallback, delegate, realmNameMap);
+    }
+
+    /**
+     * Create a {@link NameRewriter} equivalent to {@link RegexNameRewriter}.
+     *
+     * @param pattern the pattern to find.
+     * @param replacement the replacement.
+     * @param replaceAll {@code true} to replace every occurrence of the pattern, {@code false} to replace the first.
+     * @return the {@link NameRewriter}.
+     */
+    static NameRewriter nameRewriter(Pattern pattern, String replacement, boolean replaceAll) {
+        final OptimizedRegex regex = compile(pattern);
+        final NameRewriter fallback = new RegexNameRewriter(pattern, replacement, replaceAll);
+        final ResultCache cache = new ResultCache();
+        return (String original) -> {
+            if (original == null) {
+                return fallback.rewriteName(null);
+            } else if (regex.mayFind(original) == false) {
+                return original;
+            }
+
+            Object result = cache.get(original);
+            if (result == null) {
+                Matcher matcher = regex.matcher(original);
+                result = replaceAll ? matcher.replaceAll(replacement) : matcher.replaceFirst(replacement);
+                cache.put(original, result);
+            }
+            return (String) result;
+        };
+    }
+
+    /**
+     * Create a {@link NameRewriter} equivalent to {@link RegexNameValidatingRewriter}.
+     *
+     * @param pattern the pattern to find.
+     * @param match {@code true} if names must contain the pattern, {@code false} if names must not contain the pattern.
+     * @return the {@link NameRewriter}.
+     */
+    static NameRewriter nameValidatingRewriter(Pattern pattern, boolean match) {
+        final OptimizedRegex regex = compile(pattern);
+        final NameRewriter fallback = new RegexNameValidatingRewriter(pattern, match);
+        final ResultCache cache = new ResultCache();
+        return (String original) -> {
+            if (original == null) {
+                return fallback.rewriteName(null);
+            }
+
+            Object found = Boolean.FALSE;
+            if (regex.mayFind(original)) {
+                found = cache.get(original);
+                if (found == null) {
+                    found = regex.matcher(original).find();
+                    cache.put(original, found);
+                }
+            }
+            return found.equals(match) ? original : null;
+        };
+    }
+
+    private static final class RegexRealmMapper implements RealmMapper {
+
+        private static final Object NOT_FOUND = new Object();
+        private static final Object NO_REALM = new Object();
+
+        private final OptimizedRegex regex;
+        private final RealmMapper fallback;
+        private final RealmMapper delegate;
+        private final Map<String, String> realmNameMap;
+        private final ResultCache cache = new ResultCache();
+
+        RegexRealmMapper(OptimizedRegex regex, RealmMapper fallback, RealmMapper delegate, Map<String, String> realmNameMap) {
+            this.regex = regex;
+            this.fallback = fallback;
+            this.delegate = delegate;
+            this.realmNameMap = realmNameMap;
+        }
+
+        @Override
+        public String getRealmMapping(Principal principal, Evidence evidence) {
+            if (principal instanceof NamePrincipal == false) {
+                return fallback.getRealmMapping(principal, evidence);
+            }
+
+            final String name = principal.getName();
+            Object result = NOT_FOUND;
+            if (regex.mayFind(name)) {
+                result = cache.get(name);
+                if (result == null) {
+                    result = map(name);
+                    cache.put(name, result);
+                }
+            }
+
+            if (result == NOT_FOUND) {
+                return delegate != null ? delegate.getRealmMapping(principal, evidence) : null;
+            } else if (result == NO_REALM) {
+                // Leave the handling of a match not identifying a realm to the Elytron implementation.
+                return fallback.getRealmMapping(principal, evidence);
+            }
+            return (String) result;
+        }
+
+        private Object map(String name) {
+            Matcher matcher = regex.matcher(name);
+            if (matcher.find() == false) {
+                return NOT_FOUND;
+            }
+            String realmName = matcher.group(1);
+            if (realmNameMap != null) {
+                realmName = realmNameMap.get(realmName);
+            }
+            return realmName == null ? NO_REALM : realmName;
+        }
+
+    }
+
+    /**
+     * A bounded cache of results by name, once full an arbitrary entry is evicted for each entry added.
+     */
+    private static final class ResultCache {
+
+        private final Map<String, Object> results = new ConcurrentHashMap<>();
+
+        Object get(String name) {
+            return results.get(name);
+        }
+
+        void put(String name, Object result) {
+            if (results.size() >= MAX_CACHED_RESULTS) {
+                Iterator<String> iterator = results.keySet().iterator();
+                if (iterator.hasNext()) {
+                    results.remove(iterator.next());
+                }
+            }
+            results.put(name, result);
+        }
+
+    }
+
+}
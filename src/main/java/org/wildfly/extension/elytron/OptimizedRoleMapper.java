@@ -0,0 +1,358 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.extension.elytron;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.wildfly.security.authz.RoleMapper;
+import org.wildfly.security.authz.Roles;
+
+/**
+ * A {@link RoleMapper} evaluating a plan compiled from the role mappers defined in the subsystem.
+ * <p>
+ * The logical, add-prefix, add-suffix and constant role mappers are created as instances of this class so a logical role
+ * mapper can combine the plans of the mappers it references rather than calling them, nested logical mappers using the
+ * same associative operation are flattened into a single operation over all of their operands and operations on constant
+ * roles are evaluated once as the plan is built. The roles passed in are read once and each step of the plan operates on
+ * plain sets of role names rather than composing {@link Roles} views. Mappers not defined by the subsystem are called as
+ * usual.
+ * <p>
+ * Where every step of the plan is known to depend only on its input the result for each distinct set of input roles is
+ * memoized in a bounded cache, identities with the same roles then share the same mapped {@link Roles}.
+ */
+class OptimizedRoleMapper implements RoleMapper {
+
+    private static final int MAX_CACHED_RESULTS = 256;
+    private static final int MAX_INTERNED_ROLES = 1024;
+
+    private final Node plan;
+    private final Roles constant;
+    private final Map<Set<String>, Roles> cache;
+
+    private OptimizedRoleMapper(Node plan) {
+        this.plan = plan;
+        this.constant = plan instanceof Constant ? Roles.fromSet(((Constant) plan).roles) : null;
+        this.cache = plan.isDeterministic() ? new ConcurrentHashMap<>() : null;
+    }
+
+    static RoleMapper constant(Set<String> roles) {
+        return new OptimizedRoleMapper(new Constant(roles));
+    }
+
+    static RoleMapper addPrefix(String prefix) {
+        return new OptimizedRoleMapper(new Affix(prefix, true));
+    }
+
+    static RoleMapper addSuffix(String suffix) {
+        return new OptimizedRoleMapper(new Affix(suffix, false));
+    }
+
+    static RoleMapper and(RoleMapper left, RoleMapper right) {
+        return new OptimizedRoleMapper(Intersection.of(nodeOf(left), nodeOf(right)));
+    }
+
+    static RoleMapper or(RoleMapper left, RoleMapper right) {
+        return new OptimizedRoleMapper(Union.of(nodeOf(left), nodeOf(right)));
+    }
+
+    static RoleMapper minus(RoleMapper left, RoleMapper right) {
+        return new OptimizedRoleMapper(Minus.of(nodeOf(left), nodeOf(right)));
+    }
+
+    static RoleMapper xor(RoleMapper left, RoleMapper right) {
+        return new OptimizedRoleMapper(Xor.of(nodeOf(left), nodeOf(right)));
+    }
+
+    private static Node nodeOf(RoleMapper roleMapper) {
+        if (roleMapper instanceof OptimizedRoleMapper) {
+            return ((OptimizedRoleMapper) roleMapper).plan;
+        } else if (roleMapper == RoleMapper.IDENTITY_ROLE_MAPPER) {
+            return Identity.INSTANCE;
+        }
+        return new Delegate(roleMapper);
+    }
+
+    @Override
+    public Roles mapRoles(Roles rolesToMap) {
+        if (constant != null) {
+            return constant;
+        }
+
+        Set<String> input = toSet(rolesToMap);
+        if (cache == null) {
+            return Roles.fromSet(plan.evaluate(input));
+        }
+
+        Roles result = cache.get(input);
+        if (result == null) {
+            result = Roles.fromSet(plan.evaluate(input));
+            if (cache.size() >= MAX_CACHED_RESULTS) {
+                // Evict an arbitrary entry, this only needs to bound the size of the cache.
+                Iterator<Set<String>> iterator = cache.keySet().iterator();
+                if (iterator.hasNext()) {
+                    cache.remove(iterator.next());
+                }
+            }
+            cache.put(input, result);
+        }
+        return result;
+    }
+
+    private static Set<String> toSet(Roles roles) {
+        Set<String> result = new HashSet<>();
+        roles.forEach(result::add);
+        return result;
+    }
+
+    /**
+     * A step of a plan, the sets passed to and returned by a step must not be modified.
+     */
+    private abstract static class Node {
+
+        abstract Set<String> evaluate(Set<String> input);
+
+        boolean isDeterministic() {
+            return true;
+        }
+
+    }
+
+    private static final class Identity extends Node {
+
+        static final Identity INSTANCE = new Identity();
+
+        @Override
+        Set<String> evaluate(Set<String> input) {
+            return input;
+        }
+
+    }
+
+    private static final class Constant extends Node {
+
+        private final Set<String> roles;
+
+        Constant(Set<String> roles) {
+            this.roles = Collections.unmodifiableSet(new HashSet<>(roles));
+        }
+
+        @Override
+        Set<String> evaluate(Set<String> input) {
+            return roles;
+        }
+
+    }
+
+    /**
+     * Adds a prefix or suffix to each role, the resulting role names are interned so mapping the same role again does not
+     * allocate a new name.
+     */
+    private static final class Affix extends Node {
+
+        private final String affix;
+        private final boolean prefix;
+        private final Map<String, String> interned = new ConcurrentHashMap<>();
+
+        Affix(String affix, boolean prefix) {
+            this.affix = affix;
+            this.prefix = prefix;
+        }
+
+        @Override
+        Set<String> evaluate(Set<String> input) {
+            Set<String> result = new HashSet<>(input.size() * 2);
+            for (String role : input) {
+                String mapped = interned.get(role);
+                if (mapped == null) {
+                    mapped = prefix ? affix + role : role + affix;
+                    if (interned.size() < MAX_INTERNED_ROLES) {
+                        interned.put(role, mapped);
+                    }
+                }
+                result.add(mapped);
+            }
+            return result;
+        }
+
+    }
+
+    /**
+     * Calls a {@link RoleMapper} not defined by the subsystem, as nothing is known about its behaviour results depending on
+     * it are not memoized.
+     */
+    private static final class Delegate extends Node {
+
+        private final RoleMapper roleMapper;
+
+        Delegate(RoleMapper roleMapper) {
+            this.roleMapper = roleMapper;
+        }
+
+        @Override
+        Set<String> evaluate(Set<String> input) {
+            return toSet(roleMapper.mapRoles(Roles.fromSet(input)));
+        }
+
+        @Override
+        boolean isDeterministic() {
+            return false;
+        }
+
+    }
+
+    /**
+     * A step with any number of operands, nested steps of the same type are flattened into a single step.
+     */
+    private abstract static class Operation extends Node {
+
+        final Node[] operands;
+
+        Operation(List<Node> operands) {
+            this.operands = operands.toArray(new Node[operands.size()]);
+        }
+
+        static List<Node> flatten(Class<? extends Operation> type, Node... nodes) {
+            List<Node> operands = new ArrayList<>();
+            for (Node current : nodes) {
+                if (type.isInstance(current)) {
+                    Collections.addAll(operands, ((Operation) current).operands);
+                } else {
+                    operands.add(current);
+                }
+            }
+            return operands;
+        }
+
+        static boolean allConstant(List<Node> operands) {
+            return operands.stream().allMatch(Constant.class::isInstance);
+        }
+
+        @Override
+        boolean isDeterministic() {
+            for (Node current : operands) {
+                if (current.isDeterministic() == false) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+    }
+
+    private static final class Union extends Operation {
+
+        private Union(List<Node> operands) {
+            super(operands);
+        }
+
+        static Node of(Node left, Node right) {
+            List<Node> operands = flatten(Union.class, left, right);
+            Union union = new Union(operands);
+            return allConstant(operands) ? new Constant(union.evaluate(Collections.emptySet())) : union;
+        }
+
+        @Override
+        Set<String> evaluate(Set<String> input) {
+            Set<String> result = new HashSet<>();
+            for (Node current : operands) {
+                result.addAll(current.evaluate(input));
+            }
+            return result;
+        }
+
+    }
+
+    private static final class Intersection extends Operation {
+
+        private Intersection(List<Node> operands) {
+            super(operands);
+        }
+
+        static Node of(Node left, Node right) {
+            List<Node> operands = flatten(Intersection.class, left, right);
+            Intersection intersection = new Intersection(operands);
+            return allConstant(operands) ? new Constant(intersection.evaluate(Collections.emptySet())) : intersection;
+        }
+
+        @Override
+        Set<String> evaluate(Set<String> input) {
+            Set<String> result = new HashSet<>(operands[0].evaluate(input));
+            for (int i = 1; i < operands.length && result.isEmpty() == false; i++) {
+                result.retainAll(operands[i].evaluate(input));
+            }
+            return result;
+        }
+
+    }
+
+    private static final class Minus extends Operation {
+
+        private Minus(Node left, Node right) {
+            super(Arrays.asList(left, right));
+        }
+
+        static Node of(Node left, Node right) {
+            Minus minus = new Minus(left, right);
+            return left instanceof Constant && right instanceof Constant ? new Constant(minus.evaluate(Collections.emptySet())) : minus;
+        }
+
+        @Override
+        Set<String> evaluate(Set<String> input) {
+            Set<String> result = new HashSet<>(operands[0].evaluate(input));
+            if (result.isEmpty() == false) {
+                result.removeAll(operands[1].evaluate(input));
+            }
+            return result;
+        }
+
+    }
+
+    private static final class Xor extends Operation {
+
+        private Xor(Node left, Node right) {
+            super(Arrays.asList(left, right));
+        }
+
+        static Node of(Node left, Node right) {
+            Xor xor = new Xor(left, right);
+            return left instanceof Constant && right instanceof Constant ? new Constant(xor.evaluate(Collections.emptySet())) : xor;
+        }
+
+        @Override
+        Set<String> evaluate(Set<String> input) {
+            Set<String> result = new HashSet<>(operands[0].evaluate(input));
+            for (String current : operands[1].evaluate(input)) {
+                if (result.remove(current) == false) {
+                    result.add(current);
+                }
+            }
+            return result;
+        }
+
+    }
+
+}
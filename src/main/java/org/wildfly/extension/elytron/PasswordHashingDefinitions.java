@@ -0,0 +1,168 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.extension.elytron;
+
+import static org.wildfly.extension.elytron.ElytronExtension.getRequiredService;
+import static org.wildfly.extension.elytron._private.ElytronSubsystemMessages.ROOT_LOGGER;
+
+import java.security.GeneralSecurityException;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.controller.AbstractRuntimeOnlyHandler;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.SimpleAttributeDefinition;
+import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
+import org.jboss.as.controller.SimpleOperationDefinition;
+import org.jboss.as.controller.SimpleOperationDefinitionBuilder;
+import org.jboss.as.controller.StringListAttributeDefinition;
+import org.jboss.as.controller.descriptions.ResourceDescriptionResolver;
+import org.jboss.as.controller.operations.validation.IntRangeValidator;
+import org.jboss.as.controller.operations.validation.LongRangeValidator;
+import org.jboss.as.controller.registry.AttributeAccess;
+import org.jboss.as.controller.registry.ManagementResourceRegistration;
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
+import org.wildfly.security.password.PasswordFactory;
+import org.wildfly.security.password.interfaces.BCryptPassword;
+import org.wildfly.security.password.interfaces.SaltedSimpleDigestPassword;
+import org.wildfly.security.password.interfaces.SimpleDigestPassword;
+import org.wildfly.security.password.spec.PasswordSpec;
+
+/**
+ * Definitions for the subsystem wide password hashing configuration and the operation to benchmark the hashing
+ * algorithms on the current host.
+ */
+class PasswordHashingDefinitions {
+
+    static final SimpleAttributeDefinition HASHING_THREADS = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.HASHING_THREADS, ModelType.INT, true)
+        .setXmlName(ElytronDescriptionConstants.THREADS)
+        .setAllowExpression(true)
+        .setValidator(new IntRangeValidator(1, true, true))
+        .setFlags(AttributeAccess.Flag.RESTART_ALL_SERVICES)
+        .build();
+
+    static final SimpleAttributeDefinition DEFAULT_ITERATION_COUNT = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.DEFAULT_ITERATION_COUNT, ModelType.INT, true)
+        .setAllowExpression(true)
+        .setDefaultValue(new ModelNode(10))
+        .setValidator(new IntRangeValidator(4, 31, true, true))
+        .setFlags(AttributeAccess.Flag.RESTART_ALL_SERVICES)
+        .build();
+
+    static final StringListAttributeDefinition ALGORITHMS = new StringListAttributeDefinition.Builder(ElytronDescriptionConstants.ALGORITHMS)
+        .setAllowNull(true)
+        .setMinSize(1)
+        .build();
+
+    static final SimpleAttributeDefinition ITERATION_COUNT = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.ITERATION_COUNT, ModelType.INT, true)
+        .setValidator(new IntRangeValidator(4, 31, true, true))
+        .build();
+
+    static final SimpleAttributeDefinition DURATION = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.DURATION, ModelType.LONG, true)
+        .setDefaultValue(new ModelNode(1000L))
+        .setValidator(new LongRangeValidator(10L, 60000L, true, true))
+        .build();
+
+    private static final String[] DEFAULT_ALGORITHMS = {
+            BCryptPassword.ALGORITHM_BCRYPT,
+            SaltedSimpleDigestPassword.ALGORITHM_PASSWORD_SALT_DIGEST_SHA_256,
+            SimpleDigestPassword.ALGORITHM_SIMPLE_DIGEST_SHA_256
+    };
+
+    private PasswordHashingDefinitions() {
+    }
+
+    /**
+     * Resolve the attributes of the subsystem into a new {@link PasswordHashingService}.
+     */
+    static PasswordHashingService createService(OperationContext context, ModelNode model) throws OperationFailedException {
+        ModelNode threads = HASHING_THREADS.resolveModelAttribute(context, model);
+        return new PasswordHashingService(threads.isDefined() ? threads.asInt() : Runtime.getRuntime().availableProcessors(),
+                DEFAULT_ITERATION_COUNT.resolveModelAttribute(context, model).asInt());
+    }
+
+    static PasswordHashingService getPasswordHashingService(OperationContext context) {
+        return getRequiredService(context.getServiceRegistry(false), PasswordHashingService.SERVICE_NAME, PasswordHashingService.class).getValue();
+    }
+
+    static void registerOperations(ManagementResourceRegistration resourceRegistration, ResourceDescriptionResolver resourceDescriptionResolver) {
+        SimpleOperationDefinition benchmark = new SimpleOperationDefinitionBuilder(ElytronDescriptionConstants.BENCHMARK_PASSWORD_HASHING, resourceDescriptionResolver)
+            .setParameters(ALGORITHMS, ITERATION_COUNT, DURATION)
+            .setReadOnly()
+            .setRuntimeOnly()
+            .build();
+
+        resourceRegistration.registerOperationHandler(benchmark, new BenchmarkHandler());
+    }
+
+    /**
+     * Hash a fixed password repeatedly with each algorithm on the calling thread for the requested duration and report
+     * the rate achieved along with the mean time of a single hash, the latency a single authentication would see.
+     */
+    private static class BenchmarkHandler extends AbstractRuntimeOnlyHandler {
+
+        private static final char[] PASSWORD = "benchmark-password".toCharArray();
+
+        @Override
+        protected void executeRuntimeStep(OperationContext context, ModelNode operation) throws OperationFailedException {
+            PasswordHashingService hashingService = getPasswordHashingService(context);
+            ModelNode algorithmsNode = ALGORITHMS.resolveModelAttribute(context, operation);
+            ModelNode iterationCountNode = ITERATION_COUNT.resolveModelAttribute(context, operation);
+            int iterationCount = iterationCountNode.isDefined() ? iterationCountNode.asInt() : hashingService.getDefaultIterationCount();
+            long duration = TimeUnit.MILLISECONDS.toNanos(DURATION.resolveModelAttribute(context, operation).asLong());
+
+            String[] algorithms;
+            if (algorithmsNode.isDefined()) {
+                algorithms = algorithmsNode.asList().stream().map(ModelNode::asString).toArray(String[]::new);
+            } else {
+                algorithms = DEFAULT_ALGORITHMS;
+            }
+
+            ModelNode result = context.getResult();
+            result.get(ElytronDescriptionConstants.ITERATION_COUNT).set(iterationCount);
+            result.get(ElytronDescriptionConstants.HASHING_THREADS).set(hashingService.getThreads());
+            ModelNode results = result.get(ElytronDescriptionConstants.ALGORITHMS).setEmptyObject();
+            for (String algorithm : algorithms) {
+                try {
+                    PasswordFactory passwordFactory = PasswordFactory.getInstance(algorithm);
+                    // A first hash outside of the measurement to load the implementation.
+                    passwordFactory.generatePassword(hashingService.createPasswordSpec(algorithm, PASSWORD, iterationCount));
+
+                    long count = 0;
+                    long start = System.nanoTime();
+                    long elapsed;
+                    do {
+                        PasswordSpec passwordSpec = hashingService.createPasswordSpec(algorithm, PASSWORD, iterationCount);
+                        passwordFactory.generatePassword(passwordSpec);
+                        count++;
+                        elapsed = System.nanoTime() - start;
+                    } while (elapsed < duration);
+
+                    ModelNode current = results.get(algorithm);
+                    current.get(ElytronDescriptionConstants.HASHES_PER_SECOND).set(count * TimeUnit.SECONDS.toNanos(1) / elapsed);
+                    current.get(ElytronDescriptionConstants.MEAN_TIME).set(TimeUnit.NANOSECONDS.toMicros(elapsed / count));
+                } catch (GeneralSecurityException e) {
+                    throw ROOT_LOGGER.couldNotCreatePassword(e);
+                }
+            }
+        }
+
+    }
+
+}
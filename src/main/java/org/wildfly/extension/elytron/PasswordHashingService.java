@@ -0,0 +1,148 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.extension.elytron;
+
+import java.security.SecureRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jboss.msc.service.Service;
+import org.jboss.msc.service.ServiceName;
+import org.jboss.msc.service.StartContext;
+import org.jboss.msc.service.StartException;
+import org.jboss.msc.service.StopContext;
+import org.wildfly.security.password.Password;
+import org.wildfly.security.password.PasswordFactory;
+import org.wildfly.security.password.interfaces.BCryptPassword;
+import org.wildfly.security.password.interfaces.ClearPassword;
+import org.wildfly.security.password.spec.ClearPasswordSpec;
+import org.wildfly.security.password.spec.EncryptablePasswordSpec;
+import org.wildfly.security.password.spec.IteratedSaltedPasswordAlgorithmSpec;
+import org.wildfly.security.password.spec.PasswordSpec;
+import org.wildfly.security.password.spec.SaltedPasswordAlgorithmSpec;
+
+/**
+ * A {@link Service} providing a bounded pool of threads on which passwords are hashed, so hashing expensive algorithms
+ * such as bcrypt does not occupy the management thread and independent passwords can be hashed in parallel.
+ * <p>
+ * The queue of the pool is bounded, once full a submitted hash is computed by the submitting thread which slows the
+ * submitter down rather than queueing unbounded work.
+ */
+class PasswordHashingService implements Service<PasswordHashingService> {
+
+    static final ServiceName SERVICE_NAME = ElytronExtension.BASE_SERVICE_NAME.append(ElytronDescriptionConstants.PASSWORD_HASHING);
+
+    private static final int QUEUE_SIZE_PER_THREAD = 64;
+    private static final int SALT_SIZE = 16;
+    private static final String SALTED_DIGEST_PREFIX = "password-salt-digest-";
+    private static final String DIGEST_SALTED_PREFIX = "salt-password-digest-";
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final int threads;
+    private final int defaultIterationCount;
+
+    private volatile ThreadPoolExecutor executor;
+
+    PasswordHashingService(int threads, int defaultIterationCount) {
+        this.threads = threads;
+        this.defaultIterationCount = defaultIterationCount;
+    }
+
+    @Override
+    public void start(StartContext context) throws StartException {
+        final AtomicInteger count = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(threads * QUEUE_SIZE_PER_THREAD), r -> {
+            Thread thread = new Thread(r, "Elytron password hashing " + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @Override
+    public void stop(StopContext context) {
+        executor.shutdown();
+        executor = null;
+    }
+
+    @Override
+    public PasswordHashingService getValue() throws IllegalStateException, IllegalArgumentException {
+        return this;
+    }
+
+    /**
+     * Get the {@link ExecutorService} used for hashing, for callers submitting their own hashing tasks. The executor is
+     * shared so must not be shut down by the caller.
+     *
+     * @return the {@link ExecutorService} used for hashing.
+     */
+    ExecutorService getExecutor() {
+        return executor;
+    }
+
+    int getThreads() {
+        return threads;
+    }
+
+    int getDefaultIterationCount() {
+        return defaultIterationCount;
+    }
+
+    /**
+     * Submit a password to be hashed.
+     *
+     * @param algorithm the algorithm of the resulting {@link Password}.
+     * @param passwordSpec the specification of the password, usually an {@link EncryptablePasswordSpec}.
+     * @return a {@link Future} for the hashed password.
+     */
+    Future<Password> hash(String algorithm, PasswordSpec passwordSpec) {
+        return executor.submit(() -> PasswordFactory.getInstance(algorithm).generatePassword(passwordSpec));
+    }
+
+    /**
+     * Create the specification to hash a clear text password with an algorithm which does not require further input, a
+     * random salt is generated where the algorithm requires one.
+     *
+     * @param algorithm the algorithm to hash the password with.
+     * @param password the clear text password.
+     * @param iterationCount the iteration count for bcrypt, or a negative value to use the default.
+     * @return the specification of the password.
+     */
+    PasswordSpec createPasswordSpec(String algorithm, char[] password, int iterationCount) {
+        if (ClearPassword.ALGORITHM_CLEAR.equals(algorithm)) {
+            return new ClearPasswordSpec(password);
+        } else if (BCryptPassword.ALGORITHM_BCRYPT.equals(algorithm)) {
+            return new EncryptablePasswordSpec(password, new IteratedSaltedPasswordAlgorithmSpec(iterationCount < 0 ? defaultIterationCount : iterationCount, generateSalt()));
+        } else if (algorithm.startsWith(SALTED_DIGEST_PREFIX) || algorithm.startsWith(DIGEST_SALTED_PREFIX)) {
+            return new EncryptablePasswordSpec(password, new SaltedPasswordAlgorithmSpec(generateSalt()));
+        }
+        return new EncryptablePasswordSpec(password, null);
+    }
+
+    static byte[] generateSalt() {
+        byte[] salt = new byte[SALT_SIZE];
+        RANDOM.nextBytes(salt);
+        return salt;
+    }
+
+}
@@ -94,6 +94,12 @@ class PermissionMapperDefinitions {
             .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
             .build();
 
+    static final SimpleAttributeDefinition COMPILED = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.COMPILED, ModelType.BOOLEAN, true)
+            .setAllowExpression(true)
+            .setDefaultValue(new ModelNode(false))
+            .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
+            .build();
+
     static final StringListAttributeDefinition PRINCIPALS = new StringListAttributeDefinition.Builder(ElytronDescriptionConstants.PRINCIPALS)
             .setAllowExpression(true)
             .setAllowNull(true)
@@ -157,7 +163,7 @@ class PermissionMapperDefinitions {
     }
 
     static ResourceDefinition getSimplePermissionMapper() {
-        final AttributeDefinition[] attributes = new AttributeDefinition[] { MAPPING_MODE, PERMISSION_MAPPINGS };
+        final AttributeDefinition[] attributes = new AttributeDefinition[] { MAPPING_MODE, PERMISSION_MAPPINGS, COMPILED };
         TrivialAddHandler<PermissionMapper>  add = new TrivialAddHandler<PermissionMapper>(PermissionMapper.class, attributes, PERMISSION_MAPPER_RUNTIME_CAPABILITY) {
 
             @Override
@@ -165,6 +171,7 @@ class PermissionMapperDefinitions {
                     OperationContext context, ModelNode model) throws OperationFailedException {
 
                 final MappingMode mappingMode = MappingMode.valueOf(MappingMode.class, MAPPING_MODE.resolveModelAttribute(context, model).asString().toUpperCase(Locale.ENGLISH));
+                final boolean compiled = COMPILED.resolveModelAttribute(context, model).asBoolean();
 
                 final List<Mapping> permissionMappings = new ArrayList<>();
                 if (model.hasDefined(ElytronDescriptionConstants.PERMISSION_MAPPINGS)) {
@@ -187,7 +194,7 @@ class PermissionMapperDefinitions {
                     }
                 }
 
-                return () -> createSimplePermissionMapper(mappingMode, permissionMappings);
+                return () -> compiled ? createCompiledPermissionMapper(mappingMode, permissionMappings) : createSimplePermissionMapper(mappingMode, permissionMappings);
             }
         };
 
@@ -211,6 +218,20 @@ class PermissionMapperDefinitions {
 
     }
 
+    private static PermissionMapper createCompiledPermissionMapper(MappingMode mappingMode, List<Mapping> mappings) throws StartException {
+        List<CompiledPermissionMapper.Mapping> compiledMappings = new ArrayList<>(mappings.size());
+        for (Mapping current : mappings) {
+            List<java.security.Permission> permissions = new ArrayList<>(current.getPermissions().size());
+            for (Permission permission : current.getPermissions()) {
+                permissions.add(createPermission(permission));
+            }
+
+            compiledMappings.add(new CompiledPermissionMapper.Mapping(current.getPrincipals(), current.getRoles(), permissions));
+        }
+
+        return new CompiledPermissionMapper(mappingMode.convert(), compiledMappings);
+    }
+
     static ResourceDefinition getConstantPermissionMapper() {
         final AttributeDefinition[] attributes = new AttributeDefinition[] { PERMISSIONS };
         TrivialAddHandler<PermissionMapper>  add = new TrivialAddHandler<PermissionMapper>(PermissionMapper.class, attributes, PERMISSION_MAPPER_RUNTIME_CAPABILITY) {
@@ -26,16 +26,21 @@ import static org.wildfly.extension.elytron.FileAttributeDefinitions.RELATIVE_TO
 import static org.wildfly.extension.elytron.FileAttributeDefinitions.pathName;
 import static org.wildfly.extension.elytron._private.ElytronSubsystemMessages.ROOT_LOGGER;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.security.Principal;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 
 import org.jboss.as.controller.AbstractAddStepHandler;
 import org.jboss.as.controller.AbstractRuntimeOnlyHandler;
@@ -49,6 +54,7 @@ import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
 import org.jboss.as.controller.SimpleOperationDefinition;
 import org.jboss.as.controller.SimpleOperationDefinitionBuilder;
 import org.jboss.as.controller.descriptions.StandardResourceDescriptionResolver;
+import org.jboss.as.controller.client.helpers.MeasurementUnit;
 import org.jboss.as.controller.registry.AttributeAccess;
 import org.jboss.as.controller.registry.ManagementResourceRegistration;
 import org.jboss.as.controller.services.path.PathEntry;
@@ -108,11 +114,30 @@ class PropertiesRealmDefinition extends TrivialResourceDefinition {
         .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
         .build();
 
+    static final SimpleAttributeDefinition WATCH = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.WATCH, ModelType.BOOLEAN, true)
+        .setDefaultValue(new ModelNode(false))
+        .setAllowExpression(true)
+        .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
+        .build();
+
     static final SimpleAttributeDefinition SYNCHRONIZED = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.SYNCHRONIZED, ModelType.STRING)
         .setStorageRuntime()
         .build();
 
-    static final AttributeDefinition[] ATTRIBUTES = new AttributeDefinition[] { USERS_PROPERTIES, GROUPS_PROPERTIES, PLAIN_TEXT, GROUPS_ATTRIBUTE };
+    static final SimpleAttributeDefinition LAST_LOAD_DURATION = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.LAST_LOAD_DURATION, ModelType.LONG)
+        .setMeasurementUnit(MeasurementUnit.MILLISECONDS)
+        .setStorageRuntime()
+        .build();
+
+    static final SimpleAttributeDefinition USER_COUNT = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.USER_COUNT, ModelType.INT)
+        .setStorageRuntime()
+        .build();
+
+    static final SimpleAttributeDefinition GROUP_ENTRY_COUNT = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.GROUP_ENTRY_COUNT, ModelType.INT)
+        .setStorageRuntime()
+        .build();
+
+    static final AttributeDefinition[] ATTRIBUTES = new AttributeDefinition[] { USERS_PROPERTIES, GROUPS_PROPERTIES, PLAIN_TEXT, GROUPS_ATTRIBUTE, WATCH };
 
     // Resource Resolver
 
@@ -135,6 +160,8 @@ class PropertiesRealmDefinition extends TrivialResourceDefinition {
             final String groupsRelativeTo;
             final boolean plainText = PLAIN_TEXT.resolveModelAttribute(context, model).asBoolean();
             final String groupsAttribute = GROUPS_ATTRIBUTE.resolveModelAttribute(context, model).asString();
+            final boolean watch = WATCH.resolveModelAttribute(context, model).asBoolean();
+            final String realmName = context.getCurrentAddressValue();
 
             ModelNode usersProperties = USERS_PROPERTIES.resolveModelAttribute(context, model);
             usersPath = asStringIfDefined(context, PATH, usersProperties);
@@ -164,21 +191,24 @@ class PropertiesRealmDefinition extends TrivialResourceDefinition {
             return new ValueSupplier<SecurityRealm>() {
 
                 private final List<Handle> callbackHandles = new ArrayList<>();
+                private RealmWrapper realmWrapper;
 
                 @Override
                 public SecurityRealm get() throws StartException {
                     File usersFile = resolveFileLocation(usersPath, usersRelativeTo);
                     File groupsFile = groupsPath != null ? resolveFileLocation(groupsPath, groupsRelativeTo) : null;
 
-                    try (InputStream usersInputStream = new FileInputStream(usersFile);
-                            InputStream groupsInputStream = groupsFile != null ? new FileInputStream(groupsFile) : null) {
-                        return new RealmWrapper(LegacyPropertiesSecurityRealm.builder()
+                    try {
+                        realmWrapper = new RealmWrapper(realmName, (usersInputStream, groupsInputStream) -> LegacyPropertiesSecurityRealm.builder()
                                 .setUsersStream(usersInputStream)
                                 .setGroupsStream(groupsInputStream)
                                 .setPlainText(plainText)
                                 .setGroupsAttribute(groupsAttribute)
                                 .build(), usersFile, groupsFile);
-
+                        if (watch) {
+                            realmWrapper.watch();
+                        }
+                        return realmWrapper;
                     } catch (FileNotFoundException e) {
                         throw ROOT_LOGGER.propertyFilesDoesNotExist(e.getMessage());
                     } catch (RealmUnavailableException e) {
@@ -190,6 +220,10 @@ class PropertiesRealmDefinition extends TrivialResourceDefinition {
 
                 @Override
                 public void dispose() {
+                    if (realmWrapper != null) {
+                        realmWrapper.close();
+                        realmWrapper = null;
+                    }
                     callbackHandles.forEach(h -> h.remove());
                 }
 
@@ -241,6 +275,30 @@ class PropertiesRealmDefinition extends TrivialResourceDefinition {
                 context.getResult().set(sdf.format(new Date(securityRealm.getLoadTime())));
             }
         });
+
+        resourceRegistration.registerReadOnlyAttribute(LAST_LOAD_DURATION, new PropertiesRuntimeHandler(false) {
+
+            @Override
+            void performRuntime(OperationContext context, RealmWrapper securityRealm) throws OperationFailedException {
+                context.getResult().set(securityRealm.getLoadDuration());
+            }
+        });
+
+        resourceRegistration.registerReadOnlyAttribute(USER_COUNT, new PropertiesRuntimeHandler(false) {
+
+            @Override
+            void performRuntime(OperationContext context, RealmWrapper securityRealm) throws OperationFailedException {
+                context.getResult().set(securityRealm.getUserCount());
+            }
+        });
+
+        resourceRegistration.registerReadOnlyAttribute(GROUP_ENTRY_COUNT, new PropertiesRuntimeHandler(false) {
+
+            @Override
+            void performRuntime(OperationContext context, RealmWrapper securityRealm) throws OperationFailedException {
+                context.getResult().set(securityRealm.getGroupEntryCount());
+            }
+        });
     }
 
     @Override
@@ -251,7 +309,11 @@ class PropertiesRealmDefinition extends TrivialResourceDefinition {
 
             @Override
             void performRuntime(OperationContext context, RealmWrapper securityRealm) throws OperationFailedException {
-                securityRealm.reload();
+                try {
+                    securityRealm.load();
+                } catch (IOException e) {
+                    throw ROOT_LOGGER.unableToReLoadPropertiesFiles(e);
+                }
             }
         });
     }
@@ -268,7 +330,8 @@ class PropertiesRealmDefinition extends TrivialResourceDefinition {
         protected void executeRuntimeStep(OperationContext context, ModelNode operation) throws OperationFailedException {
             ServiceName securityRealmName = SECURITY_REALM_RUNTIME_CAPABILITY.fromBaseCapability(context.getCurrentAddressValue()).getCapabilityServiceName();
 
-            ServiceController<SecurityRealm> serviceContainer = getRequiredService(context.getServiceRegistry(writeAccess), securityRealmName, SecurityRealm.class);
+            ServiceController<SecurityRealm> serviceContainer = StartupDefinitions.activate(context,
+                    getRequiredService(context.getServiceRegistry(writeAccess), securityRealmName, SecurityRealm.class));
             State serviceState;
             if ((serviceState = serviceContainer.getState()) != State.UP) {
                 throw ROOT_LOGGER.requiredServiceNotUp(securityRealmName, serviceState);
@@ -285,59 +348,243 @@ class PropertiesRealmDefinition extends TrivialResourceDefinition {
 
     }
 
+    /**
+     * Factory creating a {@link LegacyPropertiesSecurityRealm} from the content of the properties files.
+     */
+    @FunctionalInterface
+    private interface RealmFactory {
+
+        LegacyPropertiesSecurityRealm create(InputStream usersInputStream, InputStream groupsInputStream) throws IOException;
+
+    }
+
+    /**
+     * A {@link SecurityRealm} wrapping the {@link LegacyPropertiesSecurityRealm} loaded from the most recent content of the
+     * properties files.
+     * <p>
+     * Each load parses the files into a new {@link LegacyPropertiesSecurityRealm} which replaces the previous one as a
+     * whole once completely loaded, so an authentication in progress whilst the files are loaded is served entirely by
+     * either the previous or the new content. Loading is skipped where the size, modification time and digest of the files
+     * are unchanged since the last load. Where the files are watched changes are loaded on the thread of the
+     * {@link FileWatcher} rather than on a management thread.
+     */
     private static final class RealmWrapper implements SecurityRealm {
 
-        private final LegacyPropertiesSecurityRealm delegate;
+        /**
+         * The time in milliseconds a watched file must stop changing for before it is reloaded.
+         */
+        private static final long WATCH_QUIET_PERIOD = 500;
+
+        private final String realmName;
+        private final RealmFactory realmFactory;
         private final File usersFile;
         private final File groupsFile;
+        private final List<FileWatcher> fileWatchers = new ArrayList<>();
 
-        RealmWrapper(LegacyPropertiesSecurityRealm delegate, File usersFile, File groupsFile) {
-            this.delegate = delegate;
+        private volatile LoadedRealm loaded;
+
+        RealmWrapper(String realmName, RealmFactory realmFactory, File usersFile, File groupsFile) throws IOException {
+            this.realmName = realmName;
+            this.realmFactory = realmFactory;
             this.usersFile = usersFile;
             this.groupsFile = groupsFile;
+            load();
+        }
+
+        private SecurityRealm delegate() {
+            return loaded.realm;
         }
 
         @Override
         public RealmIdentity getRealmIdentity(Principal principal) throws RealmUnavailableException {
-            return delegate.getRealmIdentity(principal);
+            return delegate().getRealmIdentity(principal);
         }
 
         @Override
         public RealmIdentity getRealmIdentity(Evidence evidence) throws RealmUnavailableException {
-            return delegate.getRealmIdentity(evidence);
+            return delegate().getRealmIdentity(evidence);
         }
 
         @Override
         public SupportLevel getCredentialAcquireSupport(Class<? extends Credential> credentialType, String algorithmName)
                 throws RealmUnavailableException {
-            return delegate.getCredentialAcquireSupport(credentialType, algorithmName);
+            return delegate().getCredentialAcquireSupport(credentialType, algorithmName);
         }
 
         @Override
         public SupportLevel getEvidenceVerifySupport(Class<? extends Evidence> evidenceType, String algorithmName)
                 throws RealmUnavailableException {
-            return delegate.getEvidenceVerifySupport(evidenceType, algorithmName);
+            return delegate().getEvidenceVerifySupport(evidenceType, algorithmName);
         }
 
         @Override
         public void handleRealmEvent(RealmEvent event) {
-            delegate.handleRealmEvent(event);
+            delegate().handleRealmEvent(event);
         }
 
         long getLoadTime() {
-            return delegate.getLoadTime();
+            return loaded.realm.getLoadTime();
+        }
+
+        long getLoadDuration() {
+            return loaded.loadDuration;
         }
 
-        void reload() throws OperationFailedException {
-            try (InputStream usersInputStream = new FileInputStream(usersFile);
-                    InputStream groupsInputStream = groupsFile != null ? new FileInputStream(groupsFile) : null) {
-                delegate.load(usersInputStream, groupsInputStream);
+        int getUserCount() {
+            return loaded.userCount;
+        }
+
+        int getGroupEntryCount() {
+            return loaded.groupEntryCount;
+        }
+
+        /**
+         * Load the properties files if they have changed since they were last loaded.
+         *
+         * @return {@code true} if the files were loaded, {@code false} if they were unchanged.
+         * @throws IOException if the files can not be loaded, the previously loaded content remains in use.
+         */
+        synchronized boolean load() throws IOException {
+            final LoadedRealm previous = this.loaded;
+            final FileState previousUsers = previous != null ? previous.users : null;
+            final FileState previousGroups = previous != null ? previous.groups : null;
+
+            FileState users = FileState.read(usersFile, previousUsers);
+            FileState groups = groupsFile != null ? FileState.read(groupsFile, previousGroups) : null;
+            if (users.isSame(previousUsers) && (groups == null || groups.isSame(previousGroups))) {
+                ROOT_LOGGER.tracef("Properties files for realm '%s' are unchanged, skipping load", realmName);
+                return false;
+            }
+
+            final long start = System.nanoTime();
+            final byte[] usersContent = users.content(usersFile);
+            final byte[] groupsContent = groups != null ? groups.content(groupsFile) : null;
+            LegacyPropertiesSecurityRealm realm = realmFactory.create(new ByteArrayInputStream(usersContent),
+                    groupsContent != null ? new ByteArrayInputStream(groupsContent) : null);
+            int userCount = countEntries(usersContent);
+            int groupEntryCount = groupsContent != null ? countEntries(groupsContent) : 0;
+
+            this.loaded = new LoadedRealm(realm, users.withoutContent(), groups != null ? groups.withoutContent() : null,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), userCount, groupEntryCount);
+            return true;
+        }
+
+        private static int countEntries(byte[] content) throws IOException {
+            Properties properties = new Properties();
+            properties.load(new ByteArrayInputStream(content));
+            return properties.size();
+        }
+
+        /**
+         * Start watching the properties files, changed files are loaded automatically.
+         */
+        synchronized void watch() throws IOException {
+            try {
+                fileWatchers.add(FileWatcher.watch(usersFile, WATCH_QUIET_PERIOD, this::loadChanged));
+                if (groupsFile != null) {
+                    fileWatchers.add(FileWatcher.watch(groupsFile, WATCH_QUIET_PERIOD, this::loadChanged));
+                }
             } catch (IOException e) {
-                throw ROOT_LOGGER.unableToReLoadPropertiesFiles(e);
+                close();
+                throw e;
             }
         }
 
+        private void loadChanged() {
+            try {
+                if (load()) {
+                    ROOT_LOGGER.propertiesRealmReloaded(realmName);
+                }
+            } catch (IOException e) {
+                ROOT_LOGGER.unableToReloadPropertiesRealm(realmName, e);
+            }
+        }
+
+        synchronized void close() {
+            fileWatchers.forEach(FileWatcher::close);
+            fileWatchers.clear();
+        }
+
     }
 
-}
+    private static final class LoadedRealm {
+
+        private final LegacyPropertiesSecurityRealm realm;
+        private final FileState users;
+        private final FileState groups;
+        private final long loadDuration;
+        private final int userCount;
+        private final int groupEntryCount;
+
+        LoadedRealm(LegacyPropertiesSecurityRealm realm, FileState users, FileState groups, long loadDuration, int userCount, int groupEntryCount) {
+            this.realm = realm;
+            this.users = users;
+            this.groups = groups;
+            this.loadDuration = loadDuration;
+            this.userCount = userCount;
+            this.groupEntryCount = groupEntryCount;
+        }
+
+    }
 
+    /**
+     * The size, modification time and digest of a properties file, used to detect if the file has changed since last loaded.
+     */
+    private static final class FileState {
+
+        private static final String DIGEST_ALGORITHM = "SHA-256";
+
+        private final long size;
+        private final long lastModified;
+        private final byte[] digest;
+        private final byte[] content;
+
+        private FileState(long size, long lastModified, byte[] digest, byte[] content) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.digest = digest;
+            this.content = content;
+        }
+
+        /**
+         * Read the state of a file, the content of the file is only read if the size or modification time differ from the
+         * previous state.
+         */
+        static FileState read(File file, FileState previous) throws IOException {
+            final long size = file.length();
+            final long lastModified = file.lastModified();
+            if (previous != null && previous.size == size && previous.lastModified == lastModified) {
+                return previous;
+            }
+            if (file.exists() == false) {
+                throw new FileNotFoundException(file.getPath());
+            }
+
+            byte[] content = Files.readAllBytes(file.toPath());
+            return new FileState(content.length, lastModified, digest(content), content);
+        }
+
+        private static byte[] digest(byte[] content) throws IOException {
+            try {
+                return MessageDigest.getInstance(DIGEST_ALGORITHM).digest(content);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IOException(e);
+            }
+        }
+
+        boolean isSame(FileState other) {
+            return other != null && MessageDigest.isEqual(digest, other.digest);
+        }
+
+        byte[] content(File file) throws IOException {
+            // An unchanged file needs to be read again where another file has changed.
+            return content != null ? content : Files.readAllBytes(file.toPath());
+        }
+
+        FileState withoutContent() {
+            return content == null ? this : new FileState(size, lastModified, digest, null);
+        }
+
+    }
+
+}
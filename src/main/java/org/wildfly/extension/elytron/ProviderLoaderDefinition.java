@@ -29,6 +29,8 @@ import static org.wildfly.extension.elytron.ProviderAttributeDefinition.INDEXED_
 import static org.wildfly.extension.elytron.ProviderAttributeDefinition.LOADED_PROVIDERS;
 import static org.wildfly.extension.elytron.ProviderAttributeDefinition.PROVIDERS;
 import static org.wildfly.extension.elytron.ProviderAttributeDefinition.populateProviders;
+import static org.wildfly.extension.elytron.StartupDefinitions.getInitialMode;
+import static org.wildfly.extension.elytron.StartupDefinitions.startTimer;
 
 import java.security.Provider;
 import java.util.HashSet;
@@ -143,7 +145,8 @@ class ProviderLoaderDefinition extends SimpleResourceDefinition {
             ModelNode model = resource.getModel();
 
             ProviderLoaderServiceBuilder builder = ProviderLoaderService.builder();
-            builder.setRegister(ProviderLoaderDefinition.REGISTER.resolveModelAttribute(context, model).asBoolean());
+            boolean register = ProviderLoaderDefinition.REGISTER.resolveModelAttribute(context, model).asBoolean();
+            builder.setRegister(register);
 
             Set<String> relativeToSet = new HashSet<String>();
 
@@ -179,8 +182,11 @@ class ProviderLoaderDefinition extends SimpleResourceDefinition {
             RuntimeCapability<Void> runtimeCapability = PROVIDERS_RUNTIME_CAPABILITY.fromBaseCapability(context.getCurrentAddressValue());
             ServiceName serviceName = runtimeCapability.getCapabilityServiceName(Provider[].class);
             ServiceTarget serviceTarget = context.getServiceTarget();
+            // Registering the providers globally is a side effect of starting so the policy only applies otherwise.
             ServiceBuilder<Provider[]> serviceBuilder = serviceTarget.addService(serviceName, providerLoaderService)
-                    .setInitialMode(Mode.ACTIVE);
+                    .setInitialMode(register ? Mode.ACTIVE : getInitialMode(context))
+                    .addListener(startTimer(context))
+                    .addDependency(StartupService.SERVICE_NAME, StartupService.class, providerLoaderService.getStartupServiceInjector());
 
             if (relativeToSet.isEmpty() == false) {
                 serviceBuilder.addDependency(PathManagerService.SERVICE_NAME, PathManager.class, providerLoaderService.getPathManagerInjector());
@@ -68,6 +68,7 @@ class ProviderLoaderService implements Service<Provider[]> {
     private final ProviderConfig[] providerConfig;
 
     private final InjectedValue<PathManager> pathManager = new InjectedValue<PathManager>();
+    private final InjectedValue<StartupService> startupService = new InjectedValue<StartupService>();
     private final List<Handle> callbackHandles = new ArrayList<Handle>();
 
     private volatile Provider[] providers;
@@ -79,7 +80,11 @@ class ProviderLoaderService implements Service<Provider[]> {
 
     @Override
     public void start(StartContext context) throws StartException {
+        // Scanning modules for providers is slow, independent loaders are scanned in parallel.
+        startupService.getValue().startAsynchronously(context, this::load);
+    }
 
+    private void load() throws StartException {
         try {
             ArrayList<Provider> providerList = new ArrayList<Provider>();
             for (ProviderConfig currentConfig : providerConfig) {
@@ -258,6 +263,10 @@ class ProviderLoaderService implements Service<Provider[]> {
         return pathManager;
     }
 
+    Injector<StartupService> getStartupServiceInjector() {
+        return startupService;
+    }
+
     @Override
     public Provider[] getValue() throws IllegalStateException, IllegalArgumentException {
         return providers == null ? null : providers.clone();
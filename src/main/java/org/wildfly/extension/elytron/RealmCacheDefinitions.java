@@ -0,0 +1,219 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.extension.elytron;
+
+import static org.wildfly.extension.elytron.Capabilities.SECURITY_REALM_RUNTIME_CAPABILITY;
+import static org.wildfly.extension.elytron.ElytronExtension.getRequiredService;
+
+import java.util.function.UnaryOperator;
+
+import org.jboss.as.controller.AbstractRuntimeOnlyHandler;
+import org.jboss.as.controller.AttributeDefinition;
+import org.jboss.as.controller.ObjectTypeAttributeDefinition;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.SimpleAttributeDefinition;
+import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
+import org.jboss.as.controller.SimpleOperationDefinition;
+import org.jboss.as.controller.SimpleOperationDefinitionBuilder;
+import org.jboss.as.controller.descriptions.ResourceDescriptionResolver;
+import org.jboss.as.controller.operations.validation.IntRangeValidator;
+import org.jboss.as.controller.operations.validation.LongRangeValidator;
+import org.jboss.as.controller.registry.AttributeAccess;
+import org.jboss.as.controller.registry.ManagementResourceRegistration;
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
+import org.jboss.msc.service.ServiceController;
+import org.jboss.msc.service.ServiceController.State;
+import org.jboss.msc.service.ServiceName;
+import org.wildfly.security.auth.server.ModifiableSecurityRealm;
+import org.wildfly.security.auth.server.SecurityRealm;
+
+/**
+ * A holder for the {@link AttributeDefinition} instances and handlers used to configure and manage the identity cache
+ * that can be placed in front of a {@link SecurityRealm}.
+ */
+class RealmCacheDefinitions {
+
+    static final SimpleAttributeDefinition MAX_ENTRIES = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.MAX_ENTRIES, ModelType.INT, true)
+        .setDefaultValue(new ModelNode(16))
+        .setValidator(new IntRangeValidator(1, true, true))
+        .setAllowExpression(true)
+        .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
+        .build();
+
+    /*
+     * Only failed authentications evict an identity, so for a realm that is not modified through the subsystem a change to
+     * the backing store is only seen once the entry expires; the default bounds that window to a minute.
+     */
+    static final SimpleAttributeDefinition MAX_AGE = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.MAX_AGE, ModelType.LONG, true)
+        .setDefaultValue(new ModelNode(60000L))
+        .setValidator(new LongRangeValidator(-1L, true, true))
+        .setAllowExpression(true)
+        .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
+        .build();
+
+    static final SimpleAttributeDefinition NEGATIVE_CACHE_AGE = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.NEGATIVE_CACHE_AGE, ModelType.LONG, true)
+        .setDefaultValue(new ModelNode(0L))
+        .setValidator(new LongRangeValidator(0L, true, true))
+        .setAllowExpression(true)
+        .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
+        .build();
+
+    static final ObjectTypeAttributeDefinition CACHE = new ObjectTypeAttributeDefinition.Builder(ElytronDescriptionConstants.CACHE, MAX_ENTRIES, MAX_AGE, NEGATIVE_CACHE_AGE)
+        .setAllowNull(true)
+        .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
+        .build();
+
+    // Runtime Attributes
+
+    static final SimpleAttributeDefinition CACHE_SIZE = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.CACHE_SIZE, ModelType.INT)
+        .setStorageRuntime()
+        .build();
+
+    static final SimpleAttributeDefinition CACHE_HITS = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.CACHE_HITS, ModelType.LONG)
+        .setStorageRuntime()
+        .build();
+
+    static final SimpleAttributeDefinition CACHE_MISSES = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.CACHE_MISSES, ModelType.LONG)
+        .setStorageRuntime()
+        .build();
+
+    static final SimpleAttributeDefinition CACHE_EVICTIONS = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.CACHE_EVICTIONS, ModelType.LONG)
+        .setStorageRuntime()
+        .build();
+
+    /**
+     * Resolve the cache configuration of a realm resource.
+     *
+     * @param context the {@link OperationContext} used to resolve the attributes.
+     * @param model the model of the realm resource.
+     * @return a function to wrap the {@link SecurityRealm} with the configured cache, or one returning the realm unchanged if
+     *         no cache is configured.
+     * @throws OperationFailedException if the attributes can not be resolved.
+     */
+    static UnaryOperator<SecurityRealm> getCacheWrapper(OperationContext context, ModelNode model) throws OperationFailedException {
+        ModelNode cache = CACHE.resolveModelAttribute(context, model);
+        if (cache.isDefined() == false) {
+            return UnaryOperator.identity();
+        }
+
+        final int maxEntries = MAX_ENTRIES.resolveModelAttribute(context, cache).asInt();
+        final long maxAge = MAX_AGE.resolveModelAttribute(context, cache).asLong();
+        final long negativeCacheAge = NEGATIVE_CACHE_AGE.resolveModelAttribute(context, cache).asLong();
+
+        return r -> r instanceof ModifiableSecurityRealm
+                ? new CachingModifiableSecurityRealm((ModifiableSecurityRealm) r, maxEntries, maxAge, negativeCacheAge)
+                : new CachingSecurityRealm(r, maxEntries, maxAge, negativeCacheAge);
+    }
+
+    static void registerRuntimeAttributes(ManagementResourceRegistration resourceRegistration) {
+        resourceRegistration.registerReadOnlyAttribute(CACHE_SIZE, new CacheRuntimeHandler() {
+
+            @Override
+            void performRuntime(OperationContext context, RealmCache securityRealm) {
+                context.getResult().set(securityRealm.size());
+            }
+        });
+
+        resourceRegistration.registerReadOnlyAttribute(CACHE_HITS, new CacheRuntimeHandler() {
+
+            @Override
+            void performRuntime(OperationContext context, RealmCache securityRealm) {
+                context.getResult().set(securityRealm.getHitCount());
+            }
+        });
+
+        resourceRegistration.registerReadOnlyAttribute(CACHE_MISSES, new CacheRuntimeHandler() {
+
+            @Override
+            void performRuntime(OperationContext context, RealmCache securityRealm) {
+                context.getResult().set(securityRealm.getMissCount());
+            }
+        });
+
+        resourceRegistration.registerReadOnlyAttribute(CACHE_EVICTIONS, new CacheRuntimeHandler() {
+
+            @Override
+            void performRuntime(OperationContext context, RealmCache securityRealm) {
+                context.getResult().set(securityRealm.getEvictionCount());
+            }
+        });
+    }
+
+    static void registerOperations(ManagementResourceRegistration resourceRegistration, ResourceDescriptionResolver resourceDescriptionResolver) {
+        SimpleOperationDefinition clearCache = new SimpleOperationDefinitionBuilder(ElytronDescriptionConstants.CLEAR_CACHE, resourceDescriptionResolver)
+            .setRuntimeOnly()
+            .build();
+
+        resourceRegistration.registerOperationHandler(clearCache, new CacheRuntimeHandler() {
+
+            @Override
+            void performRuntime(OperationContext context, RealmCache securityRealm) {
+                securityRealm.clear();
+            }
+        });
+    }
+
+    /**
+     * A runtime handler for a realm resource which is only called if the realm has a cache configured, if the realm is not
+     * cached or the realm is not currently available the result is left undefined.
+     */
+    abstract static class CacheRuntimeHandler extends AbstractRuntimeOnlyHandler {
+
+        @Override
+        protected void executeRuntimeStep(OperationContext context, ModelNode operation) throws OperationFailedException {
+            ServiceName securityRealmName = SECURITY_REALM_RUNTIME_CAPABILITY.fromBaseCapability(context.getCurrentAddressValue()).getCapabilityServiceName();
+
+            ServiceController<SecurityRealm> serviceContainer = getRequiredService(context.getServiceRegistry(false), securityRealmName, SecurityRealm.class);
+            if (serviceContainer.getState() != State.UP) {
+                return;
+            }
+
+            SecurityRealm securityRealm = serviceContainer.getValue();
+            if (securityRealm instanceof RealmCache) {
+                performRuntime(context, (RealmCache) securityRealm);
+            }
+        }
+
+        abstract void performRuntime(OperationContext context, RealmCache securityRealm) throws OperationFailedException;
+
+    }
+
+    /**
+     * The view of a caching {@link SecurityRealm} used by the runtime attributes and operations.
+     */
+    interface RealmCache {
+
+        /**
+         * Remove all entries from the cache.
+         */
+        void clear();
+
+        int size();
+
+        long getHitCount();
+
+        long getMissCount();
+
+        long getEvictionCount();
+
+    }
+
+}
@@ -61,8 +61,6 @@ import org.jboss.msc.service.ServiceTarget;
 import org.jboss.msc.value.InjectedValue;
 import org.wildfly.extension.elytron.TrivialService.ValueSupplier;
 import org.wildfly.security.auth.server.RealmMapper;
-import org.wildfly.security.auth.util.MappedRegexRealmMapper;
-import org.wildfly.security.auth.util.SimpleRegexRealmMapper;
 
 
 /**
@@ -176,12 +174,7 @@ class RealmMapperDefinitions {
 
             TrivialService<RealmMapper> realmMapperService = new TrivialService<RealmMapper>(() -> {
                 RealmMapper delegate = delegateRealmMapperInjector.getOptionalValue();
-                Pattern compiledPattern = Pattern.compile(pattern);
-                if (delegate == null) {
-                    return new SimpleRegexRealmMapper(compiledPattern);
-                } else {
-                    return new SimpleRegexRealmMapper(compiledPattern, delegate);
-                }
+                return OptimizedRegex.realmMapper(Pattern.compile(pattern), delegate, null);
             });
 
             ServiceBuilder<RealmMapper> realmMapperBuilder = serviceTarget.addService(realmMapperName, realmMapperService);
@@ -252,12 +245,7 @@ class RealmMapperDefinitions {
 
             TrivialService<RealmMapper> realmMapperService = new TrivialService<RealmMapper>(() -> {
                 RealmMapper delegate = delegateRealmMapperInjector.getOptionalValue();
-                Pattern compiledPattern = Pattern.compile(pattern);
-                if (delegate == null) {
-                    return new MappedRegexRealmMapper(compiledPattern, realmRealmMap);
-                } else {
-                    return new MappedRegexRealmMapper(compiledPattern, delegate, realmRealmMap);
-                }
+                return OptimizedRegex.realmMapper(Pattern.compile(pattern), delegate, realmRealmMap);
             });
 
             ServiceBuilder<RealmMapper> realmMapperBuilder = serviceTarget.addService(realmMapperName, realmMapperService);
@@ -23,8 +23,10 @@ import static org.jboss.as.controller.PersistentResourceXMLDescription.builder;
 import static org.jboss.as.controller.parsing.ParseUtils.requireNoAttributes;
 import static org.jboss.as.controller.parsing.ParseUtils.unexpectedElement;
 import static org.wildfly.extension.elytron.ElytronDescriptionConstants.AGGREGATE_REALM;
+import static org.wildfly.extension.elytron.ElytronDescriptionConstants.ASYNC_REALM;
 import static org.wildfly.extension.elytron.ElytronDescriptionConstants.CUSTOM_MODIFIABLE_REALM;
 import static org.wildfly.extension.elytron.ElytronDescriptionConstants.CUSTOM_REALM;
+import static org.wildfly.extension.elytron.ElytronDescriptionConstants.FAILOVER_REALM;
 import static org.wildfly.extension.elytron.ElytronDescriptionConstants.FILESYSTEM_REALM;
 import static org.wildfly.extension.elytron.ElytronDescriptionConstants.JDBC_REALM;
 import static org.wildfly.extension.elytron.ElytronDescriptionConstants.IDENTITY_REALM;
@@ -58,6 +60,9 @@ class RealmParser {
     private final PersistentResourceXMLDescription aggregateRealmParser = builder(PathElement.pathElement(ElytronDescriptionConstants.AGGREGATE_REALM), null)
             .addAttributes(AggregateRealmDefinition.ATTRIBUTES)
             .build();
+    private final PersistentResourceXMLDescription asyncRealmParser = builder(PathElement.pathElement(ElytronDescriptionConstants.ASYNC_REALM), null)
+            .addAttributes(AsyncRealmDefinition.ATTRIBUTES)
+            .build();
     private final PersistentResourceXMLDescription customRealmParser = builder(PathElement.pathElement(ElytronDescriptionConstants.CUSTOM_REALM), null)
             .addAttributes(CustomComponentDefinition.ATTRIBUTES)
             .setUseElementsForGroups(false)
@@ -66,18 +71,23 @@ class RealmParser {
             .addAttributes(CustomComponentDefinition.ATTRIBUTES)
             .setUseElementsForGroups(false)
             .build();
+    private final PersistentResourceXMLDescription failoverRealmParser = builder(PathElement.pathElement(ElytronDescriptionConstants.FAILOVER_REALM), null)
+            .addAttributes(FailoverRealmDefinition.ATTRIBUTES)
+            .build();
     private final PersistentResourceXMLDescription identityRealmParser = builder(PathElement.pathElement(ElytronDescriptionConstants.IDENTITY_REALM), null)
             .addAttributes(RealmDefinitions.IDENTITY_REALM_ATTRIBUTES)
             .setUseElementsForGroups(false)
             .build();
     private final PersistentResourceXMLDescription jdbcRealmParser = builder(PathElement.pathElement(ElytronDescriptionConstants.JDBC_REALM), null)
             .addAttribute(PrincipalQueryAttributes.PRINCIPAL_QUERIES, AttributeParser.UNWRAPPED_OBJECT_LIST_PARSER, AttributeMarshaller.UNWRAPPED_OBJECT_LIST_MARSHALLER)
+            .addAttribute(RealmCacheDefinitions.CACHE, AttributeParser.OBJECT_PARSER, AttributeMarshaller.ATTRIBUTE_OBJECT)
+            .addAttributes(JdbcRealmDefinition.BATCH_QUERIES, JdbcRealmDefinition.PARALLEL_QUERIES, JdbcRealmDefinition.FETCH_SIZE, JdbcRealmDefinition.QUERY_TIMEOUT, JdbcRealmDefinition.QUERY_THREADS)
             .build();
     private final PersistentResourceXMLDescription keyStoreRealmParser = builder(PathElement.pathElement(ElytronDescriptionConstants.KEY_STORE_REALM), null)
             .addAttributes(KeyStoreRealmDefinition.KEYSTORE)
             .build();
     private final PersistentResourceXMLDescription propertiesRealmParser = builder(PathElement.pathElement(ElytronDescriptionConstants.PROPERTIES_REALM), null)
-            .addAttributes(PropertiesRealmDefinition.PLAIN_TEXT, PropertiesRealmDefinition.GROUPS_ATTRIBUTE)
+            .addAttributes(PropertiesRealmDefinition.PLAIN_TEXT, PropertiesRealmDefinition.GROUPS_ATTRIBUTE, PropertiesRealmDefinition.WATCH)
             .addAttribute(PropertiesRealmDefinition.USERS_PROPERTIES, AttributeParser.OBJECT_PARSER, AttributeMarshaller.ATTRIBUTE_OBJECT)
             .addAttribute(PropertiesRealmDefinition.GROUPS_PROPERTIES, AttributeParser.OBJECT_PARSER, AttributeMarshaller.ATTRIBUTE_OBJECT)
             .build();
@@ -127,12 +137,18 @@ class RealmParser {
                 case AGGREGATE_REALM:
                     aggregateRealmParser.parse(reader, parentAddress, operations);
                     break;
+                case ASYNC_REALM:
+                    asyncRealmParser.parse(reader, parentAddress, operations);
+                    break;
                 case CUSTOM_REALM:
                     customRealmParser.parse(reader, parentAddress, operations);
                     break;
                 case CUSTOM_MODIFIABLE_REALM:
                     customModifiableRealmParser.parse(reader, parentAddress, operations);
                     break;
+                case FAILOVER_REALM:
+                    failoverRealmParser.parse(reader, parentAddress, operations);
+                    break;
                 case JDBC_REALM:
                     jdbcRealmParser.parse(reader, parentAddress, operations);
                     break;
@@ -165,8 +181,10 @@ class RealmParser {
         writer.writeStartElement(SECURITY_REALMS);
 
         aggregateRealmParser.persist(writer, subsystem);
+        asyncRealmParser.persist(writer, subsystem);
         customRealmParser.persist(writer, subsystem);
         customModifiableRealmParser.persist(writer, subsystem);
+        failoverRealmParser.persist(writer, subsystem);
         identityRealmParser.persist(writer, subsystem);
         jdbcRealmParser.persist(writer, subsystem);
         keyStoreRealmParser.persist(writer, subsystem);
@@ -53,7 +53,6 @@ import org.jboss.msc.service.ServiceTarget;
 import org.jboss.msc.value.InjectedValue;
 import org.wildfly.extension.elytron.TrivialService.ValueSupplier;
 import org.wildfly.security.authz.RoleMapper;
-import org.wildfly.security.authz.Roles;
 
 /**
  * Container class for the RoleMapping definitions.
@@ -115,7 +114,7 @@ class RoleMapperDefinitions {
             protected ValueSupplier<RoleMapper> getValueSupplier(OperationContext context, ModelNode model) throws OperationFailedException {
                 final String suffix = SUFFIX.resolveModelAttribute(context, model).asString();
 
-                return () -> (Roles r) -> r.addSuffix(suffix);
+                return () -> OptimizedRoleMapper.addSuffix(suffix);
             }
 
         };
@@ -130,7 +129,7 @@ class RoleMapperDefinitions {
             protected ValueSupplier<RoleMapper> getValueSupplier(OperationContext context, ModelNode model) throws OperationFailedException {
                 final String prefix = PREFIX.resolveModelAttribute(context, model).asString();
 
-                return () -> (Roles r) -> r.addPrefix(prefix);
+                return () -> OptimizedRoleMapper.addPrefix(prefix);
             }
 
         };
@@ -191,9 +190,9 @@ class RoleMapperDefinitions {
             @Override
             protected ValueSupplier<RoleMapper> getValueSupplier(OperationContext context, ModelNode model) throws OperationFailedException {
                 List<String> rolesList = ROLES.unwrap(context, model);
-                final Roles roles = Roles.fromSet(new HashSet<>(rolesList));
+                final RoleMapper roleMapper = OptimizedRoleMapper.constant(new HashSet<>(rolesList));
 
-                return () -> (Roles r) -> roles;
+                return () -> roleMapper;
             }
         };
 
@@ -274,13 +273,13 @@ class RoleMapperDefinitions {
 
     private enum LogicalOperation {
 
-        AND((RoleMapper left, RoleMapper right) -> left.and(right)),
+        AND(OptimizedRoleMapper::and),
 
-        MINUS((RoleMapper left, RoleMapper right) -> left.minus(right)),
+        MINUS(OptimizedRoleMapper::minus),
 
-        OR((RoleMapper left, RoleMapper right) -> left.or(right)),
+        OR(OptimizedRoleMapper::or),
 
-        XOR((RoleMapper left, RoleMapper right) -> left.xor(right));
+        XOR(OptimizedRoleMapper::xor);
 
         private final BinaryOperator<RoleMapper> operation;
 
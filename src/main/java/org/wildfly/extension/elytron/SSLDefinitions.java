@@ -36,22 +36,29 @@ import static org.wildfly.extension.elytron.KeyStoreDefinition.CREDENTIAL_REFERE
 import static org.wildfly.extension.elytron.CredentialStoreResourceDefinition.CREDENTIAL_STORE_CLIENT_UTIL;
 import static org.wildfly.extension.elytron._private.ElytronSubsystemMessages.ROOT_LOGGER;
 
+import java.net.Socket;
 import java.security.GeneralSecurityException;
 import java.security.KeyStore;
 import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
+import java.security.Principal;
+import java.security.PrivateKey;
 import java.security.Provider;
 import java.security.UnrecoverableKeyException;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import javax.net.ssl.KeyManager;
 import javax.net.ssl.KeyManagerFactory;
 import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
 import javax.net.ssl.SSLSessionContext;
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.TrustManagerFactory;
@@ -60,6 +67,7 @@ import javax.net.ssl.X509ExtendedTrustManager;
 
 import org.jboss.as.controller.AbstractAddStepHandler;
 import org.jboss.as.controller.AbstractRuntimeOnlyHandler;
+import org.jboss.as.controller.AbstractWriteAttributeHandler;
 import org.jboss.as.controller.AttributeDefinition;
 import org.jboss.as.controller.ObjectTypeAttributeDefinition;
 import org.jboss.as.controller.OperationContext;
@@ -68,6 +76,7 @@ import org.jboss.as.controller.PathAddress;
 import org.jboss.as.controller.ResourceDefinition;
 import org.jboss.as.controller.SimpleAttributeDefinition;
 import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
+import org.jboss.as.controller.SimpleMapAttributeDefinition;
 import org.jboss.as.controller.StringListAttributeDefinition;
 import org.jboss.as.controller.capability.RuntimeCapability;
 import org.jboss.as.controller.logging.ControllerLogger;
@@ -80,12 +89,16 @@ import org.jboss.as.controller.security.CredentialReference;
 import org.jboss.as.controller.security.CredentialStoreClient;
 import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
+import org.jboss.msc.service.AbstractServiceListener;
 import org.jboss.msc.service.ServiceBuilder;
 import org.jboss.msc.service.ServiceController;
 import org.jboss.msc.service.ServiceController.State;
+import org.jboss.msc.service.ServiceController.Substate;
+import org.jboss.msc.service.ServiceListener;
 import org.jboss.msc.service.ServiceName;
 import org.jboss.msc.service.StartException;
 import org.jboss.msc.value.InjectedValue;
+import org.wildfly.common.function.ExceptionSupplier;
 import org.wildfly.extension.elytron.TrivialService.ValueSupplier;
 import org.wildfly.security.auth.server.SecurityDomain;
 import org.wildfly.security.ssl.CipherSuiteSelector;
@@ -178,16 +191,20 @@ class SSLDefinitions {
             .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
             .build();
 
+    static final SimpleAttributeDefinition STATISTICS_ENABLED = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.STATISTICS_ENABLED, ModelType.BOOLEAN, true)
+            .setAllowExpression(true)
+            .setDefaultValue(new ModelNode(false))
+            .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
+            .build();
+
     static final SimpleAttributeDefinition MAXIMUM_SESSION_CACHE_SIZE = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.MAXIMUM_SESSION_CACHE_SIZE, ModelType.INT, true)
             .setAllowExpression(true)
             .setDefaultValue(new ModelNode(0))
-            .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
             .build();
 
     static final SimpleAttributeDefinition SESSION_TIMEOUT = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.SESSION_TIMEOUT, ModelType.INT, true)
             .setAllowExpression(true)
             .setDefaultValue(new ModelNode(0))
-            .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
             .build();
 
     static final SimpleAttributeDefinition KEY_MANAGERS = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.KEY_MANAGERS, ModelType.STRING, true)
@@ -210,6 +227,30 @@ class SSLDefinitions {
             .setStorageRuntime()
             .build();
 
+    private static SimpleAttributeDefinition FULL_HANDSHAKES = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.FULL_HANDSHAKES, ModelType.LONG)
+            .setStorageRuntime()
+            .build();
+
+    private static SimpleAttributeDefinition RESUMED_HANDSHAKES = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.RESUMED_HANDSHAKES, ModelType.LONG)
+            .setStorageRuntime()
+            .build();
+
+    private static SimpleMapAttributeDefinition HANDSHAKE_LATENCY = new SimpleMapAttributeDefinition.Builder(ElytronDescriptionConstants.HANDSHAKE_LATENCY, ModelType.LONG, false)
+            .setStorageRuntime()
+            .build();
+
+    private static SimpleMapAttributeDefinition FAILED_HANDSHAKES = new SimpleMapAttributeDefinition.Builder(ElytronDescriptionConstants.FAILED_HANDSHAKES, ModelType.LONG, false)
+            .setStorageRuntime()
+            .build();
+
+    private static SimpleMapAttributeDefinition NEGOTIATED_PROTOCOLS = new SimpleMapAttributeDefinition.Builder(ElytronDescriptionConstants.NEGOTIATED_PROTOCOLS, ModelType.LONG, false)
+            .setStorageRuntime()
+            .build();
+
+    private static SimpleMapAttributeDefinition NEGOTIATED_CIPHER_SUITES = new SimpleMapAttributeDefinition.Builder(ElytronDescriptionConstants.NEGOTIATED_CIPHER_SUITES, ModelType.LONG, false)
+            .setStorageRuntime()
+            .build();
+
     /**
      * A simple {@link ModelTypeValidator} that requires that values are contained on a pre-defined list of string.
      *
@@ -275,11 +316,13 @@ class SSLDefinitions {
                 final String keyStoreName = asStringIfDefined(context, keystoreDefinition, model);
                 final InjectedValue<KeyStore> keyStoreInjector = new InjectedValue<>();
                 if (keyStoreName != null) {
-                    serviceBuilder.addDependency(context.getCapabilityServiceName(
-                            buildDynamicCapabilityName(KEY_STORE_CAPABILITY, keyStoreName), KeyStore.class),
-                            KeyStore.class, keyStoreInjector);
+                    ServiceName keyStoreServiceName = context.getCapabilityServiceName(
+                            buildDynamicCapabilityName(KEY_STORE_CAPABILITY, keyStoreName), KeyStore.class);
+                    serviceBuilder.addDependency(keyStoreServiceName, KeyStore.class, keyStoreInjector);
+                    serviceBuilder.addListener(new KeyStoreChangeRegistration<>(keyStoreServiceName));
                 }
 
+                final String name = context.getCurrentAddressValue();
                 String credentialStoreName = credentialReferencePartAsStringIfDefined(context, CREDENTIAL_REFERENCE, model, CredentialReference.STORE);
                 String credentialAlias = credentialReferencePartAsStringIfDefined(context, CREDENTIAL_REFERENCE, model, CredentialReference.ALIAS);
                 String credentialType = credentialReferencePartAsStringIfDefined(context, CREDENTIAL_REFERENCE, model, CredentialReference.TYPE);
@@ -323,26 +366,31 @@ class SSLDefinitions {
                         }
                     }
 
-                    try {
-                        CredentialReference.reinjectCredentialStoreClient(credentialStoreClientInjector, credentialReference);
-                        CredentialStoreClient credentialStoreClient = credentialStoreClientInjector.getOptionalValue();
-                        KeyStore keyStore = keyStoreInjector.getOptionalValue();
-                        char[] password = credentialStoreClient != null ? credentialStoreClient.getSecret() : credentialReference.getSecret();
+                    final KeyManagerFactory initialisedFactory = keyManagerFactory;
+                    ExceptionSupplier<X509ExtendedKeyManager, StartException> initialiser = () -> {
+                        try {
+                            CredentialReference.reinjectCredentialStoreClient(credentialStoreClientInjector, credentialReference);
+                            CredentialStoreClient credentialStoreClient = credentialStoreClientInjector.getOptionalValue();
+                            KeyStore keyStore = keyStoreInjector.getOptionalValue();
+                            char[] password = credentialStoreClient != null ? credentialStoreClient.getSecret() : credentialReference.getSecret();
+
+                            if (ROOT_LOGGER.isTraceEnabled()) {
+                                ROOT_LOGGER.tracef(
+                                        "KeyManager supplying:  providers = %s  provider = %s  algorithm = %s  keyManagerFactory = %s  " +
+                                                "keyStoreName = %s  keyStore = %s  password (of item) = %b",
+                                        Arrays.toString(providers), provider, algorithm, initialisedFactory, keyStoreName, keyStore, password != null
+                                );
+                            }
 
-                        if (ROOT_LOGGER.isTraceEnabled()) {
-                            ROOT_LOGGER.tracef(
-                                    "KeyManager supplying:  providers = %s  provider = %s  algorithm = %s  keyManagerFactory = %s  " +
-                                            "keyStoreName = %s  keyStore = %s  password (of item) = %b",
-                                    Arrays.toString(providers), provider, algorithm, keyManagerFactory, keyStoreName, keyStore, password != null
-                            );
+                            initialisedFactory.init(keyStore, password);
+                        } catch (UnrecoverableKeyException | KeyStoreException | NoSuchAlgorithmException | ClassNotFoundException e) {
+                            throw new StartException(e);
                         }
 
-                        keyManagerFactory.init(keyStore, password);
-                    } catch (UnrecoverableKeyException | KeyStoreException | NoSuchAlgorithmException | ClassNotFoundException e) {
-                        throw new StartException(e);
-                    }
+                        return getX509KeyManager(initialisedFactory.getKeyManagers());
+                    };
 
-                    return keyManagerFactory.getKeyManagers();
+                    return new KeyManager[] { new DelegatingKeyManager(ElytronDescriptionConstants.KEY_MANAGERS, name, initialiser) };
                 };
             }
         };
@@ -381,11 +429,13 @@ class SSLDefinitions {
                 final String keyStoreName = asStringIfDefined(context, keystoreDefinition, model);
                 final InjectedValue<KeyStore> keyStoreInjector = new InjectedValue<>();
                 if (keyStoreName != null) {
-                    serviceBuilder.addDependency(context.getCapabilityServiceName(
-                            buildDynamicCapabilityName(KEY_STORE_CAPABILITY, keyStoreName), KeyStore.class),
-                            KeyStore.class, keyStoreInjector);
+                    ServiceName keyStoreServiceName = context.getCapabilityServiceName(
+                            buildDynamicCapabilityName(KEY_STORE_CAPABILITY, keyStoreName), KeyStore.class);
+                    serviceBuilder.addDependency(keyStoreServiceName, KeyStore.class, keyStoreInjector);
+                    serviceBuilder.addListener(new KeyStoreChangeRegistration<>(keyStoreServiceName));
                 }
 
+                final String name = context.getCurrentAddressValue();
                 return () -> {
                     Provider[] providers = providersInjector.getOptionalValue();
                     TrustManagerFactory trustManagerFactory = null;
@@ -410,22 +460,27 @@ class SSLDefinitions {
                             throw new StartException(e);
                         }
                     }
-                    KeyStore keyStore = keyStoreInjector.getOptionalValue();
+                    final TrustManagerFactory initialisedFactory = trustManagerFactory;
+                    ExceptionSupplier<X509ExtendedTrustManager, StartException> initialiser = () -> {
+                        KeyStore keyStore = keyStoreInjector.getOptionalValue();
 
-                    if (ROOT_LOGGER.isTraceEnabled()) {
-                        ROOT_LOGGER.tracef(
-                                "KeyManager supplying:  providers = %s  provider = %s  algorithm = %s  trustManagerFactory = %s  keyStoreName = %s  keyStore = %s",
-                                Arrays.toString(providers), provider, algorithm, trustManagerFactory, keyStoreName, keyStore
-                        );
-                    }
+                        if (ROOT_LOGGER.isTraceEnabled()) {
+                            ROOT_LOGGER.tracef(
+                                    "KeyManager supplying:  providers = %s  provider = %s  algorithm = %s  trustManagerFactory = %s  keyStoreName = %s  keyStore = %s",
+                                    Arrays.toString(providers), provider, algorithm, initialisedFactory, keyStoreName, keyStore
+                            );
+                        }
 
-                    try {
-                        trustManagerFactory.init(keyStoreInjector.getOptionalValue());
-                    } catch (KeyStoreException e) {
-                        throw new StartException(e);
-                    }
+                        try {
+                            initialisedFactory.init(keyStore);
+                        } catch (KeyStoreException e) {
+                            throw new StartException(e);
+                        }
 
-                    return trustManagerFactory.getTrustManagers();
+                        return getX509TrustManager(initialisedFactory.getTrustManagers());
+                    };
+
+                    return new TrustManager[] { new DelegatingTrustManager(ElytronDescriptionConstants.TRUST_MANAGERS, name, initialiser) };
                 };
             }
         };
@@ -437,7 +492,9 @@ class SSLDefinitions {
         final boolean server;
 
         private SSLContextDefinition(String pathKey, boolean server, AbstractAddStepHandler addHandler, AttributeDefinition[] attributes) {
-            super(pathKey, addHandler, attributes, SSL_CONTEXT_RUNTIME_CAPABILITY);
+            super(pathKey, addHandler, Arrays.stream(attributes)
+                    .filter(a -> a != MAXIMUM_SESSION_CACHE_SIZE && a != SESSION_TIMEOUT)
+                    .toArray(AttributeDefinition[]::new), SSL_CONTEXT_RUNTIME_CAPABILITY);
             this.server = server;
         }
 
@@ -445,7 +502,11 @@ class SSLDefinitions {
         public void registerAttributes(ManagementResourceRegistration resourceRegistration) {
             super.registerAttributes(resourceRegistration);
 
-            resourceRegistration.registerReadOnlyAttribute(ACTIVE_SESSION_COUNT, new SSLContextRuntimeHandler() {
+            SessionCacheWriteHandler sessionCacheWriteHandler = new SessionCacheWriteHandler(server);
+            resourceRegistration.registerReadWriteAttribute(MAXIMUM_SESSION_CACHE_SIZE, null, sessionCacheWriteHandler);
+            resourceRegistration.registerReadWriteAttribute(SESSION_TIMEOUT, null, sessionCacheWriteHandler);
+
+            resourceRegistration.registerReadOnlyAttribute(ACTIVE_SESSION_COUNT, new SSLContextRuntimeHandler(false) {
                 @Override
                 protected void performRuntime(ModelNode result, ModelNode operation, SSLContext sslContext) throws OperationFailedException {
                     SSLSessionContext sessionContext = server ? sslContext.getServerSessionContext() : sslContext.getClientSessionContext();
@@ -457,6 +518,33 @@ class SSLDefinitions {
                     return server ? SERVER_SERVICE_UTIL : CLIENT_SERVICE_UTIL;
                 }
             });
+
+            registerStatistic(resourceRegistration, FULL_HANDSHAKES, s -> new ModelNode(s.getFullHandshakes()));
+            registerStatistic(resourceRegistration, RESUMED_HANDSHAKES, s -> new ModelNode(s.getResumedHandshakes()));
+            registerStatistic(resourceRegistration, HANDSHAKE_LATENCY, HandshakeStatistics::getLatency);
+            registerStatistic(resourceRegistration, FAILED_HANDSHAKES, HandshakeStatistics::getFailures);
+            registerStatistic(resourceRegistration, NEGOTIATED_PROTOCOLS, HandshakeStatistics::getProtocols);
+            registerStatistic(resourceRegistration, NEGOTIATED_CIPHER_SUITES, HandshakeStatistics::getCipherSuites);
+        }
+
+        /*
+         * The handshake statistics are maintained as connections are established so unlike ACTIVE_SESSION_COUNT reading them
+         * does not need to enumerate the session cache.
+         */
+        private void registerStatistic(ManagementResourceRegistration resourceRegistration, AttributeDefinition attribute, Function<HandshakeStatistics, ModelNode> reader) {
+            resourceRegistration.registerReadOnlyAttribute(attribute, new SSLContextRuntimeHandler(false) {
+                @Override
+                protected void performRuntime(ModelNode result, ModelNode operation, SSLContext sslContext) throws OperationFailedException {
+                    if (sslContext instanceof InstrumentedSSLContext) {
+                        result.set(reader.apply(((InstrumentedSSLContext) sslContext).getStatistics()));
+                    }
+                }
+
+                @Override
+                protected ServiceUtil<SSLContext> getSSLContextServiceUtil() {
+                    return server ? SERVER_SERVICE_UTIL : CLIENT_SERVICE_UTIL;
+                }
+            });
         }
 
         @Override
@@ -467,6 +555,51 @@ class SSLDefinitions {
         }
     }
 
+    /**
+     * A write attribute handler applying changes to the session cache configuration directly to the {@link SSLSessionContext}
+     * of a running {@link SSLContext}, avoiding a restart which would discard the sessions already cached.
+     */
+    private static class SessionCacheWriteHandler extends AbstractWriteAttributeHandler<Void> {
+
+        private final boolean server;
+
+        SessionCacheWriteHandler(boolean server) {
+            super(MAXIMUM_SESSION_CACHE_SIZE, SESSION_TIMEOUT);
+            this.server = server;
+        }
+
+        @Override
+        protected boolean applyUpdateToRuntime(OperationContext context, ModelNode operation, String attributeName,
+                ModelNode resolvedValue, ModelNode currentValue, HandbackHolder<Void> handbackHolder) throws OperationFailedException {
+            apply(context, operation, attributeName, resolvedValue);
+            return false;
+        }
+
+        @Override
+        protected void revertUpdateToRuntime(OperationContext context, ModelNode operation, String attributeName,
+                ModelNode valueToRestore, ModelNode valueToRevert, Void handback) throws OperationFailedException {
+            apply(context, operation, attributeName, valueToRestore);
+        }
+
+        private void apply(OperationContext context, ModelNode operation, String attributeName, ModelNode value) {
+            ServiceName serviceName = (server ? SERVER_SERVICE_UTIL : CLIENT_SERVICE_UTIL).serviceName(operation);
+            ServiceController<?> serviceController = context.getServiceRegistry(false).getService(serviceName);
+            if (serviceController == null || serviceController.getState() != State.UP) {
+                // The new value is used once the service is started.
+                return;
+            }
+
+            SSLContext sslContext = (SSLContext) serviceController.getValue();
+            SSLSessionContext sessionContext = server ? sslContext.getServerSessionContext() : sslContext.getClientSessionContext();
+            if (ElytronDescriptionConstants.MAXIMUM_SESSION_CACHE_SIZE.equals(attributeName)) {
+                sessionContext.setSessionCacheSize(value.asInt());
+            } else {
+                sessionContext.setSessionTimeout(value.asInt());
+            }
+        }
+
+    }
+
     private static <T> InjectedValue<T> addDependency(String baseName, SimpleAttributeDefinition attribute,
             Class<T> type, ServiceBuilder<SSLContext> serviceBuilder, OperationContext context, ModelNode model) throws OperationFailedException {
 
@@ -488,7 +621,7 @@ class SSLDefinitions {
                 .build();
 
         AttributeDefinition[] attributes = new AttributeDefinition[] { SECURITY_DOMAIN, CIPHER_SUITE_FILTER, PROTOCOLS, WANT_CLIENT_AUTH, NEED_CLIENT_AUTH, AUTHENTICATION_OPTIONAL,
-                USE_CIPHER_SUITES_ORDER, MAXIMUM_SESSION_CACHE_SIZE, SESSION_TIMEOUT, KEY_MANAGERS, TRUST_MANAGERS, providerLoaderDefinition };
+                USE_CIPHER_SUITES_ORDER, MAXIMUM_SESSION_CACHE_SIZE, SESSION_TIMEOUT, KEY_MANAGERS, TRUST_MANAGERS, providerLoaderDefinition, STATISTICS_ENABLED };
 
         return new SSLContextDefinition(ElytronDescriptionConstants.SERVER_SSL_CONTEXT, true, new TrivialAddHandler<SSLContext>(SSLContext.class, attributes, SSL_CONTEXT_RUNTIME_CAPABILITY) {
             @Override
@@ -507,6 +640,7 @@ class SSLDefinitions {
                 final boolean useCipherSuitesOrder = USE_CIPHER_SUITES_ORDER.resolveModelAttribute(context, model).asBoolean();
                 final int maximumSessionCacheSize = MAXIMUM_SESSION_CACHE_SIZE.resolveModelAttribute(context, model).asInt();
                 final int sessionTimeout = SESSION_TIMEOUT.resolveModelAttribute(context, model).asInt();
+                final boolean statisticsEnabled = STATISTICS_ENABLED.resolveModelAttribute(context, model).asBoolean();
 
                 return () -> {
                     SecurityDomain securityDomain = securityDomainInjector.getOptionalValue();
@@ -541,7 +675,8 @@ class SSLDefinitions {
                     }
 
                     try {
-                        return builder.build().create();
+                        SSLContext sslContext = builder.build().create();
+                        return statisticsEnabled ? InstrumentedSSLContext.instrument(sslContext) : sslContext;
                     } catch (GeneralSecurityException e) {
                         throw new StartException(e);
                     }
@@ -569,7 +704,7 @@ class SSLDefinitions {
                 .build();
 
         AttributeDefinition[] attributes = new AttributeDefinition[] { CIPHER_SUITE_FILTER, PROTOCOLS,
-                USE_CIPHER_SUITES_ORDER, MAXIMUM_SESSION_CACHE_SIZE, SESSION_TIMEOUT, KEY_MANAGERS, TRUST_MANAGERS, providerLoaderDefinition };
+                USE_CIPHER_SUITES_ORDER, MAXIMUM_SESSION_CACHE_SIZE, SESSION_TIMEOUT, KEY_MANAGERS, TRUST_MANAGERS, providerLoaderDefinition, STATISTICS_ENABLED };
 
         return new SSLContextDefinition(ElytronDescriptionConstants.CLIENT_SSL_CONTEXT, false, new TrivialAddHandler<SSLContext>(SSLContext.class, attributes, SSL_CONTEXT_RUNTIME_CAPABILITY) {
             @Override
@@ -584,6 +719,7 @@ class SSLDefinitions {
                 final boolean useCipherSuitesOrder = USE_CIPHER_SUITES_ORDER.resolveModelAttribute(context, model).asBoolean();
                 final int maximumSessionCacheSize = MAXIMUM_SESSION_CACHE_SIZE.resolveModelAttribute(context, model).asInt();
                 final int sessionTimeout = SESSION_TIMEOUT.resolveModelAttribute(context, model).asInt();
+                final boolean statisticsEnabled = STATISTICS_ENABLED.resolveModelAttribute(context, model).asBoolean();
 
                 return () -> {
                     X509ExtendedKeyManager keyManager = getX509KeyManager(keyManagersInjector.getOptionalValue());
@@ -613,7 +749,8 @@ class SSLDefinitions {
                     }
 
                     try {
-                        return builder.build().create();
+                        SSLContext sslContext = builder.build().create();
+                        return statisticsEnabled ? InstrumentedSSLContext.instrument(sslContext) : sslContext;
                     } catch (GeneralSecurityException e) {
                         throw new StartException(e);
                     }
@@ -662,15 +799,223 @@ class SSLDefinitions {
         throw ROOT_LOGGER.noTypeFound(X509ExtendedTrustManager.class.getSimpleName());
     }
 
+    /**
+     * A manager which can replace the manager it delegates to with one initialised from the current content of its
+     * {@link KeyStore}.
+     */
+    private interface Reinitialisable {
+
+        void reinitialise();
+
+    }
+
+    /**
+     * A {@link ServiceListener} registering the managers supplied by a service for notification of changes to the content
+     * of the {@link KeyStore} they were initialised from whilst the service is up.
+     * <p>
+     * Only a key-store backed by a {@link KeyStoreService} notifies of changes to its content.
+     */
+    private static final class KeyStoreChangeRegistration<T> extends AbstractServiceListener<T> {
+
+        private final ServiceName keyStoreServiceName;
+        private final List<Runnable> registered = new ArrayList<>();
+        private KeyStoreService keyStoreService;
+
+        KeyStoreChangeRegistration(ServiceName keyStoreServiceName) {
+            this.keyStoreServiceName = keyStoreServiceName;
+        }
+
+        @Override
+        public synchronized void transition(ServiceController<? extends T> controller, ServiceController.Transition transition) {
+            if (transition.getAfter() == Substate.UP && keyStoreService == null) {
+                ServiceController<?> keyStoreController = controller.getServiceContainer().getService(keyStoreServiceName);
+                Object value = controller.getValue();
+                if (keyStoreController != null && keyStoreController.getService() instanceof KeyStoreService && value instanceof Object[]) {
+                    keyStoreService = (KeyStoreService) keyStoreController.getService();
+                    for (Object current : (Object[]) value) {
+                        if (current instanceof Reinitialisable) {
+                            Runnable listener = ((Reinitialisable) current)::reinitialise;
+                            keyStoreService.addChangeListener(listener);
+                            registered.add(listener);
+                        }
+                    }
+                }
+            } else if (transition.getBefore() == Substate.UP && keyStoreService != null) {
+                registered.forEach(keyStoreService::removeChangeListener);
+                registered.clear();
+                keyStoreService = null;
+            }
+        }
+
+    }
+
+    /**
+     * An {@link X509ExtendedKeyManager} delegating to a manager which is replaced as a whole each time it is re-initialised,
+     * as the {@link SSLContext} retains this instance any existing {@link SSLContext} and its session cache remain
+     * valid.
+     */
+    private static final class DelegatingKeyManager extends X509ExtendedKeyManager implements Reinitialisable {
+
+        private final String resourceType;
+        private final String name;
+        private final ExceptionSupplier<X509ExtendedKeyManager, StartException> initialiser;
+        private volatile X509ExtendedKeyManager delegate;
+
+        DelegatingKeyManager(String resourceType, String name, ExceptionSupplier<X509ExtendedKeyManager, StartException> initialiser) throws StartException {
+            this.resourceType = resourceType;
+            this.name = name;
+            this.initialiser = initialiser;
+            this.delegate = initialiser.get();
+        }
+
+        @Override
+        public synchronized void reinitialise() {
+            try {
+                delegate = initialiser.get();
+                ROOT_LOGGER.tracef("Re-initialised %s '%s'", resourceType, name);
+            } catch (StartException | RuntimeException e) {
+                ROOT_LOGGER.unableToReinitialiseManagers(resourceType, name, e);
+            }
+        }
+
+        @Override
+        public String[] getClientAliases(String keyType, Principal[] issuers) {
+            return delegate.getClientAliases(keyType, issuers);
+        }
+
+        @Override
+        public String chooseClientAlias(String[] keyType, Principal[] issuers, Socket socket) {
+            return delegate.chooseClientAlias(keyType, issuers, socket);
+        }
+
+        @Override
+        public String chooseEngineClientAlias(String[] keyType, Principal[] issuers, SSLEngine engine) {
+            return delegate.chooseEngineClientAlias(keyType, issuers, engine);
+        }
+
+        @Override
+        public String[] getServerAliases(String keyType, Principal[] issuers) {
+            return delegate.getServerAliases(keyType, issuers);
+        }
+
+        @Override
+        public String chooseServerAlias(String keyType, Principal[] issuers, Socket socket) {
+            return delegate.chooseServerAlias(keyType, issuers, socket);
+        }
+
+        @Override
+        public String chooseEngineServerAlias(String keyType, Principal[] issuers, SSLEngine engine) {
+            return delegate.chooseEngineServerAlias(keyType, issuers, engine);
+        }
+
+        @Override
+        public X509Certificate[] getCertificateChain(String alias) {
+            return delegate.getCertificateChain(alias);
+        }
+
+        @Override
+        public PrivateKey getPrivateKey(String alias) {
+            return delegate.getPrivateKey(alias);
+        }
+
+    }
+
+    /**
+     * An {@link X509ExtendedTrustManager} delegating to a manager which is replaced as a whole each time it is
+     * re-initialised, as the {@link SSLContext} retains this instance any existing {@link SSLContext} and its session
+     * cache remain valid.
+     */
+    private static final class DelegatingTrustManager extends X509ExtendedTrustManager implements Reinitialisable {
+
+        private final String resourceType;
+        private final String name;
+        private final ExceptionSupplier<X509ExtendedTrustManager, StartException> initialiser;
+        private volatile X509ExtendedTrustManager delegate;
+
+        DelegatingTrustManager(String resourceType, String name, ExceptionSupplier<X509ExtendedTrustManager, StartException> initialiser) throws StartException {
+            this.resourceType = resourceType;
+            this.name = name;
+            this.initialiser = initialiser;
+            this.delegate = initialiser.get();
+        }
+
+        @Override
+        public synchronized void reinitialise() {
+            try {
+                delegate = initialiser.get();
+                ROOT_LOGGER.tracef("Re-initialised %s '%s'", resourceType, name);
+            } catch (StartException | RuntimeException e) {
+                ROOT_LOGGER.unableToReinitialiseManagers(resourceType, name, e);
+            }
+        }
+
+        @Override
+        public void checkClientTrusted(X509Certificate[] chain, String authType) throws CertificateException {
+            delegate.checkClientTrusted(chain, authType);
+        }
+
+        @Override
+        public void checkClientTrusted(X509Certificate[] chain, String authType, Socket socket) throws CertificateException {
+            delegate.checkClientTrusted(chain, authType, socket);
+        }
+
+        @Override
+        public void checkClientTrusted(X509Certificate[] chain, String authType, SSLEngine engine) throws CertificateException {
+            delegate.checkClientTrusted(chain, authType, engine);
+        }
+
+        @Override
+        public void checkServerTrusted(X509Certificate[] chain, String authType) throws CertificateException {
+            delegate.checkServerTrusted(chain, authType);
+        }
+
+        @Override
+        public void checkServerTrusted(X509Certificate[] chain, String authType, Socket socket) throws CertificateException {
+            delegate.checkServerTrusted(chain, authType, socket);
+        }
+
+        @Override
+        public void checkServerTrusted(X509Certificate[] chain, String authType, SSLEngine engine) throws CertificateException {
+            delegate.checkServerTrusted(chain, authType, engine);
+        }
+
+        @Override
+        public X509Certificate[] getAcceptedIssuers() {
+            return delegate.getAcceptedIssuers();
+        }
+
+    }
+
     abstract static class SSLContextRuntimeHandler extends AbstractRuntimeOnlyHandler {
+
+        private final boolean serviceMustBeUp;
+
+        SSLContextRuntimeHandler() {
+            this(true);
+        }
+
+        /**
+         * @param serviceMustBeUp {@code true} if the operation requires the service, which is then started if it was
+         *        installed on demand, {@code false} for metrics which are left undefined whilst the service is not up.
+         */
+        SSLContextRuntimeHandler(final boolean serviceMustBeUp) {
+            this.serviceMustBeUp = serviceMustBeUp;
+        }
+
         @Override
         protected void executeRuntimeStep(OperationContext context, ModelNode operation) throws OperationFailedException {
             ServiceName serviceName = getSSLContextServiceUtil().serviceName(operation);
 
             ServiceController<SSLContext> serviceController = getRequiredService(context.getServiceRegistry(false), serviceName, SSLContext.class);
+            if (serviceMustBeUp) {
+                serviceController = StartupDefinitions.activate(context, serviceController);
+            }
             State serviceState;
             if ((serviceState = serviceController.getState()) != State.UP) {
+                if (serviceMustBeUp) {
                     throw ROOT_LOGGER.requiredServiceNotUp(serviceName, serviceState);
+                }
+                return;
             }
 
             performRuntime(context.getResult(), operation, serviceController.getService().getValue());
@@ -36,6 +36,12 @@ class SecurityRealmResourceDecorator extends DelegatingResourceDefinition {
         setDelegate(resourceDefinition);
     }
 
+    @Override
+    public void registerOperations(ManagementResourceRegistration resourceRegistration) {
+        super.registerOperations(resourceRegistration);
+        IdentityBulkOperations.register(resourceRegistration);
+    }
+
     public void registerChildren(final ManagementResourceRegistration resourceRegistration) {
         resourceRegistration.registerSubModel(new IdentityResourceDefinition(this.delegate));
     }
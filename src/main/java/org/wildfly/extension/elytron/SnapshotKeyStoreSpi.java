@@ -0,0 +1,192 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.extension.elytron;
+
+import static org.wildfly.extension.elytron._private.ElytronSubsystemMessages.ROOT_LOGGER;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.Key;
+import java.security.KeyStore;
+import java.security.KeyStoreException;
+import java.security.KeyStoreSpi;
+import java.security.NoSuchAlgorithmException;
+import java.security.UnrecoverableKeyException;
+import java.security.cert.Certificate;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A {@link KeyStoreSpi} serving the aliases and certificates of another {@link KeyStore} from an immutable in-memory
+ * snapshot.
+ * <p>
+ * The snapshot is replaced as a whole by {@link #refresh()}, callers continue to be served from the previous snapshot
+ * until the replacement has been completely read. Keys are not held in the snapshot as they can only be recovered with a
+ * password so are always read from the wrapped {@link KeyStore}.
+ * <p>
+ * The snapshot is read only, modifications must be made to the wrapped {@link KeyStore} and are visible after the next
+ * refresh.
+ */
+class SnapshotKeyStoreSpi extends KeyStoreSpi {
+
+    private final KeyStore delegate;
+
+    private volatile Map<String, Entry> entries = Collections.emptyMap();
+
+    SnapshotKeyStoreSpi(KeyStore delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Read a new snapshot from the wrapped {@link KeyStore} and replace the current snapshot with it.
+     *
+     * @throws KeyStoreException if the wrapped {@link KeyStore} can not be read, the current snapshot is retained.
+     */
+    void refresh() throws KeyStoreException {
+        Map<String, Entry> entries = new LinkedHashMap<>();
+        Enumeration<String> aliases = delegate.aliases();
+        while (aliases.hasMoreElements()) {
+            String alias = aliases.nextElement();
+            entries.put(alias, new Entry(delegate.getCertificate(alias), delegate.getCertificateChain(alias),
+                    delegate.getCreationDate(alias), delegate.isKeyEntry(alias)));
+        }
+
+        this.entries = Collections.unmodifiableMap(entries);
+    }
+
+    @Override
+    public Key engineGetKey(String alias, char[] password) throws NoSuchAlgorithmException, UnrecoverableKeyException {
+        Entry entry = entries.get(alias);
+        if (entry == null || entry.keyEntry == false) {
+            return null;
+        }
+        try {
+            return delegate.getKey(alias, password);
+        } catch (KeyStoreException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public Certificate[] engineGetCertificateChain(String alias) {
+        Entry entry = entries.get(alias);
+        return entry == null || entry.certificateChain == null ? null : entry.certificateChain.clone();
+    }
+
+    @Override
+    public Certificate engineGetCertificate(String alias) {
+        Entry entry = entries.get(alias);
+        return entry == null ? null : entry.certificate;
+    }
+
+    @Override
+    public Date engineGetCreationDate(String alias) {
+        Entry entry = entries.get(alias);
+        return entry == null || entry.creationDate == null ? null : new Date(entry.creationDate.getTime());
+    }
+
+    @Override
+    public void engineSetKeyEntry(String alias, Key key, char[] password, Certificate[] chain) throws KeyStoreException {
+        throw ROOT_LOGGER.readOnlyKeyStoreSnapshot();
+    }
+
+    @Override
+    public void engineSetKeyEntry(String alias, byte[] key, Certificate[] chain) throws KeyStoreException {
+        throw ROOT_LOGGER.readOnlyKeyStoreSnapshot();
+    }
+
+    @Override
+    public void engineSetCertificateEntry(String alias, Certificate cert) throws KeyStoreException {
+        throw ROOT_LOGGER.readOnlyKeyStoreSnapshot();
+    }
+
+    @Override
+    public void engineDeleteEntry(String alias) throws KeyStoreException {
+        throw ROOT_LOGGER.readOnlyKeyStoreSnapshot();
+    }
+
+    @Override
+    public Enumeration<String> engineAliases() {
+        return Collections.enumeration(entries.keySet());
+    }
+
+    @Override
+    public boolean engineContainsAlias(String alias) {
+        return entries.containsKey(alias);
+    }
+
+    @Override
+    public int engineSize() {
+        return entries.size();
+    }
+
+    @Override
+    public boolean engineIsKeyEntry(String alias) {
+        Entry entry = entries.get(alias);
+        return entry != null && entry.keyEntry;
+    }
+
+    @Override
+    public boolean engineIsCertificateEntry(String alias) {
+        Entry entry = entries.get(alias);
+        return entry != null && entry.keyEntry == false && entry.certificate != null;
+    }
+
+    @Override
+    public String engineGetCertificateAlias(Certificate cert) {
+        for (Map.Entry<String, Entry> current : entries.entrySet()) {
+            if (cert.equals(current.getValue().certificate)) {
+                return current.getKey();
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void engineStore(OutputStream stream, char[] password) throws IOException {
+        // KeyStoreSpi only allows an IOException to be thrown by a store.
+        throw new IOException(ROOT_LOGGER.readOnlyKeyStoreSnapshot());
+    }
+
+    @Override
+    public void engineLoad(InputStream stream, char[] password) {
+        // The content is only ever loaded by refresh().
+    }
+
+    private static final class Entry {
+
+        private final Certificate certificate;
+        private final Certificate[] certificateChain;
+        private final Date creationDate;
+        private final boolean keyEntry;
+
+        Entry(Certificate certificate, Certificate[] certificateChain, Date creationDate, boolean keyEntry) {
+            this.certificate = certificate;
+            this.certificateChain = certificateChain;
+            this.creationDate = creationDate;
+            this.keyEntry = keyEntry;
+        }
+
+    }
+
+}
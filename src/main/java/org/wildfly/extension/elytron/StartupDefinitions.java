@@ -0,0 +1,154 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.extension.elytron;
+
+import static org.wildfly.extension.elytron.ElytronExtension.getRequiredService;
+import static org.wildfly.extension.elytron._private.ElytronSubsystemMessages.ROOT_LOGGER;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.controller.AbstractRuntimeOnlyHandler;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.PathElement;
+import org.jboss.as.controller.SimpleAttributeDefinition;
+import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
+import org.jboss.as.controller.SimpleMapAttributeDefinition;
+import org.jboss.as.controller.operations.validation.StringAllowedValuesValidator;
+import org.jboss.as.controller.registry.AttributeAccess;
+import org.jboss.as.controller.registry.ManagementResourceRegistration;
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
+import org.jboss.msc.service.ServiceController;
+import org.jboss.msc.service.ServiceController.Mode;
+import org.jboss.msc.service.ServiceController.State;
+import org.jboss.msc.service.ServiceListener;
+import org.jboss.msc.service.StabilityMonitor;
+
+/**
+ * Definitions for the subsystem wide activation policy of the services of the resources and the reporting of the time
+ * taken to start them.
+ */
+class StartupDefinitions {
+
+    private static final long ACTIVATION_TIMEOUT = 30L;
+
+    /*
+     * The policy is applied as the services of the resources are installed, so a new value only takes effect once every
+     * service is installed again. The subsystem registers the attribute with a ReloadRequiredWriteAttributeHandler, which
+     * is the handler matching RESTART_ALL_SERVICES.
+     */
+    static final SimpleAttributeDefinition ACTIVATION = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.ACTIVATION, ModelType.STRING, true)
+        .setAllowExpression(true)
+        .setDefaultValue(new ModelNode(ElytronDescriptionConstants.EAGER))
+        .setAllowedValues(ElytronDescriptionConstants.EAGER, ElytronDescriptionConstants.ON_DEMAND)
+        .setValidator(new StringAllowedValuesValidator(ElytronDescriptionConstants.EAGER, ElytronDescriptionConstants.ON_DEMAND))
+        .setFlags(AttributeAccess.Flag.RESTART_ALL_SERVICES)
+        .build();
+
+    static final SimpleMapAttributeDefinition START_TIMES = new SimpleMapAttributeDefinition.Builder(ElytronDescriptionConstants.START_TIMES, ModelType.LONG, false)
+        .setStorageRuntime()
+        .build();
+
+    private StartupDefinitions() {
+    }
+
+    /**
+     * Resolve the attributes of the subsystem into a new {@link StartupService}.
+     */
+    static StartupService createService(OperationContext context, ModelNode model) throws OperationFailedException {
+        return new StartupService(ElytronDescriptionConstants.ON_DEMAND.equals(ACTIVATION.resolveModelAttribute(context, model).asString()));
+    }
+
+    static void registerAttributes(ManagementResourceRegistration resourceRegistration) {
+        resourceRegistration.registerReadOnlyAttribute(START_TIMES, new AbstractRuntimeOnlyHandler() {
+
+            @Override
+            protected void executeRuntimeStep(OperationContext context, ModelNode operation) throws OperationFailedException {
+                context.getResult().set(getStartupService(context).getStartTimes());
+            }
+        });
+    }
+
+    /**
+     * Get the initial mode for the service of the resource currently being added according to the activation policy of
+     * the subsystem, for use in place of {@link Mode#ACTIVE}.
+     */
+    static Mode getInitialMode(OperationContext context) {
+        return getStartupService(context).getInitialMode();
+    }
+
+    /**
+     * Start the service of a resource for a runtime operation which requires it to be up. A service installed
+     * {@link Mode#ON_DEMAND} which is down or stopping is set {@link Mode#ACTIVE} and the operation waits for it to
+     * settle, as it does for an on demand service which is already starting. Any other service is returned as it is, in
+     * every case the caller checks the state of the returned controller and reports it if the service is not up.
+     *
+     * @param context the {@link OperationContext} of the runtime operation.
+     * @param serviceController the controller of the service of the resource.
+     * @return the controller of the service of the resource.
+     * @throws OperationFailedException if the service did not settle within the timeout or the wait was interrupted.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> ServiceController<T> activate(OperationContext context, ServiceController<T> serviceController) throws OperationFailedException {
+        State state = serviceController.getState();
+        if (serviceController.getMode() != Mode.ON_DEMAND || (state != State.DOWN && state != State.STOPPING && state != State.STARTING)) {
+            return serviceController;
+        }
+
+        ServiceController<T> controller = serviceController;
+        StabilityMonitor monitor = new StabilityMonitor();
+        try {
+            if (state != State.STARTING) {
+                // Only changing the mode requires the write access to the service registry.
+                controller = (ServiceController<T>) context.getServiceRegistry(true).getRequiredService(serviceController.getName());
+                monitor.addController(controller);
+                controller.compareAndSetMode(Mode.ON_DEMAND, Mode.ACTIVE);
+            } else {
+                monitor.addController(controller);
+            }
+            if (monitor.awaitStability(ACTIVATION_TIMEOUT, TimeUnit.SECONDS) == false) {
+                throw ROOT_LOGGER.serviceActivationTimedOut(ACTIVATION_TIMEOUT, controller.getName());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw ROOT_LOGGER.serviceActivationInterrupted(controller.getName(), e);
+        } finally {
+            monitor.removeController(controller);
+        }
+        return controller;
+    }
+
+    /**
+     * Get a listener recording the time taken to start the service of the resource currently being added.
+     */
+    static ServiceListener<Object> startTimer(OperationContext context) {
+        PathElement element = context.getCurrentAddress().getLastElement();
+        return getStartupService(context).startTimer(element.getKey() + '=' + element.getValue());
+    }
+
+    /*
+     * The service is installed by the add operation of the subsystem so is always registered by the time the resources of
+     * the subsystem are added, however it may not yet have started so the service instance is used rather than its value.
+     */
+    private static StartupService getStartupService(OperationContext context) {
+        return (StartupService) getRequiredService(context.getServiceRegistry(false), StartupService.SERVICE_NAME, StartupService.class).getService();
+    }
+
+}
@@ -0,0 +1,165 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.extension.elytron;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jboss.dmr.ModelNode;
+import org.jboss.msc.service.AbstractServiceListener;
+import org.jboss.msc.service.Service;
+import org.jboss.msc.service.ServiceController;
+import org.jboss.msc.service.ServiceController.Mode;
+import org.jboss.msc.service.ServiceController.Substate;
+import org.jboss.msc.service.ServiceListener;
+import org.jboss.msc.service.ServiceName;
+import org.jboss.msc.service.StartContext;
+import org.jboss.msc.service.StartException;
+import org.jboss.msc.service.StopContext;
+
+/**
+ * A {@link Service} holding the activation policy of the subsystem, a pool of threads on which services with expensive
+ * start work such as reading files or scanning modules can start in parallel without occupying the threads of the service
+ * container, and the time taken to start the service of each resource.
+ * <p>
+ * The threads of the pool time out once idle so no threads are retained once the server has started.
+ */
+class StartupService implements Service<StartupService> {
+
+    static final ServiceName SERVICE_NAME = ElytronExtension.BASE_SERVICE_NAME.append(ElytronDescriptionConstants.STARTUP);
+
+    private static final long KEEP_ALIVE = 30L;
+
+    private final boolean onDemand;
+    private final Map<String, Long> startTimes = new ConcurrentHashMap<>();
+
+    private volatile ThreadPoolExecutor executor;
+
+    StartupService(boolean onDemand) {
+        this.onDemand = onDemand;
+    }
+
+    @Override
+    public void start(StartContext context) throws StartException {
+        final int threads = Runtime.getRuntime().availableProcessors();
+        final AtomicInteger count = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "Elytron startup " + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    public void stop(StopContext context) {
+        executor.shutdown();
+        executor = null;
+    }
+
+    @Override
+    public StartupService getValue() throws IllegalStateException, IllegalArgumentException {
+        return this;
+    }
+
+    /**
+     * Get the initial mode for the service of a resource which would otherwise be {@link Mode#ACTIVE}.
+     *
+     * @return {@link Mode#ON_DEMAND} if services should only be started once required, otherwise {@link Mode#ACTIVE}.
+     */
+    Mode getInitialMode() {
+        return onDemand ? Mode.ON_DEMAND : Mode.ACTIVE;
+    }
+
+    /**
+     * Complete the start of a service on the pool of this service, the calling thread returns immediately and the service
+     * only transitions to UP once the task has completed.
+     *
+     * @param context the {@link StartContext} of the service being started.
+     * @param task the task performing the start of the service.
+     */
+    void startAsynchronously(StartContext context, StartTask task) {
+        context.asynchronous();
+        executor.execute(() -> {
+            try {
+                task.start();
+                context.complete();
+            } catch (StartException e) {
+                context.failed(e);
+            } catch (Throwable t) {
+                // Including errors such as a ServiceConfigurationError, otherwise the service would remain STARTING.
+                context.failed(new StartException(t));
+            }
+        });
+    }
+
+    /**
+     * Create a listener which records the time taken to start the service it is added to against a resource, the time is
+     * discarded again once the service stops.
+     *
+     * @param resource the key the time is reported with, in the form {@code type=name}.
+     * @return the listener to add to the service of the resource.
+     */
+    ServiceListener<Object> startTimer(String resource) {
+        return new AbstractServiceListener<Object>() {
+
+            private long started;
+
+            @Override
+            public synchronized void transition(ServiceController<?> controller, ServiceController.Transition transition) {
+                if (transition.getAfter() == Substate.STARTING) {
+                    started = System.nanoTime();
+                } else if (transition.getBefore() == Substate.STARTING && transition.getAfter() == Substate.UP) {
+                    startTimes.put(resource, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+                } else if (transition.getBefore() == Substate.UP) {
+                    startTimes.remove(resource);
+                }
+            }
+        };
+    }
+
+    /**
+     * Get the time in milliseconds taken to start the service of each resource currently started, the slowest first.
+     *
+     * @return the start times keyed by resource.
+     */
+    ModelNode getStartTimes() {
+        ModelNode result = new ModelNode();
+        result.setEmptyObject();
+        startTimes.entrySet().stream()
+            .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+            .forEach(e -> result.get(e.getKey()).set(e.getValue()));
+        return result;
+    }
+
+    /**
+     * The start work of a service to run on the pool.
+     */
+    @FunctionalInterface
+    interface StartTask {
+
+        void start() throws StartException;
+
+    }
+
+}
@@ -66,6 +66,7 @@ import static org.wildfly.extension.elytron.ElytronDescriptionConstants.PATH;
 import static org.wildfly.extension.elytron.ElytronDescriptionConstants.PROTOCOLS;
 import static org.wildfly.extension.elytron.ElytronDescriptionConstants.PROVIDER;
 import static org.wildfly.extension.elytron.ElytronDescriptionConstants.PROVIDER_LOADER;
+import static org.wildfly.extension.elytron.ElytronDescriptionConstants.REFRESH_INTERVAL;
 import static org.wildfly.extension.elytron.ElytronDescriptionConstants.RELATIVE_TO;
 import static org.wildfly.extension.elytron.ElytronDescriptionConstants.REQUIRED;
 import static org.wildfly.extension.elytron.ElytronDescriptionConstants.SEARCH_PATH;
@@ -75,6 +76,7 @@ import static org.wildfly.extension.elytron.ElytronDescriptionConstants.SECURITY
 import static org.wildfly.extension.elytron.ElytronDescriptionConstants.SERVER_SSL_CONTEXT;
 import static org.wildfly.extension.elytron.ElytronDescriptionConstants.SERVER_SSL_CONTEXTS;
 import static org.wildfly.extension.elytron.ElytronDescriptionConstants.SESSION_TIMEOUT;
+import static org.wildfly.extension.elytron.ElytronDescriptionConstants.STATISTICS_ENABLED;
 import static org.wildfly.extension.elytron.ElytronDescriptionConstants.TLS;
 import static org.wildfly.extension.elytron.ElytronDescriptionConstants.TRUST_MANAGER;
 import static org.wildfly.extension.elytron.ElytronDescriptionConstants.TRUST_MANAGERS;
@@ -82,6 +84,7 @@ import static org.wildfly.extension.elytron.ElytronDescriptionConstants.TYPE;
 import static org.wildfly.extension.elytron.ElytronDescriptionConstants.USE_CIPHER_SUITES_ORDER;
 import static org.wildfly.extension.elytron.ElytronDescriptionConstants.VALUE;
 import static org.wildfly.extension.elytron.ElytronDescriptionConstants.WANT_CLIENT_AUTH;
+import static org.wildfly.extension.elytron.ElytronDescriptionConstants.WATCH;
 import static org.wildfly.extension.elytron.ElytronSubsystemParser.verifyNamespace;
 
 import java.util.Arrays;
@@ -315,6 +318,9 @@ class TlsParser {
                     case USE_CIPHER_SUITES_ORDER:
                         SSLDefinitions.USE_CIPHER_SUITES_ORDER.parseAndSetParameter(value, addServerSSLContext, reader);
                         break;
+                    case STATISTICS_ENABLED:
+                        SSLDefinitions.STATISTICS_ENABLED.parseAndSetParameter(value, addServerSSLContext, reader);
+                        break;
                     case MAXIMUM_SESSION_CACHE_SIZE:
                         SSLDefinitions.MAXIMUM_SESSION_CACHE_SIZE.parseAndSetParameter(value, addServerSSLContext, reader);
                         break;
@@ -388,6 +394,9 @@ class TlsParser {
                     case USE_CIPHER_SUITES_ORDER:
                         SSLDefinitions.USE_CIPHER_SUITES_ORDER.parseAndSetParameter(value, addServerSSLContext, reader);
                         break;
+                    case STATISTICS_ENABLED:
+                        SSLDefinitions.STATISTICS_ENABLED.parseAndSetParameter(value, addServerSSLContext, reader);
+                        break;
                     case MAXIMUM_SESSION_CACHE_SIZE:
                         SSLDefinitions.MAXIMUM_SESSION_CACHE_SIZE.parseAndSetParameter(value, addServerSSLContext, reader);
                         break;
@@ -515,6 +524,9 @@ class TlsParser {
                     case REQUIRED:
                         KeyStoreDefinition.REQUIRED.parseAndSetParameter(value, addOp, reader);
                         break;
+                    case WATCH:
+                        KeyStoreDefinition.WATCH.parseAndSetParameter(value, addOp, reader);
+                        break;
                     default:
                         throw unexpectedAttribute(reader, i);
                 }
@@ -566,6 +578,9 @@ class TlsParser {
                     case FILTER_ITERATE:
                         LdapKeyStoreDefinition.FILTER_ITERATE.parseAndSetParameter(value, addKeyStore, reader);
                         break;
+                    case REFRESH_INTERVAL:
+                        LdapKeyStoreDefinition.REFRESH_INTERVAL.parseAndSetParameter(value, addKeyStore, reader);
+                        break;
                     default:
                         throw unexpectedAttribute(reader, i);
                 }
@@ -838,6 +853,7 @@ class TlsParser {
                 SSLDefinitions.KEY_MANAGERS.marshallAsAttribute(serverSSLContext, writer);
                 SSLDefinitions.TRUST_MANAGERS.marshallAsAttribute(serverSSLContext, writer);
                 SSLDefinitions.PROVIDER_LOADER.marshallAsAttribute(serverSSLContext, writer);
+                SSLDefinitions.STATISTICS_ENABLED.marshallAsAttribute(serverSSLContext, writer);
 
                 writer.writeEndElement();
             }
@@ -867,6 +883,7 @@ class TlsParser {
                 SSLDefinitions.KEY_MANAGERS.marshallAsAttribute(serverSSLContext, writer);
                 SSLDefinitions.TRUST_MANAGERS.marshallAsAttribute(serverSSLContext, writer);
                 SSLDefinitions.PROVIDER_LOADER.marshallAsAttribute(serverSSLContext, writer);
+                SSLDefinitions.STATISTICS_ENABLED.marshallAsAttribute(serverSSLContext, writer);
 
                 writer.writeEndElement();
             }
@@ -899,6 +916,7 @@ class TlsParser {
                         FileAttributeDefinitions.RELATIVE_TO.marshallAsAttribute(keyStore, writer);
                         FileAttributeDefinitions.PATH.marshallAsAttribute(keyStore, writer);
                         KeyStoreDefinition.REQUIRED.marshallAsAttribute(keyStore, writer);
+                        KeyStoreDefinition.WATCH.marshallAsAttribute(keyStore, writer);
 
                         writer.writeEndElement();
                     }
@@ -923,6 +941,7 @@ class TlsParser {
                     LdapKeyStoreDefinition.FILTER_ALIAS.marshallAsAttribute(keyStore, writer);
                     LdapKeyStoreDefinition.FILTER_CERTIFICATE.marshallAsAttribute(keyStore, writer);
                     LdapKeyStoreDefinition.FILTER_ITERATE.marshallAsAttribute(keyStore, writer);
+                    LdapKeyStoreDefinition.REFRESH_INTERVAL.marshallAsAttribute(keyStore, writer);
 
                     ModelNode newItemTemplate = keyStore.get(NEW_ITEM_TEMPLATE);
                     if (newItemTemplate.isDefined()) {
@@ -34,6 +34,8 @@ import org.jboss.as.controller.SimpleResourceDefinition;
 import org.jboss.as.controller.StringListAttributeDefinition;
 import org.jboss.as.controller.capability.RuntimeCapability;
 import org.jboss.as.controller.operations.validation.EnumValidator;
+import org.jboss.as.controller.operations.validation.IntRangeValidator;
+import org.jboss.as.controller.operations.validation.LongRangeValidator;
 import org.jboss.as.controller.operations.validation.StringLengthValidator;
 import org.jboss.as.controller.registry.AttributeAccess;
 import org.jboss.as.controller.registry.ManagementResourceRegistration;
@@ -48,7 +50,6 @@ import org.jboss.msc.value.InjectedValue;
 import org.wildfly.extension.elytron.TokenRealmDefinition.OAuth2IntrospectionValidatorAttributes.HostnameVerificationPolicy;
 import org.wildfly.security.auth.realm.token.TokenSecurityRealm;
 import org.wildfly.security.auth.realm.token.validator.JwtValidator;
-import org.wildfly.security.auth.realm.token.validator.OAuth2IntrospectValidator;
 import org.wildfly.security.auth.server.SecurityRealm;
 
 import javax.net.ssl.HostnameVerifier;
@@ -58,6 +59,7 @@ import java.net.URL;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.function.UnaryOperator;
 
 import static org.wildfly.extension.elytron.Capabilities.MODIFIABLE_SECURITY_REALM_RUNTIME_CAPABILITY;
 import static org.wildfly.extension.elytron.Capabilities.SECURITY_REALM_CAPABILITY;
@@ -65,9 +67,12 @@ import static org.wildfly.extension.elytron.Capabilities.SECURITY_REALM_RUNTIME_
 import static org.wildfly.extension.elytron.Capabilities.SSL_CONTEXT_CAPABILITY;
 import static org.wildfly.extension.elytron.ElytronDescriptionConstants.JWT;
 import static org.wildfly.extension.elytron.ElytronDescriptionConstants.OAUTH2_INTROSPECTION;
+import static org.wildfly.extension.elytron.StartupDefinitions.getInitialMode;
+import static org.wildfly.extension.elytron.StartupDefinitions.startTimer;
 import static org.wildfly.extension.elytron.TokenRealmDefinition.JwtValidatorAttributes.AUDIENCE;
 import static org.wildfly.extension.elytron.TokenRealmDefinition.JwtValidatorAttributes.ISSUER;
 import static org.wildfly.extension.elytron.TokenRealmDefinition.JwtValidatorAttributes.PUBLIC_KEY;
+import static org.wildfly.extension.elytron._private.ElytronSubsystemMessages.ROOT_LOGGER;
 
 
 /**
@@ -101,12 +106,57 @@ class TokenRealmDefinition extends SimpleResourceDefinition {
         static final SimpleAttributeDefinition PUBLIC_KEY = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.PUBLIC_KEY, ModelType.STRING, true)
                                                                     .setAllowExpression(false)
                                                                     .setMinSize(1)
+                                                                    .setAlternatives(ElytronDescriptionConstants.JWKS_URL)
                                                                     .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
                                                                     .build();
 
-        static final AttributeDefinition[] ATTRIBUTES = new AttributeDefinition[]{ISSUER, AUDIENCE, PUBLIC_KEY};
+        static final SimpleAttributeDefinition JWKS_URL = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.JWKS_URL, ModelType.STRING, true)
+                                                                    .setAllowExpression(true)
+                                                                    .setMinSize(1)
+                                                                    .setAlternatives(ElytronDescriptionConstants.PUBLIC_KEY)
+                                                                    .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
+                                                                    .build();
 
-        static final ObjectTypeAttributeDefinition JWT_VALIDATOR = new ObjectTypeAttributeDefinition.Builder(JWT, ISSUER, AUDIENCE, PUBLIC_KEY)
+        static final SimpleAttributeDefinition JWKS_REFRESH_INTERVAL = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.JWKS_REFRESH_INTERVAL, ModelType.LONG, true)
+                                                                    .setDefaultValue(new ModelNode(900000L))
+                                                                    .setValidator(new LongRangeValidator(1L, true, true))
+                                                                    .setAllowExpression(true)
+                                                                    .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
+                                                                    .build();
+
+        static final SimpleAttributeDefinition JWKS_MIN_REFRESH_INTERVAL = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.JWKS_MIN_REFRESH_INTERVAL, ModelType.LONG, true)
+                                                                    .setDefaultValue(new ModelNode(10000L))
+                                                                    .setValidator(new LongRangeValidator(0L, true, true))
+                                                                    .setAllowExpression(true)
+                                                                    .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
+                                                                    .build();
+
+        static final SimpleAttributeDefinition SSL_CONTEXT = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.CLIENT_SSL_CONTEXT, ModelType.STRING, true)
+                .setCapabilityReference(SSL_CONTEXT_CAPABILITY, SECURITY_REALM_CAPABILITY, true)
+                .setRequires(ElytronDescriptionConstants.JWKS_URL)
+                .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
+                .setValidator(new StringLengthValidator(1))
+                .build();
+
+        static final SimpleAttributeDefinition CONNECTION_TIMEOUT = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.CONNECTION_TIMEOUT, ModelType.INT, true)
+                .setDefaultValue(new ModelNode(5000))
+                .setValidator(new IntRangeValidator(1, true, true))
+                .setAllowExpression(true)
+                .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
+                .build();
+
+        static final SimpleAttributeDefinition READ_TIMEOUT = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.READ_TIMEOUT, ModelType.INT, true)
+                .setDefaultValue(new ModelNode(10000))
+                .setValidator(new IntRangeValidator(1, true, true))
+                .setAllowExpression(true)
+                .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
+                .build();
+
+        static final AttributeDefinition[] ATTRIBUTES = new AttributeDefinition[]{ISSUER, AUDIENCE, PUBLIC_KEY, JWKS_URL, JWKS_REFRESH_INTERVAL, JWKS_MIN_REFRESH_INTERVAL,
+                SSL_CONTEXT, CONNECTION_TIMEOUT, READ_TIMEOUT};
+
+        static final ObjectTypeAttributeDefinition JWT_VALIDATOR = new ObjectTypeAttributeDefinition.Builder(JWT, ISSUER, AUDIENCE, PUBLIC_KEY, JWKS_URL, JWKS_REFRESH_INTERVAL, JWKS_MIN_REFRESH_INTERVAL,
+                SSL_CONTEXT, CONNECTION_TIMEOUT, READ_TIMEOUT)
                                                                            .setAllowNull(true)
                                                                            .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
                                                                            .build();
@@ -145,9 +195,24 @@ class TokenRealmDefinition extends SimpleResourceDefinition {
                 .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
                 .build();
 
-        static final AttributeDefinition[] ATTRIBUTES = new AttributeDefinition[]{CLIENT_ID, CLIENT_SECRET, INTROSPECTION_URL, SSL_CONTEXT, HOSTNAME_VERIFICATION_POLICY};
+        static final SimpleAttributeDefinition CONNECTION_TIMEOUT = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.CONNECTION_TIMEOUT, ModelType.INT, true)
+                .setDefaultValue(new ModelNode(5000))
+                .setValidator(new IntRangeValidator(1, true, true))
+                .setAllowExpression(true)
+                .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
+                .build();
+
+        static final SimpleAttributeDefinition READ_TIMEOUT = new SimpleAttributeDefinitionBuilder(ElytronDescriptionConstants.READ_TIMEOUT, ModelType.INT, true)
+                .setDefaultValue(new ModelNode(10000))
+                .setValidator(new IntRangeValidator(1, true, true))
+                .setAllowExpression(true)
+                .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
+                .build();
+
+        static final AttributeDefinition[] ATTRIBUTES = new AttributeDefinition[]{CLIENT_ID, CLIENT_SECRET, INTROSPECTION_URL, SSL_CONTEXT, HOSTNAME_VERIFICATION_POLICY, CONNECTION_TIMEOUT, READ_TIMEOUT};
 
-        static final ObjectTypeAttributeDefinition OAUTH2_INTROSPECTION_VALIDATOR = new ObjectTypeAttributeDefinition.Builder(OAUTH2_INTROSPECTION, CLIENT_ID, CLIENT_SECRET, INTROSPECTION_URL, SSL_CONTEXT, HOSTNAME_VERIFICATION_POLICY)
+        static final ObjectTypeAttributeDefinition OAUTH2_INTROSPECTION_VALIDATOR = new ObjectTypeAttributeDefinition.Builder(OAUTH2_INTROSPECTION, CLIENT_ID, CLIENT_SECRET, INTROSPECTION_URL, SSL_CONTEXT, HOSTNAME_VERIFICATION_POLICY,
+                CONNECTION_TIMEOUT, READ_TIMEOUT)
                 .setAllowNull(true)
                 .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
                 .build();
@@ -167,7 +232,15 @@ class TokenRealmDefinition extends SimpleResourceDefinition {
         }
     }
 
-    static final AttributeDefinition[] ATTRIBUTES = new AttributeDefinition[]{PRINCIPAL_CLAIM, JwtValidatorAttributes.JWT_VALIDATOR, OAuth2IntrospectionValidatorAttributes.OAUTH2_INTROSPECTION_VALIDATOR};
+    static final ObjectTypeAttributeDefinition CACHE = new ObjectTypeAttributeDefinition.Builder(ElytronDescriptionConstants.CACHE, RealmCacheDefinitions.MAX_ENTRIES, RealmCacheDefinitions.MAX_AGE,
+            RealmCacheDefinitions.NEGATIVE_CACHE_AGE)
+            .setAllowNull(true)
+            .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
+            .build();
+
+    static final AttributeDefinition[] ATTRIBUTES = new AttributeDefinition[]{PRINCIPAL_CLAIM, JwtValidatorAttributes.JWT_VALIDATOR, OAuth2IntrospectionValidatorAttributes.OAUTH2_INTROSPECTION_VALIDATOR, CACHE};
+
+    private static final long JWT_VALIDATION_MAX_WAIT = 10000L;
 
     private static final AbstractAddStepHandler ADD = new RealmAddHandler();
     private static final OperationStepHandler REMOVE = new TrivialCapabilityServiceRemoveHandler(ADD, MODIFIABLE_SECURITY_REALM_RUNTIME_CAPABILITY, SECURITY_REALM_RUNTIME_CAPABILITY);
@@ -188,6 +261,13 @@ class TokenRealmDefinition extends SimpleResourceDefinition {
         for (AttributeDefinition attr : ATTRIBUTES) {
             resourceRegistration.registerReadWriteAttribute(attr, null, handler);
         }
+        RealmCacheDefinitions.registerRuntimeAttributes(resourceRegistration);
+    }
+
+    @Override
+    public void registerOperations(ManagementResourceRegistration resourceRegistration) {
+        super.registerOperations(resourceRegistration);
+        RealmCacheDefinitions.registerOperations(resourceRegistration, getResourceDescriptionResolver());
     }
 
     private static class RealmAddHandler extends BaseAddHandler {
@@ -208,13 +288,37 @@ class TokenRealmDefinition extends SimpleResourceDefinition {
             TrivialService<SecurityRealm> service;
 
             if (operation.hasDefined(JWT)) {
+                // Tokens are validated locally, a concurrent request only waits for the signature to be verified.
+                UnaryOperator<SecurityRealm> cacheWrapper = getCacheWrapper(context, model, JWT_VALIDATION_MAX_WAIT);
                 ModelNode jwtValidatorNode = JwtValidatorAttributes.JWT_VALIDATOR.resolveModelAttribute(context, operation);
                 String[] issuer = asStringArrayIfDefined(context, ISSUER, jwtValidatorNode);
                 String[] audience = asStringArrayIfDefined(context, AUDIENCE, jwtValidatorNode);
                 String publicKey = ElytronExtension.asStringIfDefined(context, PUBLIC_KEY, jwtValidatorNode);
+                String jwksUrl = ElytronExtension.asStringIfDefined(context, JwtValidatorAttributes.JWKS_URL, jwtValidatorNode);
+                long jwksRefreshInterval = JwtValidatorAttributes.JWKS_REFRESH_INTERVAL.resolveModelAttribute(context, jwtValidatorNode).asLong();
+                long jwksMinRefreshInterval = JwtValidatorAttributes.JWKS_MIN_REFRESH_INTERVAL.resolveModelAttribute(context, jwtValidatorNode).asLong();
+                String jwksSslContextRef = ElytronExtension.asStringIfDefined(context, JwtValidatorAttributes.SSL_CONTEXT, jwtValidatorNode);
+                int jwksConnectionTimeout = JwtValidatorAttributes.CONNECTION_TIMEOUT.resolveModelAttribute(context, jwtValidatorNode).asInt();
+                int jwksReadTimeout = JwtValidatorAttributes.READ_TIMEOUT.resolveModelAttribute(context, jwtValidatorNode).asInt();
+                InjectedValue<SSLContext> jwksSslContextInjector = new InjectedValue<>();
                 service = new TrivialService<>(new TrivialService.ValueSupplier<SecurityRealm>() {
+
+                    private JsonWebKeySetValidator keySetValidator;
+
                     @Override
                     public SecurityRealm get() throws StartException {
+                        if (jwksUrl != null) {
+                            try {
+                                keySetValidator = JsonWebKeySetValidator.start(new URL(jwksUrl), issuer, audience, jwksRefreshInterval, jwksMinRefreshInterval,
+                                        jwksSslContextInjector.getOptionalValue(), jwksConnectionTimeout, jwksReadTimeout);
+                            } catch (MalformedURLException e) {
+                                throw ROOT_LOGGER.unableToStartService(e);
+                            }
+                            return cacheWrapper.apply(TokenSecurityRealm.builder().principalClaimName(principalClaimNode.asString())
+                                           .validator(keySetValidator)
+                                           .build());
+                        }
+
                         JwtValidator.Builder jwtValidatorBuilder = JwtValidator.builder();
 
                         if (issuer != null) {
@@ -229,17 +333,30 @@ class TokenRealmDefinition extends SimpleResourceDefinition {
                             jwtValidatorBuilder.publicKey(publicKey.getBytes());
                         }
 
-                        return TokenSecurityRealm.builder().principalClaimName(principalClaimNode.asString())
+                        return cacheWrapper.apply(TokenSecurityRealm.builder().principalClaimName(principalClaimNode.asString())
                                        .validator(jwtValidatorBuilder.build())
-                                       .build();
+                                       .build());
                     }
 
                     @Override
                     public void dispose() {
+                        if (keySetValidator != null) {
+                            keySetValidator.close();
+                            keySetValidator = null;
+                        }
                     }
                 });
 
-                serviceTarget.addService(mainServiceName, service).addAliases(aliasServiceName).install();
+                ServiceBuilder<SecurityRealm> serviceBuilder = serviceTarget.addService(mainServiceName, service).addAliases(aliasServiceName)
+                        .setInitialMode(getInitialMode(context))
+                        .addListener(startTimer(context));
+
+                if (jwksSslContextRef != null) {
+                    String runtimeCapability = RuntimeCapability.buildDynamicCapabilityName(SSL_CONTEXT_CAPABILITY, jwksSslContextRef);
+                    serviceBuilder.addDependency(context.getCapabilityServiceName(runtimeCapability, SSLContext.class), SSLContext.class, jwksSslContextInjector);
+                }
+
+                serviceBuilder.install();
             } else if (operation.hasDefined(OAUTH2_INTROSPECTION)) {
                 ModelNode oAuth2IntrospectionNode = OAuth2IntrospectionValidatorAttributes.OAUTH2_INTROSPECTION_VALIDATOR.resolveModelAttribute(context, operation);
                 String clientId = ElytronExtension.asStringIfDefined(context, OAuth2IntrospectionValidatorAttributes.CLIENT_ID, oAuth2IntrospectionNode);
@@ -247,6 +364,9 @@ class TokenRealmDefinition extends SimpleResourceDefinition {
                 String introspectionUrl = ElytronExtension.asStringIfDefined(context, OAuth2IntrospectionValidatorAttributes.INTROSPECTION_URL, oAuth2IntrospectionNode);
                 String sslContextRef = ElytronExtension.asStringIfDefined(context, OAuth2IntrospectionValidatorAttributes.SSL_CONTEXT, oAuth2IntrospectionNode);
                 String hostNameVerificationPolicy = ElytronExtension.asStringIfDefined(context, OAuth2IntrospectionValidatorAttributes.HOSTNAME_VERIFICATION_POLICY, oAuth2IntrospectionNode);
+                int connectionTimeout = OAuth2IntrospectionValidatorAttributes.CONNECTION_TIMEOUT.resolveModelAttribute(context, oAuth2IntrospectionNode).asInt();
+                int readTimeout = OAuth2IntrospectionValidatorAttributes.READ_TIMEOUT.resolveModelAttribute(context, oAuth2IntrospectionNode).asInt();
+                UnaryOperator<SecurityRealm> cacheWrapper = getCacheWrapper(context, model, (long) connectionTimeout + readTimeout);
                 InjectedValue<SSLContext> sslContextInjector = new InjectedValue<>();
 
                 service = new TrivialService<>(new TrivialService.ValueSupplier<SecurityRealm>() {
@@ -257,13 +377,11 @@ class TokenRealmDefinition extends SimpleResourceDefinition {
                             if (hostNameVerificationPolicy != null) {
                                 verifier = HostnameVerificationPolicy.valueOf(hostNameVerificationPolicy).getVerifier();
                             }
-                            OAuth2IntrospectValidator.Builder builder = OAuth2IntrospectValidator.builder().clientId(clientId).clientSecret(clientSecret)
-                                    .tokenIntrospectionUrl(new URL(introspectionUrl))
-                                    .useSslContext(sslContextInjector.getOptionalValue())
-                                    .useSslHostnameVerifier(verifier);
-                            return TokenSecurityRealm.builder().principalClaimName(principalClaimNode.asString())
-                                    .validator(builder.build())
-                                    .build();
+                            IntrospectionTokenValidator validator = new IntrospectionTokenValidator(new URL(introspectionUrl), clientId, clientSecret,
+                                    sslContextInjector.getOptionalValue(), verifier, connectionTimeout, readTimeout);
+                            return cacheWrapper.apply(TokenSecurityRealm.builder().principalClaimName(principalClaimNode.asString())
+                                    .validator(validator)
+                                    .build());
                         } catch (MalformedURLException e) {
                             throw new RuntimeException("Failed to parse token introspection URL.", e);
                         }
@@ -274,7 +392,9 @@ class TokenRealmDefinition extends SimpleResourceDefinition {
                     }
                 });
 
-                ServiceBuilder<SecurityRealm> serviceBuilder = serviceTarget.addService(mainServiceName, service).addAliases(aliasServiceName);
+                ServiceBuilder<SecurityRealm> serviceBuilder = serviceTarget.addService(mainServiceName, service).addAliases(aliasServiceName)
+                        .setInitialMode(getInitialMode(context))
+                        .addListener(startTimer(context));
 
                 if (sslContextRef != null) {
                     String runtimeCapability = RuntimeCapability.buildDynamicCapabilityName(SSL_CONTEXT_CAPABILITY, sslContextRef);
@@ -285,6 +405,18 @@ class TokenRealmDefinition extends SimpleResourceDefinition {
             }
         }
 
+        private static UnaryOperator<SecurityRealm> getCacheWrapper(OperationContext context, ModelNode model, long maxWait) throws OperationFailedException {
+            ModelNode cache = CACHE.resolveModelAttribute(context, model);
+            if (cache.isDefined() == false) {
+                return UnaryOperator.identity();
+            }
+
+            final int maxEntries = RealmCacheDefinitions.MAX_ENTRIES.resolveModelAttribute(context, cache).asInt();
+            final long maxAge = RealmCacheDefinitions.MAX_AGE.resolveModelAttribute(context, cache).asLong();
+            final long negativeCacheAge = RealmCacheDefinitions.NEGATIVE_CACHE_AGE.resolveModelAttribute(context, cache).asLong();
+            return r -> new CachingTokenSecurityRealm(r, maxEntries, maxAge, negativeCacheAge, maxWait);
+        }
+
         private String[] asStringArrayIfDefined(OperationContext context, StringListAttributeDefinition attributeDefinition, ModelNode model) throws OperationFailedException {
             ModelNode resolved = attributeDefinition.resolveModelAttribute(context, model);
             if (resolved.isDefined()) {
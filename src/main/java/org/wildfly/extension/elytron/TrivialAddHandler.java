@@ -20,6 +20,8 @@ package org.wildfly.extension.elytron;
 
 import static org.wildfly.common.Assert.checkNotNullParam;
 import static org.wildfly.extension.elytron.ElytronDefinition.commonDependencies;
+import static org.wildfly.extension.elytron.StartupDefinitions.getInitialMode;
+import static org.wildfly.extension.elytron.StartupDefinitions.startTimer;
 
 import java.util.Arrays;
 import java.util.HashSet;
@@ -77,7 +79,8 @@ abstract class TrivialAddHandler<T> extends BaseAddHandler {
         trivialService.setValueSupplier(getValueSupplier(serviceBuilder, context, resource.getModel()));
 
         installedForResource(commonDependencies(serviceBuilder)
-                .setInitialMode(initialMode)
+                .setInitialMode(initialMode == Mode.ACTIVE ? getInitialMode(context) : initialMode)
+                .addListener(startTimer(context))
                 .install(), resource);
     }
 
@@ -22,9 +22,12 @@ import static org.jboss.logging.Logger.Level.INFO;
 import static org.jboss.logging.Logger.Level.WARN;
 
 import java.security.KeyStore;
+import java.security.KeyStoreException;
 import java.security.NoSuchProviderException;
 import java.security.Provider;
 
+import javax.naming.NamingException;
+
 import org.jboss.as.controller.OperationFailedException;
 import org.jboss.logging.BasicLogger;
 import org.jboss.logging.Logger;
@@ -37,6 +40,7 @@ import org.jboss.msc.service.ServiceController.State;
 import org.jboss.msc.service.ServiceName;
 import org.jboss.msc.service.StartException;
 import org.wildfly.extension.elytron.Configurable;
+import org.wildfly.security.auth.server.RealmUnavailableException;
 import org.wildfly.security.auth.server.SecurityDomain;
 import org.wildfly.security.auth.server.SecurityRealm;
 import org.wildfly.security.credential.store.UnsupportedCredentialTypeException;
@@ -263,6 +267,113 @@ public interface ElytronSubsystemMessages extends BasicLogger {
     @Message(id = 26, value = "trusted-security-domains cannot contain the security-domain \"%s\" itself")
     OperationFailedException trustedDomainsCannotContainDomainItself(String domain);
 
+    @Message(id = 27, value = "No connection available from the pool of dir-context '%s' within %d milliseconds.")
+    NamingException dirContextPoolExhausted(String dirContext, long maxWait);
+
+    @Message(id = 28, value = "The connection pool of dir-context '%s' has been closed.")
+    NamingException dirContextPoolClosed(String dirContext);
+
+    @LogMessage(level = WARN)
+    @Message(id = 29, value = "Communication with LDAP server '%s' of dir-context '%s' failed, the server will not be used for %d milliseconds.")
+    void ldapServerUnavailable(String url, String dirContext, long retryInterval, @Cause Throwable cause);
+
+    @LogMessage(level = WARN)
+    @Message(id = 30, value = "Unable to refresh the snapshot of the LDAP KeyStore with search path '%s', the previous snapshot remains in use.")
+    void unableToRefreshLdapKeyStore(String searchPath, @Cause Throwable cause);
+
+    @LogMessage(level = INFO)
+    @Message(id = 31, value = "KeyStore file '%s' has changed and has been reloaded.")
+    void keyStoreReloaded(String file);
+
+    @LogMessage(level = WARN)
+    @Message(id = 32, value = "Unable to reload changed KeyStore file '%s', the previous content remains in use.")
+    void unableToReloadKeyStore(String file, @Cause Throwable cause);
+
+    @LogMessage(level = WARN)
+    @Message(id = 33, value = "Unable to watch file '%s' for changes.")
+    void unableToWatchFile(String file, @Cause Throwable cause);
+
+    @LogMessage(level = WARN)
+    @Message(id = 34, value = "Unable to re-initialise %s '%s' following a change to the content of its KeyStore, the previous managers remain in use.")
+    void unableToReinitialiseManagers(String resourceType, String name, @Cause Throwable cause);
+
+    @Message(id = 35, value = "Unable to introspect token, the introspection endpoint '%s' responded with status %d.")
+    RealmUnavailableException unableToIntrospectToken(String introspectionUrl, int status);
+
+    @Message(id = 36, value = "Unable to introspect token using the introspection endpoint '%s'.")
+    RealmUnavailableException unableToIntrospectToken(String introspectionUrl, @Cause Throwable cause);
+
+    @LogMessage(level = WARN)
+    @Message(id = 37, value = "Unable to load the JSON Web Key Set from '%s', the previously loaded keys remain in use.")
+    void unableToLoadJsonWebKeySet(String url, @Cause Throwable cause);
+
+    @LogMessage(level = INFO)
+    @Message(id = 38, value = "The properties files backing realm '%s' have changed and have been reloaded.")
+    void propertiesRealmReloaded(String realmName);
+
+    @LogMessage(level = WARN)
+    @Message(id = 39, value = "Unable to reload the changed properties files backing realm '%s', the previous content remains in use.")
+    void unableToReloadPropertiesRealm(String realmName, @Cause Throwable cause);
+
+    @LogMessage(level = WARN)
+    @Message(id = 40, value = "Unable to compact journal '%s', the pending modifications will be retried.")
+    void unableToCompactJournal(String journal, @Cause Throwable cause);
+
+    @Message(id = 41, value = "Identity with name [%s] already exists.")
+    RealmUnavailableException journaledIdentityAlreadyExists(String name);
+
+    @Message(id = 42, value = "Identity with name [%s] does not exist.")
+    RealmUnavailableException journaledIdentityNotFound(String name);
+
+    @LogMessage(level = INFO)
+    @Message(id = 43, value = "Imported %d identities into realm '%s', %d identities per second.")
+    void identitiesImported(long count, String realmName, long identitiesPerSecond);
+
+    @Message(id = 44, value = "The call to security realm '%s' was rejected as the maximum number of concurrent and queued calls has been reached.")
+    RealmUnavailableException asyncRealmSaturated(String realmName);
+
+    @Message(id = 45, value = "The call to security realm '%s' did not complete within %d milliseconds.")
+    RealmUnavailableException asyncRealmTimeout(String realmName, long timeout);
+
+    @LogMessage(level = WARN)
+    @Message(id = 46, value = "The circuit breaker of security realm '%s' has opened, calls will fail over to the secondary realm.")
+    void circuitBreakerOpened(String realmName);
+
+    @LogMessage(level = INFO)
+    @Message(id = 47, value = "The circuit breaker of security realm '%s' has closed, calls are made to the primary realm again.")
+    void circuitBreakerClosed(String realmName);
+
+    @Message(id = 48, value = "The snapshot of the LDAP KeyStore is read only, modifications must be made to the LDAP KeyStore and are visible after the next refresh.")
+    KeyStoreException readOnlyKeyStoreSnapshot();
+
+    @Message(id = 49, value = "Timed out after %d milliseconds waiting for the validation of the same token by a concurrent request.")
+    RealmUnavailableException tokenValidationTimedOut(long maxWait);
+
+    @LogMessage(level = WARN)
+    @Message(id = 50, value = "The JSON Web Key Set from '%s' was not loaded within %d milliseconds, tokens are rejected until it has been loaded.")
+    void jsonWebKeySetNotLoaded(String url, long maxWait);
+
+    @LogMessage(level = WARN)
+    @Message(id = 51, value = "Identity [%s] was not exported as it holds credentials which can not be written to the export file.")
+    void identityNotExported(String name);
+
+    @Message(id = 52, value = "A context of dir-context '%s' was used after it was closed and returned to the pool.")
+    NamingException dirContextClosed(String dirContext);
+
+    @LogMessage(level = WARN)
+    @Message(id = 53, value = "KeyStore file '%s' has changed but the KeyStore holds modifications which have not been stored, the file has not been reloaded.")
+    void keyStoreNotReloaded(String file);
+
+    @LogMessage(level = WARN)
+    @Message(id = 54, value = "The response of token introspection endpoint '%s' is not a JSON object, the token is treated as inactive.")
+    void invalidIntrospectionResponse(String url, @Cause Throwable cause);
+
+    @Message(id = 55, value = "Timed out after %d seconds waiting for the service '%s' to start.")
+    OperationFailedException serviceActivationTimedOut(long timeout, ServiceName serviceName);
+
+    @Message(id = 56, value = "Interrupted whilst waiting for the service '%s' to start.")
+    OperationFailedException serviceActivationInterrupted(ServiceName serviceName, @Cause InterruptedException cause);
+
     // CREDENTIAL_STORE section
     @Message(id = 909, value = "Credential store '%s' does not support given credential store entry type '%s'")
     IllegalArgumentException credentialStoreEntryTypeNotSupported(String credentialStoreName, String entryType);
@@ -330,4 +441,16 @@ public interface ElytronSubsystemMessages extends BasicLogger {
 
     @Message(id = 1014, value = "Invalid [%s] definition.")
     OperationFailedException invalidDefinition(final String property);
+
+    @Message(id = 1015, value = "Invalid identity record at line %d.")
+    OperationFailedException invalidIdentityRecord(final int line, @Cause Throwable cause);
+
+    @Message(id = 1016, value = "Could not import the batch of identities starting at line %d, %d identities were imported before the failure.")
+    OperationFailedException couldNotImportIdentities(final int line, final long imported, @Cause Throwable cause);
+
+    @Message(id = 1017, value = "Could not export identities, %d identities were exported before the failure.")
+    OperationFailedException couldNotExportIdentities(final long exported, @Cause Throwable cause);
+
+    @Message(id = 1018, value = "Identity with name [%s] holds credentials which can not be restored if the import fails.")
+    OperationFailedException identityCredentialsNotRestorable(final String principalName);
 }
@@ -0,0 +1,250 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.extension.elytron;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.security.Principal;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.wildfly.security.auth.SupportLevel;
+import org.wildfly.security.auth.principal.NamePrincipal;
+import org.wildfly.security.auth.server.RealmIdentity;
+import org.wildfly.security.auth.server.RealmUnavailableException;
+import org.wildfly.security.auth.server.SecurityRealm;
+import org.wildfly.security.authz.Attributes;
+import org.wildfly.security.authz.AuthorizationIdentity;
+import org.wildfly.security.credential.Credential;
+import org.wildfly.security.evidence.Evidence;
+
+/**
+ * Tests of the bulkhead of an {@link AsyncSecurityRealm}.
+ */
+public class AsyncSecurityRealmTestCase {
+
+    @Test
+    public void testCallCompletes() throws Exception {
+        AsyncSecurityRealm securityRealm = new AsyncSecurityRealm("test", new BlockingSecurityRealm(new CountDownLatch(0)), 1, 0, 5000);
+        try {
+            assertEquals(SupportLevel.UNSUPPORTED, securityRealm.getCredentialAcquireSupport(Credential.class, null));
+            assertEquals(RealmIdentity.NON_EXISTENT, securityRealm.getRealmIdentity(new NamePrincipal("user")));
+        } finally {
+            securityRealm.close();
+        }
+    }
+
+    @Test
+    public void testSaturatedRealmRejects() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AsyncSecurityRealm securityRealm = new AsyncSecurityRealm("test", new BlockingSecurityRealm(release), 1, 1, 5000);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            // One call executing and one queued fill the realm.
+            callers.submit(() -> securityRealm.getCredentialAcquireSupport(Credential.class, null));
+            callers.submit(() -> securityRealm.getCredentialAcquireSupport(Credential.class, null));
+            long deadline = System.currentTimeMillis() + 5000;
+            while ((securityRealm.getActiveCalls() < 1 || securityRealm.getQueuedCalls() < 1) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+
+            try {
+                securityRealm.getCredentialAcquireSupport(Credential.class, null);
+                fail("Expected exception not thrown.");
+            } catch (RealmUnavailableException expected) {
+            }
+            assertEquals(1, securityRealm.getRejectedCalls());
+        } finally {
+            release.countDown();
+            callers.shutdown();
+            assertTrue(callers.awaitTermination(5, TimeUnit.SECONDS));
+            securityRealm.close();
+        }
+    }
+
+    @Test
+    public void testSlowCallTimesOut() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AsyncSecurityRealm securityRealm = new AsyncSecurityRealm("test", new BlockingSecurityRealm(release), 1, 0, 100);
+        try {
+            securityRealm.getEvidenceVerifySupport(Evidence.class, null);
+            fail("Expected exception not thrown.");
+        } catch (RealmUnavailableException expected) {
+            assertEquals(1, securityRealm.getTimedOutCalls());
+        } finally {
+            release.countDown();
+            securityRealm.close();
+        }
+    }
+
+    @Test
+    public void testIdentityObtainedAfterTimeoutDisposed() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch disposed = new CountDownLatch(1);
+        SecurityRealm slowRealm = new SecurityRealm() {
+
+            @Override
+            public RealmIdentity getRealmIdentity(Principal principal) throws RealmUnavailableException {
+                // Ignore the interrupt of the cancellation as a blocking backend would.
+                boolean interrupted = false;
+                while (true) {
+                    try {
+                        release.await();
+                        break;
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+                return new DisposableIdentity(principal, disposed);
+            }
+
+            @Override
+            public SupportLevel getCredentialAcquireSupport(Class<? extends Credential> credentialType, String algorithmName) {
+                return SupportLevel.UNSUPPORTED;
+            }
+
+            @Override
+            public SupportLevel getEvidenceVerifySupport(Class<? extends Evidence> evidenceType, String algorithmName) {
+                return SupportLevel.UNSUPPORTED;
+            }
+
+        };
+        AsyncSecurityRealm securityRealm = new AsyncSecurityRealm("test", slowRealm, 1, 0, 100);
+        try {
+            securityRealm.getRealmIdentity(new NamePrincipal("user"));
+            fail("Expected exception not thrown.");
+        } catch (RealmUnavailableException expected) {
+            assertEquals(1, disposed.getCount());
+            release.countDown();
+            assertTrue(disposed.await(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            securityRealm.close();
+        }
+    }
+
+    /**
+     * A realm where each call waits for a latch to be released.
+     */
+    private static final class BlockingSecurityRealm implements SecurityRealm {
+
+        private final CountDownLatch release;
+
+        BlockingSecurityRealm(CountDownLatch release) {
+            this.release = release;
+        }
+
+        private void await() throws RealmUnavailableException {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RealmUnavailableException(e);
+            }
+        }
+
+        @Override
+        public RealmIdentity getRealmIdentity(Principal principal) throws RealmUnavailableException {
+            await();
+            return RealmIdentity.NON_EXISTENT;
+        }
+
+        @Override
+        public SupportLevel getCredentialAcquireSupport(Class<? extends Credential> credentialType, String algorithmName) throws RealmUnavailableException {
+            await();
+            return SupportLevel.UNSUPPORTED;
+        }
+
+        @Override
+        public SupportLevel getEvidenceVerifySupport(Class<? extends Evidence> evidenceType, String algorithmName) throws RealmUnavailableException {
+            await();
+            return SupportLevel.UNSUPPORTED;
+        }
+
+    }
+
+    /**
+     * An identity counting down a latch once disposed.
+     */
+    private static final class DisposableIdentity implements RealmIdentity {
+
+        private final Principal principal;
+        private final CountDownLatch disposed;
+
+        DisposableIdentity(Principal principal, CountDownLatch disposed) {
+            this.principal = principal;
+            this.disposed = disposed;
+        }
+
+        @Override
+        public Principal getRealmIdentityPrincipal() {
+            return principal;
+        }
+
+        @Override
+        public SupportLevel getCredentialAcquireSupport(Class<? extends Credential> credentialType, String algorithmName) {
+            return SupportLevel.UNSUPPORTED;
+        }
+
+        @Override
+        public <C extends Credential> C getCredential(Class<C> credentialType) {
+            return null;
+        }
+
+        @Override
+        public <C extends Credential> C getCredential(Class<C> credentialType, String algorithmName) {
+            return null;
+        }
+
+        @Override
+        public SupportLevel getEvidenceVerifySupport(Class<? extends Evidence> evidenceType, String algorithmName) {
+            return SupportLevel.UNSUPPORTED;
+        }
+
+        @Override
+        public boolean verifyEvidence(Evidence evidence) {
+            return false;
+        }
+
+        @Override
+        public boolean exists() {
+            return true;
+        }
+
+        @Override
+        public AuthorizationIdentity getAuthorizationIdentity() {
+            return AuthorizationIdentity.basicIdentity(Attributes.EMPTY);
+        }
+
+        @Override
+        public void dispose() {
+            disposed.countDown();
+        }
+
+    }
+
+}
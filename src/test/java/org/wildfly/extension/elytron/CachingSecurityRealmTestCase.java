@@ -0,0 +1,257 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.extension.elytron;
+
+import java.security.Principal;
+import java.security.Provider;
+import java.security.Security;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.wildfly.security.WildFlyElytronProvider;
+import org.wildfly.security.auth.SupportLevel;
+import org.wildfly.security.auth.principal.NamePrincipal;
+import org.wildfly.security.auth.realm.SimpleMapBackedSecurityRealm;
+import org.wildfly.security.auth.realm.SimpleRealmEntry;
+import org.wildfly.security.auth.server.RealmIdentity;
+import org.wildfly.security.auth.server.RealmUnavailableException;
+import org.wildfly.security.auth.server.SecurityRealm;
+import org.wildfly.security.authz.AuthorizationIdentity;
+import org.wildfly.security.credential.Credential;
+import org.wildfly.security.credential.PasswordCredential;
+import org.wildfly.security.evidence.Evidence;
+import org.wildfly.security.evidence.PasswordGuessEvidence;
+import org.wildfly.security.password.PasswordFactory;
+import org.wildfly.security.password.interfaces.ClearPassword;
+import org.wildfly.security.password.spec.ClearPasswordSpec;
+
+/**
+ * Tests of the identity cache that can be placed in front of a {@link SecurityRealm}.
+ */
+public class CachingSecurityRealmTestCase {
+
+    private static final Provider PROVIDER = new WildFlyElytronProvider();
+
+    private final AtomicInteger lookups = new AtomicInteger();
+    private final AtomicInteger disposals = new AtomicInteger();
+
+    @BeforeClass
+    public static void registerProvider() {
+        Security.addProvider(PROVIDER);
+    }
+
+    @AfterClass
+    public static void removeProvider() {
+        Security.removeProvider(PROVIDER.getName());
+    }
+
+    @Test
+    public void testIdentityServedFromCache() throws Exception {
+        CachingSecurityRealm realm = new CachingSecurityRealm(createRealm("user1", "user2"), 10, -1, 0);
+
+        RealmIdentity identity = realm.getRealmIdentity(new NamePrincipal("user1"));
+        Assert.assertTrue(identity.exists());
+        Assert.assertTrue(identity.verifyEvidence(new PasswordGuessEvidence("user1Password".toCharArray())));
+        Assert.assertFalse(identity.verifyEvidence(new PasswordGuessEvidence("wrong".toCharArray())));
+        identity.dispose();
+
+        identity = realm.getRealmIdentity(new NamePrincipal("user1"));
+        Assert.assertTrue(identity.verifyEvidence(new PasswordGuessEvidence("user1Password".toCharArray())));
+
+        Assert.assertEquals(1, lookups.get());
+        Assert.assertEquals(1, realm.getHitCount());
+        Assert.assertEquals(1, realm.getMissCount());
+        Assert.assertEquals(1, realm.size());
+
+        realm.clear();
+        Assert.assertEquals(0, realm.size());
+        realm.getRealmIdentity(new NamePrincipal("user1"));
+        Assert.assertEquals(2, lookups.get());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEviction() throws Exception {
+        CachingSecurityRealm realm = new CachingSecurityRealm(createRealm("user1", "user2", "user3"), 2, -1, 0);
+
+        realm.getRealmIdentity(new NamePrincipal("user1"));
+        realm.getRealmIdentity(new NamePrincipal("user2"));
+        realm.getRealmIdentity(new NamePrincipal("user1"));
+        realm.getRealmIdentity(new NamePrincipal("user3"));
+
+        Assert.assertEquals(2, realm.size());
+        Assert.assertEquals(1, realm.getEvictionCount());
+
+        // user2 was the least recently used so should be reloaded, user1 should still be cached.
+        realm.getRealmIdentity(new NamePrincipal("user1"));
+        Assert.assertEquals(3, lookups.get());
+        realm.getRealmIdentity(new NamePrincipal("user2"));
+        Assert.assertEquals(4, lookups.get());
+    }
+
+    @Test
+    public void testNegativeCaching() throws Exception {
+        CachingSecurityRealm realm = new CachingSecurityRealm(createRealm("user1"), 10, -1, 0);
+        Assert.assertFalse(realm.getRealmIdentity(new NamePrincipal("unknown")).exists());
+        Assert.assertFalse(realm.getRealmIdentity(new NamePrincipal("unknown")).exists());
+        Assert.assertEquals(2, lookups.get());
+        Assert.assertEquals(0, realm.size());
+
+        lookups.set(0);
+        realm = new CachingSecurityRealm(createRealm("user1"), 10, -1, 60000);
+        Assert.assertFalse(realm.getRealmIdentity(new NamePrincipal("unknown")).exists());
+        RealmIdentity identity = realm.getRealmIdentity(new NamePrincipal("unknown"));
+        Assert.assertFalse(identity.exists());
+        Assert.assertFalse(identity.verifyEvidence(new PasswordGuessEvidence("anything".toCharArray())));
+        Assert.assertEquals(1, lookups.get());
+    }
+
+    @Test
+    public void testExpiry() throws Exception {
+        CachingSecurityRealm realm = new CachingSecurityRealm(createRealm("user1"), 10, 0, 0);
+        realm.getRealmIdentity(new NamePrincipal("user1"));
+        realm.getRealmIdentity(new NamePrincipal("user1"));
+
+        Assert.assertEquals(2, lookups.get());
+        Assert.assertEquals(0, realm.getHitCount());
+        Assert.assertEquals(1, realm.getEvictionCount());
+    }
+
+    @Test
+    public void testDelegateDisposedOnceReleased() throws Exception {
+        CachingSecurityRealm realm = new CachingSecurityRealm(createRealm("user1"), 10, -1, 0);
+
+        RealmIdentity first = realm.getRealmIdentity(new NamePrincipal("user1"));
+        RealmIdentity second = realm.getRealmIdentity(new NamePrincipal("user1"));
+        first.dispose();
+
+        // Whilst cached and whilst still held after leaving the cache the wrapped identity remains usable.
+        realm.clear();
+        Assert.assertEquals(0, disposals.get());
+        Assert.assertTrue(second.verifyEvidence(new PasswordGuessEvidence("user1Password".toCharArray())));
+
+        second.dispose();
+        Assert.assertEquals(1, disposals.get());
+        second.dispose();
+        Assert.assertEquals(1, disposals.get());
+
+        // An identity no longer held is disposed of as soon as it leaves the cache.
+        realm.getRealmIdentity(new NamePrincipal("user1")).dispose();
+        realm.clear();
+        Assert.assertEquals(2, disposals.get());
+    }
+
+    private SecurityRealm createRealm(String... names) throws Exception {
+        PasswordFactory factory = PasswordFactory.getInstance(ClearPassword.ALGORITHM_CLEAR);
+        Map<String, SimpleRealmEntry> entries = new HashMap<>();
+        for (String name : names) {
+            Credential credential = new PasswordCredential(factory.generatePassword(new ClearPasswordSpec((name + "Password").toCharArray())));
+            entries.put(name, new SimpleRealmEntry(Collections.singletonList(credential)));
+        }
+        final SimpleMapBackedSecurityRealm realm = new SimpleMapBackedSecurityRealm();
+        realm.setPasswordMap(entries);
+
+        return new SecurityRealm() {
+
+            @Override
+            public RealmIdentity getRealmIdentity(Principal principal) throws RealmUnavailableException {
+                lookups.incrementAndGet();
+                RealmIdentity identity = realm.getRealmIdentity(principal);
+                return identity.exists() ? new DisposalCountingIdentity(identity) : identity;
+            }
+
+            @Override
+            public RealmIdentity getRealmIdentity(Evidence evidence) throws RealmUnavailableException {
+                return realm.getRealmIdentity(evidence);
+            }
+
+            @Override
+            public SupportLevel getCredentialAcquireSupport(Class<? extends Credential> credentialType, String algorithmName) throws RealmUnavailableException {
+                return realm.getCredentialAcquireSupport(credentialType, algorithmName);
+            }
+
+            @Override
+            public SupportLevel getEvidenceVerifySupport(Class<? extends Evidence> evidenceType, String algorithmName) throws RealmUnavailableException {
+                return realm.getEvidenceVerifySupport(evidenceType, algorithmName);
+            }
+        };
+    }
+
+    private final class DisposalCountingIdentity implements RealmIdentity {
+
+        private final RealmIdentity delegate;
+
+        DisposalCountingIdentity(RealmIdentity delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Principal getRealmIdentityPrincipal() {
+            return delegate.getRealmIdentityPrincipal();
+        }
+
+        @Override
+        public SupportLevel getCredentialAcquireSupport(Class<? extends Credential> credentialType, String algorithmName) throws RealmUnavailableException {
+            return delegate.getCredentialAcquireSupport(credentialType, algorithmName);
+        }
+
+        @Override
+        public <C extends Credential> C getCredential(Class<C> credentialType) throws RealmUnavailableException {
+            return delegate.getCredential(credentialType);
+        }
+
+        @Override
+        public <C extends Credential> C getCredential(Class<C> credentialType, String algorithmName) throws RealmUnavailableException {
+            return delegate.getCredential(credentialType, algorithmName);
+        }
+
+        @Override
+        public SupportLevel getEvidenceVerifySupport(Class<? extends Evidence> evidenceType, String algorithmName) throws RealmUnavailableException {
+            return delegate.getEvidenceVerifySupport(evidenceType, algorithmName);
+        }
+
+        @Override
+        public boolean verifyEvidence(Evidence evidence) throws RealmUnavailableException {
+            return delegate.verifyEvidence(evidence);
+        }
+
+        @Override
+        public boolean exists() throws RealmUnavailableException {
+            return delegate.exists();
+        }
+
+        @Override
+        public AuthorizationIdentity getAuthorizationIdentity() throws RealmUnavailableException {
+            return delegate.getAuthorizationIdentity();
+        }
+
+        @Override
+        public void dispose() {
+            disposals.incrementAndGet();
+            delegate.dispose();
+        }
+
+    }
+
+}
@@ -0,0 +1,120 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.extension.elytron;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.FilePermission;
+import java.security.Principal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.PropertyPermission;
+
+import org.junit.Test;
+import org.wildfly.security.auth.permission.LoginPermission;
+import org.wildfly.security.auth.principal.NamePrincipal;
+import org.wildfly.security.authz.PermissionMappable;
+import org.wildfly.security.authz.Roles;
+import org.wildfly.security.authz.SimplePermissionMapper.MappingMode;
+import org.wildfly.security.permission.PermissionVerifier;
+
+/**
+ * Tests of the {@link CompiledPermissionMapper}.
+ */
+public class CompiledPermissionMapperTestCase {
+
+    private static final CompiledPermissionMapper.Mapping USER_MAPPING = new CompiledPermissionMapper.Mapping(Collections.singleton("user"),
+            Collections.emptySet(), Arrays.asList(new LoginPermission(), new PropertyPermission("a.*", "read")));
+    private static final CompiledPermissionMapper.Mapping ADMIN_MAPPING = new CompiledPermissionMapper.Mapping(Collections.emptySet(),
+            new HashSet<>(Arrays.asList("Admin", "SuperUser")), Arrays.asList(new LoginPermission(), new FilePermission("/tmp/-", "read")));
+
+    @Test
+    public void testFirstMatch() {
+        CompiledPermissionMapper mapper = new CompiledPermissionMapper(MappingMode.FIRST_MATCH, Arrays.asList(USER_MAPPING, ADMIN_MAPPING));
+
+        PermissionVerifier verifier = mapper.mapPermissions(mappable("user"), roles("Admin"));
+        assertTrue(verifier.implies(new LoginPermission()));
+        assertTrue(verifier.implies(new PropertyPermission("a.b", "read")));
+        assertFalse(verifier.implies(new PropertyPermission("a.b", "write")));
+        assertFalse(verifier.implies(new FilePermission("/tmp/x", "read")));
+
+        verifier = mapper.mapPermissions(mappable("other"), roles("Admin"));
+        assertTrue(verifier.implies(new FilePermission("/tmp/x", "read")));
+        assertFalse(verifier.implies(new PropertyPermission("a.b", "read")));
+
+        verifier = mapper.mapPermissions(mappable("other"), roles("Guest"));
+        assertFalse(verifier.implies(new LoginPermission()));
+    }
+
+    @Test
+    public void testCombinedMappings() {
+        CompiledPermissionMapper or = new CompiledPermissionMapper(MappingMode.OR, Arrays.asList(USER_MAPPING, ADMIN_MAPPING));
+        PermissionVerifier verifier = or.mapPermissions(mappable("user"), roles("SuperUser"));
+        assertTrue(verifier.implies(new PropertyPermission("a.b", "read")));
+        assertTrue(verifier.implies(new FilePermission("/tmp/x", "read")));
+
+        CompiledPermissionMapper and = new CompiledPermissionMapper(MappingMode.AND, Arrays.asList(USER_MAPPING, ADMIN_MAPPING));
+        verifier = and.mapPermissions(mappable("user"), roles("SuperUser"));
+        assertTrue(verifier.implies(new LoginPermission()));
+        assertFalse(verifier.implies(new PropertyPermission("a.b", "read")));
+        assertFalse(verifier.implies(new FilePermission("/tmp/x", "read")));
+    }
+
+    @Test
+    public void testActionsCombined() {
+        CompiledPermissionMapper.Mapping mapping = new CompiledPermissionMapper.Mapping(Collections.singleton("user"), Collections.emptySet(),
+                Arrays.asList(new FilePermission("/x/-", "read"), new FilePermission("/x/-", "write"), new PropertyPermission("a.*", "read"),
+                        new PropertyPermission("a.b", "write")));
+        CompiledPermissionMapper mapper = new CompiledPermissionMapper(MappingMode.OR, Collections.singletonList(mapping));
+
+        PermissionVerifier verifier = mapper.mapPermissions(mappable("user"), roles());
+        assertTrue(verifier.implies(new FilePermission("/x/y", "read,write")));
+        assertTrue(verifier.implies(new PropertyPermission("a.b", "read,write")));
+        assertFalse(verifier.implies(new FilePermission("/x/y", "read,write,delete")));
+        assertFalse(verifier.implies(new PropertyPermission("a.c", "read,write")));
+    }
+
+    @Test
+    public void testVerifierCached() {
+        CompiledPermissionMapper mapper = new CompiledPermissionMapper(MappingMode.OR, Arrays.asList(USER_MAPPING, ADMIN_MAPPING));
+
+        // Identities matching the same mappings share the same verifier.
+        PermissionVerifier first = mapper.mapPermissions(mappable("other"), roles("Admin", "Guest"));
+        PermissionVerifier second = mapper.mapPermissions(mappable("another"), roles("SuperUser"));
+        assertSame(first, second);
+    }
+
+    private static Roles roles(String... roles) {
+        return Roles.fromSet(new HashSet<>(Arrays.asList(roles)));
+    }
+
+    private static PermissionMappable mappable(String name) {
+        return new PermissionMappable() {
+
+            @Override
+            public Principal getPrincipal() {
+                return new NamePrincipal(name);
+            }
+        };
+    }
+
+}
@@ -42,6 +42,7 @@ import org.wildfly.security.auth.server.ServerAuthenticationContext;
 import org.wildfly.security.authz.PermissionMappable;
 import org.wildfly.security.authz.PermissionMapper;
 import org.wildfly.security.authz.Roles;
+import org.wildfly.security.evidence.PasswordGuessEvidence;
 import org.wildfly.security.permission.PermissionVerifier;
 
 import mockit.integration.junit4.JMockit;
@@ -253,6 +254,74 @@ public class DomainTestCase extends AbstractSubsystemTest {
         Assert.assertFalse(verifier.implies(new FilePermission("aaa", "read")));
     }
 
+    @Test
+    public void testStatistics() throws Exception {
+        init();
+        ServiceName serviceName = Capabilities.SECURITY_DOMAIN_RUNTIME_CAPABILITY.getCapabilityServiceName("StatisticsDomain");
+        SecurityDomain domain = (SecurityDomain) services.getContainer().getService(serviceName).getValue();
+        Assert.assertNotNull(domain);
+
+        ServerAuthenticationContext context = domain.createNewAuthenticationContext();
+        context.setAuthenticationName("firstUser");
+        Assert.assertTrue(context.exists());
+        Assert.assertFalse(context.verifyEvidence(new PasswordGuessEvidence("wrong".toCharArray())));
+        context.authorize();
+        context.succeed();
+        Assert.assertTrue(context.getAuthorizedIdentity().getRoles().contains("prefixAdminsuffix"));
+
+        context = domain.createNewAuthenticationContext();
+        context.setAuthenticationName("unknownUser");
+        Assert.assertFalse(context.exists());
+
+        Assert.assertEquals(0, readStatistic(ElytronDescriptionConstants.SUCCESSFUL_AUTHENTICATIONS).asLong());
+        Assert.assertEquals(1, readStatistic(ElytronDescriptionConstants.FAILED_AUTHENTICATIONS).asLong());
+        Assert.assertEquals(1, readStatistic(ElytronDescriptionConstants.UNKNOWN_PRINCIPALS).asLong());
+        Assert.assertEquals(0, readStatistic(ElytronDescriptionConstants.IN_FLIGHT).asLong());
+        Assert.assertTrue(sum(readStatistic(ElytronDescriptionConstants.NAME_REWRITING_LATENCY)) > 0);
+        Assert.assertTrue(sum(readStatistic(ElytronDescriptionConstants.ROLE_MAPPING_LATENCY)) > 0);
+        Assert.assertTrue(sum(readStatistic(ElytronDescriptionConstants.PERMISSION_MAPPING_LATENCY)) > 0);
+
+        for (ModelNode realm : readStatistic(ElytronDescriptionConstants.REALM_STATISTICS).asList()) {
+            if ("FileRealm".equals(realm.get(ElytronDescriptionConstants.REALM).asString())) {
+                Assert.assertEquals(1, realm.get(ElytronDescriptionConstants.FAILED_AUTHENTICATIONS).asLong());
+                Assert.assertEquals(1, sum(realm.get(ElytronDescriptionConstants.VERIFICATION_LATENCY)));
+                Assert.assertTrue(sum(realm.get(ElytronDescriptionConstants.LOOKUP_LATENCY)) > 0);
+            }
+        }
+
+        ModelNode operation = new ModelNode();
+        operation.get(ClientConstants.OP_ADDR).add("subsystem", "elytron").add(ElytronDescriptionConstants.SECURITY_DOMAIN, "StatisticsDomain");
+        operation.get(ClientConstants.OP).set(ElytronDescriptionConstants.RESET_STATISTICS);
+        assertSuccess(services.executeOperation(operation));
+
+        Assert.assertEquals(0, readStatistic(ElytronDescriptionConstants.FAILED_AUTHENTICATIONS).asLong());
+        Assert.assertEquals(0, readStatistic(ElytronDescriptionConstants.UNKNOWN_PRINCIPALS).asLong());
+        Assert.assertEquals(0, sum(readStatistic(ElytronDescriptionConstants.ROLE_MAPPING_LATENCY)));
+
+        // Statistics are not enabled for this domain so are left undefined.
+        operation = new ModelNode();
+        operation.get(ClientConstants.OP_ADDR).add("subsystem", "elytron").add(ElytronDescriptionConstants.SECURITY_DOMAIN, "AnotherDomain");
+        operation.get(ClientConstants.OP).set(ClientConstants.READ_ATTRIBUTE_OPERATION);
+        operation.get(ClientConstants.NAME).set(ElytronDescriptionConstants.FAILED_AUTHENTICATIONS);
+        Assert.assertFalse(assertSuccess(services.executeOperation(operation)).get(ClientConstants.RESULT).isDefined());
+    }
+
+    private ModelNode readStatistic(String name) {
+        ModelNode operation = new ModelNode();
+        operation.get(ClientConstants.OP_ADDR).add("subsystem", "elytron").add(ElytronDescriptionConstants.SECURITY_DOMAIN, "StatisticsDomain");
+        operation.get(ClientConstants.OP).set(ClientConstants.READ_ATTRIBUTE_OPERATION);
+        operation.get(ClientConstants.NAME).set(name);
+        return assertSuccess(services.executeOperation(operation)).get(ClientConstants.RESULT);
+    }
+
+    private static long sum(ModelNode histogram) {
+        long sum = 0;
+        for (String bucket : histogram.keys()) {
+            sum += histogram.get(bucket).asLong();
+        }
+        return sum;
+    }
+
     public static class MyPermissionMapper implements PermissionMapper {
         @Override
         public PermissionVerifier mapPermissions(PermissionMappable permissionMappable, Roles roles) {
@@ -0,0 +1,195 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.extension.elytron;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.security.Principal;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.wildfly.security.auth.SupportLevel;
+import org.wildfly.security.auth.server.RealmIdentity;
+import org.wildfly.security.auth.server.RealmUnavailableException;
+import org.wildfly.security.auth.server.SecurityRealm;
+import org.wildfly.security.credential.Credential;
+import org.wildfly.security.evidence.Evidence;
+
+/**
+ * Tests of the failover and circuit breaker of a {@link FailoverSecurityRealm}.
+ */
+public class FailoverSecurityRealmTestCase {
+
+    @Test
+    public void testCircuitBreaker() throws Exception {
+        TestSecurityRealm primary = new TestSecurityRealm(SupportLevel.SUPPORTED);
+        TestSecurityRealm secondary = new TestSecurityRealm(SupportLevel.POSSIBLY_SUPPORTED);
+        FailoverSecurityRealm securityRealm = new FailoverSecurityRealm("test", primary, secondary, 4, 50, 0, 100);
+        CircuitBreaker circuitBreaker = securityRealm.getCircuitBreaker();
+
+        assertEquals(SupportLevel.SUPPORTED, securityRealm.getCredentialAcquireSupport(Credential.class, null));
+
+        // Failed calls fail over, the breaker opens once half of the window has failed.
+        primary.unavailable.set(true);
+        assertEquals(SupportLevel.POSSIBLY_SUPPORTED, securityRealm.getCredentialAcquireSupport(Credential.class, null));
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        securityRealm.getCredentialAcquireSupport(Credential.class, null);
+        securityRealm.getCredentialAcquireSupport(Credential.class, null);
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(1, circuitBreaker.getOpenTransitions());
+
+        // Whilst open the primary realm is not called.
+        int primaryCalls = primary.calls.get();
+        assertEquals(SupportLevel.POSSIBLY_SUPPORTED, securityRealm.getCredentialAcquireSupport(Credential.class, null));
+        assertEquals(primaryCalls, primary.calls.get());
+        assertEquals(4, securityRealm.getFailoverCalls());
+
+        // A failed probe opens the breaker again.
+        Thread.sleep(150);
+        securityRealm.getCredentialAcquireSupport(Credential.class, null);
+        assertEquals(primaryCalls + 1, primary.calls.get());
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(1, circuitBreaker.getHalfOpenTransitions());
+        assertEquals(2, circuitBreaker.getOpenTransitions());
+
+        // A successful probe closes the breaker.
+        primary.unavailable.set(false);
+        Thread.sleep(150);
+        assertEquals(SupportLevel.SUPPORTED, securityRealm.getCredentialAcquireSupport(Credential.class, null));
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(2, circuitBreaker.getHalfOpenTransitions());
+        assertEquals(1, circuitBreaker.getCloseTransitions());
+    }
+
+    @Test
+    public void testRuntimeExceptionsRecordedAsFailures() throws Exception {
+        TestSecurityRealm primary = new TestSecurityRealm(SupportLevel.SUPPORTED);
+        TestSecurityRealm secondary = new TestSecurityRealm(SupportLevel.POSSIBLY_SUPPORTED);
+        FailoverSecurityRealm securityRealm = new FailoverSecurityRealm("test", primary, secondary, 2, 50, 0, 100);
+        CircuitBreaker circuitBreaker = securityRealm.getCircuitBreaker();
+
+        // Unexpected exceptions are not failed over but still open the breaker.
+        primary.broken.set(true);
+        for (int i = 0; i < 2; i++) {
+            try {
+                securityRealm.getCredentialAcquireSupport(Credential.class, null);
+                fail("Expected IllegalStateException");
+            } catch (IllegalStateException expected) {
+            }
+        }
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(0, securityRealm.getFailoverCalls());
+
+        // A probe throwing an unexpected exception opens the breaker again.
+        Thread.sleep(150);
+        try {
+            securityRealm.getCredentialAcquireSupport(Credential.class, null);
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException expected) {
+        }
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(0, circuitBreaker.getCloseTransitions());
+    }
+
+    @Test
+    public void testSlowCallsOpenBreaker() throws Exception {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(2, 100, 10, 1000, new CircuitBreaker.Listener() {
+
+            @Override
+            public void opened() {
+            }
+
+            @Override
+            public void closed() {
+            }
+        });
+
+        circuitBreaker.record(circuitBreaker.permit(), false, 20_000_000L);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        circuitBreaker.record(circuitBreaker.permit(), false, 20_000_000L);
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    public void testOnlyProbeChangesHalfOpenState() throws Exception {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(1, 100, 0, 0, new CircuitBreaker.Listener() {
+
+            @Override
+            public void opened() {
+            }
+
+            @Override
+            public void closed() {
+            }
+        });
+
+        // A call permitted whilst closed which only completes once the breaker is half-open.
+        CircuitBreaker.Permit slowCall = circuitBreaker.permit();
+        circuitBreaker.record(circuitBreaker.permit(), true, 0);
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+
+        CircuitBreaker.Permit probe = circuitBreaker.permit();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        assertNull(circuitBreaker.permit());
+
+        circuitBreaker.record(slowCall, false, 0);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        circuitBreaker.record(probe, false, 0);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    private static final class TestSecurityRealm implements SecurityRealm {
+
+        private final SupportLevel supportLevel;
+        private final AtomicBoolean unavailable = new AtomicBoolean();
+        private final AtomicBoolean broken = new AtomicBoolean();
+        private final AtomicInteger calls = new AtomicInteger();
+
+        TestSecurityRealm(SupportLevel supportLevel) {
+            this.supportLevel = supportLevel;
+        }
+
+        @Override
+        public RealmIdentity getRealmIdentity(Principal principal) throws RealmUnavailableException {
+            return RealmIdentity.NON_EXISTENT;
+        }
+
+        @Override
+        public SupportLevel getCredentialAcquireSupport(Class<? extends Credential> credentialType, String algorithmName) throws RealmUnavailableException {
+            calls.incrementAndGet();
+            if (unavailable.get()) {
+                throw new RealmUnavailableException();
+            }
+            if (broken.get()) {
+                throw new IllegalStateException();
+            }
+            return supportLevel;
+        }
+
+        @Override
+        public SupportLevel getEvidenceVerifySupport(Class<? extends Evidence> evidenceType, String algorithmName) throws RealmUnavailableException {
+            return supportLevel;
+        }
+
+    }
+
+}
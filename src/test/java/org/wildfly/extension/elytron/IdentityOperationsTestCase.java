@@ -31,6 +31,11 @@ import static org.wildfly.extension.elytron.ElytronDescriptionConstants.NAME;
 import static org.wildfly.extension.elytron.ElytronDescriptionConstants.REALM;
 import static org.wildfly.extension.elytron.ElytronDescriptionConstants.ROLES;
 
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
 import org.jboss.as.controller.ObjectTypeAttributeDefinition;
 import org.jboss.as.controller.PathAddress;
 import org.jboss.as.controller.PathElement;
@@ -278,6 +283,51 @@ public class IdentityOperationsTestCase extends AbstractSubsystemTest {
         assertSuccessful(result);
     }
 
+    @Test
+    public void testAddBcryptPasswordWithDefaults() throws Exception {
+        KernelServices services = createKernelServicesBuilder(null)
+                .setSubsystemXmlResource("identity-management.xml")
+                .build();
+        String principalName = "plainUser";
+        PathAddress realmAddress = getSecurityRealmAddress("FileSystemRealm");
+        PathAddress securityDomainAddress = getSecurityDomainAddress("FileSystemDomain");
+        ModelNode operation = createAddIdentityOperation(realmAddress, principalName);
+        ModelNode result = services.executeOperation(operation);
+        assertSuccessful(result);
+
+        operation = createPasswordOperation("default", realmAddress, principalName,
+                IdentityResourceDefinition.PasswordSetHandler.Bcrypt.OBJECT_DEFINITION, "bcryptPassword", null, null, null, null);
+        result = services.executeOperation(operation);
+        assertSuccessful(result);
+
+        operation = createAuthenticateOperation(securityDomainAddress, "default", principalName, "bcryptPassword");
+        result = services.executeOperation(operation);
+        assertSuccessful(result);
+    }
+
+    @Test
+    public void testBenchmarkPasswordHashing() throws Exception {
+        KernelServices services = createKernelServicesBuilder(null)
+                .setSubsystemXmlResource("identity-management.xml")
+                .build();
+        ModelNode algorithms = new ModelNode();
+        algorithms.add(BCryptPassword.ALGORITHM_BCRYPT);
+        algorithms.add(SimpleDigestPassword.ALGORITHM_SIMPLE_DIGEST_SHA_256);
+
+        ModelNode operation = SubsystemOperations.OperationBuilder.create(new SimpleOperationDefinition(ElytronDescriptionConstants.BENCHMARK_PASSWORD_HASHING,
+                ElytronExtension.getResourceDescriptionResolver()), PathAddress.pathAddress(ElytronExtension.SUBSYSTEM_PATH).toModelNode())
+                .addAttribute(PasswordHashingDefinitions.ALGORITHMS, algorithms)
+                .addAttribute(PasswordHashingDefinitions.ITERATION_COUNT, new ModelNode(4))
+                .addAttribute(PasswordHashingDefinitions.DURATION, new ModelNode(50))
+                .build();
+        ModelNode result = services.executeOperation(operation);
+        assertSuccessful(result);
+        assertEquals(4, result.get(RESULT, ElytronDescriptionConstants.ITERATION_COUNT).asInt());
+        ModelNode bcrypt = result.get(RESULT, ElytronDescriptionConstants.ALGORITHMS, BCryptPassword.ALGORITHM_BCRYPT);
+        assertTrue(bcrypt.get(ElytronDescriptionConstants.HASHES_PER_SECOND).asLong() > 0);
+        assertTrue(result.get(RESULT, ElytronDescriptionConstants.ALGORITHMS, SimpleDigestPassword.ALGORITHM_SIMPLE_DIGEST_SHA_256).isDefined());
+    }
+
     @Test
     public void testClearPassword() throws Exception {
         KernelServices services = createKernelServicesBuilder(null)
@@ -393,6 +443,51 @@ public class IdentityOperationsTestCase extends AbstractSubsystemTest {
         assertSuccessful(result);
     }
 
+    @Test
+    public void testImportExportIdentities() throws Exception {
+        KernelServices services = createKernelServicesBuilder(null)
+                .setSubsystemXmlResource("identity-management.xml")
+                .build();
+        PathAddress realmAddress = getSecurityRealmAddress("FileSystemRealm");
+        Path importFile = Files.createTempFile("identities", ".json");
+        Path exportFile = Files.createTempFile("identities", ".json");
+        try {
+            Files.write(importFile, Arrays.asList(
+                    "{\"name\" : \"importedUser1\", \"attributes\" : {\"Roles\" : [\"Admin\", \"Employee\"]}, \"password\" : \"password1\"}",
+                    "",
+                    "{\"name\" : \"importedUser2\", \"password\" : \"password2\"}",
+                    "{\"name\" : \"importedUser3\", \"attributes\" : {\"firstName\" : [\"John\"]}}"), StandardCharsets.UTF_8);
+
+            ModelNode result = services.executeOperation(createImportIdentitiesOperation(realmAddress, importFile, false));
+            assertSuccessful(result);
+            assertEquals(3, result.get(RESULT, ElytronDescriptionConstants.IDENTITIES).asInt());
+
+            result = services.executeOperation(createReadIdentityOperation(realmAddress, "importedUser1"));
+            assertSuccessful(result);
+            assertAttributeValue(result.get(RESULT, ATTRIBUTES), "Roles", "Admin", "Employee");
+
+            // The identities already exist so the batch fails as a whole.
+            result = services.executeOperation(createImportIdentitiesOperation(realmAddress, importFile, false));
+            assertFail(result);
+
+            result = services.executeOperation(createImportIdentitiesOperation(realmAddress, importFile, true));
+            assertSuccessful(result);
+
+            ModelNode operation = SubsystemOperations.OperationBuilder.create(new SimpleOperationDefinition(ElytronDescriptionConstants.EXPORT_IDENTITIES,
+                    ElytronExtension.getResourceDescriptionResolver(ElytronDescriptionConstants.MODIFIABLE_SECURITY_REALM)), realmAddress.toModelNode())
+                    .addAttribute(IdentityBulkOperations.PATH, exportFile.toString())
+                    .build();
+            result = services.executeOperation(operation);
+            assertSuccessful(result);
+            long exported = result.get(RESULT, ElytronDescriptionConstants.IDENTITIES).asLong();
+            assertEquals(3, exported + result.get(RESULT, ElytronDescriptionConstants.SKIPPED).asLong());
+            assertEquals(exported, Files.readAllLines(exportFile, StandardCharsets.UTF_8).size());
+        } finally {
+            Files.deleteIfExists(importFile);
+            Files.deleteIfExists(exportFile);
+        }
+    }
+
     private void assertSuccessful(ModelNode result) {
         assertEquals(SUCCESS, result.get(OUTCOME).asString());
     }
@@ -488,6 +583,15 @@ public class IdentityOperationsTestCase extends AbstractSubsystemTest {
                 .build();
     }
 
+    private ModelNode createImportIdentitiesOperation(PathAddress realmAddress, Path file, boolean replaceExisting) {
+        return SubsystemOperations.OperationBuilder.create(new SimpleOperationDefinition(ElytronDescriptionConstants.IMPORT_IDENTITIES,
+                ElytronExtension.getResourceDescriptionResolver(ElytronDescriptionConstants.MODIFIABLE_SECURITY_REALM)), realmAddress.toModelNode())
+                .addAttribute(IdentityBulkOperations.PATH, file.toString())
+                .addAttribute(IdentityBulkOperations.BATCH_SIZE, new ModelNode(2))
+                .addAttribute(IdentityBulkOperations.REPLACE_EXISTING, new ModelNode(replaceExisting))
+                .build();
+    }
+
     private ModelNode createReadSecurityDomainIdentityOperation(PathAddress parentAddress, String principalName) {
         return SubsystemOperations.OperationBuilder.create(new SimpleOperationDefinition(ElytronDescriptionConstants.READ_IDENTITY, ElytronExtension.getResourceDescriptionResolver(ElytronDescriptionConstants.SECURITY_DOMAIN)),
                 parentAddress.toModelNode())
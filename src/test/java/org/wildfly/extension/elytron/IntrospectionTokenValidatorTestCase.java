@@ -0,0 +1,245 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.extension.elytron;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.wildfly.security.auth.realm.token.TokenSecurityRealm;
+import org.wildfly.security.auth.server.RealmIdentity;
+import org.wildfly.security.auth.server.RealmUnavailableException;
+import org.wildfly.security.auth.server.SecurityRealm;
+import org.wildfly.security.evidence.BearerTokenEvidence;
+
+/**
+ * Tests of token introspection and of the caching of its results, using a stub introspection endpoint.
+ */
+public class IntrospectionTokenValidatorTestCase {
+
+    private static final String ACTIVE_TOKEN = "active-token";
+    private static final String NON_OBJECT_TOKEN = "non-object-token";
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    private volatile CountDownLatch requestReceived = new CountDownLatch(1);
+    private volatile CountDownLatch releaseResponse = new CountDownLatch(0);
+
+    private HttpServer server;
+    private ExecutorService executor;
+    private URL introspectionUrl;
+
+    @Before
+    public void startServer() throws Exception {
+        executor = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/introspect", this::introspect);
+        server.start();
+        introspectionUrl = new URL("http", InetAddress.getLoopbackAddress().getHostAddress(), server.getAddress().getPort(), "/introspect");
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void introspect(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        clientPorts.add(exchange.getRemoteAddress().getPort());
+        String token = URLDecoder.decode(read(exchange.getRequestBody()).substring("token=".length()), StandardCharsets.UTF_8.name());
+        requestReceived.countDown();
+        try {
+            releaseResponse.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        String response = ACTIVE_TOKEN.equals(token)
+                ? "{\"active\":true,\"sub\":\"elytron\",\"scope\":\"read write\",\"aud\":[\"a\",\"b\"]}"
+                : NON_OBJECT_TOKEN.equals(token) ? "[true]" : "{\"active\":false}";
+        byte[] body = response.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static String read(InputStream stream) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[256];
+        int read;
+        while ((read = stream.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private SecurityRealm createRealm(long negativeCacheAge) {
+        return new CachingTokenSecurityRealm(TokenSecurityRealm.builder().principalClaimName("sub")
+                .validator(new IntrospectionTokenValidator(introspectionUrl, "client", "secret", null, null, 5000, 10000))
+                .build(), 10, -1, negativeCacheAge, 15000);
+    }
+
+    @Test
+    public void testActiveTokenCached() throws Exception {
+        SecurityRealm realm = createRealm(0);
+
+        RealmIdentity identity = realm.getRealmIdentity(new BearerTokenEvidence(ACTIVE_TOKEN));
+        Assert.assertTrue(identity.exists());
+        Assert.assertEquals("elytron", identity.getRealmIdentityPrincipal().getName());
+        Assert.assertEquals(2, identity.getAuthorizationIdentity().getAttributes().get("aud").size());
+
+        Assert.assertTrue(realm.getRealmIdentity(new BearerTokenEvidence(ACTIVE_TOKEN)).exists());
+        Assert.assertEquals(1, requests.get());
+    }
+
+    @Test
+    public void testInactiveTokenNegativelyCached() throws Exception {
+        SecurityRealm uncached = createRealm(0);
+        Assert.assertFalse(uncached.getRealmIdentity(new BearerTokenEvidence("revoked-token")).exists());
+        Assert.assertFalse(uncached.getRealmIdentity(new BearerTokenEvidence("revoked-token")).exists());
+        Assert.assertEquals(2, requests.get());
+
+        SecurityRealm cached = createRealm(60000);
+        Assert.assertFalse(cached.getRealmIdentity(new BearerTokenEvidence("revoked-token")).exists());
+        Assert.assertFalse(cached.getRealmIdentity(new BearerTokenEvidence("revoked-token")).exists());
+        Assert.assertEquals(3, requests.get());
+    }
+
+    @Test
+    public void testConcurrentLookupsCoalesced() throws Exception {
+        final SecurityRealm realm = createRealm(0);
+        releaseResponse = new CountDownLatch(1);
+
+        List<Thread> threads = new ArrayList<>();
+        List<Future<Boolean>> results = new ArrayList<>();
+        ExecutorService clients = Executors.newFixedThreadPool(5, r -> {
+            Thread thread = new Thread(r);
+            threads.add(thread);
+            return thread;
+        });
+        try {
+            for (int i = 0; i < 5; i++) {
+                results.add(clients.submit(() -> realm.getRealmIdentity(new BearerTokenEvidence(ACTIVE_TOKEN)).exists()));
+            }
+            Assert.assertTrue(requestReceived.await(10, TimeUnit.SECONDS));
+
+            // Wait for the remaining lookups to be waiting on the lookup in progress before it is allowed to complete.
+            long deadline = System.currentTimeMillis() + 10000;
+            while (threads.stream().filter(t -> t.getState() == Thread.State.TIMED_WAITING).count() < 4 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            releaseResponse.countDown();
+
+            for (Future<Boolean> result : results) {
+                Assert.assertTrue(result.get(10, TimeUnit.SECONDS));
+            }
+            Assert.assertEquals(1, requests.get());
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testConnectionReused() throws Exception {
+        IntrospectionTokenValidator validator = new IntrospectionTokenValidator(introspectionUrl, "client", "secret", null, null, 5000, 10000);
+
+        for (int i = 0; i < 5; i++) {
+            Assert.assertNotNull(validator.validate(new BearerTokenEvidence(ACTIVE_TOKEN)));
+            Assert.assertNull(validator.validate(new BearerTokenEvidence("token-" + i)));
+        }
+        Assert.assertEquals(10, requests.get());
+        Assert.assertEquals(1, clientPorts.size());
+    }
+
+    @Test
+    public void testNonObjectResponseInactive() throws Exception {
+        IntrospectionTokenValidator validator = new IntrospectionTokenValidator(introspectionUrl, "client", "secret", null, null, 5000, 10000);
+        Assert.assertNull(validator.validate(new BearerTokenEvidence(NON_OBJECT_TOKEN)));
+    }
+
+    @Test
+    public void testReadTimeout() throws Exception {
+        IntrospectionTokenValidator validator = new IntrospectionTokenValidator(introspectionUrl, "client", "secret", null, null, 5000, 200);
+        releaseResponse = new CountDownLatch(1);
+        try {
+            long start = System.currentTimeMillis();
+            try {
+                validator.validate(new BearerTokenEvidence(ACTIVE_TOKEN));
+                Assert.fail("Expected RealmUnavailableException not thrown.");
+            } catch (RealmUnavailableException expected) {
+            }
+            Assert.assertTrue(System.currentTimeMillis() - start < 5000);
+        } finally {
+            releaseResponse.countDown();
+        }
+    }
+
+    @Test
+    public void testConcurrentLookupWaitBounded() throws Exception {
+        final SecurityRealm realm = new CachingTokenSecurityRealm(TokenSecurityRealm.builder().principalClaimName("sub")
+                .validator(new IntrospectionTokenValidator(introspectionUrl, "client", "secret", null, null, 5000, 10000))
+                .build(), 10, -1, 0, 200);
+        releaseResponse = new CountDownLatch(1);
+
+        ExecutorService clients = Executors.newSingleThreadExecutor();
+        try {
+            Future<Boolean> first = clients.submit(() -> realm.getRealmIdentity(new BearerTokenEvidence(ACTIVE_TOKEN)).exists());
+            Assert.assertTrue(requestReceived.await(10, TimeUnit.SECONDS));
+            try {
+                realm.getRealmIdentity(new BearerTokenEvidence(ACTIVE_TOKEN));
+                Assert.fail("Expected RealmUnavailableException not thrown.");
+            } catch (RealmUnavailableException expected) {
+            }
+
+            releaseResponse.countDown();
+            Assert.assertTrue(first.get(10, TimeUnit.SECONDS));
+            Assert.assertEquals(1, requests.get());
+        } finally {
+            releaseResponse.countDown();
+            clients.shutdownNow();
+        }
+    }
+
+}
@@ -0,0 +1,336 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.wildfly.extension.elytron;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.security.Principal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetMetaDataImpl;
+import javax.sql.rowset.RowSetProvider;
+
+import org.jboss.dmr.ModelNode;
+import org.junit.Test;
+import org.wildfly.security.auth.SupportLevel;
+import org.wildfly.security.auth.principal.NamePrincipal;
+import org.wildfly.security.auth.server.RealmIdentity;
+import org.wildfly.security.auth.server.RealmUnavailableException;
+import org.wildfly.security.auth.server.SecurityRealm;
+import org.wildfly.security.authz.Attributes;
+import org.wildfly.security.authz.AuthorizationIdentity;
+import org.wildfly.security.credential.Credential;
+import org.wildfly.security.evidence.Evidence;
+
+/**
+ * Tests of the execution of the principal queries of a JDBC realm.
+ */
+public class JdbcQueryExecutorTestCase {
+
+    private static final String SQL = "SELECT name FROM USERS WHERE name = ?";
+
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicInteger executions = new AtomicInteger();
+    private final AtomicInteger cancellations = new AtomicInteger();
+
+    private final AtomicBoolean blocking = new AtomicBoolean();
+    private final CountDownLatch blocked = new CountDownLatch(1);
+    private final CountDownLatch cancelled = new CountDownLatch(1);
+
+    @Test
+    public void testUnbatchedQueries() throws Exception {
+        JdbcQueryExecutor queryExecutor = new JdbcQueryExecutor(false, false, 0, 0, 1);
+        SecurityRealm securityRealm = queryExecutor.wrap(new QueryingSecurityRealm(queryExecutor.register(SQL, createDataSource())));
+
+        RealmIdentity identity = securityRealm.getRealmIdentity(new NamePrincipal("user"));
+        assertTrue(identity.exists());
+        identity.dispose();
+
+        assertEquals(2, connections.get());
+        assertEquals(2, executions.get());
+        ModelNode statistics = queryExecutor.getQueryStatistics().get(0);
+        assertEquals(SQL, statistics.get(ElytronDescriptionConstants.SQL).asString());
+        assertEquals(2, statistics.get(ElytronDescriptionConstants.EXECUTIONS).asLong());
+        assertEquals(0, statistics.get(ElytronDescriptionConstants.COALESCED).asLong());
+    }
+
+    @Test
+    public void testBatchedQueries() throws Exception {
+        JdbcQueryExecutor queryExecutor = new JdbcQueryExecutor(true, false, 10, 30, 1);
+        SecurityRealm securityRealm = queryExecutor.wrap(new QueryingSecurityRealm(queryExecutor.register(SQL, createDataSource())));
+
+        RealmIdentity identity = securityRealm.getRealmIdentity(new NamePrincipal("user"));
+        assertTrue(identity.exists());
+        // A second call is answered from the results already held for the identity.
+        assertTrue(identity.exists());
+        identity.dispose();
+
+        assertEquals(1, connections.get());
+        assertEquals(1, executions.get());
+        ModelNode statistics = queryExecutor.getQueryStatistics().get(0);
+        assertEquals(1, statistics.get(ElytronDescriptionConstants.EXECUTIONS).asLong());
+        assertEquals(3, statistics.get(ElytronDescriptionConstants.COALESCED).asLong());
+
+        // Results are not shared between identities.
+        identity = securityRealm.getRealmIdentity(new NamePrincipal("other"));
+        assertFalse(identity.exists());
+        identity.dispose();
+        assertEquals(2, executions.get());
+
+        queryExecutor.resetQueryStatistics();
+        statistics = queryExecutor.getQueryStatistics().get(0);
+        assertEquals(0, statistics.get(ElytronDescriptionConstants.EXECUTIONS).asLong());
+    }
+
+    @Test
+    public void testParallelQueries() throws Exception {
+        JdbcQueryExecutor queryExecutor = new JdbcQueryExecutor(false, true, 0, 0, 1);
+        try {
+            DataSource dataSource = createDataSource();
+            SecurityRealm securityRealm = queryExecutor.wrap(new QueryingSecurityRealm(queryExecutor.register(SQL, dataSource)));
+            // A query taking further parameters is never executed in parallel.
+            queryExecutor.register(SQL + " AND realm = ?", dataSource);
+
+            RealmIdentity identity = securityRealm.getRealmIdentity(new NamePrincipal("user"));
+            // Nothing is executed until the identity is loaded.
+            assertNull(identity.getCredential(Credential.class));
+            assertEquals(0, executions.get());
+
+            assertTrue(identity.exists());
+            identity.dispose();
+
+            assertEquals(1, connections.get());
+            assertEquals(1, executions.get());
+            for (ModelNode statistics : queryExecutor.getQueryStatistics().asList()) {
+                if (SQL.equals(statistics.get(ElytronDescriptionConstants.SQL).asString())) {
+                    assertEquals(2, statistics.get(ElytronDescriptionConstants.COALESCED).asLong());
+                }
+            }
+        } finally {
+            queryExecutor.close();
+        }
+    }
+
+    @Test
+    public void testDisposeCancelsParallelQuery() throws Exception {
+        JdbcQueryExecutor queryExecutor = new JdbcQueryExecutor(false, true, 0, 0, 1);
+        try {
+            SecurityRealm securityRealm = queryExecutor.wrap(new QueryingSecurityRealm(queryExecutor.register(SQL, createDataSource())));
+
+            RealmIdentity identity = securityRealm.getRealmIdentity(new NamePrincipal("user"));
+            blocking.set(true);
+            CompletableFuture<Boolean> exists = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return identity.exists();
+                } catch (RealmUnavailableException e) {
+                    throw new CompletionException(e);
+                }
+            });
+            assertTrue(blocked.await(10, TimeUnit.SECONDS));
+            identity.dispose();
+
+            // The executing statement is cancelled and the query is executed again on the calling thread.
+            assertTrue(exists.get(10, TimeUnit.SECONDS));
+            assertEquals(1, cancellations.get());
+            assertEquals(1, connections.get());
+        } finally {
+            queryExecutor.close();
+        }
+    }
+
+    private DataSource createDataSource() {
+        return proxy(DataSource.class, (proxy, method, args) -> {
+            if ("getConnection".equals(method.getName())) {
+                connections.incrementAndGet();
+                return createConnection();
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    private Connection createConnection() {
+        return proxy(Connection.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "prepareStatement":
+                    return createStatement();
+                case "close":
+                    return null;
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    private PreparedStatement createStatement() {
+        Map<Integer, Object> parameters = new HashMap<>();
+        return proxy(PreparedStatement.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "setString":
+                    parameters.put((Integer) args[0], args[1]);
+                    return null;
+                case "clearParameters":
+                    parameters.clear();
+                    return null;
+                case "executeQuery":
+                    if (blocking.compareAndSet(true, false)) {
+                        blocked.countDown();
+                        cancelled.await(10, TimeUnit.SECONDS);
+                        throw new SQLException("Query cancelled");
+                    }
+                    executions.incrementAndGet();
+                    return createResultSet("user".equals(parameters.get(1)) ? "user" : null);
+                case "cancel":
+                    cancellations.incrementAndGet();
+                    cancelled.countDown();
+                    return null;
+                case "setFetchSize":
+                case "setQueryTimeout":
+                case "close":
+                    return null;
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    private static ResultSet createResultSet(String name) throws SQLException {
+        RowSetMetaDataImpl metaData = new RowSetMetaDataImpl();
+        metaData.setColumnCount(1);
+        metaData.setColumnType(1, Types.VARCHAR);
+        metaData.setColumnName(1, "name");
+
+        CachedRowSet resultSet = RowSetProvider.newFactory().createCachedRowSet();
+        resultSet.setMetaData(metaData);
+        if (name != null) {
+            resultSet.moveToInsertRow();
+            resultSet.updateString(1, name);
+            resultSet.insertRow();
+            resultSet.moveToCurrentRow();
+        }
+        resultSet.beforeFirst();
+        return resultSet;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(JdbcQueryExecutorTestCase.class.getClassLoader(), new Class<?>[] { type }, handler);
+    }
+
+    /**
+     * A realm executing its query in the same way as the JDBC realm, the query is executed twice each time the existence
+     * of an identity is checked.
+     */
+    private static final class QueryingSecurityRealm implements SecurityRealm {
+
+        private final DataSource dataSource;
+
+        QueryingSecurityRealm(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        @Override
+        public RealmIdentity getRealmIdentity(Principal principal) throws RealmUnavailableException {
+            return new QueryingRealmIdentity(principal.getName());
+        }
+
+        @Override
+        public SupportLevel getCredentialAcquireSupport(Class<? extends Credential> credentialType, String algorithmName) throws RealmUnavailableException {
+            return SupportLevel.UNSUPPORTED;
+        }
+
+        @Override
+        public SupportLevel getEvidenceVerifySupport(Class<? extends Evidence> evidenceType, String algorithmName) throws RealmUnavailableException {
+            return SupportLevel.UNSUPPORTED;
+        }
+
+        private String query(String name) throws RealmUnavailableException {
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(SQL)) {
+                statement.setString(1, name);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    return resultSet.next() ? resultSet.getString(1) : null;
+                }
+            } catch (SQLException e) {
+                throw new RealmUnavailableException(e);
+            }
+        }
+
+        private final class QueryingRealmIdentity implements RealmIdentity {
+
+            private final String name;
+
+            QueryingRealmIdentity(String name) {
+                this.name = name;
+            }
+
+            @Override
+            public SupportLevel getCredentialAcquireSupport(Class<? extends Credential> credentialType, String algorithmName) throws RealmUnavailableException {
+                return SupportLevel.UNSUPPORTED;
+            }
+
+            @Override
+            public <C extends Credential> C getCredential(Class<C> credentialType) throws RealmUnavailableException {
+                return null;
+            }
+
+            @Override
+            public SupportLevel getEvidenceVerifySupport(Class<? extends Evidence> evidenceType, String algorithmName) throws RealmUnavailableException {
+                return SupportLevel.UNSUPPORTED;
+            }
+
+            @Override
+            public boolean verifyEvidence(Evidence evidence) throws RealmUnavailableException {
+                return false;
+            }
+
+            @Override
+            public boolean exists() throws RealmUnavailableException {
+                return name.equals(query(name)) && name.equals(query(name));
+            }
+
+            @Override
+            public AuthorizationIdentity getAuthorizationIdentity() throws RealmUnavailableException {
+                return AuthorizationIdentity.basicIdentity(Attributes.EMPTY);
+            }
+
+        }
+
+    }
+
+}
@@ -0,0 +1,233 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.extension.elytron;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.Provider;
+import java.security.Security;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.wildfly.security.WildFlyElytronProvider;
+import org.wildfly.security.auth.principal.NamePrincipal;
+import org.wildfly.security.auth.realm.FileSystemSecurityRealm;
+import org.wildfly.security.auth.server.ModifiableRealmIdentity;
+import org.wildfly.security.auth.server.RealmIdentity;
+import org.wildfly.security.auth.server.RealmUnavailableException;
+import org.wildfly.security.authz.MapAttributes;
+import org.wildfly.security.credential.PasswordCredential;
+import org.wildfly.security.evidence.PasswordGuessEvidence;
+import org.wildfly.security.password.PasswordFactory;
+import org.wildfly.security.password.interfaces.ClearPassword;
+import org.wildfly.security.password.spec.ClearPasswordSpec;
+
+/**
+ * Tests of the journal that can be placed in front of a filesystem realm.
+ */
+public class JournalingModifiableSecurityRealmTestCase {
+
+    private static final Provider PROVIDER = new WildFlyElytronProvider();
+
+    private Path directory;
+    private Path rootPath;
+    private Path journalPath;
+
+    @BeforeClass
+    public static void registerProvider() {
+        Security.addProvider(PROVIDER);
+    }
+
+    @AfterClass
+    public static void removeProvider() {
+        Security.removeProvider(PROVIDER.getName());
+    }
+
+    @Before
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("journal");
+        rootPath = directory.resolve("realm");
+        journalPath = directory.resolve("realm.journal");
+    }
+
+    @After
+    public void deleteDirectory() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Test
+    public void testModificationsDeferredUntilCompaction() throws Exception {
+        FileSystemSecurityRealm fileSystemRealm = new FileSystemSecurityRealm(rootPath, 2);
+        // A long interval so compaction only happens when requested by the test.
+        JournalingModifiableSecurityRealm realm = JournalingModifiableSecurityRealm.open(fileSystemRealm, journalPath, 600000);
+        try {
+            ModifiableRealmIdentity identity = realm.getRealmIdentityForUpdate(new NamePrincipal("user1"));
+            identity.create();
+            MapAttributes attributes = new MapAttributes();
+            attributes.addLast("Roles", "Admin");
+            identity.setAttributes(attributes);
+            attributes.addLast("Roles", "User");
+            identity.setAttributes(attributes);
+
+            Assert.assertTrue(identity.exists());
+            Assert.assertEquals(2, identity.getAuthorizationIdentity().getAttributes().get("Roles").size());
+            Assert.assertFalse(exists(fileSystemRealm, "user1"));
+            Assert.assertEquals(1, realm.getPendingCount());
+            Assert.assertTrue(Files.size(journalPath) > 0);
+
+            realm.compact();
+
+            Assert.assertEquals(0, realm.getPendingCount());
+            Assert.assertEquals(0, Files.size(journalPath));
+            Assert.assertTrue(exists(fileSystemRealm, "user1"));
+            RealmIdentity stored = fileSystemRealm.getRealmIdentity(new NamePrincipal("user1"));
+            Assert.assertEquals(2, stored.getAuthorizationIdentity().getAttributes().get("Roles").size());
+            stored.dispose();
+
+            identity.delete();
+            Assert.assertFalse(identity.exists());
+            Assert.assertTrue(exists(fileSystemRealm, "user1"));
+            realm.compact();
+            Assert.assertFalse(exists(fileSystemRealm, "user1"));
+        } finally {
+            realm.close();
+        }
+    }
+
+    @Test
+    public void testCredentialReadAppliesPendingModifications() throws Exception {
+        FileSystemSecurityRealm fileSystemRealm = new FileSystemSecurityRealm(rootPath, 2);
+        JournalingModifiableSecurityRealm realm = JournalingModifiableSecurityRealm.open(fileSystemRealm, journalPath, 600000);
+        try {
+            ModifiableRealmIdentity identity = realm.getRealmIdentityForUpdate(new NamePrincipal("user1"));
+            identity.create();
+            identity.setCredentials(Collections.singleton(createCredential("password1")));
+            Assert.assertEquals(1, realm.getPendingCount());
+
+            RealmIdentity realmIdentity = realm.getRealmIdentity(new NamePrincipal("user1"));
+            Assert.assertTrue(realmIdentity.verifyEvidence(new PasswordGuessEvidence("password1".toCharArray())));
+            realmIdentity.dispose();
+            Assert.assertEquals(0, realm.getPendingCount());
+        } finally {
+            realm.close();
+        }
+    }
+
+    @Test
+    public void testEvidenceLookupAppliesPendingModifications() throws Exception {
+        FileSystemSecurityRealm fileSystemRealm = new FileSystemSecurityRealm(rootPath, 2);
+        JournalingModifiableSecurityRealm realm = JournalingModifiableSecurityRealm.open(fileSystemRealm, journalPath, 600000);
+        try {
+            ModifiableRealmIdentity identity = realm.getRealmIdentityForUpdate(new NamePrincipal("user1"));
+            identity.create();
+            try {
+                identity.create();
+                Assert.fail("Expected the second create to be rejected");
+            } catch (RealmUnavailableException expected) {
+            }
+            Assert.assertEquals(1, realm.getPendingCount());
+
+            realm.getRealmIdentity(new PasswordGuessEvidence("password1".toCharArray())).dispose();
+            Assert.assertEquals(0, realm.getPendingCount());
+            Assert.assertTrue(exists(fileSystemRealm, "user1"));
+        } finally {
+            realm.close();
+        }
+    }
+
+    @Test
+    public void testJournalTruncatedOnceFlushed() throws Exception {
+        FileSystemSecurityRealm fileSystemRealm = new FileSystemSecurityRealm(rootPath, 2);
+        JournalingModifiableSecurityRealm realm = JournalingModifiableSecurityRealm.open(fileSystemRealm, journalPath, 600000);
+        try {
+            ModifiableRealmIdentity identity = realm.getRealmIdentityForUpdate(new NamePrincipal("user1"));
+            identity.create();
+            identity.setCredentials(Collections.singleton(createCredential("password1")));
+
+            // Obtaining the identity applies its pending modifications but leaves the records in the journal.
+            realm.getRealmIdentity(new NamePrincipal("user1")).dispose();
+            Assert.assertEquals(0, realm.getPendingCount());
+            Assert.assertTrue(Files.size(journalPath) > 0);
+
+            realm.compact();
+            Assert.assertEquals(0, Files.size(journalPath));
+        } finally {
+            realm.close();
+        }
+    }
+
+    @Test
+    public void testJournalReplayedOnOpen() throws Exception {
+        FileSystemSecurityRealm fileSystemRealm = new FileSystemSecurityRealm(rootPath, 2);
+        JournalingModifiableSecurityRealm realm = JournalingModifiableSecurityRealm.open(fileSystemRealm, journalPath, 600000);
+        ModifiableRealmIdentity identity = realm.getRealmIdentityForUpdate(new NamePrincipal("user1"));
+        identity.create();
+        identity.setCredentials(Collections.singleton(createCredential("password1")));
+        Path copy = directory.resolve("copy.journal");
+        // Retain the journal as it would be left if the process stopped before compacting.
+        Files.copy(journalPath, copy);
+        realm.close();
+
+        identity = fileSystemRealm.getRealmIdentityForUpdate(new NamePrincipal("user1"));
+        identity.delete();
+        identity.dispose();
+        Files.move(copy, journalPath, StandardCopyOption.REPLACE_EXISTING);
+        // Simulate a partially written final record.
+        Files.write(journalPath, "{\"op\" : \"del".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        realm = JournalingModifiableSecurityRealm.open(fileSystemRealm, journalPath, 600000);
+        try {
+            Assert.assertEquals(0, Files.size(journalPath));
+            RealmIdentity realmIdentity = fileSystemRealm.getRealmIdentity(new NamePrincipal("user1"));
+            Assert.assertTrue(realmIdentity.exists());
+            Assert.assertTrue(realmIdentity.verifyEvidence(new PasswordGuessEvidence("password1".toCharArray())));
+            realmIdentity.dispose();
+        } finally {
+            realm.close();
+        }
+    }
+
+    private static boolean exists(FileSystemSecurityRealm realm, String name) throws Exception {
+        RealmIdentity identity = realm.getRealmIdentity(new NamePrincipal(name));
+        try {
+            return identity.exists();
+        } finally {
+            identity.dispose();
+        }
+    }
+
+    private static PasswordCredential createCredential(String password) throws Exception {
+        PasswordFactory passwordFactory = PasswordFactory.getInstance(ClearPassword.ALGORITHM_CLEAR);
+        return new PasswordCredential(passwordFactory.generatePassword(new ClearPasswordSpec(password.toCharArray())));
+    }
+
+}
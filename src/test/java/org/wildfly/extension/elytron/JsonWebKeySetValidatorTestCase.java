@@ -0,0 +1,192 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.extension.elytron;
+
+import java.io.File;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.wildfly.security.evidence.BearerTokenEvidence;
+
+/**
+ * Tests of the validation of JWTs against a JSON Web Key Set loaded from a {@code file:} URL.
+ */
+public class JsonWebKeySetValidatorTestCase {
+
+    private final Map<String, KeyPair> keys = new LinkedHashMap<>();
+    // Keys published without a key id, the tokens they sign have no "kid" header.
+    private final Set<String> withoutKeyId = new HashSet<>();
+
+    private File keySetFile;
+    private JsonWebKeySetValidator validator;
+
+    @Before
+    public void createKeySet() throws Exception {
+        keySetFile = File.createTempFile("jwks", ".json");
+        addKey("key1");
+    }
+
+    @After
+    public void cleanUp() {
+        if (validator != null) {
+            validator.close();
+        }
+        keySetFile.delete();
+    }
+
+    private void addKeyWithoutKeyId(String name) throws Exception {
+        withoutKeyId.add(name);
+        addKey(name);
+    }
+
+    private void addKey(String keyId) throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        keys.put(keyId, generator.generateKeyPair());
+
+        StringBuilder keySet = new StringBuilder("{\"keys\":[");
+        for (Map.Entry<String, KeyPair> current : keys.entrySet()) {
+            RSAPublicKey publicKey = (RSAPublicKey) current.getValue().getPublic();
+            if (keySet.charAt(keySet.length() - 1) != '[') {
+                keySet.append(',');
+            }
+            keySet.append("{\"kty\":\"RSA\",\"use\":\"sig\",");
+            if (withoutKeyId.contains(current.getKey()) == false) {
+                keySet.append("\"kid\":\"").append(current.getKey()).append("\",");
+            }
+            keySet.append("\"n\":\"").append(encode(publicKey.getModulus()))
+                    .append("\",\"e\":\"").append(encode(publicKey.getPublicExponent())).append("\"}");
+        }
+        keySet.append("]}");
+        Files.write(keySetFile.toPath(), keySet.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String encode(BigInteger value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.toByteArray());
+    }
+
+    private String createToken(String keyId) throws Exception {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String content = encoder.encodeToString((withoutKeyId.contains(keyId) ? "{\"alg\":\"RS256\",\"typ\":\"JWT\"}"
+                        : "{\"alg\":\"RS256\",\"typ\":\"JWT\",\"kid\":\"" + keyId + "\"}").getBytes(StandardCharsets.UTF_8))
+                + "." + encoder.encodeToString(("{\"sub\":\"elytron\",\"exp\":" + (System.currentTimeMillis() / 1000 + 60) + "}").getBytes(StandardCharsets.UTF_8));
+
+        Signature signature = Signature.getInstance("SHA256withRSA");
+        signature.initSign(keys.get(keyId).getPrivate());
+        signature.update(content.getBytes(StandardCharsets.US_ASCII));
+        return content + "." + encoder.encodeToString(signature.sign());
+    }
+
+    @Test
+    public void testTokenValidatedByKeyId() throws Exception {
+        addKey("key2");
+        validator = JsonWebKeySetValidator.start(keySetFile.toURI().toURL(), null, null, 3600000, 0, null, 5000, 10000);
+
+        Assert.assertNotNull(validator.validate(new BearerTokenEvidence(createToken("key1"))));
+        Assert.assertNotNull(validator.validate(new BearerTokenEvidence(createToken("key2"))));
+
+        // A token signed by one key but claiming the id of another must be rejected.
+        String token = createToken("key1");
+        String otherKey = createToken("key2");
+        Assert.assertNull(validator.validate(new BearerTokenEvidence(otherKey.substring(0, otherKey.indexOf('.')) + token.substring(token.indexOf('.')))));
+    }
+
+    @Test
+    public void testTokenWithoutKeyIdTriedAgainstKeysWithoutKeyId() throws Exception {
+        addKeyWithoutKeyId("anonymous1");
+        addKeyWithoutKeyId("anonymous2");
+        validator = JsonWebKeySetValidator.start(keySetFile.toURI().toURL(), null, null, 3600000, 0, null, 5000, 10000);
+
+        Assert.assertNotNull(validator.validate(new BearerTokenEvidence(createToken("anonymous1"))));
+        Assert.assertNotNull(validator.validate(new BearerTokenEvidence(createToken("anonymous2"))));
+        Assert.assertNotNull(validator.validate(new BearerTokenEvidence(createToken("key1"))));
+    }
+
+    @Test
+    public void testMalformedHeaderRejected() throws Exception {
+        validator = JsonWebKeySetValidator.start(keySetFile.toURI().toURL(), null, null, 3600000, 0, null, 5000, 10000);
+
+        Assert.assertNull(validator.validate(new BearerTokenEvidence("not-base64!.payload.signature")));
+        String header = Base64.getUrlEncoder().withoutPadding().encodeToString("{\"kid\":".getBytes(StandardCharsets.UTF_8));
+        Assert.assertNull(validator.validate(new BearerTokenEvidence(header + ".payload.signature")));
+    }
+
+    @Test
+    public void testUnknownKeyIdTriggersRefresh() throws Exception {
+        validator = JsonWebKeySetValidator.start(keySetFile.toURI().toURL(), null, null, 3600000, 0, null, 5000, 10000);
+        // Waits for the initial load so the key set does not yet contain the key added below.
+        Assert.assertNotNull(validator.validate(new BearerTokenEvidence(createToken("key1"))));
+
+        addKey("key2");
+        BearerTokenEvidence evidence = new BearerTokenEvidence(createToken("key2"));
+        // The first request is rejected without waiting for the key set to be loaded.
+        Assert.assertNull(validator.validate(evidence));
+
+        long deadline = System.currentTimeMillis() + 10000;
+        while (validator.validate(evidence) == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertNotNull(validator.validate(evidence));
+    }
+
+    @Test
+    public void testRefreshRateLimited() throws Exception {
+        validator = JsonWebKeySetValidator.start(keySetFile.toURI().toURL(), null, null, 3600000, 3600000, null, 5000, 10000);
+        Assert.assertNotNull(validator.validate(new BearerTokenEvidence(createToken("key1"))));
+
+        addKey("key2");
+        BearerTokenEvidence evidence = new BearerTokenEvidence(createToken("key2"));
+        for (int i = 0; i < 10; i++) {
+            Assert.assertNull(validator.validate(evidence));
+            Thread.sleep(50);
+        }
+    }
+
+    @Test
+    public void testStartBoundedWhenKeySetUnavailable() throws Exception {
+        // The connection is accepted by the backlog but never answered.
+        try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            URL url = new URL("http", InetAddress.getLoopbackAddress().getHostAddress(), server.getLocalPort(), "/jwks");
+            long start = System.currentTimeMillis();
+            validator = JsonWebKeySetValidator.start(url, null, null, 3600000, 0, null, 200, 200);
+            // Starting does not wait for the key set, a validation waits for at most the sum of the timeouts.
+            Assert.assertTrue(System.currentTimeMillis() - start < 400);
+            Assert.assertNull(validator.validate(new BearerTokenEvidence(createToken("key1"))));
+            Assert.assertTrue(System.currentTimeMillis() - start < 5000);
+        }
+    }
+
+}
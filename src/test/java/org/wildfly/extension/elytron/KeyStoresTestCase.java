@@ -20,6 +20,8 @@ package org.wildfly.extension.elytron;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OUTCOME;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SUCCESS;
 
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -32,6 +34,9 @@ import java.security.cert.Certificate;
 import java.security.cert.X509Certificate;
 import java.util.List;
 
+import javax.net.ssl.KeyManager;
+import javax.net.ssl.X509KeyManager;
+
 import org.jboss.as.controller.client.helpers.ClientConstants;
 import org.jboss.as.controller.security.CredentialReference;
 import org.jboss.as.subsystem.test.AbstractSubsystemTest;
@@ -165,6 +170,115 @@ public class KeyStoresTestCase extends AbstractSubsystemTest {
         assertSuccess(services.executeOperation(operation));
     }
 
+    @Test
+    public void testKeystoreWatch() throws Exception {
+        Path resources = Paths.get(KeyStoresTestCase.class.getResource(".").toURI());
+        Path watched = resources.resolve("firefly-watched.keystore");
+        Files.copy(resources.resolve("firefly.keystore"), watched, java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+
+        ModelNode operation = new ModelNode(); // add keystore
+        operation.get(ClientConstants.OP_ADDR).add("subsystem","elytron").add("key-store", "WatchedKeyStore");
+        operation.get(ClientConstants.OP).set(ClientConstants.ADD);
+        operation.get(ElytronDescriptionConstants.PATH).set(watched.toString());
+        operation.get(ElytronDescriptionConstants.TYPE).set("JKS");
+        operation.get(ElytronDescriptionConstants.WATCH).set(true);
+        operation.get(CredentialReference.CREDENTIAL_REFERENCE).get(CredentialReference.CLEAR_TEXT).set("Elytron");
+        assertSuccess(services.executeOperation(operation));
+
+        ServiceName serviceName = Capabilities.KEY_STORE_RUNTIME_CAPABILITY.getCapabilityServiceName("WatchedKeyStore");
+        KeyStore keyStore = (KeyStore) services.getContainer().getService(serviceName).getValue();
+        Assert.assertTrue(keyStore.containsAlias("ca"));
+
+        // Rewrite the file outside of the management model without the CA certificate.
+        KeyStore updated = KeyStore.getInstance("JKS");
+        try (InputStream is = Files.newInputStream(watched)) {
+            updated.load(is, "Elytron".toCharArray());
+        }
+        updated.deleteEntry("ca");
+        try (OutputStream os = Files.newOutputStream(watched)) {
+            updated.store(os, "Elytron".toCharArray());
+        }
+
+        long deadline = System.currentTimeMillis() + 30000;
+        while (keyStore.containsAlias("ca") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        Assert.assertFalse("Change to watched file reloaded", keyStore.containsAlias("ca"));
+        Assert.assertTrue(keyStore.containsAlias("firefly"));
+
+        // A change to the file is not loaded over modifications which have not been stored.
+        KeyStoreService keyStoreService = (KeyStoreService) services.getContainer().getService(serviceName).getService();
+        keyStoreService.getModifiableValue().deleteEntry("firefly");
+        Files.copy(resources.resolve("firefly.keystore"), watched, java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+        Thread.sleep(3000);
+        Assert.assertFalse("Unstored modification discarded", keyStore.containsAlias("firefly"));
+        Assert.assertFalse("Change to watched file reloaded over unstored modification", keyStore.containsAlias("ca"));
+
+        operation = new ModelNode(); // remove keystore
+        operation.get(ClientConstants.OPERATION_HEADERS).get("allow-resource-service-restart").set(Boolean.TRUE);
+        operation.get(ClientConstants.OP_ADDR).add("subsystem","elytron").add("key-store","WatchedKeyStore");
+        operation.get(ClientConstants.OP).set(ClientConstants.REMOVE_OPERATION);
+        assertSuccess(services.executeOperation(operation));
+    }
+
+    @Test
+    public void testKeyManagersReinitialisedOnLoad() throws Exception {
+        Path resources = Paths.get(KeyStoresTestCase.class.getResource(".").toURI());
+        Path rotated = resources.resolve("firefly-rotated.keystore");
+        Files.copy(resources.resolve("firefly.keystore"), rotated, java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+
+        ModelNode operation = new ModelNode(); // add keystore
+        operation.get(ClientConstants.OP_ADDR).add("subsystem","elytron").add("key-store", "RotatedKeyStore");
+        operation.get(ClientConstants.OP).set(ClientConstants.ADD);
+        operation.get(ElytronDescriptionConstants.PATH).set(rotated.toString());
+        operation.get(ElytronDescriptionConstants.TYPE).set("JKS");
+        operation.get(CredentialReference.CREDENTIAL_REFERENCE).get(CredentialReference.CLEAR_TEXT).set("Elytron");
+        assertSuccess(services.executeOperation(operation));
+
+        operation = new ModelNode(); // add key managers
+        operation.get(ClientConstants.OP_ADDR).add("subsystem","elytron").add("key-managers", "RotatedKeyManager");
+        operation.get(ClientConstants.OP).set(ClientConstants.ADD);
+        operation.get(ElytronDescriptionConstants.ALGORITHM).set("SunX509");
+        operation.get(ElytronDescriptionConstants.KEY_STORE).set("RotatedKeyStore");
+        operation.get(CredentialReference.CREDENTIAL_REFERENCE).get(CredentialReference.CLEAR_TEXT).set("Elytron");
+        assertSuccess(services.executeOperation(operation));
+
+        ServiceName serviceName = Capabilities.KEY_MANAGERS_RUNTIME_CAPABILITY.getCapabilityServiceName("RotatedKeyManager");
+        KeyManager[] keyManagers = (KeyManager[]) services.getContainer().getService(serviceName).getValue();
+        X509KeyManager keyManager = (X509KeyManager) keyManagers[0];
+        Assert.assertNotNull(keyManager.getPrivateKey("firefly"));
+
+        // Rotate the file content so the key is no longer present and load it.
+        KeyStore updated = KeyStore.getInstance("JKS");
+        try (InputStream is = Files.newInputStream(rotated)) {
+            updated.load(is, "Elytron".toCharArray());
+        }
+        updated.deleteEntry("firefly");
+        try (OutputStream os = Files.newOutputStream(rotated)) {
+            updated.store(os, "Elytron".toCharArray());
+        }
+
+        operation = new ModelNode();
+        operation.get(ClientConstants.OP_ADDR).add("subsystem","elytron").add("key-store","RotatedKeyStore");
+        operation.get(ClientConstants.OP).set(ElytronDescriptionConstants.LOAD);
+        assertSuccess(services.executeOperation(operation));
+
+        Assert.assertSame(keyManagers, services.getContainer().getService(serviceName).getValue());
+        Assert.assertNull(keyManager.getPrivateKey("firefly"));
+
+        operation = new ModelNode(); // remove key managers
+        operation.get(ClientConstants.OPERATION_HEADERS).get("allow-resource-service-restart").set(Boolean.TRUE);
+        operation.get(ClientConstants.OP_ADDR).add("subsystem","elytron").add("key-managers","RotatedKeyManager");
+        operation.get(ClientConstants.OP).set(ClientConstants.REMOVE_OPERATION);
+        assertSuccess(services.executeOperation(operation));
+
+        operation = new ModelNode(); // remove keystore
+        operation.get(ClientConstants.OPERATION_HEADERS).get("allow-resource-service-restart").set(Boolean.TRUE);
+        operation.get(ClientConstants.OP_ADDR).add("subsystem","elytron").add("key-store","RotatedKeyStore");
+        operation.get(ClientConstants.OP).set(ClientConstants.REMOVE_OPERATION);
+        assertSuccess(services.executeOperation(operation));
+    }
+
     @Test
     public void testFilteringKeystoreService() throws Exception {
         ServiceName serviceName = Capabilities.KEY_STORE_RUNTIME_CAPABILITY.getCapabilityServiceName("FilteringKeyStore");
@@ -66,6 +66,57 @@ public class LdapTestCase extends AbstractSubsystemTest {
         dirContext.close();
     }
 
+    @Test
+    public void testDirContextBalanced() throws Exception {
+        ServiceName serviceNameDirContext = Capabilities.DIR_CONTEXT_RUNTIME_CAPABILITY.getCapabilityServiceName("DirContextBalanced");
+        ExceptionSupplier<DirContext, NamingException> dirContextSup = (ExceptionSupplier<DirContext, NamingException>) services.getContainer().getService(serviceNameDirContext).getValue();
+        // the first server is not running so each connection should fail over to one of the running servers
+        for (int i = 0; i < 6; i++) {
+            DirContext dirContext = dirContextSup.get();
+            Assert.assertNotNull(dirContext.getAttributes(""));
+            dirContext.close();
+        }
+    }
+
+    @Test
+    public void testDirContextPooled() throws Exception {
+        ServiceName serviceNameDirContext = Capabilities.DIR_CONTEXT_RUNTIME_CAPABILITY.getCapabilityServiceName("DirContextPooled");
+        ExceptionSupplier<DirContext, NamingException> dirContextSup = (ExceptionSupplier<DirContext, NamingException>) services.getContainer().getService(serviceNameDirContext).getValue();
+        DirContext first = dirContextSup.get();
+        DirContext second = dirContextSup.get();
+        Assert.assertNotNull(first.getAttributes(""));
+
+        ModelNode operation = new ModelNode();
+        operation.get(ClientConstants.OP_ADDR).add("subsystem", "elytron").add("dir-context", "DirContextPooled");
+        operation.get(ClientConstants.OP).set(ClientConstants.READ_ATTRIBUTE_OPERATION);
+        operation.get(ClientConstants.NAME).set(ElytronDescriptionConstants.ACTIVE_CONNECTIONS);
+        Assert.assertEquals(2, services.executeOperation(operation).get(ClientConstants.RESULT).asInt());
+
+        try {
+            dirContextSup.get();
+            Assert.fail("Expected the pool to be exhausted");
+        } catch (NamingException expected) {
+        }
+
+        first.close();
+        second.close();
+        operation.get(ClientConstants.NAME).set(ElytronDescriptionConstants.IDLE_CONNECTIONS);
+        Assert.assertEquals(2, services.executeOperation(operation).get(ClientConstants.RESULT).asInt());
+
+        // a closed context can not be used again and closing it again does not return it to the pool twice
+        try {
+            first.getAttributes("");
+            Assert.fail("Expected the closed context to be rejected");
+        } catch (NamingException expected) {
+        }
+        first.close();
+        Assert.assertEquals(2, services.executeOperation(operation).get(ClientConstants.RESULT).asInt());
+
+        // a returned connection is reused rather than a new one being established
+        dirContextSup.get().close();
+        Assert.assertEquals(2, services.executeOperation(operation).get(ClientConstants.RESULT).asInt());
+    }
+
     @Test
     public void testDirContextSsl() throws Exception {
         ServiceName serviceNameDirContext = Capabilities.DIR_CONTEXT_RUNTIME_CAPABILITY.getCapabilityServiceName("DirContextSsl");
@@ -130,6 +181,20 @@ public class LdapTestCase extends AbstractSubsystemTest {
         Assert.assertEquals("O=Root Certificate Authority, EMAILADDRESS=elytron@wildfly.org, C=UK, ST=Elytron, CN=Elytron CA", ((X509Certificate) chain[1]).getSubjectDN().getName());
     }
 
+    @Test
+    public void testLdapKeyStoreSnapshotService() throws Exception {
+        testLdapKeyStoreService("LdapKeyStoreSnapshot", "firefly");
+
+        ModelNode operation = new ModelNode();
+        operation.get(ClientConstants.OP_ADDR).add("subsystem", "elytron").add("ldap-key-store", "LdapKeyStoreSnapshot");
+        operation.get(ClientConstants.OP).set(ClientConstants.READ_ATTRIBUTE_OPERATION);
+        operation.get(ClientConstants.NAME).set(ElytronDescriptionConstants.LAST_REFRESH);
+        Assert.assertTrue(assertSuccess(services.executeOperation(operation)).get(ClientConstants.RESULT).isDefined());
+
+        operation.get(ClientConstants.NAME).set(ElytronDescriptionConstants.REFRESH_DURATION);
+        Assert.assertTrue(assertSuccess(services.executeOperation(operation)).get(ClientConstants.RESULT).asLong() >= 0);
+    }
+
     @Test
     public void testLdapKeyStoreMinimalCli() throws Exception {
         testLdapKeyStoreCli("LdapKeyStoreMinimal", "firefly");
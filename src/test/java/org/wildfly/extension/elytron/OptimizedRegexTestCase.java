@@ -0,0 +1,108 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.extension.elytron;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+import org.wildfly.security.auth.principal.NamePrincipal;
+import org.wildfly.security.auth.server.NameRewriter;
+import org.wildfly.security.auth.server.RealmMapper;
+
+/**
+ * Tests of the {@link OptimizedRegex}.
+ */
+public class OptimizedRegexTestCase {
+
+    private static final List<String> PATTERNS = Arrays.asList("^user-(.*)$", "(.*)@(.+)", ".*@example\\.com$", "^ab?c", "abc+$",
+            "^a\\.b[.]c", "x{2}y", "(?:ab)*cd", "^(a|b)cd", "a|b", "(?i)abc", "\\Qa.b\\E", "\\x41bc", "[a-c]x[^]y]z", "ab\\$$",
+            "^\\d+-[a-z]{2,}$", "\u00e9t\u00e9s?", "a\uD83D\uDE00?b", "a.b*c", "^$", "te(st)?ing$");
+
+    private static final List<String> NAMES = Arrays.asList("", "user-alice", "user-", "alice@example.com", "bob@other.org", "abc", "ac",
+            "abbbc", "xabcc", "a.b.c", "xxy", "xy", "ababcd", "cd", "acd", "bcd", "a", "b", "ABC", "a.b", "Abc", "bxqz", "ab$",
+            "123-ab", "123-a", "\u00e9t\u00e9", "\u00e9t\u00e9s", "ab", "a\uD83D\uDE00b", "aXbbc", "abc\n", "testing", "teing", "tesing\n", "user-bob\n");
+
+    @Test
+    public void testPrefilterNeverRejectsMatches() {
+        for (String regex : PATTERNS) {
+            Pattern pattern = Pattern.compile(regex);
+            OptimizedRegex optimized = OptimizedRegex.compile(pattern);
+            for (String name : NAMES) {
+                boolean found = pattern.matcher(name).find();
+                assertTrue(regex + " " + name, found == false || optimized.mayFind(name));
+                assertEquals(regex + " " + name, found, optimized.mayFind(name) && optimized.matcher(name).find());
+            }
+        }
+    }
+
+    @Test
+    public void testPrefilterRejectsNonMatches() {
+        assertFalse(OptimizedRegex.compile(Pattern.compile("^user-(.*)$")).mayFind("admin"));
+        assertFalse(OptimizedRegex.compile(Pattern.compile(".*@example\\.com$")).mayFind("alice@example.org"));
+        assertFalse(OptimizedRegex.compile(Pattern.compile("[0-9]+_suffix_[0-9]")).mayFind("12_other_3"));
+        assertTrue(OptimizedRegex.compile(Pattern.compile("a|b")).mayFind("c"));
+    }
+
+    @Test
+    public void testNameRewriter() {
+        NameRewriter first = OptimizedRegex.nameRewriter(Pattern.compile("^(.+)@example\\.com$"), "$1", false);
+        for (int i = 0; i < 2; i++) {
+            assertEquals("alice", first.rewriteName("alice@example.com"));
+            assertEquals("alice@example.org", first.rewriteName("alice@example.org"));
+        }
+
+        NameRewriter all = OptimizedRegex.nameRewriter(Pattern.compile("\\."), "-", true);
+        assertEquals("a-b-c", all.rewriteName("a.b.c"));
+        assertEquals("abc", all.rewriteName("abc"));
+    }
+
+    @Test
+    public void testNameValidatingRewriter() {
+        NameRewriter match = OptimizedRegex.nameValidatingRewriter(Pattern.compile("^user-"), true);
+        NameRewriter noMatch = OptimizedRegex.nameValidatingRewriter(Pattern.compile("^user-"), false);
+        for (int i = 0; i < 2; i++) {
+            assertEquals("user-alice", match.rewriteName("user-alice"));
+            assertNull(match.rewriteName("admin"));
+            assertNull(noMatch.rewriteName("user-alice"));
+            assertEquals("admin", noMatch.rewriteName("admin"));
+        }
+    }
+
+    @Test
+    public void testRealmMapper() {
+        RealmMapper delegate = (principal, evidence) -> "Delegate";
+        RealmMapper simple = OptimizedRegex.realmMapper(Pattern.compile(".*@(.+)$"), delegate, null);
+        RealmMapper mapped = OptimizedRegex.realmMapper(Pattern.compile(".*@(.+)$"), null, Collections.singletonMap("example.com", "Example"));
+        for (int i = 0; i < 2; i++) {
+            assertEquals("example.com", simple.getRealmMapping(new NamePrincipal("alice@example.com"), null));
+            assertEquals("Delegate", simple.getRealmMapping(new NamePrincipal("alice"), null));
+            assertEquals("Example", mapped.getRealmMapping(new NamePrincipal("alice@example.com"), null));
+            assertNull(mapped.getRealmMapping(new NamePrincipal("alice"), null));
+        }
+    }
+
+}
@@ -0,0 +1,133 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.extension.elytron;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+import org.junit.Test;
+import org.wildfly.security.authz.RoleMapper;
+import org.wildfly.security.authz.Roles;
+
+/**
+ * Tests of the {@link OptimizedRoleMapper}.
+ */
+public class OptimizedRoleMapperTestCase {
+
+    private static final List<Set<String>> INPUTS = Arrays.asList(Collections.emptySet(), set("a"), set("b", "c"),
+            set("a", "b", "c", "d"), set("x-a", "a-y", "c"), set("constant", "e", "f"));
+
+    @Test
+    public void testTenLevelTree() {
+        RoleMapper expected = tree(RoleMapper::and, RoleMapper::or, RoleMapper::minus, RoleMapper::xor,
+                s -> r -> r.addPrefix(s), s -> r -> r.addSuffix(s), c -> r -> Roles.fromSet(c));
+        RoleMapper optimized = tree(OptimizedRoleMapper::and, OptimizedRoleMapper::or, OptimizedRoleMapper::minus, OptimizedRoleMapper::xor,
+                OptimizedRoleMapper::addPrefix, OptimizedRoleMapper::addSuffix, OptimizedRoleMapper::constant);
+
+        for (Set<String> input : INPUTS) {
+            assertEquals(input.toString(), toSet(expected.mapRoles(Roles.fromSet(input))), toSet(optimized.mapRoles(Roles.fromSet(input))));
+            // A second call is served from the cache.
+            assertEquals(input.toString(), toSet(expected.mapRoles(Roles.fromSet(input))), toSet(optimized.mapRoles(Roles.fromSet(input))));
+        }
+    }
+
+    @Test
+    public void testResultsMemoized() {
+        RoleMapper mapper = OptimizedRoleMapper.or(OptimizedRoleMapper.addPrefix("p-"), OptimizedRoleMapper.constant(set("c")));
+
+        Roles first = mapper.mapRoles(Roles.fromSet(set("a", "b")));
+        assertEquals(set("p-a", "p-b", "c"), toSet(first));
+        assertSame(first, mapper.mapRoles(Roles.fromSet(set("b", "a"))));
+        assertNotSame(first, mapper.mapRoles(Roles.fromSet(set("a"))));
+    }
+
+    @Test
+    public void testConstantsFolded() {
+        RoleMapper mapper = OptimizedRoleMapper.minus(OptimizedRoleMapper.or(OptimizedRoleMapper.constant(set("a", "b")),
+                OptimizedRoleMapper.constant(set("c"))), OptimizedRoleMapper.constant(set("b")));
+
+        Roles roles = mapper.mapRoles(Roles.fromSet(set("x")));
+        assertEquals(set("a", "c"), toSet(roles));
+        assertSame(roles, mapper.mapRoles(Roles.fromSet(set("y"))));
+    }
+
+    @Test
+    public void testOtherMappersNotMemoized() {
+        AtomicInteger calls = new AtomicInteger();
+        RoleMapper custom = r -> {
+            calls.incrementAndGet();
+            return r.addSuffix("-custom");
+        };
+        RoleMapper mapper = OptimizedRoleMapper.or(RoleMapper.IDENTITY_ROLE_MAPPER, custom);
+
+        assertEquals(set("a", "a-custom"), toSet(mapper.mapRoles(Roles.fromSet(set("a")))));
+        assertEquals(set("a", "a-custom"), toSet(mapper.mapRoles(Roles.fromSet(set("a")))));
+        assertEquals(2, calls.get());
+    }
+
+    /**
+     * Build a tree of logical role mappers nested ten levels deep mixing every operation with the leaf mappers.
+     */
+    private static RoleMapper tree(BinaryOperator<RoleMapper> and, BinaryOperator<RoleMapper> or, BinaryOperator<RoleMapper> minus,
+            BinaryOperator<RoleMapper> xor, Function<String, RoleMapper> prefix, Function<String, RoleMapper> suffix,
+            Function<Set<String>, RoleMapper> constant) {
+        RoleMapper current = RoleMapper.IDENTITY_ROLE_MAPPER;
+        for (int level = 0; level < 10; level++) {
+            switch (level % 5) {
+                case 0:
+                    current = or.apply(current, prefix.apply("x-"));
+                    break;
+                case 1:
+                    current = or.apply(current, suffix.apply("-y"));
+                    break;
+                case 2:
+                    current = minus.apply(current, constant.apply(set("b", "x-b")));
+                    break;
+                case 3:
+                    current = xor.apply(current, or.apply(constant.apply(set("constant", "c")), RoleMapper.IDENTITY_ROLE_MAPPER));
+                    break;
+                default:
+                    current = or.apply(and.apply(current, or.apply(RoleMapper.IDENTITY_ROLE_MAPPER, constant.apply(set("constant")))),
+                            suffix.apply("-z"));
+            }
+        }
+        return current;
+    }
+
+    private static Set<String> set(String... roles) {
+        return new HashSet<>(Arrays.asList(roles));
+    }
+
+    private static Set<String> toSet(Roles roles) {
+        Set<String> result = new HashSet<>();
+        roles.forEach(result::add);
+        return result;
+    }
+
+}
@@ -17,8 +17,10 @@
  */
 package org.wildfly.extension.elytron;
 
+import org.jboss.as.controller.client.helpers.ClientConstants;
 import org.jboss.as.subsystem.test.AbstractSubsystemBaseTest;
 import org.jboss.as.subsystem.test.KernelServices;
+import org.jboss.dmr.ModelNode;
 import org.jboss.msc.service.ServiceName;
 import org.junit.Assert;
 import org.junit.Test;
@@ -29,6 +31,7 @@ import org.wildfly.security.auth.server.RealmIdentity;
 import org.wildfly.security.auth.server.SecurityRealm;
 import org.wildfly.security.credential.Credential;
 import org.wildfly.security.credential.PasswordCredential;
+import org.wildfly.security.evidence.BearerTokenEvidence;
 import org.wildfly.security.evidence.PasswordGuessEvidence;
 import org.wildfly.security.password.PasswordFactory;
 import org.wildfly.security.password.interfaces.ClearPassword;
@@ -36,9 +39,15 @@ import org.wildfly.security.password.interfaces.OneTimePassword;
 import org.wildfly.security.password.spec.ClearPasswordSpec;
 import org.wildfly.security.password.spec.OneTimePasswordSpec;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.security.Principal;
 import java.security.spec.KeySpec;
+import java.util.Base64;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -78,6 +87,45 @@ public class RealmsTestCase extends AbstractSubsystemBaseTest {
         Assert.assertArrayEquals(new Object[]{"firstGroup","secondGroup"}, groups);
     }
 
+    @Test
+    public void testPropertyRealmReload() throws Exception {
+        KernelServices services = super.createKernelServicesBuilder(new TestEnvironment()).setSubsystemXmlResource("realms-test.xml").build();
+        if (!services.isSuccessfulBoot()) {
+            Assert.fail(services.getBootError().toString());
+        }
+
+        File usersFile = new File("target/test-classes/org/wildfly/extension/elytron/users-watched.properties");
+        Files.copy(new File("target/test-classes/org/wildfly/extension/elytron/users-hashed.properties").toPath(), usersFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        try {
+            ModelNode operation = new ModelNode();
+            operation.get(ClientConstants.OP_ADDR).add("subsystem", "elytron").add(ElytronDescriptionConstants.PROPERTIES_REALM, "WatchedPropertyRealm");
+            operation.get(ClientConstants.OP).set(ClientConstants.ADD);
+            operation.get(ElytronDescriptionConstants.USERS_PROPERTIES).get(ElytronDescriptionConstants.PATH).set(usersFile.getAbsolutePath());
+            operation.get(ElytronDescriptionConstants.WATCH).set(true);
+            ModelNode result = services.executeOperation(operation);
+            Assert.assertEquals(result.toString(), ClientConstants.SUCCESS, result.get(ClientConstants.OUTCOME).asString());
+
+            Assert.assertEquals(4, readRealmAttribute(services, ElytronDescriptionConstants.PROPERTIES_REALM, "WatchedPropertyRealm", ElytronDescriptionConstants.USER_COUNT).asInt());
+            Assert.assertEquals(0, readRealmAttribute(services, ElytronDescriptionConstants.PROPERTIES_REALM, "WatchedPropertyRealm", ElytronDescriptionConstants.GROUP_ENTRY_COUNT).asInt());
+            Assert.assertTrue(readRealmAttribute(services, ElytronDescriptionConstants.PROPERTIES_REALM, "WatchedPropertyRealm", ElytronDescriptionConstants.LAST_LOAD_DURATION).asLong() >= 0);
+
+            Files.write(usersFile.toPath(), "user3=6f1af1e2b5ddc6ad2cfa1ed5b9fa1a7a\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+            long deadline = System.currentTimeMillis() + 10000;
+            while (readRealmAttribute(services, ElytronDescriptionConstants.PROPERTIES_REALM, "WatchedPropertyRealm", ElytronDescriptionConstants.USER_COUNT).asInt() != 5
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            Assert.assertEquals(5, readRealmAttribute(services, ElytronDescriptionConstants.PROPERTIES_REALM, "WatchedPropertyRealm", ElytronDescriptionConstants.USER_COUNT).asInt());
+
+            ServiceName serviceName = Capabilities.SECURITY_REALM_RUNTIME_CAPABILITY.getCapabilityServiceName("WatchedPropertyRealm");
+            SecurityRealm securityRealm = (SecurityRealm) services.getContainer().getService(serviceName).getValue();
+            Assert.assertTrue(securityRealm.getRealmIdentity(fromName("user3")).exists());
+            testAbstractPropertyRealm(securityRealm);
+        } finally {
+            usersFile.delete();
+        }
+    }
+
     private void testAbstractPropertyRealm(SecurityRealm securityRealm) throws Exception {
         Assert.assertNotNull(securityRealm);
 
@@ -133,6 +181,50 @@ public class RealmsTestCase extends AbstractSubsystemBaseTest {
         Assert.assertNotNull(securityRealm);
     }
 
+    @Test
+    public void testJwtRealmCache() throws Exception {
+        KernelServices services = super.createKernelServicesBuilder(new TestEnvironment()).setSubsystemXmlResource("realms-test.xml").build();
+        if (!services.isSuccessfulBoot()) {
+            Assert.fail(services.getBootError().toString());
+        }
+
+        ServiceName serviceName = Capabilities.SECURITY_REALM_RUNTIME_CAPABILITY.getCapabilityServiceName("CachedJwtRealm");
+        SecurityRealm securityRealm = (SecurityRealm) services.getContainer().getService(serviceName).getValue();
+        Assert.assertNotNull(securityRealm);
+
+        long expiry = System.currentTimeMillis() / 1000 + 60;
+        String token = createToken("{\"sub\":\"elytron\",\"exp\":" + expiry + "}");
+        RealmIdentity identity = securityRealm.getRealmIdentity(new BearerTokenEvidence(token));
+        Assert.assertTrue(identity.exists());
+        Assert.assertEquals("elytron", identity.getRealmIdentityPrincipal().getName());
+        Assert.assertSame(identity, securityRealm.getRealmIdentity(new BearerTokenEvidence(token)));
+
+        String expiredToken = createToken("{\"sub\":\"elytron\",\"exp\":" + (expiry - 120) + "}");
+        Assert.assertFalse(securityRealm.getRealmIdentity(new BearerTokenEvidence(expiredToken)).exists());
+        Assert.assertFalse(securityRealm.getRealmIdentity(new BearerTokenEvidence(expiredToken)).exists());
+
+        Assert.assertEquals(1, readRealmAttribute(services, ElytronDescriptionConstants.TOKEN_REALM, "CachedJwtRealm", ElytronDescriptionConstants.CACHE_SIZE).asInt());
+        Assert.assertEquals(1, readRealmAttribute(services, ElytronDescriptionConstants.TOKEN_REALM, "CachedJwtRealm", ElytronDescriptionConstants.CACHE_HITS).asLong());
+        Assert.assertEquals(3, readRealmAttribute(services, ElytronDescriptionConstants.TOKEN_REALM, "CachedJwtRealm", ElytronDescriptionConstants.CACHE_MISSES).asLong());
+    }
+
+    private static String createToken(String claims) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString("{\"alg\":\"RS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8)) + "."
+                + encoder.encodeToString(claims.getBytes(StandardCharsets.UTF_8)) + "."
+                + encoder.encodeToString("signature".getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static ModelNode readRealmAttribute(KernelServices services, String realmType, String realmName, String attributeName) {
+        ModelNode operation = new ModelNode();
+        operation.get(ClientConstants.OP_ADDR).add("subsystem", "elytron").add(realmType, realmName);
+        operation.get(ClientConstants.OP).set(ClientConstants.READ_ATTRIBUTE_OPERATION);
+        operation.get(ClientConstants.NAME).set(attributeName);
+        ModelNode result = services.executeOperation(operation);
+        Assert.assertEquals(result.toString(), ClientConstants.SUCCESS, result.get(ClientConstants.OUTCOME).asString());
+        return result.get(ClientConstants.RESULT);
+    }
+
     @Test
     public void testOAuth2Realm() throws Exception {
         KernelServices services = super.createKernelServicesBuilder(new TestEnvironment()).setSubsystemXmlResource("realms-test.xml").build();
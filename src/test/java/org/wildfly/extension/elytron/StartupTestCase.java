@@ -0,0 +1,187 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.extension.elytron;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ATTRIBUTES;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OPERATION_REQUIRES_RELOAD;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.READ_RESOURCE_DESCRIPTION_OPERATION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.RESPONSE_HEADERS;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.RESTART_REQUIRED;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.VALUE;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.WRITE_ATTRIBUTE_OPERATION;
+
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.security.Provider;
+import java.security.Security;
+
+import org.jboss.as.controller.client.helpers.ClientConstants;
+import org.jboss.as.subsystem.test.AbstractSubsystemTest;
+import org.jboss.as.subsystem.test.KernelServices;
+import org.jboss.dmr.ModelNode;
+import org.jboss.msc.service.ServiceController;
+import org.jboss.msc.service.ServiceController.Mode;
+import org.jboss.msc.service.ServiceController.State;
+import org.jboss.msc.service.ServiceName;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.wildfly.security.WildFlyElytronProvider;
+
+/**
+ * Tests of the on-demand activation of the services of the subsystem and the reporting of their start times.
+ */
+public class StartupTestCase extends AbstractSubsystemTest {
+
+    private static final String START_TIME_KEY = ElytronDescriptionConstants.KEY_STORE + "=ElytronCaTruststore";
+
+    private static final Provider wildFlyElytronProvider = new WildFlyElytronProvider();
+    private static CredentialStoreUtility csUtil = null;
+
+    private KernelServices services = null;
+
+    public StartupTestCase() {
+        super(ElytronExtension.SUBSYSTEM_NAME, new ElytronExtension());
+    }
+
+    @BeforeClass
+    public static void initTests() {
+        AccessController.doPrivileged(new PrivilegedAction<Integer>() {
+            public Integer run() {
+                return Security.insertProviderAt(wildFlyElytronProvider, 1);
+            }
+        });
+        csUtil = new CredentialStoreUtility("target/startuptest.keystore", "super_secret");
+        csUtil.addEntry("the-key-alias", "Elytron");
+    }
+
+    @AfterClass
+    public static void cleanUpTests() {
+        csUtil.cleanUp();
+        AccessController.doPrivileged(new PrivilegedAction<Void>() {
+            public Void run() {
+                Security.removeProvider(wildFlyElytronProvider.getName());
+
+                return null;
+            }
+        });
+    }
+
+    @Before
+    public void init() throws Exception {
+        services = super.createKernelServicesBuilder(new TestEnvironment()).setSubsystemXmlResource("startup-test.xml").build();
+        if (!services.isSuccessfulBoot()) {
+            Assert.fail(services.getBootError().toString());
+        }
+    }
+
+    @Test
+    public void testOnDemandKeyStore() throws Exception {
+        ServiceName serviceName = Capabilities.KEY_STORE_RUNTIME_CAPABILITY.getCapabilityServiceName("ElytronCaTruststore");
+        ServiceController<?> controller = services.getContainer().getRequiredService(serviceName);
+        Assert.assertEquals(Mode.ON_DEMAND, controller.getMode());
+        Assert.assertNotEquals(State.UP, controller.getState());
+        Assert.assertFalse(readStartTimes().has(START_TIME_KEY));
+
+        // Demanding the service is enough to start it, the key store is loaded on the startup pool.
+        controller.setMode(Mode.ACTIVE);
+        services.getContainer().awaitStability();
+        Assert.assertEquals(State.UP, controller.getState());
+        Assert.assertTrue(readStartTimes().get(START_TIME_KEY).asLong() >= 0);
+    }
+
+    @Test
+    public void testRuntimeOperationsStartOnDemandServices() throws Exception {
+        ServiceName keyStoreName = Capabilities.KEY_STORE_RUNTIME_CAPABILITY.getCapabilityServiceName("ElytronCaTruststore");
+        ServiceName credentialStoreName = Capabilities.CREDENTIAL_STORE_CLIENT_RUNTIME_CAPABILITY.getCapabilityServiceName("test");
+        Assert.assertNotEquals(State.UP, services.getContainer().getRequiredService(keyStoreName).getState());
+        Assert.assertNotEquals(State.UP, services.getContainer().getRequiredService(credentialStoreName).getState());
+
+        // An operation needing the service starts it rather than failing as the service is not up.
+        ModelNode operation = new ModelNode();
+        operation.get(ClientConstants.OP_ADDR).add("subsystem", "elytron").add(ElytronDescriptionConstants.KEY_STORE, "ElytronCaTruststore");
+        operation.get(ClientConstants.OP).set(ElytronDescriptionConstants.LOAD);
+        assertSuccess(services.executeOperation(operation));
+        Assert.assertEquals(State.UP, services.getContainer().getRequiredService(keyStoreName).getState());
+        Assert.assertEquals(Mode.ACTIVE, services.getContainer().getRequiredService(keyStoreName).getMode());
+
+        operation = new ModelNode();
+        operation.get(ClientConstants.OP_ADDR).add("subsystem", "elytron").add(ElytronDescriptionConstants.CREDENTIAL_STORE, "test");
+        operation.get(ClientConstants.OP).set(ElytronDescriptionConstants.RELOAD);
+        assertSuccess(services.executeOperation(operation));
+        Assert.assertEquals(State.UP, services.getContainer().getRequiredService(credentialStoreName).getState());
+    }
+
+    @Test
+    public void testMetricReadDoesNotStartOnDemandService() throws Exception {
+        ServiceName sslContextName = Capabilities.SSL_CONTEXT_RUNTIME_CAPABILITY.getCapabilityServiceName("client");
+        ServiceName keyStoreName = Capabilities.KEY_STORE_RUNTIME_CAPABILITY.getCapabilityServiceName("ElytronCaTruststore");
+        Assert.assertNotEquals(State.UP, services.getContainer().getRequiredService(sslContextName).getState());
+
+        // A metric of a service which is not up is left undefined rather than starting the service.
+        ModelNode operation = new ModelNode();
+        operation.get(ClientConstants.OP_ADDR).add("subsystem", "elytron").add(ElytronDescriptionConstants.CLIENT_SSL_CONTEXT, "client");
+        operation.get(ClientConstants.OP).set(ClientConstants.READ_ATTRIBUTE_OPERATION);
+        operation.get(ClientConstants.NAME).set(ElytronDescriptionConstants.ACTIVE_SESSION_COUNT);
+        Assert.assertFalse(assertSuccess(services.executeOperation(operation)).get(ClientConstants.RESULT).isDefined());
+
+        Assert.assertEquals(Mode.ON_DEMAND, services.getContainer().getRequiredService(sslContextName).getMode());
+        Assert.assertNotEquals(State.UP, services.getContainer().getRequiredService(sslContextName).getState());
+        Assert.assertNotEquals(State.UP, services.getContainer().getRequiredService(keyStoreName).getState());
+    }
+
+    @Test
+    public void testActivationRequiresReload() throws Exception {
+        ModelNode operation = new ModelNode();
+        operation.get(ClientConstants.OP_ADDR).add("subsystem", "elytron");
+        operation.get(ClientConstants.OP).set(READ_RESOURCE_DESCRIPTION_OPERATION);
+        ModelNode description = assertSuccess(services.executeOperation(operation)).get(ClientConstants.RESULT);
+        Assert.assertEquals("all-services", description.get(ATTRIBUTES, ElytronDescriptionConstants.ACTIVATION, RESTART_REQUIRED).asString());
+
+        // The policy applies as services are installed so a change is only applied by a reload.
+        operation = new ModelNode();
+        operation.get(ClientConstants.OP_ADDR).add("subsystem", "elytron");
+        operation.get(ClientConstants.OP).set(WRITE_ATTRIBUTE_OPERATION);
+        operation.get(ClientConstants.NAME).set(ElytronDescriptionConstants.ACTIVATION);
+        operation.get(VALUE).set(ElytronDescriptionConstants.EAGER);
+        ModelNode result = assertSuccess(services.executeOperation(operation));
+        Assert.assertTrue(result.get(RESPONSE_HEADERS, OPERATION_REQUIRES_RELOAD).asBoolean());
+
+        ServiceName serviceName = Capabilities.KEY_STORE_RUNTIME_CAPABILITY.getCapabilityServiceName("ElytronCaTruststore");
+        Assert.assertEquals(Mode.ON_DEMAND, services.getContainer().getRequiredService(serviceName).getMode());
+    }
+
+    private static ModelNode assertSuccess(ModelNode response) {
+        Assert.assertEquals(response.toString(), ClientConstants.SUCCESS, response.get(ClientConstants.OUTCOME).asString());
+        return response;
+    }
+
+    private ModelNode readStartTimes() {
+        ModelNode operation = new ModelNode();
+        operation.get(ClientConstants.OP_ADDR).add("subsystem", "elytron");
+        operation.get(ClientConstants.OP).set(ClientConstants.READ_ATTRIBUTE_OPERATION);
+        operation.get(ClientConstants.NAME).set(ElytronDescriptionConstants.START_TIMES);
+        ModelNode result = services.executeOperation(operation);
+        Assert.assertEquals(result.toString(), ClientConstants.SUCCESS, result.get(ClientConstants.OUTCOME).asString());
+        return result.get(ClientConstants.RESULT);
+    }
+
+}
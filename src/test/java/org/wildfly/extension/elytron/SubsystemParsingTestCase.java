@@ -69,6 +69,11 @@ public class SubsystemParsingTestCase extends AbstractSubsystemBaseTest {
         standardSubsystemTest("mappers.xml");
     }
 
+    @Test
+    public void testParseAndMarshalModel_CompiledMappers() throws Exception {
+        standardSubsystemTest("compiled-mappers.xml");
+    }
+
     @Test
     public void testParseAndMarshalModel_Http() throws Exception {
         standardSubsystemTest("http.xml");
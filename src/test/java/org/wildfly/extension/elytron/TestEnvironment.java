@@ -34,6 +34,7 @@ import java.nio.file.attribute.BasicFileAttributes;
 class TestEnvironment extends AdditionalInitialization {
 
     static final int LDAP_PORT = 11391;
+    static final int LDAP_REPLICA_PORT = 11392;
 
     @Override
     protected ControllerInitializer createControllerInitializer() {
@@ -65,6 +66,7 @@ class TestEnvironment extends AdditionalInitialization {
                     .importLdif(TestEnvironment.class.getResourceAsStream("ldap-schemas.ldif"))
                     .importLdif(TestEnvironment.class.getResourceAsStream("ldap-data.ldif"))
                     .addTcpServer("Default TCP", "localhost", LDAP_PORT, "localhost.keystore", "Elytron")
+                    .addTcpServer("Replica TCP", "localhost", LDAP_REPLICA_PORT, "localhost.keystore", "Elytron")
                     .start();
         } catch (Exception e) {
             throw new RuntimeException("Could not start LDAP embedded server.", e);
@@ -19,6 +19,7 @@ package org.wildfly.extension.elytron;
 
 import java.net.InetSocketAddress;
 import java.net.ServerSocket;
+import java.nio.ByteBuffer;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.security.Provider;
@@ -30,6 +31,8 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 
 import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult.HandshakeStatus;
 import javax.net.ssl.SSLHandshakeException;
 import javax.net.ssl.SSLSocket;
 
@@ -112,6 +115,91 @@ public class TlsTestCase extends AbstractSubsystemTest {
         testCommunication("ServerSslContextAuth", "ClientSslContextNoAuth", "OU=Elytron,O=Elytron,C=UK,ST=Elytron,CN=Firefly", "");
     }
 
+    @Test
+    public void testSessionCacheWrittenWithoutRestart() throws Throwable {
+        SSLContext serverContext = getSslContext("ServerSslContextNoAuth");
+
+        ModelNode operation = new ModelNode();
+        operation.get(ClientConstants.OP_ADDR).add("subsystem", "elytron").add(ElytronDescriptionConstants.SERVER_SSL_CONTEXT, "ServerSslContextNoAuth");
+        operation.get(ClientConstants.OP).set(ClientConstants.WRITE_ATTRIBUTE_OPERATION);
+        operation.get(ClientConstants.NAME).set(ElytronDescriptionConstants.SESSION_TIMEOUT);
+        operation.get(ClientConstants.VALUE).set(600);
+        Assert.assertEquals(ClientConstants.SUCCESS, services.executeOperation(operation).get(ClientConstants.OUTCOME).asString());
+
+        Assert.assertSame(serverContext, getSslContext("ServerSslContextNoAuth"));
+        Assert.assertEquals(600, serverContext.getServerSessionContext().getSessionTimeout());
+    }
+
+    @Test
+    public void testHandshakeStatistics() throws Throwable {
+        SSLEngine serverEngine = getSslContext("ServerSslContextStatistics").createSSLEngine();
+        SSLEngine clientEngine = getSslContext("ClientSslContextStatistics").createSSLEngine("localhost", TESTING_PORT);
+
+        int packetBufferSize = Math.max(serverEngine.getSession().getPacketBufferSize(), clientEngine.getSession().getPacketBufferSize());
+        int applicationBufferSize = Math.max(serverEngine.getSession().getApplicationBufferSize(), clientEngine.getSession().getApplicationBufferSize());
+        ByteBuffer clientToServer = ByteBuffer.allocate(packetBufferSize * 4);
+        ByteBuffer serverToClient = ByteBuffer.allocate(packetBufferSize * 4);
+        ByteBuffer application = ByteBuffer.allocate(applicationBufferSize);
+
+        clientEngine.beginHandshake();
+        serverEngine.beginHandshake();
+        for (int i = 0; clientEngine.getHandshakeStatus() != HandshakeStatus.NOT_HANDSHAKING
+                || serverEngine.getHandshakeStatus() != HandshakeStatus.NOT_HANDSHAKING; i++) {
+            Assert.assertTrue("handshake did not complete", i < 100);
+            handshakeStep(clientEngine, serverToClient, clientToServer, application);
+            handshakeStep(serverEngine, clientToServer, serverToClient, application);
+        }
+
+        Assert.assertEquals(1, readAttribute(ElytronDescriptionConstants.SERVER_SSL_CONTEXT, "ServerSslContextStatistics", ElytronDescriptionConstants.FULL_HANDSHAKES).asLong());
+        Assert.assertEquals(0, readAttribute(ElytronDescriptionConstants.SERVER_SSL_CONTEXT, "ServerSslContextStatistics", ElytronDescriptionConstants.RESUMED_HANDSHAKES).asLong());
+        Assert.assertEquals(1, readAttribute(ElytronDescriptionConstants.CLIENT_SSL_CONTEXT, "ClientSslContextStatistics", ElytronDescriptionConstants.FULL_HANDSHAKES).asLong());
+
+        ModelNode latency = readAttribute(ElytronDescriptionConstants.SERVER_SSL_CONTEXT, "ServerSslContextStatistics", ElytronDescriptionConstants.HANDSHAKE_LATENCY);
+        long latencyCount = 0;
+        for (String bucket : latency.keys()) {
+            latencyCount += latency.get(bucket).asLong();
+        }
+        Assert.assertEquals(1, latencyCount);
+
+        ModelNode protocols = readAttribute(ElytronDescriptionConstants.SERVER_SSL_CONTEXT, "ServerSslContextStatistics", ElytronDescriptionConstants.NEGOTIATED_PROTOCOLS);
+        Assert.assertEquals(1, protocols.get(serverEngine.getSession().getProtocol()).asLong());
+        ModelNode cipherSuites = readAttribute(ElytronDescriptionConstants.SERVER_SSL_CONTEXT, "ServerSslContextStatistics", ElytronDescriptionConstants.NEGOTIATED_CIPHER_SUITES);
+        Assert.assertEquals(1, cipherSuites.get(serverEngine.getSession().getCipherSuite()).asLong());
+        Assert.assertEquals(0, readAttribute(ElytronDescriptionConstants.SERVER_SSL_CONTEXT, "ServerSslContextStatistics", ElytronDescriptionConstants.FAILED_HANDSHAKES).keys().size());
+    }
+
+    private static void handshakeStep(SSLEngine engine, ByteBuffer in, ByteBuffer out, ByteBuffer application) throws Exception {
+        switch (engine.getHandshakeStatus()) {
+            case NEED_TASK:
+                Runnable task;
+                while ((task = engine.getDelegatedTask()) != null) {
+                    task.run();
+                }
+                break;
+            case NEED_WRAP:
+                engine.wrap(ByteBuffer.allocate(0), out);
+                break;
+            case NEED_UNWRAP:
+                in.flip();
+                engine.unwrap(in, application);
+                in.compact();
+                application.clear();
+                break;
+            default:
+                break;
+        }
+    }
+
+    private ModelNode readAttribute(String resourceType, String name, String attribute) {
+        ModelNode operation = new ModelNode();
+        operation.get(ClientConstants.OP_ADDR).add("subsystem", "elytron").add(resourceType, name);
+        operation.get(ClientConstants.OP).set(ClientConstants.READ_ATTRIBUTE_OPERATION);
+        operation.get(ClientConstants.NAME).set(attribute);
+        ModelNode result = services.executeOperation(operation);
+        Assert.assertEquals(result.toString(), ClientConstants.SUCCESS, result.get(ClientConstants.OUTCOME).asString());
+        return result.get(ClientConstants.RESULT);
+    }
+
     private SSLContext getSslContext(String contextName) {
         ServiceName serviceName = Capabilities.SSL_CONTEXT_RUNTIME_CAPABILITY.getCapabilityServiceName(contextName);
         SSLContext sslContext = (SSLContext) services.getContainer().getService(serviceName).getValue();